@@ -32,16 +32,11 @@ import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.AssetAddedData;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.AccountDataTask;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.PriceDataTask;
-import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step1Task;
-import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step2Task;
-import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step3Task;
-import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.Step4Task;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.gui.tabs.values.DataSetCreator;
-import net.nikr.eve.jeveasset.io.local.ProfileReader;
-import net.nikr.eve.jeveasset.io.local.ProfileWriter;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
 
 
@@ -67,14 +62,11 @@ public class BackgroundUpdate {
 		Date date = Settings.getNow();
 		for (Profile profile : profileManager.getProfiles()) {
 			profileManager.clear();
-			ProfileReader.load(profileManager, profile.getFilename());
+			profileManager.loadProfile(profile);
 			ProfileData profileData = new ProfileData(profileManager);
 			profileData.updateEventLists();
 			List<UpdateTask> updateTasks = new ArrayList<>();
-			updateTasks.add(new Step1Task(profileManager));
-			updateTasks.add(new Step2Task(profileManager, true, true, true, true, true, true, true, true, true, true));
-			updateTasks.add(new Step3Task(profileManager, true, true));
-			updateTasks.add(new Step4Task(profileManager, true));
+			updateTasks.add(new AccountDataTask(profileManager, true, true, true, true, true, true, true, true, true, true));
 			updateTasks.add(new PriceDataTask(priceDataGetter, profileData, false));
 			for (UpdateTask updateTask : updateTasks) {
 				updateTask.addPropertyChangeListener(new PropertyChangeListener() {
@@ -89,7 +81,7 @@ public class BackgroundUpdate {
 			profileData.updateEventLists();
 			DataSetCreator.createTrackerDataPoint(profileData, date);
 			TrackerData.save("Added", true);
-			ProfileWriter.save(profileManager, profile.getFilename());
+			profileManager.saveProfile(profile);
 			Settings.saveSettings();
 			count++;
 			SplashUpdater.setProgress( (int)(count * 100.0 / profileManager.getProfiles().size()));
@@ -27,7 +27,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.lang.reflect.InvocationTargetException;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +61,7 @@ import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
 import net.nikr.eve.jeveasset.data.settings.AssetAddedData;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
 import net.nikr.eve.jeveasset.data.settings.tag.TagUpdate;
 import net.nikr.eve.jeveasset.gui.dialogs.AboutDialog;
@@ -68,6 +71,7 @@ import net.nikr.eve.jeveasset.gui.dialogs.settings.SettingsDialog;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserLocationSettingsPanel;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserNameSettingsPanel;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserPriceSettingsPanel;
+import net.nikr.eve.jeveasset.gui.dialogs.update.AutoUpdater;
 import net.nikr.eve.jeveasset.gui.dialogs.update.StructureUpdateDialog;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog;
 import net.nikr.eve.jeveasset.gui.frame.MainMenu.MainMenuAction;
@@ -78,6 +82,7 @@ import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.Updatable;
 import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
 import net.nikr.eve.jeveasset.gui.shared.components.JMainTab;
+import net.nikr.eve.jeveasset.gui.shared.components.JTextDialog;
 import net.nikr.eve.jeveasset.gui.tabs.assets.AssetsTab;
 import net.nikr.eve.jeveasset.gui.tabs.contracts.ContractsTab;
 import net.nikr.eve.jeveasset.gui.tabs.items.ItemsTab;
@@ -93,6 +98,7 @@ import net.nikr.eve.jeveasset.gui.tabs.stockpile.StockpileTab;
 import net.nikr.eve.jeveasset.gui.tabs.tracker.TrackerTab;
 import net.nikr.eve.jeveasset.gui.tabs.transaction.TransactionTab;
 import net.nikr.eve.jeveasset.gui.tabs.tree.TreeTab;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.gui.tabs.values.DataSetCreator;
 import net.nikr.eve.jeveasset.gui.tabs.values.ValueRetroTab;
 import net.nikr.eve.jeveasset.gui.tabs.values.ValueTableTab;
@@ -101,6 +107,8 @@ import net.nikr.eve.jeveasset.i18n.GuiShared;
 import net.nikr.eve.jeveasset.data.settings.ContractPriceManager;
 import net.nikr.eve.jeveasset.gui.tabs.jobs.IndustrySlotsTab;
 import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserOutput;
+import net.nikr.eve.jeveasset.io.esi.EsiCache;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
 import net.nikr.eve.jeveasset.io.online.Updater;
 import net.nikr.eve.jeveasset.io.shared.DesktopUtil;
@@ -133,6 +141,9 @@ public class Program implements ActionListener {
 	//GUI
 	private MainWindow mainWindow;
 
+	//Settings
+	private final SaveSettings settingsSaver = new SaveSettings(this);
+
 	//Dialogs
 	private AccountManagerDialog accountManagerDialog;
 	private AboutDialog aboutDialog;
@@ -165,6 +176,7 @@ public class Program implements ActionListener {
 	private Updater updater;
 	private Timer timer;
 	private Updatable updatable;
+	private AutoUpdater autoUpdater;
 
 	private final Map<String, JMainTab> jMainTabs = new HashMap<>();
 
@@ -215,6 +227,8 @@ public class Program implements ActionListener {
 		timer.setActionCommand(ProgramAction.TIMER.name());
 	//Updatable
 		updatable = new Updatable(this);
+	//Auto Update
+		autoUpdater = new AutoUpdater(this);
 	//GUI
 		SplashUpdater.setText("Loading GUI");
 		LOG.info("GUI Loading:");
@@ -317,6 +331,8 @@ public class Program implements ActionListener {
 		SplashUpdater.hide();
 		//Start timer
 		timerTicked();
+		//Start background update
+		autoUpdater.start();
 		LOG.info("Startup Done");
 		if (debug) {
 			LOG.info("Show Debug Warning");
@@ -671,14 +687,26 @@ public class Program implements ActionListener {
 	 * @param msg Who is saving what?
 	 */
 	public void saveSettings(final String msg) {
-		if (!lazySave && !Settings.ignoreSave()) {
-			Settings.saveStart();
-			Thread thread = new SaveSettings(msg, this);
-			thread.start();
+		saveSettings(msg, SettingsSection.all());
+	}
+
+	/**
+	 * Save Settings ASAP
+	 * Table and window settings are always saved
+	 * @param msg Who is saving what?
+	 * @param sections Changed settings
+	 */
+	public void saveSettings(final String msg, final SettingsSection ... sections) {
+		saveSettings(msg, SettingsSection.changed(sections));
+	}
+
+	private void saveSettings(final String msg, final Set<SettingsSection> sections) {
+		if (!lazySave) {
+			settingsSaver.save(msg, sections);
 		}
 	}
 
-	private void doSaveSettings(final String msg) {
+	private void doSaveSettings(final String msg, final Set<SettingsSection> sections) {
 		LOG.info("Saving Settings: " + msg);
 		Settings.lock("Table (Column/Width/Resize) and Window Settings"); //Lock for Table (Column/Width/Resize) and Window Settings
 		mainWindow.updateSettings();
@@ -686,14 +714,15 @@ public class Program implements ActionListener {
 			jMainTab.saveSettings();
 		}
 		Settings.unlock("Table (Column/Width/Resize) and Window Settings"); //Unlock for Table (Column/Width/Resize) and Window Settings
-		Settings.saveSettings();
+		Settings.saveSettings(sections);
 	}
 
 	public void saveSettingsAndProfile() {
 		if (lazySave) {
-			doSaveSettings("API Update");
+			doSaveSettings("API Update", SettingsSection.all());
 		} else {
 			saveSettings("API Update");
+			settingsSaver.flush();
 			Settings.waitForEmptySaveQueue();
 		}
 		saveProfile();
@@ -724,10 +753,12 @@ public class Program implements ActionListener {
 	 * Used by macOsxCode() - should not be renamed
 	 */
 	public void saveExit() {
+		autoUpdater.stop();
 		if (lazySave) {
-			doSaveSettings("Exit");
+			doSaveSettings("Exit", SettingsSection.all());
 		} else {
 			LOG.info("Waiting for save queue to finish...");
+			settingsSaver.flush();
 			Settings.waitForEmptySaveQueue();
 		}
 		TrackerData.waitForEmptySaveQueue();
@@ -878,6 +909,30 @@ public class Program implements ActionListener {
 	public PriceDataGetter getPriceDataGetter() {
 		return priceDataGetter;
 	}
+	public AutoUpdater getAutoUpdater() {
+		return autoUpdater;
+	}
+	/**
+	 * Update and save the data after an update (by the update dialog or the auto updater).
+	 * Structure updates must be paused by the caller before the update is started, they are resumed here
+	 */
+	public void updateCompleted() {
+		//Log ESI cache stats
+		EsiCache.logCacheStats();
+		//Save ESI request metrics
+		EsiMetrics.save();
+		//Update tracker locations
+		AssetValue.updateData();
+		//Update eventlists
+		updateEventLists();
+		//Create value tracker point
+		createTrackerDataPoint();
+		//Save settings after updating (if we crash later)
+		saveSettingsAndProfile(); //Save updated id<->name data
+		//Resume structure update
+		getStatusPanel().setPauseUpdates(false);
+	}
+
 	public void createTrackerDataPoint() {
 		DataSetCreator.createTrackerDataPoint(profileData, Settings.getNow());
 		TrackerData.save("Added", true);
@@ -1032,6 +1087,9 @@ public class Program implements ActionListener {
 			showAbout();
 		} else if (MainMenuAction.SEND_BUG_REPORT.name().equals(e.getActionCommand())) {
 			DesktopUtil.browse("https://github.com/GoldenGnu/jeveassets/issues/new", this);
+		} else if (MainMenuAction.ESI_DIAGNOSTICS.name().equals(e.getActionCommand())) {
+			JTextDialog jTextDialog = new JTextDialog(getMainWindow().getFrame());
+			jTextDialog.exportText(EsiMetrics.getReport());
 		} else if (MainMenuAction.README.name().equals(e.getActionCommand())) { //External Files
 			DesktopUtil.open(FileUtil.getPathReadme(), this);
 		} else if (MainMenuAction.LICENSE.name().equals(e.getActionCommand())) {
@@ -1053,51 +1111,94 @@ public class Program implements ActionListener {
 		}
 	}
 
+	/**
+	 * Saves settings on a single thread.
+	 * Saves requested close together are done as one save
+	 */
 	private static class SaveSettings extends Thread {
 
-		private static int counter = 0;
+		private static final long DELAY = 500; //Wait for more changes
+		private static final long MAX_DELAY = 5000; //Never wait longer than this after the first request
 
-		private final String msg;
 		private final Program program;
-		private final int id;
-
-		public SaveSettings(String msg, Program program) {
-			super("Save Settings " + counter++ + ": " + msg);
-			this.msg = msg;
+		private final Set<String> msgs = new LinkedHashSet<>();
+		private final Set<SettingsSection> sections = EnumSet.noneOf(SettingsSection.class);
+		private long first = 0;
+		private long last = 0;
+		private boolean flush = false;
+
+		public SaveSettings(Program program) {
+			super("Save Settings");
 			this.program = program;
-			this.id = counter;
+			setDaemon(true);
 		}
 
-		@Override
-		public void run() {
-			long before = System.currentTimeMillis();
-
-			program.doSaveSettings(msg);
-
-			Settings.saveEnd();
-
-			long after = System.currentTimeMillis();
-
-			LOG.debug("Settings saved in: " + (after - before) + "ms");
+		public synchronized void save(String msg, Set<SettingsSection> changed) {
+			if (getState() == State.NEW) {
+				start();
+			}
+			long now = System.currentTimeMillis();
+			if (msgs.isEmpty()) {
+				Settings.saveStart(); //Ended after the save
+				first = now;
+			}
+			msgs.add(msg);
+			sections.addAll(changed);
+			last = now;
+			notifyAll();
 		}
 
-		@Override
-		public int hashCode() {
-			int hash = 7;
-			hash = 67 * hash + this.id;
-			return hash;
+		/**
+		 * Save queued changes now
+		 */
+		public synchronized void flush() {
+			flush = true;
+			notifyAll();
 		}
 
 		@Override
-		public boolean equals(Object obj) {
-			if (obj == null) {
-				return false;
+		public void run() {
+			while (true) {
+				String msg;
+				Set<SettingsSection> changed;
+				synchronized (this) {
+					while (true) {
+						if (msgs.isEmpty()) {
+							flush = false;
+							waitFor(0);
+							continue;
+						}
+						long delay = Math.min(last + DELAY, first + MAX_DELAY) - System.currentTimeMillis();
+						if (flush || delay <= 0) {
+							break;
+						}
+						waitFor(delay);
+					}
+					msg = String.join(", ", msgs);
+					changed = EnumSet.copyOf(sections);
+					msgs.clear();
+					sections.clear();
+					flush = false;
+				}
+				long before = System.currentTimeMillis();
+				try {
+					program.doSaveSettings(msg, changed);
+				} catch (RuntimeException ex) {
+					LOG.error("Settings not saved: " + ex.getMessage(), ex);
+				} finally {
+					Settings.saveEnd();
+				}
+				long after = System.currentTimeMillis();
+				LOG.debug("Settings saved in: " + (after - before) + "ms");
 			}
-			if (getClass() != obj.getClass()) {
-				return false;
+		}
+
+		private void waitFor(long timeout) {
+			try {
+				wait(timeout);
+			} catch (InterruptedException ex) {
+				//No problem
 			}
-			final SaveSettings other = (SaveSettings) obj;
-			return this.id == other.id;
 		}
 	}
 }
@@ -92,6 +92,26 @@ public class Profile implements Comparable<Profile> {
 		return new File(getFilenameNoExtension() + ".xml");
 	}
 
+	public String getBinaryFilename() {
+		return getFilenameNoExtension() + ".dat";
+	}
+
+	public File getBinaryFile() {
+		return new File(getFilenameNoExtension() + ".dat");
+	}
+
+	public String getHistoryFilename() {
+		return getFilenameNoExtension() + "_history.db";
+	}
+
+	public File getHistoryFile() {
+		return new File(getFilenameNoExtension() + "_history.db");
+	}
+
+	public File getHistoryBackupFile() {
+		return new File(getFilenameNoExtension() + "_history.bac");
+	}
+
 	private String getFilenameNoExtension() {
 		String filename = getName();
 		filename = filename.replace(" ", "_");
@@ -110,9 +130,15 @@ public class Profile implements Comparable<Profile> {
 		if (this.defaultProfile != defaultProfile) {
 			File from = getFile();
 			File backFrom = getBackupFile();
+			File binaryFrom = getBinaryFile();
+			File historyFrom = getHistoryFile();
+			File historyBackFrom = getHistoryBackupFile();
 			this.defaultProfile = defaultProfile;
 			File to = getFile();
 			File backTo = getBackupFile();
+			File binaryTo = getBinaryFile();
+			File historyTo = getHistoryFile();
+			File historyBackTo = getHistoryBackupFile();
 			if (!from.equals(to)
 							&& !from.renameTo(to)) {
 				LOG.warn("Failed to rename profile: {}", this.getName());
@@ -121,21 +147,48 @@ public class Profile implements Comparable<Profile> {
 							&& !backFrom.renameTo(backTo)) {
 				LOG.warn("Failed to rename profile backup: {}", this.getName());
 			}
+			if (binaryFrom.exists() && !binaryFrom.equals(binaryTo)
+							&& !binaryFrom.renameTo(binaryTo)) {
+				LOG.warn("Failed to rename binary profile: {}", this.getName());
+			}
+			if (historyFrom.exists() && !historyFrom.equals(historyTo)
+							&& !historyFrom.renameTo(historyTo)) {
+				LOG.warn("Failed to rename profile history: {}", this.getName());
+			}
+			if (historyBackFrom.exists() && !historyBackFrom.equals(historyBackTo)
+							&& !historyBackFrom.renameTo(historyBackTo)) {
+				LOG.warn("Failed to rename profile history backup: {}", this.getName());
+			}
 		}
 	}
 
 	public void setName(final String name) {
 		File from = getFile();
 		File backFrom = getBackupFile();
+		File binaryFrom = getBinaryFile();
+		File historyFrom = getHistoryFile();
+		File historyBackFrom = getHistoryBackupFile();
 		this.name = name;
 		File to = getFile();
 		File backTo = getBackupFile();
+		File binaryTo = getBinaryFile();
+		File historyTo = getHistoryFile();
+		File historyBackTo = getHistoryBackupFile();
 		if (!from.equals(to)) {
 			from.renameTo(to);
 		}
 		if (!backFrom.equals(backTo)) {
 			backFrom.renameTo(backTo);
 		}
+		if (!binaryFrom.equals(binaryTo)) {
+			binaryFrom.renameTo(binaryTo);
+		}
+		if (!historyFrom.equals(historyTo)) {
+			historyFrom.renameTo(historyTo);
+		}
+		if (!historyBackFrom.equals(historyBackTo)) {
+			historyBackFrom.renameTo(historyBackTo);
+		}
 	}
 
 	@Override
@@ -21,6 +21,7 @@
 package net.nikr.eve.jeveasset.data.profile;
 
 import java.awt.Component;
+import java.io.File;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,7 +30,11 @@ import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.data.api.accounts.EveKitOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.i18n.GuiShared;
+import net.nikr.eve.jeveasset.io.local.ProfileBinaryReader;
+import net.nikr.eve.jeveasset.io.local.ProfileBinaryWriter;
+import net.nikr.eve.jeveasset.io.local.ProfileHistory;
 import net.nikr.eve.jeveasset.io.local.ProfileReader;
 import net.nikr.eve.jeveasset.io.local.ProfileWriter;
 import net.nikr.eve.jeveasset.io.local.ProfileFinder;
@@ -40,6 +45,7 @@ import org.slf4j.LoggerFactory;
 public class ProfileManager {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ProfileManager.class);
+	private static final long XML_BACKUP_INTERVAL = 60 * 60 * 1000L; //1 hour
 
 	private final List<EveApiAccount> accounts = new ArrayList<EveApiAccount>();
 	private final List<EveKitOwner> eveKitOwners = new ArrayList<EveKitOwner>();
@@ -78,7 +84,45 @@ public class ProfileManager {
 	}
 
 	public void saveProfile() {
-		ProfileWriter.save(this, activeProfile.getFilename());
+		ProfileHistory.save(getOwnerTypes(), activeProfile.getHistoryFilename()); //Must be saved before the profile
+		saveProfile(activeProfile);
+	}
+
+	/**
+	 * Save the profile.
+	 * With the binary profile enabled, the xml profile is only written as a backup (once per XML_BACKUP_INTERVAL),
+	 * or if the binary profile could not be saved.
+	 * The binary profile stays valid as long as the xml profile is unchanged.
+	 * @param profile
+	 */
+	public void saveProfile(final Profile profile) {
+		boolean binary = Settings.get().isBinaryProfile();
+		File xmlFile = profile.getFile();
+		boolean xml = !binary || !xmlFile.exists() || System.currentTimeMillis() - xmlFile.lastModified() > XML_BACKUP_INTERVAL;
+		if (xml && !ProfileWriter.save(this, profile.getFilename())) {
+			return;
+		}
+		if (binary && !ProfileBinaryWriter.save(this, profile.getBinaryFilename(), xmlFile) && !xml) {
+			ProfileWriter.save(this, profile.getFilename()); //Binary profile not saved: keep the xml profile up to date
+		}
+	}
+
+	/**
+	 * Load the profile.
+	 * The binary profile is loaded if it is valid (even if disabled, as the xml profile may be older),
+	 * the xml profile otherwise.
+	 * @param profile
+	 * @return true if loaded
+	 */
+	public boolean loadProfile(final Profile profile) {
+		if (ProfileBinaryReader.load(this, profile.getBinaryFilename(), profile.getFile())) {
+			return true;
+		}
+		boolean loaded = ProfileReader.load(this, profile.getFilename());
+		if (loaded && Settings.get().isBinaryProfile()) {
+			ProfileBinaryWriter.save(this, profile.getBinaryFilename(), profile.getFile()); //Import the xml profile
+		}
+		return loaded;
 	}
 
 	public List<EveApiAccount> getAccounts() {
@@ -107,7 +151,9 @@ public class ProfileManager {
 	//Load Profile
 		LOG.info("Loading profile: {}", activeProfile.getName());
 		clear();
-		profileLoadError = !ProfileReader.load(this, activeProfile.getFilename()); //Assets (Must be loaded before the price data)
+		//Assets (Must be loaded before the price data)
+		profileLoadError = !loadProfile(activeProfile);
+		ProfileHistory.load(getOwnerTypes(), activeProfile.getHistoryFilename());
 		SplashUpdater.setProgress(40);
 	//Price data (update as needed)
 		SplashUpdater.setProgress(45);
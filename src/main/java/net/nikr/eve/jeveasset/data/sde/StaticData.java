@@ -25,12 +25,16 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.io.local.FlagsReader;
 import net.nikr.eve.jeveasset.io.local.ItemsReader;
 import net.nikr.eve.jeveasset.io.local.JumpsReader;
 import net.nikr.eve.jeveasset.io.local.LocationsReader;
+import net.nikr.eve.jeveasset.io.local.StaticDataCache;
+import net.nikr.eve.jeveasset.io.shared.TaskGraph;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
 
 
 public class StaticData {
@@ -59,21 +63,78 @@ public class StaticData {
 
 	private void loadData() {
 		SplashUpdater.setProgress(5);
-		ItemsReader.load(items); //Items
+		ItemsReader.loadUpdates(items); //Items Updates
 		SplashUpdater.setProgress(10);
+		Map<Integer, Item> staticItems = new HashMap<>();
 		try {
 			LOCATIONS_LOCK.writeLock().lock();
-			LocationsReader.load(locations); //Locations
+			if (!StaticDataCache.load(staticItems, locations, jumps, flags)) {
+				if (loadXml(staticItems)) {
+					StaticDataCache.save(staticItems, locations, jumps, flags);
+				}
+			}
 		} finally {
 			LOCATIONS_LOCK.writeLock().unlock();
 		}
-		SplashUpdater.setProgress(15);
-		JumpsReader.load(jumps); //Jumps
 		SplashUpdater.setProgress(20);
-		FlagsReader.load(flags); //Item Flags
+		//Items (replace items updates)
+		for (Item item : staticItems.values()) {
+			if (item.isBlueprint() && !staticItems.containsKey(item.getProductTypeID())) {
+				Item product = items.get(item.getProductTypeID());
+				if (product != null) {
+					product.setBlueprintID(item.getTypeID());
+				}
+			}
+		}
+		items.putAll(staticItems);
 		SplashUpdater.setProgress(25);
 	}
 
+	/**
+	 * Load the xml files in parallel.
+	 * Jumps are loaded after locations, as jumps are between locations
+	 * @param staticItems
+	 * @return true if all files was loaded
+	 */
+	private boolean loadXml(final Map<Integer, Item> staticItems) {
+		final AtomicBoolean loaded = new AtomicBoolean(true);
+		TaskGraph graph = new TaskGraph();
+		graph.add(new Runnable() {
+			@Override
+			public void run() {
+				if (!ItemsReader.load(staticItems)) { //Items
+					loaded.set(false);
+				}
+			}
+		});
+		Runnable locationsTask = graph.add(new Runnable() {
+			@Override
+			public void run() {
+				if (!LocationsReader.load(locations)) { //Locations
+					loaded.set(false);
+				}
+			}
+		});
+		graph.add(new Runnable() {
+			@Override
+			public void run() {
+				if (!JumpsReader.load(jumps, locations)) { //Jumps
+					loaded.set(false);
+				}
+			}
+		}, locationsTask);
+		graph.add(new Runnable() {
+			@Override
+			public void run() {
+				if (!FlagsReader.load(flags)) { //Item Flags
+					loaded.set(false);
+				}
+			}
+		});
+		ThreadWoker.start(null, graph, false);
+		return loaded.get();
+	}
+
 	public Map<Integer, ItemFlag> getItemFlags() {
 		return flags;
 	}
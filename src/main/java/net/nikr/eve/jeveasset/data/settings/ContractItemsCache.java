@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.io.local.ContractItemsReader;
+import net.nikr.eve.jeveasset.io.local.ContractItemsWriter;
+
+/**
+ * Contract items by contractID saved to disk.
+ * The items of a contract never change, so each contract only needs to be fetched once (shared by all owners).
+ */
+public class ContractItemsCache {
+
+	private static volatile ContractItemsCache CACHE = null;
+
+	private final ContractItemsData data;
+	private boolean changed = false;
+
+	public static ContractItemsCache get() {
+		ContractItemsCache cache = ContractItemsCache.CACHE;
+		if (cache == null) {
+			synchronized (ContractItemsCache.class) {
+				cache = ContractItemsCache.CACHE;
+				if (cache == null) {
+					ContractItemsCache.CACHE = cache = new ContractItemsCache();
+				}
+			}
+		}
+		return cache;
+	}
+
+	private ContractItemsCache() {
+		data = ContractItemsReader.load();
+	}
+
+	/**
+	 * Save to disk (if anything was added since last save)
+	 */
+	public void save() {
+		synchronized (data) {
+			if (changed) {
+				ContractItemsWriter.save(data);
+				changed = false;
+			}
+		}
+	}
+
+	/**
+	 * Get contract items
+	 * @param contractID
+	 * @return the items or null if the contract items have never been fetched
+	 */
+	public List<RawContractItem> get(Integer contractID) {
+		synchronized (data) {
+			return data.contracts.get(contractID);
+		}
+	}
+
+	public void put(Integer contractID, Collection<RawContractItem> items) {
+		synchronized (data) {
+			data.contracts.put(contractID, new ArrayList<>(items));
+			changed = true;
+		}
+	}
+
+	/**
+	 * Remove all contracts not in contractIDs
+	 * @param contractIDs contracts to keep
+	 */
+	public void retain(Set<Integer> contractIDs) {
+		synchronized (data) {
+			if (data.contracts.keySet().retainAll(contractIDs)) {
+				changed = true;
+			}
+		}
+	}
+
+	public static class ContractItemsData {
+		private final Map<Integer, List<RawContractItem>> contracts = new HashMap<>();
+	}
+}
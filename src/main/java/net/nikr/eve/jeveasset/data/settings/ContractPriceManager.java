@@ -25,11 +25,11 @@ import eve.nikr.net.client.model.Prices;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
 import net.nikr.eve.jeveasset.data.settings.types.BlueprintType;
 import net.nikr.eve.jeveasset.i18n.DataContractPrices;
@@ -122,18 +122,53 @@ public class ContractPriceManager {
 		return contractPriceData.getDate();
 	}
 
+	/**
+	 * Lookups (table rendering) are lock free, so they never wait for the updater
+	 */
 	public static class ContractPriceData {
-		private Date date = Settings.getNow();
-		private final Map<ContractPriceItem, Prices> prices = new HashMap<>();
-		private final Map<ContractPriceItem, Date> failed = new HashMap<>();
+		private volatile Date date = Settings.getNow();
+		private final ConcurrentHashMap<ContractPriceItem, Prices> prices = new ConcurrentHashMap<>();
+		private final ConcurrentHashMap<ContractPriceItem, Date> failed = new ConcurrentHashMap<>();
+
+		public ContractPriceData() { }
+
+		/**
+		 * Create from loaded data. Null keys and values are dropped (not allowed in the concurrent maps)
+		 * @param date
+		 * @param prices
+		 * @param failed
+		 */
+		public ContractPriceData(Date date, Map<ContractPriceItem, Prices> prices, Map<ContractPriceItem, Date> failed) {
+			if (date != null) {
+				this.date = date;
+			}
+			putAll(this.prices, prices);
+			putAll(this.failed, failed);
+		}
+
+		private static <V> void putAll(Map<ContractPriceItem, V> to, Map<ContractPriceItem, V> from) {
+			if (from == null) {
+				return;
+			}
+			for (Map.Entry<ContractPriceItem, V> entry : from.entrySet()) {
+				if (entry.getKey() != null && entry.getValue() != null) {
+					to.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
 
-		public synchronized Date getDate() {
+		public Date getDate() {
 			return date;
 		}
 
 		public synchronized void add(ReturnData returnData) {
 			if (returnData.isEmpty()) {
-				failed.put(returnData.getContractPriceType(), returnData.getExpire());
+				Date expire = returnData.getExpire();
+				if (expire != null) {
+					failed.put(returnData.getContractPriceType(), expire);
+				} else {
+					failed.remove(returnData.getContractPriceType()); //No expire: not failed (null values not allowed)
+				}
 			} else {
 				prices.put(returnData.getContractPriceType(), returnData.getPrices());
 				failed.remove(returnData.getContractPriceType());
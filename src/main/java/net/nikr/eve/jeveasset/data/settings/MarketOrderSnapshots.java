@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
+import net.nikr.eve.jeveasset.io.local.MarketOrderSnapshotsReader;
+import net.nikr.eve.jeveasset.io.local.MarketOrderSnapshotsWriter;
+
+/**
+ * Public market orders per region saved to disk.
+ * Only the orders used by the outbid calculation are kept (the typeIDs of our own orders).
+ */
+public class MarketOrderSnapshots {
+
+	private static volatile MarketOrderSnapshots SNAPSHOTS = null;
+
+	private final MarketOrderSnapshotsData data;
+
+	public static MarketOrderSnapshots get() {
+		MarketOrderSnapshots snapshots = MarketOrderSnapshots.SNAPSHOTS;
+		if (snapshots == null) {
+			synchronized (MarketOrderSnapshots.class) {
+				snapshots = MarketOrderSnapshots.SNAPSHOTS;
+				if (snapshots == null) {
+					MarketOrderSnapshots.SNAPSHOTS = snapshots = new MarketOrderSnapshots();
+				}
+			}
+		}
+		return snapshots;
+	}
+
+	private MarketOrderSnapshots() {
+		data = MarketOrderSnapshotsReader.load();
+	}
+
+	public void save() {
+		synchronized (data) {
+			MarketOrderSnapshotsWriter.save(data);
+		}
+	}
+
+	/**
+	 * Get region snapshot
+	 * @param regionID
+	 * @param typeIDs typeIDs that must be included in the snapshot
+	 * @return the snapshot or null if there is no snapshot including all the typeIDs
+	 */
+	public RegionSnapshot get(Integer regionID, Collection<Integer> typeIDs) {
+		synchronized (data) {
+			RegionSnapshot snapshot = data.regions.get(regionID);
+			if (snapshot == null || !snapshot.typeIDs.containsAll(typeIDs)) {
+				return null;
+			}
+			return snapshot;
+		}
+	}
+
+	public void put(Integer regionID, RegionSnapshot snapshot) {
+		synchronized (data) {
+			data.regions.put(regionID, snapshot);
+		}
+	}
+
+	/**
+	 * Remove regions and orders that are no longer used by any owner
+	 * @param regionIDs regions of our orders
+	 * @param typeIDs typeIDs of our orders
+	 */
+	public void retain(Collection<Integer> regionIDs, Collection<Integer> typeIDs) {
+		synchronized (data) {
+			data.regions.keySet().retainAll(regionIDs);
+			for (Map.Entry<Integer, RegionSnapshot> entry : data.regions.entrySet()) {
+				entry.setValue(entry.getValue().retain(typeIDs));
+			}
+		}
+	}
+
+	public static class MarketOrderSnapshotsData {
+		private final Map<Integer, RegionSnapshot> regions = new HashMap<>();
+	}
+
+	public static class RegionSnapshot {
+		private final Date lastModified;
+		private final Date expires;
+		private final Set<Integer> typeIDs;
+		private final List<RawPublicMarketOrder> orders;
+		private final Map<Long, Long> structures;
+
+		/**
+		 * @param lastModified last-modified header
+		 * @param expires expires header
+		 * @param typeIDs typeIDs included
+		 * @param orders orders with the included typeIDs
+		 * @param structures structure locationID to systemID (for all orders)
+		 */
+		public RegionSnapshot(Date lastModified, Date expires, Collection<Integer> typeIDs, Collection<RawPublicMarketOrder> orders, Map<Long, Long> structures) {
+			this.lastModified = lastModified;
+			this.expires = expires;
+			this.typeIDs = new HashSet<>(typeIDs);
+			this.orders = new ArrayList<>(orders);
+			this.structures = new HashMap<>(structures);
+		}
+
+		/**
+		 * Copy with new expires date (data not modified)
+		 * @param expires
+		 * @return
+		 */
+		public RegionSnapshot copy(Date expires) {
+			return new RegionSnapshot(lastModified, expires, typeIDs, orders, structures);
+		}
+
+		/**
+		 * Copy with only the orders of the typeIDs
+		 * @param typeIDs typeIDs to keep
+		 * @return
+		 */
+		private RegionSnapshot retain(Collection<Integer> typeIDs) {
+			Set<Integer> retainTypeIDs = new HashSet<>(this.typeIDs);
+			retainTypeIDs.retainAll(typeIDs);
+			List<RawPublicMarketOrder> retainOrders = new ArrayList<>();
+			for (RawPublicMarketOrder marketOrder : orders) {
+				if (retainTypeIDs.contains(marketOrder.getTypeId())) {
+					retainOrders.add(marketOrder);
+				}
+			}
+			return new RegionSnapshot(lastModified, expires, retainTypeIDs, retainOrders, structures);
+		}
+
+		public Date getLastModified() {
+			return lastModified;
+		}
+
+		public List<RawPublicMarketOrder> getOrders() {
+			return orders;
+		}
+
+		public Map<Long, Long> getStructures() {
+			return structures;
+		}
+
+		public boolean isCurrent() {
+			return expires != null && expires.after(Settings.getNow());
+		}
+
+		public boolean isModified(Date lastModified) {
+			return lastModified == null || this.lastModified == null || !Objects.equals(this.lastModified, lastModified);
+		}
+	}
+}
@@ -300,12 +300,15 @@ public class PriceDataSettings {
 		}
 	}
 
+	public static final int DEFAULT_CACHE_TIMER = 60; //1 hour (minutes)
+
 	//Default
 	private final LocationType locationType;
 	private final Long locationID;
 	private final PriceSource priceSource;
 	private PriceMode priceType;
 	private PriceMode priceReprocessedType;
+	private final int cacheTimer;
 
 	public PriceDataSettings() {
 		locationType = LocationType.REGION;
@@ -313,9 +316,10 @@ public class PriceDataSettings {
 		priceSource = getDefaultPriceSource();
 		priceType = PriceMode.getDefaultPriceType();
 		priceReprocessedType =  PriceMode.getDefaultPriceType();
+		cacheTimer = DEFAULT_CACHE_TIMER;
 	}
 
-	public PriceDataSettings(final LocationType locationType, final Long locationID, final PriceSource priceSource, final PriceMode priceType, final PriceMode priceReprocessedType) {
+	public PriceDataSettings(final LocationType locationType, final Long locationID, final PriceSource priceSource, final PriceMode priceType, final PriceMode priceReprocessedType, final int cacheTimer) {
 		if (locationType != null && locationID != null) {
 			this.locationType = locationType;
 			this.locationID = locationID;
@@ -326,6 +330,11 @@ public class PriceDataSettings {
 		this.priceSource = priceSource;
 		this.priceType = priceType;
 		this.priceReprocessedType = priceReprocessedType;
+		if (cacheTimer > 0) {
+			this.cacheTimer = cacheTimer;
+		} else {
+			this.cacheTimer = DEFAULT_CACHE_TIMER;
+		}
 	}
 
 	public PriceSource getSource() {
@@ -340,6 +349,14 @@ public class PriceDataSettings {
 		return locationType;
 	}
 
+	/**
+	 * Time before the price of a type is updated again
+	 * @return minutes
+	 */
+	public int getCacheTimer() {
+		return cacheTimer;
+	}
+
 	public double getDefaultPrice(final PriceData priceData) {
 		return PriceMode.getDefaultPrice(priceData, priceType);
 	}
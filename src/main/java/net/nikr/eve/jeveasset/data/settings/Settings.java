@@ -31,6 +31,7 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import net.nikr.eve.jeveasset.SplashUpdater;
 import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
@@ -79,7 +80,9 @@ public class Settings {
 		FLAG_ASKED_CHECK_ALL_TRACKER,
 		FLAG_TRACKER_USE_ASSET_PRICE_FOR_SELL_ORDERS,
 		FLAG_FOCUS_EVE_ONLINE_ON_ESI_UI_CALLS,
-		FLAG_SAVE_TOOLS_ON_EXIT
+		FLAG_SAVE_TOOLS_ON_EXIT,
+		FLAG_AUTO_UPDATE,
+		FLAG_BINARY_PROFILE
 	}
 
 	public static enum TransactionProfitPrice {
@@ -127,6 +130,7 @@ public class Settings {
 	//Api id to owner name		Saved by TaskDialog.update() (on API update)
 	private final Map<Long, Date> ownersNextUpdate = new HashMap<>();
 	private final Map<Long, String> owners = new HashMap<>();
+	private final Map<Long, Date> ownersInvalid = new HashMap<>(); //IDs that can not be resolved : next update
 //!! - Values
 	//OK - Custom Price			Saved by JUserListPanel.edit()/delete() + SettingsDialog.save()
 	//Lock OK
@@ -262,6 +266,8 @@ public class Settings {
 		flags.put(SettingFlag.FLAG_TRACKER_USE_ASSET_PRICE_FOR_SELL_ORDERS, false);
 		flags.put(SettingFlag.FLAG_FOCUS_EVE_ONLINE_ON_ESI_UI_CALLS, true);
 		flags.put(SettingFlag.FLAG_SAVE_TOOLS_ON_EXIT, false);
+		flags.put(SettingFlag.FLAG_AUTO_UPDATE, false);
+		flags.put(SettingFlag.FLAG_BINARY_PROFILE, false);
 		cacheFlags();
 	}
 
@@ -286,10 +292,6 @@ public class Settings {
 		LOCK.unlock(msg);
 	}
 
-	public static boolean ignoreSave() {
-		return LOCK.ignoreSave();
-	}
-
 	public static void waitForEmptySaveQueue() {
 		LOCK.waitForEmptySaveQueue();
 	}
@@ -335,9 +337,17 @@ public class Settings {
 	}
 
 	public static void saveSettings() {
+		saveSettings(SettingsSection.all());
+	}
+
+	/**
+	 * Save settings to disk
+	 * @param changed The sections changed since last save. Unchanged sections are reused from the last save
+	 */
+	public static void saveSettings(Set<SettingsSection> changed) {
 		LOCK.lock("Save Settings");
 		try {
-			SettingsWriter.save(settings, FileUtil.getPathSettings());
+			SettingsWriter.save(settings, FileUtil.getPathSettings(), changed);
 		} finally {
 			LOCK.unlock("Save Settings");
 		}
@@ -439,6 +449,10 @@ public class Settings {
 		return ownersNextUpdate;
 	}
 
+	public Map<Long, Date> getOwnersInvalid() {
+		return ownersInvalid;
+	}
+
 	public Map<Long, String> getOwners() {
 		return owners;
 	}
@@ -785,6 +799,22 @@ public class Settings {
 		flags.put(SettingFlag.FLAG_SAVE_TOOLS_ON_EXIT, saveToolsOnExit);
 	}
 
+	public boolean isAutoUpdate() {
+		return flags.get(SettingFlag.FLAG_AUTO_UPDATE);
+	}
+
+	public void setAutoUpdate(final boolean autoUpdate) {
+		flags.put(SettingFlag.FLAG_AUTO_UPDATE, autoUpdate);
+	}
+
+	public boolean isBinaryProfile() {
+		return flags.get(SettingFlag.FLAG_BINARY_PROFILE);
+	}
+
+	public void setBinaryProfile(final boolean binaryProfile) {
+		flags.put(SettingFlag.FLAG_BINARY_PROFILE, binaryProfile);
+	}
+
 	public List<String> getShowTools() {
 		return showTools;
 	}
@@ -879,10 +909,6 @@ public class Settings {
 		private boolean locked = false;
 		private final SettingsQueue settingsQueue = new SettingsQueue();
 
-		public boolean ignoreSave() {
-			return settingsQueue.ignoreSave();
-		}
-
 		public void saveStart() {
 			settingsQueue.saveStart();
 		}
@@ -918,11 +944,6 @@ public class Settings {
 
 		private short savesQueue = 0;
 
-		public synchronized boolean ignoreSave() {
-			LOG.debug("Save Queue: " + savesQueue + " ignore: " + (savesQueue > 1));
-			return savesQueue > 1;
-		}
-
 		public synchronized void saveStart() {
 			this.savesQueue++;
 			notifyAll();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Sections of the settings file (in file order).
+ * Only the changed sections are serialized when the settings are saved.
+ */
+public enum SettingsSection {
+	ASSET_SETTINGS,
+	STOCKPILE_GROUPS,
+	STOCKPILES,
+	OVERVIEW_GROUPS,
+	REPROCESS_SETTINGS,
+	WINDOW(true),
+	PROXY,
+	PRICE_DATA_SETTINGS,
+	CONTRACT_PRICE_SETTINGS,
+	FLAGS,
+	USER_PRICES,
+	USER_ITEM_NAMES,
+	EVE_NAMES,
+	TABLE_FILTERS,
+	CURRENT_TABLE_FILTERS(true),
+	TABLE_COLUMNS(true),
+	TABLE_COLUMNS_WIDTH(true),
+	TABLE_RESIZE(true),
+	TABLE_VIEWS,
+	TABLE_JUMPS,
+	TABLE_FORMULAS,
+	EXPORT_SETTINGS,
+	TRACKER_NOTES,
+	TRACKER_FILTERS,
+	TRACKER_SETTINGS,
+	OWNERS,
+	TAGS,
+	ROUTING_SETTINGS,
+	MARKET_ORDER_OUTBID,
+	MARKET_ORDERS_SETTINGS,
+	SHOW_TOOLS,
+	COLOR_SETTINGS,
+	FACTION_WARFARE_SYSTEM_OWNERS;
+
+	private final boolean gui;
+
+	private SettingsSection() {
+		this(false);
+	}
+
+	private SettingsSection(boolean gui) {
+		this.gui = gui;
+	}
+
+	/**
+	 * @return true if the section is updated from the GUI before every save (window and table settings)
+	 */
+	public boolean isGui() {
+		return gui;
+	}
+
+	public static Set<SettingsSection> all() {
+		return EnumSet.allOf(SettingsSection.class);
+	}
+
+	/**
+	 * @param sections changed sections
+	 * @return the changed sections and the sections updated from the GUI
+	 */
+	public static Set<SettingsSection> changed(SettingsSection ... sections) {
+		Set<SettingsSection> changed = EnumSet.noneOf(SettingsSection.class);
+		for (SettingsSection section : values()) {
+			if (section.isGui()) {
+				changed.add(section);
+			}
+		}
+		for (SettingsSection section : sections) {
+			changed.add(section);
+		}
+		return changed;
+	}
+}
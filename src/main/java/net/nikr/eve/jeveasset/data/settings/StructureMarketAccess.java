@@ -0,0 +1,134 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.data.settings;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.nikr.eve.jeveasset.io.local.StructureMarketAccessReader;
+import net.nikr.eve.jeveasset.io.local.StructureMarketAccessWriter;
+
+/**
+ * Structures that have denied market access saved to disk.
+ * Denied structures are skipped until the denial expires, then tried again.
+ * The time between tries is doubled every time the structure denies access again.
+ */
+public class StructureMarketAccess {
+
+	private static final long MIN_DELAY = 24 * 60 * 60 * 1000L; //1 day
+	private static final long MAX_DELAY = 14 * 24 * 60 * 60 * 1000L; //14 days
+
+	private static volatile StructureMarketAccess ACCESS = null;
+
+	private final StructureMarketAccessData data;
+	private boolean changed = false;
+
+	public static StructureMarketAccess get() {
+		StructureMarketAccess access = StructureMarketAccess.ACCESS;
+		if (access == null) {
+			synchronized (StructureMarketAccess.class) {
+				access = StructureMarketAccess.ACCESS;
+				if (access == null) {
+					StructureMarketAccess.ACCESS = access = new StructureMarketAccess();
+				}
+			}
+		}
+		return access;
+	}
+
+	private StructureMarketAccess() {
+		data = StructureMarketAccessReader.load();
+	}
+
+	/**
+	 * Save to disk (if anything changed since last save)
+	 */
+	public void save() {
+		synchronized (data) {
+			if (changed) {
+				StructureMarketAccessWriter.save(data);
+				changed = false;
+			}
+		}
+	}
+
+	/**
+	 * @param structureID
+	 * @return true if the structure have denied market access and should not be tried yet
+	 */
+	public boolean isDenied(Long structureID) {
+		synchronized (data) {
+			return data.isDenied(structureID, System.currentTimeMillis());
+		}
+	}
+
+	public void denied(Long structureID) {
+		synchronized (data) {
+			data.denied(structureID, System.currentTimeMillis());
+			changed = true;
+		}
+	}
+
+	public void allowed(Long structureID) {
+		synchronized (data) {
+			if (data.allowed(structureID)) {
+				changed = true;
+			}
+		}
+	}
+
+	public static class StructureMarketAccessData {
+		private final Map<Long, Denied> denied = new HashMap<>();
+
+		public boolean isDenied(Long structureID, long now) {
+			Denied value = denied.get(structureID);
+			return value != null && value.until > now;
+		}
+
+		public void denied(Long structureID, long now) {
+			Denied value = denied.get(structureID);
+			long delay;
+			if (value == null) {
+				delay = MIN_DELAY;
+			} else {
+				delay = Math.min(MAX_DELAY, value.delay * 2);
+			}
+			denied.put(structureID, new Denied(now + delay, delay));
+		}
+
+		/**
+		 * @param structureID
+		 * @return true if the structure was denied before
+		 */
+		public boolean allowed(Long structureID) {
+			return denied.remove(structureID) != null;
+		}
+	}
+
+	private static class Denied {
+		private final long until;
+		private final long delay;
+
+		public Denied(long until, long delay) {
+			this.until = until;
+			this.delay = delay;
+		}
+	}
+}
@@ -23,13 +23,19 @@ package net.nikr.eve.jeveasset.data.settings;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.gui.tabs.values.Value;
-import net.nikr.eve.jeveasset.io.local.TrackerDataReader;
-import net.nikr.eve.jeveasset.io.local.TrackerDataWriter;
+import net.nikr.eve.jeveasset.io.local.TrackerDataStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +46,20 @@ public class TrackerData {
 	private static final Map<String, List<Value>> TRACKER_DATA = new HashMap<String, List<Value>>(); //ownerID :: long
 	private static final ReentrantReadWriteLock LOCK = new ReentrantReadWriteLock();
 	private static final Object SAVE_QUEUE_SYNC = new Object();
+	private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Tracker Data Save");
+			thread.setDaemon(true); //Program exit waits for the save queue
+			return thread;
+		}
+	});
 	private static Integer SAVE_QUEUE = 0;
+	private static Future<?> SAVE_QUEUED = null;
+	//Changes since last save (Guarded by LOCK)
+	private static final Map<String, List<Value>> APPENDS = new HashMap<String, List<Value>>();
+	private static final Set<String> CHANGED_SEGMENTS = new HashSet<String>();
+	private static boolean CHANGED_ALL = false;
 	
 
 	public static void readLock() {
@@ -72,8 +91,17 @@ public class TrackerData {
 	}
 
 	public static void load() {
-		Map<String, List<Value>> trackerData = TrackerDataReader.load();
-		TrackerData.set(trackerData);
+		Map<String, List<Value>> trackerData = TrackerDataStore.load();
+		if (trackerData == null) {
+			return;
+		}
+		try {
+			LOCK.writeLock().lock();
+			TRACKER_DATA.clear();
+			TRACKER_DATA.putAll(trackerData);
+		} finally {
+			LOCK.writeLock().unlock();
+		}
 	}
 
 	public static void save(String msg) {
@@ -81,16 +109,11 @@ public class TrackerData {
 	}
 
 	public static void save(String msg, boolean wait) {
-		if (saveQueueIgnore()) {
-			return;
-		}
-		saveQueueAdd();
-		Save save = new Save(msg);
-		save.start();
+		Future<?> future = saveQueueAdd(msg);
 		if (wait) {
 			try {
-				save.join();
-			} catch (InterruptedException ex) {
+				future.get();
+			} catch (InterruptedException | ExecutionException ex) {
 				//No problem
 			}
 		}
@@ -106,21 +129,27 @@ public class TrackerData {
 	public static void add(String owner, Value add) {
 		try {
 			LOCK.writeLock().lock();
-			List<Value> list = TRACKER_DATA.get(owner);
-			if (list == null) {
-				list = new ArrayList<>();
-				TRACKER_DATA.put(owner, list);
-			}
-			list.add(add);
+			add(TRACKER_DATA, owner, add);
+			add(APPENDS, owner, add);
 		} finally {
 			LOCK.writeLock().unlock();
 		}
 	}
 
+	private static void add(Map<String, List<Value>> trackerData, String owner, Value add) {
+		List<Value> list = trackerData.get(owner);
+		if (list == null) {
+			list = new ArrayList<>();
+			trackerData.put(owner, list);
+		}
+		list.add(add);
+	}
+
 	public static void addAll(Map<String, List<Value>> trackerData) {
 		try {
 			LOCK.writeLock().lock();
 			TRACKER_DATA.putAll(trackerData);
+			CHANGED_ALL = true;
 		} finally {
 			LOCK.writeLock().unlock();
 		}
@@ -134,6 +163,32 @@ public class TrackerData {
 			LOCK.writeLock().lock();
 			TRACKER_DATA.clear();
 			TRACKER_DATA.putAll(trackerData);
+			CHANGED_ALL = true;
+		} finally {
+			LOCK.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Must be called after a value have been changed, to have it saved
+	 * @param value
+	 */
+	public static void changed(Value value) {
+		try {
+			LOCK.writeLock().lock();
+			CHANGED_SEGMENTS.add(TrackerDataStore.getSegment(value.getDate()));
+		} finally {
+			LOCK.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Must be called after values in unknown segments have been changed, to have them saved
+	 */
+	public static void changedAll() {
+		try {
+			LOCK.writeLock().lock();
+			CHANGED_ALL = true;
 		} finally {
 			LOCK.writeLock().unlock();
 		}
@@ -148,6 +203,7 @@ public class TrackerData {
 				if (values.isEmpty()) { //Remove empty list
 					TRACKER_DATA.remove(owner);
 				}
+				CHANGED_SEGMENTS.add(TrackerDataStore.getSegment(remove.getDate()));
 			}
 		} finally {
 			LOCK.writeLock().unlock();
@@ -163,21 +219,30 @@ public class TrackerData {
 				if (values.isEmpty()) { //Remove empty list
 					TRACKER_DATA.remove(owner);
 				}
+				for (Value value : remove) {
+					CHANGED_SEGMENTS.add(TrackerDataStore.getSegment(value.getDate()));
+				}
 			}
 		} finally {
 			LOCK.writeLock().unlock();
 		}
 	}
 
-	private synchronized static boolean saveQueueIgnore() {
-		return SAVE_QUEUE > 1;
-	}
-
-	private synchronized static void saveQueueAdd() {
+	/**
+	 * Only one save is queued, as it will save all changes made before it starts
+	 * @param msg
+	 * @return the queued save
+	 */
+	private synchronized static Future<?> saveQueueAdd(String msg) {
+		if (SAVE_QUEUE > 1 && SAVE_QUEUED != null) {
+			return SAVE_QUEUED;
+		}
 		SAVE_QUEUE++;
+		SAVE_QUEUED = SAVE_EXECUTOR.submit(new Save(msg));
 		synchronized(SAVE_QUEUE_SYNC) {
 			SAVE_QUEUE_SYNC.notifyAll();
 		}
+		return SAVE_QUEUED;
 	}
 
 	private synchronized static void saveQueueRemove() {
@@ -191,7 +256,7 @@ public class TrackerData {
 		return SAVE_QUEUE == 0;
 	}
 
-	private static class Save extends Thread {
+	private static class Save implements Runnable {
 		private final String msg;
 
 		public Save(String msg) {
@@ -200,14 +265,46 @@ public class TrackerData {
 
 		@Override
 		public void run() {
-			long before = System.currentTimeMillis();
-
-			LOG.info("Saving tracker data: " + msg);
-			TrackerData.readLock();
-			TrackerDataWriter.save();
-			TrackerData.readUnlock();
-			saveQueueRemove();
-			LOG.debug("Tracker data saved in: " + (System.currentTimeMillis() - before) + "ms");
+			try {
+				long before = System.currentTimeMillis();
+				LOG.info("Saving tracker data: " + msg);
+				//Take the changes
+				Map<String, List<Value>> appends;
+				Set<String> changedSegments;
+				boolean changedAll;
+				try {
+					LOCK.writeLock().lock();
+					appends = new HashMap<>(APPENDS);
+					changedSegments = new HashSet<>(CHANGED_SEGMENTS);
+					changedAll = CHANGED_ALL;
+					APPENDS.clear();
+					CHANGED_SEGMENTS.clear();
+					CHANGED_ALL = false;
+				} finally {
+					LOCK.writeLock().unlock();
+				}
+				if (appends.isEmpty() && changedSegments.isEmpty() && !changedAll) {
+					return; //Nothing to save
+				}
+				boolean saved;
+				try {
+					LOCK.readLock().lock();
+					saved = TrackerDataStore.save(TRACKER_DATA, appends, changedSegments, changedAll);
+				} finally {
+					LOCK.readLock().unlock();
+				}
+				if (!saved) { //Try again next time
+					try {
+						LOCK.writeLock().lock();
+						CHANGED_ALL = true;
+					} finally {
+						LOCK.writeLock().unlock();
+					}
+				}
+				LOG.debug("Tracker data saved in: " + (System.currentTimeMillis() - before) + "ms");
+			} finally {
+				saveQueueRemove();
+			}
 		}
 	}
 }
@@ -32,6 +32,7 @@ import java.util.List;
 import javax.swing.*;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.profile.Profile;
+import net.nikr.eve.jeveasset.gui.dialogs.update.AutoUpdater;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
 import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
@@ -152,26 +153,38 @@ public class ProfileDialog extends JDialogCentered {
 
 	private void loadProfileWork(final Profile profile) {
 		if (profile != null && !profile.isActiveProfile()) {
-			//Clear active profile flag (from all profiles)
-			for (Profile profileLoop : program.getProfileManager().getProfiles()) {
-				profileLoop.setActiveProfile(false);
+			//Stop background update (wait for it to finish)
+			program.getAutoUpdater().stop();
+			AutoUpdater.UPDATE_LOCK.lock();
+			try {
+				loadProfile(profile);
+			} finally {
+				AutoUpdater.UPDATE_LOCK.unlock();
 			}
-			//Clear accounts
-			program.getProfileManager().getAccounts().clear();
-			program.getProfileManager().getEveKitOwners().clear();
-			program.getProfileManager().getEsiOwners().clear();
-			//Clear data
-			program.updateEventLists();
-			//Set active profile
-			program.getProfileManager().setActiveProfile(profile);
-			profile.setActiveProfile(true);
-			//Load new profile
-			program.getProfileManager().loadActiveProfile();
-			//Update data
-			program.updateEventLists();
+			program.getAutoUpdater().start();
 		}
 	}
 
+	private void loadProfile(final Profile profile) {
+		//Clear active profile flag (from all profiles)
+		for (Profile profileLoop : program.getProfileManager().getProfiles()) {
+			profileLoop.setActiveProfile(false);
+		}
+		//Clear accounts
+		program.getProfileManager().getAccounts().clear();
+		program.getProfileManager().getEveKitOwners().clear();
+		program.getProfileManager().getEsiOwners().clear();
+		//Clear data
+		program.updateEventLists();
+		//Set active profile
+		program.getProfileManager().setActiveProfile(profile);
+		profile.setActiveProfile(true);
+		//Load new profile
+		program.getProfileManager().loadActiveProfile();
+		//Update data
+		program.updateEventLists();
+	}
+
 	private void loadProfileGui() {
 		//Update GUI (this dialog)
 		updateProfiles();
@@ -280,6 +293,9 @@ public class ProfileDialog extends JDialogCentered {
 						program.getProfileManager().getProfiles().remove(profile);
 						profile.getFile().delete();
 						profile.getBackupFile().delete();
+						profile.getBinaryFile().delete();
+						profile.getHistoryFile().delete();
+						profile.getHistoryBackupFile().delete();
 						updateProfiles();
 						program.getMainWindow().updateTitle();
 						jProfiles.updateUI();
@@ -43,6 +43,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 	
 	private final JCheckBox jEnterFilters;
 	private final JCheckBox jHighlightSelectedRow;
+	private final JCheckBox jAutoUpdate;
+	private final JCheckBox jBinaryProfile;
 	private final JCheckBox jFocusEveOnline;
 	private final JTextField jMaxOrderAge;
 	private final JTextField jTransactionProfitMargin;
@@ -57,6 +59,10 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 
 		jHighlightSelectedRow = new JCheckBox(DialoguesSettings.get().highlightSelectedRow());
 
+		jAutoUpdate = new JCheckBox(DialoguesSettings.get().autoUpdate());
+
+		jBinaryProfile = new JCheckBox(DialoguesSettings.get().binaryProfile());
+
 		jFocusEveOnline = new JCheckBox(DialoguesSettings.get().focusEveOnline());
 
 		JLabel jDecimalSeparatorLabel = new JLabel(DialoguesSettings.get().copyDecimalSeparator());
@@ -93,6 +99,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 			layout.createParallelGroup(GroupLayout.Alignment.LEADING)
 				.addComponent(jEnterFilters)
 				.addComponent(jHighlightSelectedRow)
+				.addComponent(jAutoUpdate)
+				.addComponent(jBinaryProfile)
 				.addComponent(jFocusEveOnline)
 				.addGroup(layout.createSequentialGroup()
 					.addGap(25)
@@ -128,6 +136,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 			layout.createSequentialGroup()
 				.addComponent(jEnterFilters, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jHighlightSelectedRow, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addComponent(jAutoUpdate, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				.addComponent(jBinaryProfile, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jFocusEveOnline, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jFocusEveOnlineLinuxHelp, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				.addComponent(jFocusEveOnlineLinuxHelp2, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
@@ -177,6 +187,9 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 						;
 		Settings.get().setFilterOnEnter(jEnterFilters.isSelected());
 		Settings.get().setHighlightSelectedRows(jHighlightSelectedRow.isSelected());
+		Settings.get().setAutoUpdate(jAutoUpdate.isSelected());
+		program.getAutoUpdater().reschedule();
+		Settings.get().setBinaryProfile(jBinaryProfile.isSelected());
 		Settings.get().setFocusEveOnlineOnEsiUiCalls(jFocusEveOnline.isSelected());
 		Settings.get().setMaximumPurchaseAge(maximumPurchaseAge);
 		Settings.get().setTransactionProfitPrice(transactionProfitPrice);
@@ -189,6 +202,8 @@ public class GeneralSettingsPanel extends JSettingsPanel {
 	public void load() {
 		jEnterFilters.setSelected(Settings.get().isFilterOnEnter());
 		jHighlightSelectedRow.setSelected(Settings.get().isHighlightSelectedRows());
+		jAutoUpdate.setSelected(Settings.get().isAutoUpdate());
+		jBinaryProfile.setSelected(Settings.get().isBinaryProfile());
 		jFocusEveOnline.setSelected(Settings.get().isFocusEveOnlineOnEsiUiCalls());
 		jMaxOrderAge.setText(String.valueOf(Settings.get().getMaximumPurchaseAge()));
 		jTransactionProfitPrice.setSelectedItem(Settings.get().getTransactionProfitPrice());
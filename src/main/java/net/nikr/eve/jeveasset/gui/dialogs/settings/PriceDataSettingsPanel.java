@@ -37,6 +37,7 @@ import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JRadioButton;
+import javax.swing.JTextField;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.sde.StaticData;
@@ -45,6 +46,8 @@ import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceMode;
 import net.nikr.eve.jeveasset.data.settings.PriceDataSettings.PriceSource;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.images.Images;
+import net.nikr.eve.jeveasset.gui.shared.DocumentFactory;
+import net.nikr.eve.jeveasset.gui.shared.components.JIntegerField;
 import net.nikr.eve.jeveasset.gui.shared.components.JLabelMultiline;
 import net.nikr.eve.jeveasset.gui.shared.components.ListComboBoxModel;
 import net.nikr.eve.jeveasset.gui.shared.table.EventListManager;
@@ -71,6 +74,7 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 	private final JComboBox<PriceMode> jPriceType;
 	private final JComboBox<PriceMode> jPriceReprocessedType;
 	private final JComboBox<PriceSource> jSource;
+	private final JTextField jCacheTimer;
 
 	private final EventList<MyLocation> stationsEventList = EventListManager.create();
 	private final List<MyLocation> stations = new ArrayList<>();
@@ -184,6 +188,10 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 		jBlueprintsTech1 = new JCheckBox(DialoguesSettings.get().priceTech1());
 		jBlueprintsTech2 = new JCheckBox(DialoguesSettings.get().priceTech2());
 
+		JLabel jCacheTimerLabel = new JLabel(DialoguesSettings.get().priceCacheTimer());
+		jCacheTimer = new JIntegerField("", DocumentFactory.ValueFlag.POSITIVE_AND_NOT_ZERO);
+		JLabel jCacheTimerMinutesLabel = new JLabel(DialoguesSettings.get().priceCacheTimerMinutes());
+
 		JLabelMultiline jWarning = new JLabelMultiline(DialoguesSettings.get().changeSourceWarning(), 2);
 
 		layout.setHorizontalGroup(
@@ -194,6 +202,7 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 						.addComponent(jPriceTypeLabel)
 						.addComponent(jPriceReprocessedTypeLabel)
 						.addComponent(jBlueprintsLabel)
+						.addComponent(jCacheTimerLabel)
 						.addGroup(layout.createSequentialGroup()
 							.addGroup(layout.createParallelGroup()
 								.addComponent(jRegionsLabel)
@@ -219,6 +228,10 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 							.addComponent(jBlueprintsTech1)
 							.addComponent(jBlueprintsTech2)
 						)
+						.addGroup(layout.createSequentialGroup()
+							.addComponent(jCacheTimer, 100, 100, 100)
+							.addComponent(jCacheTimerMinutesLabel)
+						)
 					)
 				)
 				.addComponent(jWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, Integer.MAX_VALUE)
@@ -257,6 +270,11 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 					.addComponent(jBlueprintsTech1, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 					.addComponent(jBlueprintsTech2, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
 				)
+				.addGroup(layout.createParallelGroup(GroupLayout.Alignment.TRAILING)
+					.addComponent(jCacheTimerLabel, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					.addComponent(jCacheTimer, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+					.addComponent(jCacheTimerMinutesLabel, Program.getButtonsHeight(), Program.getButtonsHeight(), Program.getButtonsHeight())
+				)
 				.addComponent(jWarning, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE)
 		);
 	}
@@ -308,6 +326,13 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 		//Blueprints
 		boolean blueprintsTech1 = jBlueprintsTech1.isSelected();
 		boolean blueprintsTech2 = jBlueprintsTech2.isSelected();
+		//Cache Timer
+		int cacheTimer;
+		try {
+			cacheTimer = Integer.valueOf(jCacheTimer.getText());
+		} catch (NumberFormatException ex) {
+			cacheTimer = PriceDataSettings.DEFAULT_CACHE_TIMER;
+		}
 
 		//Eval if table need to be updated
 		boolean updateTable = !priceType.equals(Settings.get().getPriceDataSettings().getPriceType())
@@ -316,7 +341,7 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 								|| blueprintsTech2 != Settings.get().isBlueprintBasePriceTech2();
 
 		//Update settings
-		Settings.get().setPriceDataSettings(new PriceDataSettings(locationType, locationID, source, priceType, priceReprocessedType));
+		Settings.get().setPriceDataSettings(new PriceDataSettings(locationType, locationID, source, priceType, priceReprocessedType, cacheTimer));
 		Settings.get().setBlueprintBasePriceTech1(blueprintsTech1);
 		Settings.get().setBlueprintBasePriceTech2(blueprintsTech2);
 
@@ -329,6 +354,7 @@ public class PriceDataSettingsPanel extends JSettingsPanel {
 		jSource.setSelectedItem(Settings.get().getPriceDataSettings().getSource());
 		jBlueprintsTech1.setSelected(Settings.get().isBlueprintBasePriceTech1());
 		jBlueprintsTech2.setSelected(Settings.get().isBlueprintBasePriceTech2());
+		jCacheTimer.setText(String.valueOf(Settings.get().getPriceDataSettings().getCacheTimer()));
 	}
 
 	private void updateSource(final PriceSource source) {
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.gui.dialogs.update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import net.nikr.eve.jeveasset.Program;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.i18n.DialoguesUpdate;
+import net.nikr.eve.jeveasset.io.esi.EsiAccountBalanceGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiAssetsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiBlueprintsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiBookmarksGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiContractItemsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiContractsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiDivisionsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiIndustryJobsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiJournalGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiLocationsGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiMarketOrdersGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiNameGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiPlanetaryInteractionGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiShipGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiSkillGetter;
+import net.nikr.eve.jeveasset.io.esi.EsiTransactionsGetter;
+import net.nikr.eve.jeveasset.io.shared.TaskGraph;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background account data update.
+ * Each endpoint of each owner is updated as soon as it expires (next update from the expires header),
+ * so the data is updated in small parts instead of everything at once in the update dialog.
+ * Enabled by Settings.isAutoUpdate()
+ */
+public class AutoUpdater {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AutoUpdater.class);
+
+	/**
+	 * Held while account data is updated (by the update dialog or the auto updater)
+	 */
+	public static final ReentrantLock UPDATE_LOCK = new ReentrantLock();
+
+	private static final long MAX_WAIT = 60 * 1000L; //Check settings/owners at least once a minute
+	private static final long RETRY_DELAY = 5 * 60 * 1000L; //Wait 5 minutes after an update failed
+	private static final int MAX_RETRIES = 3; //Give up until the next update changes (updated by the update dialog)
+
+	private final Program program;
+	private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+	private final Map<String, Failed> failed = new HashMap<>();
+	private Thread thread;
+	private UpdateTask task;
+
+	public AutoUpdater(final Program program) {
+		this.program = program;
+	}
+
+	public synchronized void start() {
+		if (thread != null) {
+			return;
+		}
+		failed.clear();
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "AutoUpdater");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Stop the auto updater and cancel the running update (if any).
+	 * Lock UPDATE_LOCK to wait for the cancelled update to finish.
+	 */
+	public synchronized void stop() {
+		thread = null;
+		if (task != null) {
+			task.cancel(true);
+		}
+		notifyAll();
+	}
+
+	private synchronized boolean isRunning() {
+		return thread == Thread.currentThread();
+	}
+
+	/**
+	 * Check for expired data now (settings or accounts changed)
+	 */
+	public synchronized void reschedule() {
+		notifyAll();
+	}
+
+	private void loop() {
+		while (true) {
+			List<Entry> due;
+			synchronized (this) {
+				if (!isRunning()) {
+					return;
+				}
+				due = getDue();
+				if (due.isEmpty()) {
+					long wait = MAX_WAIT;
+					Entry next = queue.peek();
+					if (next != null) {
+						wait = Math.min(MAX_WAIT, Math.max(1000, next.time - Settings.getNow().getTime()));
+					}
+					try {
+						wait(wait);
+					} catch (InterruptedException ex) {
+						return;
+					}
+					continue;
+				}
+			}
+			if (!UPDATE_LOCK.tryLock()) { //The update dialog is updating everything
+				synchronized (this) {
+					try {
+						wait(MAX_WAIT);
+					} catch (InterruptedException ex) {
+						return;
+					}
+				}
+				continue;
+			}
+			try {
+				if (isRunning()) {
+					update(due);
+				}
+			} catch (RuntimeException ex) {
+				LOG.error("Auto update failed: " + ex.getMessage(), ex);
+			} finally {
+				UPDATE_LOCK.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Rebuild the queue (owners, scopes and next update may have changed) and remove the expired entries
+	 * @return expired entries
+	 */
+	private List<Entry> getDue() {
+		queue.clear();
+		List<Entry> due = new ArrayList<>();
+		if (!Settings.get().isAutoUpdate() || Program.isForceNoUpdate()) {
+			return due;
+		}
+		long now = Settings.getNow().getTime();
+		for (EsiOwner esiOwner : program.getProfileManager().getEsiOwners()) {
+			if (!esiOwner.isShowOwner() || esiOwner.isInvalid() || esiOwner.isExpired()) {
+				continue;
+			}
+			for (Endpoint endpoint : Endpoint.values()) {
+				Date nextUpdate = endpoint.getNextUpdate(esiOwner);
+				if (!endpoint.isEnabled(esiOwner) || nextUpdate == null) { //Missing scope or role
+					continue;
+				}
+				long time = nextUpdate.getTime();
+				Failed retry = failed.get(getKey(esiOwner, endpoint));
+				if (retry != null) {
+					if (retry.nextUpdate != time) { //Updated by the update dialog
+						failed.remove(getKey(esiOwner, endpoint));
+					} else if (retry.count >= MAX_RETRIES) { //Role removed in game or similar
+						continue;
+					} else {
+						time = Math.max(time, retry.time);
+					}
+				}
+				queue.add(new Entry(esiOwner, endpoint, time));
+			}
+		}
+		while (!queue.isEmpty() && queue.peek().time <= now) {
+			due.add(queue.poll());
+		}
+		return due;
+	}
+
+	private void update(List<Entry> due) {
+		LOG.info("Auto updating " + due.size() + " endpoint(s)");
+		AutoUpdateTask updateTask = new AutoUpdateTask();
+		synchronized (this) {
+			task = updateTask;
+		}
+		TaskGraph graph = new TaskGraph();
+		List<EsiOwner> owners = program.getProfileManager().getEsiOwners();
+		for (Entry entry : due) {
+			if (entry.endpoint == Endpoint.CONTRACTS) {
+				EsiContractItemsGetter.reset();
+				break;
+			}
+		}
+		List<Runnable> data = new ArrayList<>();
+		for (Entry entry : due) {
+			data.add(entry.endpoint.add(graph, updateTask, entry.owner, owners));
+		}
+		//char/corp/alliance IDs to names (ESI)
+		graph.add(new EsiNameGetter(updateTask, program.getProfileManager().getOwnerTypes()), data);
+		//Pause structure update
+		program.getStatusPanel().setPauseUpdates(true);
+		try {
+			ThreadWoker.start(updateTask, graph, false);
+		} catch (RuntimeException ex) {
+			program.getStatusPanel().setPauseUpdates(false);
+			throw ex;
+		}
+		boolean updated = false;
+		long retry = Settings.getNow().getTime() + RETRY_DELAY;
+		synchronized (this) {
+			task = null;
+			if (!isRunning()) { //Stopped: the profile may have changed
+				program.getStatusPanel().setPauseUpdates(false);
+				return;
+			}
+			for (Entry entry : due) {
+				Date nextUpdate = entry.getNextUpdate();
+				String key = getKey(entry.owner, entry.endpoint);
+				if (nextUpdate != null && nextUpdate.getTime() > entry.time) {
+					updated = true;
+					failed.remove(key);
+				} else {
+					Failed previous = failed.get(key);
+					int count = previous != null ? previous.count + 1 : 1;
+					failed.put(key, new Failed(retry, nextUpdate != null ? nextUpdate.getTime() : 0, count));
+				}
+			}
+		}
+		if (updated) {
+			program.updateCompleted(); //Same as the update dialog
+		} else {
+			program.getStatusPanel().setPauseUpdates(false);
+		}
+	}
+
+	private static String getKey(EsiOwner esiOwner, Endpoint endpoint) {
+		return esiOwner.getOwnerID() + endpoint.name();
+	}
+
+	private static class AutoUpdateTask extends UpdateTask {
+
+		public AutoUpdateTask() {
+			super(DialoguesUpdate.get().accountData());
+		}
+
+		@Override
+		public void update() { } //Getters are started by the AutoUpdater
+	}
+
+	private static class Failed {
+		private final long time;
+		private final long nextUpdate;
+		private final int count;
+
+		public Failed(long time, long nextUpdate, int count) {
+			this.time = time;
+			this.nextUpdate = nextUpdate;
+			this.count = count;
+		}
+	}
+
+	private static class Entry implements Comparable<Entry> {
+		private final EsiOwner owner;
+		private final Endpoint endpoint;
+		private final long time;
+
+		public Entry(EsiOwner owner, Endpoint endpoint, long time) {
+			this.owner = owner;
+			this.endpoint = endpoint;
+			this.time = time;
+		}
+
+		public Date getNextUpdate() {
+			return endpoint.getNextUpdate(owner);
+		}
+
+		@Override
+		public int compareTo(Entry o) {
+			return Long.compare(time, o.time);
+		}
+	}
+
+	private static enum Endpoint {
+		ASSETS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isAssetList();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getAssetNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				EsiAssetsGetter assetsGetter = graph.add(new EsiAssetsGetter(task, esiOwner));
+				if (esiOwner.isCorporation()) {
+					graph.add(new EsiDivisionsGetter(task, esiOwner));
+				}
+				EsiShipGetter shipGetter = graph.add(new EsiShipGetter(task, esiOwner), assetsGetter);
+				graph.add(new EsiLocationsGetter(task, esiOwner), assetsGetter, shipGetter);
+				graph.add(new EsiPlanetaryInteractionGetter(task, esiOwner), assetsGetter);
+				return assetsGetter;
+			}
+		},
+		BALANCE() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isAccountBalance();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getBalanceNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiAccountBalanceGetter(task, esiOwner));
+			}
+		},
+		INDUSTRY_JOBS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isIndustryJobs();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getIndustryJobsNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiIndustryJobsGetter(task, esiOwner));
+			}
+		},
+		MARKET_ORDERS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isMarketOrders();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getMarketOrdersNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiMarketOrdersGetter(task, esiOwner, Settings.get().isMarketOrderHistory()));
+			}
+		},
+		JOURNAL() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isJournal();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getJournalNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiJournalGetter(task, esiOwner, Settings.get().isJournalHistory()));
+			}
+		},
+		TRANSACTIONS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isTransactions();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getTransactionsNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiTransactionsGetter(task, esiOwner, Settings.get().isTransactionHistory()));
+			}
+		},
+		CONTRACTS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isContracts();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getContractsNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				EsiContractsGetter contractsGetter = graph.add(new EsiContractsGetter(task, esiOwner));
+				graph.add(new EsiContractItemsGetter(task, esiOwner, owners), contractsGetter);
+				return contractsGetter;
+			}
+		},
+		BLUEPRINTS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isBlueprints();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getBlueprintsNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiBlueprintsGetter(task, esiOwner));
+			}
+		},
+		BOOKMARKS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isBookmarks();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getBookmarksNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiBookmarksGetter(task, esiOwner));
+			}
+		},
+		SKILLS() {
+			@Override
+			public boolean isEnabled(EsiOwner esiOwner) {
+				return esiOwner.isSkills();
+			}
+			@Override
+			public Date getNextUpdate(EsiOwner esiOwner) {
+				return esiOwner.getSkillsNextUpdate();
+			}
+			@Override
+			public Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners) {
+				return graph.add(new EsiSkillGetter(task, esiOwner));
+			}
+		};
+
+		public abstract boolean isEnabled(EsiOwner esiOwner);
+		public abstract Date getNextUpdate(EsiOwner esiOwner);
+		public abstract Runnable add(TaskGraph graph, UpdateTask task, EsiOwner esiOwner, List<EsiOwner> owners);
+	}
+}
@@ -48,7 +48,6 @@ import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.Formater;
 import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
-import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
 import net.nikr.eve.jeveasset.i18n.DialoguesUpdate;
 import net.nikr.eve.jeveasset.i18n.General;
 import net.nikr.eve.jeveasset.io.esi.EsiAccountBalanceGetter;
@@ -73,6 +72,7 @@ import net.nikr.eve.jeveasset.gui.shared.Updatable;
 import net.nikr.eve.jeveasset.io.esi.EsiFactionWarfareGetter;
 import net.nikr.eve.jeveasset.io.esi.EsiSkillGetter;
 import net.nikr.eve.jeveasset.io.online.PriceDataGetter;
+import net.nikr.eve.jeveasset.io.shared.TaskGraph;
 import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
 
 
@@ -657,8 +657,7 @@ public class UpdateDialog extends JDialogCentered {
 						|| jBookmarks.isSelected()
 						|| jSkills.isSelected()
 						) {
-					updateTasks.add(new Step1Task(program.getProfileManager()));
-					updateTasks.add(new Step2Task(program.getProfileManager(),
+					updateTasks.add(new AccountDataTask(program.getProfileManager(),
 							jAssets.isSelected(),
 							jAccountBalance.isSelected(),
 							jBlueprints.isSelected(),
@@ -669,12 +668,6 @@ public class UpdateDialog extends JDialogCentered {
 							jMarketOrders.isSelected(),
 							jTransactions.isSelected(),
 							jSkills.isSelected()));
-					updateTasks.add(new Step3Task(program.getProfileManager(),
-							jAssets.isSelected(),
-							jContracts.isSelected()));
-				}
-				if (jContracts.isSelected()) {
-					updateTasks.add(new Step4Task(program.getProfileManager(), jContracts.isSelected()));
 				}
 				if (jContractPricesAll.isSelected() || jContractPricesNew.isSelected())  {
 					updateTasks.add(new ContractPricesTask(program.getProfileData(), jContractPricesAll.isSelected()));
@@ -688,16 +681,7 @@ public class UpdateDialog extends JDialogCentered {
 					TaskDialog taskDialog = new TaskDialog(program, updateTasks, false, false, false, null, new TaskDialog.TasksCompleted() {
 						@Override
 						public void tasksCompleted(TaskDialog taskDialog) {
-							//Update tracker locations
-							AssetValue.updateData();
-							//Update eventlists
-							program.updateEventLists();
-							//Create value tracker point
-							program.createTrackerDataPoint();
-							//Save settings after updating (if we crash later)
-							program.saveSettingsAndProfile(); //Save updated id<->name data
-							//Resume structure update
-							program.getStatusPanel().setPauseUpdates(false);
+							program.updateCompleted();
 						}
 					});
 				}
@@ -738,17 +722,75 @@ public class UpdateDialog extends JDialogCentered {
 		}
 	}
 
-	public static class Step1Task extends UpdateTask {
+	/**
+	 * All ESI account data.
+	 * Each getter is started as soon as the data it depends on is updated:
+	 * Owner > Data > Locations/Ship/Planetary Interaction (Assets), IDs to Names (all data) and Contract Items (all contracts)
+	 */
+	public static class AccountDataTask extends UpdateTask {
 
-		private final List<Runnable> updates = new ArrayList<>();
+		private final TaskGraph graph = new TaskGraph();
 		private final ProfileManager profileManager;
 
-		public Step1Task(final ProfileManager profileManager) {
-			super(DialoguesUpdate.get().step1());
+		public AccountDataTask(final ProfileManager profileManager, final boolean assets, final boolean balance, final boolean blueprints, final boolean bookmarks, final boolean contracts, final boolean industry, final boolean journal, final boolean orders, final boolean transactions, final boolean skills) {
+			super(DialoguesUpdate.get().accountData());
 			this.profileManager = profileManager;
+			List<Runnable> data = new ArrayList<>();
+			List<Runnable> contractGetters = new ArrayList<>();
 			//Esi
 			for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-				updates.add(new EsiOwnerGetter(this, esiOwner));
+				EsiOwnerGetter ownerGetter = graph.add(new EsiOwnerGetter(this, esiOwner));
+				data.add(ownerGetter);
+				if (balance) {
+					data.add(graph.add(new EsiAccountBalanceGetter(this, esiOwner), ownerGetter));
+				}
+				if (assets) {
+					EsiAssetsGetter assetsGetter = graph.add(new EsiAssetsGetter(this, esiOwner), ownerGetter);
+					data.add(assetsGetter);
+					if (esiOwner.isCorporation()) {
+						data.add(graph.add(new EsiDivisionsGetter(this, esiOwner), ownerGetter));
+					}
+					//Locations need the active ship
+					EsiShipGetter shipGetter = graph.add(new EsiShipGetter(this, esiOwner), assetsGetter);
+					graph.add(new EsiLocationsGetter(this, esiOwner), assetsGetter, shipGetter);
+					graph.add(new EsiPlanetaryInteractionGetter(this, esiOwner), assetsGetter);
+				}
+				if (industry) {
+					data.add(graph.add(new EsiIndustryJobsGetter(this, esiOwner), ownerGetter));
+				}
+				if (orders) {
+					data.add(graph.add(new EsiMarketOrdersGetter(this, esiOwner, Settings.get().isMarketOrderHistory()), ownerGetter));
+				}
+				if (journal) {
+					data.add(graph.add(new EsiJournalGetter(this, esiOwner, Settings.get().isJournalHistory()), ownerGetter));
+				}
+				if (transactions) {
+					data.add(graph.add(new EsiTransactionsGetter(this, esiOwner, Settings.get().isTransactionHistory()), ownerGetter));
+				}
+				if (contracts) {
+					EsiContractsGetter contractsGetter = graph.add(new EsiContractsGetter(this, esiOwner), ownerGetter);
+					data.add(contractsGetter);
+					contractGetters.add(contractsGetter);
+				}
+				if (blueprints) {
+					data.add(graph.add(new EsiBlueprintsGetter(this, esiOwner), ownerGetter));
+				}
+				if (bookmarks) {
+					data.add(graph.add(new EsiBookmarksGetter(this, esiOwner), ownerGetter));
+				}
+				if (skills) {
+					data.add(graph.add(new EsiSkillGetter(this, esiOwner), ownerGetter));
+				}
+			}
+			graph.add(new EsiFactionWarfareGetter(this));
+			//char/corp/alliance IDs to names (ESI)
+			graph.add(new EsiNameGetter(this, profileManager.getOwnerTypes()), data);
+			//Contract Items (all contracts are shared between owners)
+			if (contracts) {
+				EsiContractItemsGetter.reset();
+				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+					graph.add(new EsiContractItemsGetter(this, esiOwner, profileManager.getEsiOwners()), contractGetters);
+				}
 			}
 		}
 
@@ -773,136 +815,13 @@ public class UpdateDialog extends JDialogCentered {
 					addError("Migrated EveKit accounts can safely be deleted", "Delete EveApi accounts in the account manager:\r\nOptions > Accounts... > Edit");
 				}
 			}
-			ThreadWoker.start(this, updates);
-		}
-	}
-
-	public static class Step2Task extends UpdateTask {
-
-		private final List<Runnable> updates = new ArrayList<>();
-
-		public Step2Task(final ProfileManager profileManager, final boolean assets, final boolean balance, final boolean blueprints, final boolean bookmarks, final boolean contracts, final boolean industry, final boolean journal, final boolean orders, final boolean transactions, final boolean skills) {
-			super(DialoguesUpdate.get().step2());
-			if (balance) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiAccountBalanceGetter(this, esiOwner));
-				}
-			}
-			if (assets) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiAssetsGetter(this, esiOwner));
-					if (esiOwner.isCorporation()) {
-						updates.add(new EsiDivisionsGetter(this, esiOwner));
-					}
-				}
-			}
-			if (industry) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiIndustryJobsGetter(this, esiOwner));
-				}
-			}
-			if (orders) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiMarketOrdersGetter(this, esiOwner, Settings.get().isMarketOrderHistory()));
-				}
-			}
-			if (journal) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiJournalGetter(this, esiOwner, Settings.get().isJournalHistory()));
-				}
-			}
-			if (transactions) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiTransactionsGetter(this, esiOwner, Settings.get().isTransactionHistory()));
-				}
-			}
-			if (contracts) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiContractsGetter(this, esiOwner));
-				}
-			}
-			if (blueprints) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiBlueprintsGetter(this, esiOwner));
-				}
-			}
-			if (bookmarks) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiBookmarksGetter(this, esiOwner));
-				}
-			}
-			if (skills) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiSkillGetter(this, esiOwner));
-				}
+			AutoUpdater.UPDATE_LOCK.lock(); //Wait for the background update to finish
+			try {
+				ThreadWoker.start(this, graph);
+			} finally {
+				AutoUpdater.UPDATE_LOCK.unlock();
 			}
 		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			ThreadWoker.start(this, updates);
-		}
-	}
-
-	public static class Step3Task extends UpdateTask {
-
-		private final List<Runnable> updates = new ArrayList<>();
-
-		public Step3Task(final ProfileManager profileManager, final boolean assets, final boolean contracts) {
-			super(DialoguesUpdate.get().step3());
-			//Locations
-			if (assets) {
-				//Esi
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiLocationsGetter(this, esiOwner));
-					updates.add(new EsiShipGetter(this, esiOwner));
-					updates.add(new EsiPlanetaryInteractionGetter(this, esiOwner));
-				}
-			}
-			updates.add(new EsiFactionWarfareGetter(this));
-			//char/corp/alliance IDs to names (ESI)
-			updates.add(new EsiNameGetter(this, profileManager.getOwnerTypes()));
-		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			ThreadWoker.start(this, updates);
-		}
-	}
-	
-	public static class Step4Task extends UpdateTask {
-
-		private final List<Runnable> updates = new ArrayList<>();
-
-		public Step4Task(final ProfileManager profileManager, final boolean contracts) {
-			super(DialoguesUpdate.get().step4());
-			//Contract Items
-			if (contracts) {
-				//Esi
-				EsiContractItemsGetter.reset();
-				for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
-					updates.add(new EsiContractItemsGetter(this, esiOwner, profileManager.getEsiOwners()));
-				}
-			}
-		}
-
-		@Override
-		public void update() {
-			setIcon(null);
-			ThreadWoker.start(this, updates, false);
-		}
 	}
 
 	public static class ContractPricesTask extends UpdateTask {
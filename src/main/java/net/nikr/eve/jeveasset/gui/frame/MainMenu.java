@@ -55,6 +55,7 @@ public class MainMenu extends JMenuBar {
 		README,
 		CHANGELOG,
 		SEND_BUG_REPORT,
+		ESI_DIAGNOSTICS,
 		LINK_FORUM,
 		LINK_GITHUB,
 		LINK_FAQ,
@@ -288,6 +289,12 @@ public class MainMenu extends JMenuBar {
 		
 		menu.add(menuItem);
 
+		menuItem = new JMenuItem(GuiFrame.get().esiDiagnostics());
+		menuItem.setIcon(Images.MISC_ESI.getIcon());
+		menuItem.setActionCommand(MainMenuAction.ESI_DIAGNOSTICS.name());
+		menuItem.addActionListener(program);
+		menu.add(menuItem);
+
 		menu.addSeparator();
 
 		menuItem = new JMenuItem(GuiFrame.get().readme());
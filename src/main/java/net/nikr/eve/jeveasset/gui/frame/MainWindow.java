@@ -31,6 +31,7 @@ import javax.swing.event.ChangeListener;
 import javax.swing.plaf.basic.BasicButtonUI;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.TextManager;
 import net.nikr.eve.jeveasset.gui.shared.components.JLockWindow;
@@ -145,7 +146,7 @@ public class MainWindow {
 			jTabbedPane.setTabComponentAt(jTabbedPane.getTabCount() - 1, new TabCloseButton(jMainTab));
 			if (Settings.get().isSaveToolsOnExit() && !Settings.get().getShowTools().contains(jMainTab.getTitle())) {
 				Settings.get().getShowTools().add(jMainTab.getTitle());
-				program.saveSettings("Showing Tool");
+				program.saveSettings("Showing Tool", SettingsSection.SHOW_TOOLS);
 			}
 		}
 		if (focus) {
@@ -171,7 +172,7 @@ public class MainWindow {
 		if (Settings.get().isSaveToolsOnExit()) {
 			boolean removed = Settings.get().getShowTools().remove(jMainTab.getTitle());
 			if (removed) {
-				program.saveSettings("Hidding Tool");
+				program.saveSettings("Hidding Tool", SettingsSection.SHOW_TOOLS);
 			}
 		}
 	}
@@ -287,7 +288,7 @@ public class MainWindow {
 		public void componentResized(ComponentEvent e) {
 			if (Settings.get().isWindowAutoSave() && !isMaximized()) {
 				if (move > 1) { //Ignore the two first updates
-					program.saveSettings("Window Resized");
+					program.saveSettings("Window Resized", SettingsSection.WINDOW);
 				} else {
 					move++;
 				}
@@ -316,9 +317,9 @@ public class MainWindow {
 		public void actionPerformed(ActionEvent e) {
 			timer.stop();
 			if (isMaximized()) {
-				program.saveSettings("Window Maximized");
+				program.saveSettings("Window Maximized", SettingsSection.WINDOW);
 			} else {
-				program.saveSettings("Window Moved");
+				program.saveSettings("Window Moved", SettingsSection.WINDOW);
 			}
 		}
 	}
@@ -40,6 +40,7 @@ import javax.swing.ListSelectionModel;
 import javax.swing.table.TableModel;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.data.settings.types.LocationType;
 import net.nikr.eve.jeveasset.data.settings.SettingsUpdateListener;
 import net.nikr.eve.jeveasset.gui.shared.filter.FilterControl;
@@ -283,7 +284,7 @@ public abstract class JMainTab {
 		@Override
 		public void settingChanged() {
 			//Shows in a primitive so we need to update it before saving
-			program.saveSettings("Save current filter change.");
+			program.saveSettings("Save current filter change.", SettingsSection.CURRENT_TABLE_FILTERS);
 		}
 	}
 }
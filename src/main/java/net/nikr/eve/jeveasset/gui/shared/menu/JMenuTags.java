@@ -31,6 +31,7 @@ import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenuItem;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.data.settings.tag.Tag;
 import net.nikr.eve.jeveasset.data.settings.types.TagsType;
 import net.nikr.eve.jeveasset.gui.images.Images;
@@ -127,7 +128,7 @@ public class JMenuTags<T> extends JAutoMenu<T> {
 			}
 			Settings.unlock("Tags (New)"); //Unlock for Tags (New)
 			program.updateTags();
-			program.saveSettings("Tags (New)"); //Save Tags (New)
+			program.saveSettings("Tags (New)", SettingsSection.TAGS); //Save Tags (New)
 		}
 	}
 
@@ -144,7 +145,7 @@ public class JMenuTags<T> extends JAutoMenu<T> {
 			}
 			Settings.unlock("Tags (Delete)"); //Unlock for Tags (Delete)
 			program.updateTags();
-			program.saveSettings("Tags (Delete)"); //Save Tags (Delete)
+			program.saveSettings("Tags (Delete)", SettingsSection.TAGS); //Save Tags (Delete)
 		}
 	}
 
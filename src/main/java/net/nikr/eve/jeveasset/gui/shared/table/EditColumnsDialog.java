@@ -31,6 +31,7 @@ import java.util.List;
 import javax.swing.*;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Colors;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.components.JDialogCentered;
 import net.nikr.eve.jeveasset.gui.shared.table.EnumTableFormatAdaptor.SimpleColumn;
@@ -182,7 +183,7 @@ public class EditColumnsDialog<T extends Enum<T> & EnumTableColumn<Q>, Q> extend
 			columns.add(listModel.getElementAt(i));
 		}
 		adaptor.setColumns(columns);
-		program.saveSettings("Columns (Edit)"); //Save Columns (Changed - Edit Columns)
+		program.saveSettings("Columns (Edit)", SettingsSection.TABLE_COLUMNS); //Save Columns (Changed - Edit Columns)
 		setVisible(false);
 	}
 
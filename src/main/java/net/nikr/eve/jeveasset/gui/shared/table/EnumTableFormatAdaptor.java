@@ -42,6 +42,7 @@ import javax.swing.JRadioButtonMenuItem;
 import javax.swing.table.AbstractTableModel;
 import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.gui.images.Images;
 import net.nikr.eve.jeveasset.gui.shared.menu.JFormulaDialog;
 import net.nikr.eve.jeveasset.gui.shared.menu.JFormulaDialog.Formula;
@@ -385,7 +386,7 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 				reset();
 				tableModel.fireTableStructureChanged();
 				jTable.autoResizeColumns();
-				program.saveSettings("Columns (Reset)"); //Save Resize Mode
+				program.saveSettings("Columns (Reset)", SettingsSection.TABLE_COLUMNS); //Save Resize Mode
 			}
 		});
 		jMenu.add(jMenuItem);
@@ -404,7 +405,7 @@ public class EnumTableFormatAdaptor<T extends Enum<T> & EnumTableColumn<Q>, Q> i
 						jTable.saveColumnsWidth();
 						jTable.autoResizeColumns();
 						program.updateTableMenu();
-						program.saveSettings("Resize Mode"); //Save Resize Mode
+						program.saveSettings("Resize Mode", SettingsSection.TABLE_RESIZE); //Save Resize Mode
 					}
 				});
 			buttonGroup.add(jRadioButton);
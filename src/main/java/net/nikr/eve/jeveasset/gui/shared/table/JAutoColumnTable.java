@@ -58,6 +58,7 @@ import net.nikr.eve.jeveasset.Program;
 import net.nikr.eve.jeveasset.data.settings.ColorEntry;
 import net.nikr.eve.jeveasset.data.settings.ColorSettings;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.data.settings.tag.Tags;
 import net.nikr.eve.jeveasset.gui.shared.CopyHandler;
 import net.nikr.eve.jeveasset.gui.shared.InstantToolTip;
@@ -455,7 +456,7 @@ public class JAutoColumnTable extends JTable {
 					i++;
 				}
 			}
-			program.saveSettings("Columns (Width)"); //Save Columns Width
+			program.saveSettings("Columns (Width)", SettingsSection.TABLE_COLUMNS_WIDTH); //Save Columns Width
 		}
 	}
 
@@ -587,7 +588,7 @@ public class JAutoColumnTable extends JTable {
 					tableFormat.moveColumn(from, to);
 					model.fireTableStructureChanged();
 					if (from != to) {
-						program.saveSettings("Columns (Moved)"); //Save Columns (Moved)
+						program.saveSettings("Columns (Moved)", SettingsSection.TABLE_COLUMNS); //Save Columns (Moved)
 					}
 				}
 				autoResizeColumns();
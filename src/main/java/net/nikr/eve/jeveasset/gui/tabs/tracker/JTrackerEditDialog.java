@@ -361,6 +361,7 @@ public class JTrackerEditDialog extends JDialogCentered {
 				value.setContractCollateral(contractCollateral);
 				value.setContractValue(contractValue);
 				value.setSkillPoints((long)skillPointValue);
+				TrackerData.changed(value);
 			} finally {
 				TrackerData.writeUnlock();
 			}
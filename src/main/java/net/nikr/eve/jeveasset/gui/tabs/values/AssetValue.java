@@ -52,8 +52,14 @@ public class AssetValue implements Comparable<AssetValue> {
 	public static void updateData() {
 		try {
 			TrackerData.writeLock();
+			boolean changed = false;
 			for (AssetValue assetValue : CACHE.values()) {
-				assetValue.update();
+				if (assetValue.update()) {
+					changed = true;
+				}
+			}
+			if (changed) { //Keys are shared by values in all segments
+				TrackerData.changedAll();
 			}
 		} finally {
 			TrackerData.writeUnlock();
@@ -107,7 +113,9 @@ public class AssetValue implements Comparable<AssetValue> {
 		return id;
 	}
 
-	private void update() {
+	private boolean update() {
+		String oldID = id;
+		Long oldLocationID = locationID;
 		if (locationID == null) {
 			locationID = updateLocationID(location);
 		}
@@ -117,6 +125,7 @@ public class AssetValue implements Comparable<AssetValue> {
 		} else {
 			id =location;
 		}
+		return !Objects.equals(oldID, id) || !Objects.equals(oldLocationID, locationID);
 	}
 
 	private Long updateLocationID(String name) {
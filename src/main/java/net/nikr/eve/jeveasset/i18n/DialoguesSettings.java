@@ -42,6 +42,8 @@ public abstract class DialoguesSettings extends Bundle {
 	public abstract String general();
 	public abstract String enterFilter();
 	public abstract String highlightSelectedRow();
+	public abstract String autoUpdate();
+	public abstract String binaryProfile();
 	public abstract String focusEveOnline();
 	public abstract String focusEveOnlineLinuxCmd();
 	public abstract String focusEveOnlineLinuxHelp();
@@ -140,6 +142,8 @@ public abstract class DialoguesSettings extends Bundle {
 	public abstract String priceReprocessed();
 	public abstract String priceTech1();
 	public abstract String priceTech2();
+	public abstract String priceCacheTimer();
+	public abstract String priceCacheTimerMinutes();
 	public abstract String source();
 
 	// used in ProxySettingsPanel
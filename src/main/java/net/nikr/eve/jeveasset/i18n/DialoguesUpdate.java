@@ -72,8 +72,5 @@ public abstract class DialoguesUpdate extends Bundle {
 	public abstract String skills();
 	public abstract String structures();
 	public abstract String publicMarkerOrders();
-	public abstract String step1();
-	public abstract String step2();
-	public abstract String step3();
-	public abstract String step4();
+	public abstract String accountData();
 }
@@ -43,6 +43,7 @@ public abstract class GuiFrame extends Bundle {
 	public abstract String close();
 	public abstract String contracts();
 	public abstract String credits();
+	public abstract String esiDiagnostics();
 	public abstract String eve();
 	public abstract String exit();
 	public abstract String exitMsg(int size);
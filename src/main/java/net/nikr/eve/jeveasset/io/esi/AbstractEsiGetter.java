@@ -20,6 +20,7 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -27,13 +28,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
-import net.nikr.eve.jeveasset.gui.shared.Formater;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics.RequestMetrics;
 import net.nikr.eve.jeveasset.io.shared.AbstractGetter;
 import net.nikr.eve.jeveasset.io.shared.ThreadWoker;
 import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
@@ -58,7 +63,9 @@ import net.troja.eve.esi.api.UserInterfaceApi;
 import net.troja.eve.esi.api.WalletApi;
 import net.troja.eve.esi.auth.OAuth;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +75,7 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	private static final Logger LOG = LoggerFactory.getLogger(AbstractEsiGetter.class);
 
 	private static OkHttpClient OkHttpClient;
+	private static volatile Interceptor testInterceptor = null; //Only set by tests (local ESI stand-in)
 	private static final ApiClient PUBLIC_CLIENT = new ApiClientBuilder().okHttpClient(getHttpClient()).build();
 	private static final UniverseApi UNIVERSE_API = new UniverseApi(PUBLIC_CLIENT);
 	private static final CharacterApi CHARACTER_API = new CharacterApi(PUBLIC_CLIENT);
@@ -80,14 +88,10 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	protected static final int UNIVERSE_BATCH_SIZE = 100;
 	protected static final int LOCATIONS_BATCH_SIZE = 100;
 	protected static final int DEFAULT_RETRIES = 3;
-	/**
-	 * Errors left in in this error limit time frame (can be null)
-	 */
-	private static Integer errorLimit = null;
-	/**
-	 * Date when the error limit will be reset (never null)
-	 */
-	private static Date errorReset = new Date();
+	protected static final int WALLET_DIVISIONS = 7;
+	private static final EsiErrorLimit ERROR_LIMIT = new EsiErrorLimit();
+	private static final EsiConcurrencyLimiter PAGES_LIMITER = new EsiConcurrencyLimiter();
+	private static final Map<String, FutureTask<ApiResponse<?>>> IN_FLIGHT = new ConcurrentHashMap<>();
 
 
 	public AbstractEsiGetter(UpdateTask updateTask, EsiOwner owner, boolean forceUpdate, Date nextUpdate, TaskType taskType) {
@@ -97,6 +101,18 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	public static OkHttpClient getHttpClient() {
 		if (OkHttpClient == null || OkHttpClient.interceptors().size() > 100 || OkHttpClient.networkInterceptors().size() > 100) {
 			OkHttpClient = new OkHttpClient.Builder()
+					.cache(EsiCache.getCache()) //ETag/If-None-Match
+					.addInterceptor(new Interceptor() {
+						@Override
+						public Response intercept(Chain chain) throws IOException {
+							Interceptor interceptor = testInterceptor;
+							if (interceptor != null) {
+								return interceptor.intercept(chain);
+							}
+							return chain.proceed(chain.request());
+						}
+					})
+					.addInterceptor(new EsiCache()) //Cache hit/miss stats
 					.readTimeout(20, TimeUnit.SECONDS)
 					.writeTimeout(20, TimeUnit.SECONDS)
 					.connectTimeout(20, TimeUnit.SECONDS).build();
@@ -104,6 +120,14 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		return OkHttpClient;
 	}
 
+	/**
+	 * Tests only (the client is shared and created once)
+	 * @param interceptor interceptor or null to remove
+	 */
+	static void setTestInterceptor(Interceptor interceptor) {
+		testInterceptor = interceptor;
+	}
+
 	private static boolean forceUpdate(EsiOwner owner, TaskType taskType, boolean forceUpdate) {
 		if (forceUpdate) {
 			return true;
@@ -159,49 +183,50 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	private <R> R updateApi(Updater<ApiResponse<R>, ApiException> updater) throws ApiException {
-		return updateApi(updater, 0);
-	}
-
-	private <R> R updateApi(Updater<ApiResponse<R>, ApiException> updater, int retries) throws ApiException {
-		checkErrors(); //Update timeframe as needed
-		checkCancelled();
-		try {
-			ApiResponse<R> apiResponse = updater.update();
-			if (apiResponse == null) {
-				return null;
-			}
-			handleHeaders(apiResponse);
-			logInfo(updater.getStatus(), "Updated");
-			if (owner != null) {
-				owner.setInvalid(false);
-			}
-			return apiResponse.getData();
-		} catch (ApiException ex) {
-			handleHeaders(ex);
-			logWarn(ex.getResponseBody(), ex.getMessage());
-			if (ex.getCode() == 401 && ex.getResponseBody().toLowerCase().contains("error") && ex.getResponseBody().toLowerCase().contains("authorization not provided")) {
+		int retries = 0;
+		RequestMetrics metrics = EsiMetrics.get(getTaskName(), owner != null ? owner.getOwnerName() : "Public");
+		while (true) {
+			checkCancelled();
+			ERROR_LIMIT.acquire(); //Wait for error budget (if needed)
+			try {
+				checkCancelled();
+				EsiMetrics.setCurrent(metrics);
+				ApiResponse<R> apiResponse = updater.update();
+				if (apiResponse == null) {
+					return null;
+				}
+				metrics.success(EsiMetrics.getExchangeTime()); //Only the http exchange (not the time waiting for the limiters)
+				handleHeaders(apiResponse);
+				logInfo(updater.getStatus(), "Updated");
 				if (owner != null) {
-					owner.setInvalid(true);
+					owner.setInvalid(false);
 				}
-				throw new InvalidAuthException();
-			} else if ((ex.getCode() >= 500 && ex.getCode() < 600 //CCP error, Lets try again in a sec
-					|| ex.getCode() == 0) //Other error, Lets try again in a sec
-					&& ex.getCode() != 503 //Don't retry when it may be downtime
-					&& (ex.getCode() != 502 || (ex.getResponseBody().toLowerCase().contains("no reply within 10 seconds") || ex.getResponseBody().toLowerCase().startsWith("<html>"))) //Don't retry when it may be downtime, unless it's "no reply within 10 seconds" or html body
-					&& retries < updater.getMaxRetries()) { //Retries
-				retries++;
-				try {
-					Thread.sleep(1000); //Wait a sec
-				} catch (InterruptedException ex1) {
-					//No problem
+				return apiResponse.getData();
+			} catch (ApiException ex) {
+				metrics.error(ex.getCode(), EsiMetrics.getExchangeTime());
+				handleHeaders(ex);
+				logWarn(ex.getResponseBody(), ex.getMessage());
+				if (ex.getCode() == 401 && ex.getResponseBody().toLowerCase().contains("error") && ex.getResponseBody().toLowerCase().contains("authorization not provided")) {
+					if (owner != null) {
+						owner.setInvalid(true);
+					}
+					throw new InvalidAuthException();
+				} else if ((ex.getCode() >= 500 && ex.getCode() < 600 //CCP error, Lets try again in a sec
+						|| ex.getCode() == 0) //Other error, Lets try again in a sec
+						&& ex.getCode() != 503 //Don't retry when it may be downtime
+						&& (ex.getCode() != 502 || (ex.getResponseBody().toLowerCase().contains("no reply within 10 seconds") || ex.getResponseBody().toLowerCase().startsWith("<html>"))) //Don't retry when it may be downtime, unless it's "no reply within 10 seconds" or html body
+						&& retries < updater.getMaxRetries()) { //Retries
+					retries++;
+				} else {
+					throw ex;
 				}
-				logInfo(updater.getStatus(), "Retrying "  + retries + " of " + updater.getMaxRetries() + ":");
-				return updateApi(updater, retries);
-			} else {
-				throw ex;
+			} finally {
+				EsiMetrics.setCurrent(null);
+				ERROR_LIMIT.release();
 			}
-		} finally {
-			
+			metrics.retry();
+			ERROR_LIMIT.retryDelay(); //Wait a sec (with jitter)
+			logInfo(updater.getStatus(), "Retrying "  + retries + " of " + updater.getMaxRetries() + ":");
 		}
 	}
 
@@ -219,42 +244,36 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 
 	private void setErrorLimit(Map<String, List<String>> responseHeaders) {
 		if (responseHeaders != null) {
-			setErrorLimit(getHeaderInteger(responseHeaders, "x-esi-error-limit-remain"));
-			setErrorReset(getHeaderInteger(responseHeaders, "x-esi-error-limit-reset"));
+			ERROR_LIMIT.update(getHeaderInteger(responseHeaders, "x-esi-error-limit-remain"), getHeaderInteger(responseHeaders, "x-esi-error-limit-reset"));
 		}
 	}
 
-	private synchronized static void setErrorLimit(Integer errorLimit) {
-		if (AbstractEsiGetter.errorLimit != null && errorLimit != null) {
-			AbstractEsiGetter.errorLimit = Math.min(AbstractEsiGetter.errorLimit, errorLimit);
-		} else {
-			AbstractEsiGetter.errorLimit = errorLimit;
-		}
+	/**
+	 * Errors left in the current ESI error limit time frame
+	 * @return errors left
+	 */
+	public static int getErrorLimit() {
+		return ERROR_LIMIT.getErrorsRemain();
 	}
 
-	private synchronized static void setErrorReset(Integer errorReset) {
-		if (errorReset != null) {
-			AbstractEsiGetter.errorReset = new Date(System.currentTimeMillis() + (errorReset * 1000L));
-		}
+	/**
+	 * Current limit of page requests in flight
+	 * @return limit
+	 */
+	public static int getPagesLimit() {
+		return PAGES_LIMITER.getLimit();
 	}
 
-	private synchronized static void checkErrors() {
-		if (errorLimit != null && errorLimit < 10) { //Error limit reached
-			try {
-				long wait = (errorReset.getTime() + 1000) - System.currentTimeMillis();
-				LOG.warn("Error limit reached waiting: " + Formater.milliseconds(wait, false, false));
-				if (wait > 0) { //Negative values throws an Exception
-					Thread.sleep(wait); //Wait until the error window is reset
-				}
-				//Reset
-				AbstractEsiGetter.errorReset = new Date(); //New timeframe
-				AbstractEsiGetter.errorLimit = null;  //No errors in this timeframe (yet)
-			} catch (InterruptedException ex) {
-				//No problem
-			}
-		} else if (errorLimit != null && errorLimit < 100) { //At least one error
-			LOG.warn("Error limit: " + errorLimit);
-		}
+	public static int getPagesInFlight() {
+		return PAGES_LIMITER.getInFlight();
+	}
+
+	/**
+	 * Average page request latency
+	 * @return latency in milliseconds
+	 */
+	public static long getPagesLatency() {
+		return PAGES_LIMITER.getLatency();
 	}
  
 	public MarketApi getMarketApiAuth() {
@@ -537,56 +556,203 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 			values.addAll(returnValue);
 		}
 		Integer pages = getHeaderInteger(pageUpdater.getResponse().getHeaders(), "x-pages"); //Get pages header
-		int count = 2;
 		if (pages != null && pages > 1) { //More than one page
-			List<EsiPageUpdater<K>> updaters = new ArrayList<>();
-			for (int i = 2; i <= pages; i++) { //Get the remaining pages (we already got page 1 so we start at page 2
-				updaters.add(new EsiPageUpdater<>(handler, i, count + " of " + pages, maxRetries));
-				count++;
+			final Map<Integer, List<K>> remaining = new TreeMap<>(); //Keep page order
+			updateRemainingPages(pages, maxRetries, handler, new PageResult<K>() {
+				@Override
+				public void add(int page, List<K> data) {
+					synchronized (remaining) {
+						remaining.put(page, data);
+					}
+				}
+			});
+			for (List<K> data : remaining.values()) {
+				values.addAll(data);
 			}
-			LOG.info("Starting " + updaters.size() + " pages threads");
-			try {
-				List<Future<List<K>>> futures = startSubThreads(updaters);
-				for (Future<List<K>> future : futures) {
-					if (future.isDone()) {
-						returnValue = future.get(); //Get data from ESI
+		}
+		return values;
+	}
+
+	/**
+	 * Update pages newest first, one page at the time, and stop at the first page with existing IDs.
+	 * Pages are sorted newest first, so all the following pages are already known.
+	 * Falls back to updating all pages in parallel when there is no existing IDs.
+	 * @param <K>
+	 * @param existing IDs already known
+	 * @param maxRetries
+	 * @param handler
+	 * @return new data (and some existing data)
+	 * @throws ApiException 
+	 */
+	protected <K> List<K> updatePages(Set<Long> existing, int maxRetries, EsiPagesIDsHandler<K> handler) throws ApiException {
+		if (existing.isEmpty()) {
+			return updatePages(maxRetries, handler);
+		}
+		List<K> values = new ArrayList<>();
+		Integer pages = null;
+		int page = 1;
+		while (pages == null || page <= pages) {
+			EsiPageUpdater<K> pageUpdater = new EsiPageUpdater<>(handler, page, page + " of " + (pages != null ? pages : "?"), maxRetries);
+			List<K> result = updateApi(pageUpdater);
+			if (result == null || result.isEmpty()) { //Nothing returned: we're done
+				break; //Stop updating
+			}
+			values.addAll(result); //Add new
+			if (pages == null) {
+				pages = getHeaderInteger(pageUpdater.getResponse().getHeaders(), "x-pages"); //Get pages header
+				if (pages == null) {
+					pages = 1;
+				}
+			}
+			boolean found = false;
+			for (K k : result) { //Search for existing data
+				if (existing.contains(handler.getID(k))) { //Found existing data
+					found = true;
+					break; //no need to continue
+				}
+			}
+			if (found) {
+				break; //Stop updating
+			}
+			page++;
+		}
+		if (pages != null && page < pages) {
+			logInfo(null, "Skipped " + (pages - page) + " of " + pages + " pages");
+		}
+		return values;
+	}
+
+	/**
+	 * Same as updatePages(), but each page is handed to the consumer when it's returned.
+	 * The pages are not kept, so only the data kept by the consumer stay in memory.
+	 * The consumer is called from multiple threads.
+	 * @param <K>
+	 * @param maxRetries
+	 * @param handler
+	 * @param consumer
+	 * @throws ApiException 
+	 */
+	protected <K> void updatePages(final int maxRetries, final EsiPagesHandler<K> handler, final EsiPageConsumer<K> consumer) throws ApiException {
+		EsiPageUpdater<K> pageUpdater = new EsiPageUpdater<>(handler, 1, "1 of ?", maxRetries);
+		List<K> returnValue = updateApi(pageUpdater);
+		if (returnValue != null) {
+			consumer.consume(returnValue);
+		}
+		Integer pages = getHeaderInteger(pageUpdater.getResponse().getHeaders(), "x-pages"); //Get pages header
+		if (pages != null && pages > 1) { //More than one page
+			updateRemainingPages(pages, maxRetries, handler, new PageResult<K>() {
+				@Override
+				public void add(int page, List<K> data) {
+					consumer.consume(data); //Pages are not kept
+				}
+			});
+		}
+	}
+
+	/**
+	 * Update page 2 to pages.
+	 * The pages are shared by a few workers, each request wait for the adaptive page limiter.
+	 * @param <K>
+	 * @param pages number of pages
+	 * @param maxRetries
+	 * @param handler
+	 * @param result
+	 * @throws ApiException 
+	 */
+	private <K> void updateRemainingPages(final int pages, final int maxRetries, final EsiPagesHandler<K> handler, final PageResult<K> result) throws ApiException {
+		final AtomicInteger nextPage = new AtomicInteger(2); //We already got page 1 so we start at page 2
+		int workers = Math.min(pages - 1, EsiConcurrencyLimiter.MAX_LIMIT);
+		List<Callable<Object>> updaters = new ArrayList<>();
+		for (int i = 0; i < workers; i++) {
+			updaters.add(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					int page;
+					while ((page = nextPage.getAndIncrement()) <= pages) {
+						List<K> returnValue = updateApi(new EsiPageUpdater<>(handler, page, page + " of " + pages, maxRetries, true));
 						if (returnValue != null) {
-							values.addAll(returnValue);
+							result.add(page, returnValue);
 						}
 					}
+					return null;
 				}
-			} catch (InterruptedException ex) {
-				throw new RuntimeException(ex);
-			} catch (ExecutionException ex) {
-				ThreadWoker.throwExecutionException(ApiException.class, ex);
+			});
+		}
+		LOG.info("Starting " + updaters.size() + " pages threads for " + (pages - 1) + " pages");
+		try {
+			List<Future<Object>> futures = startSubThreads(updaters);
+			for (Future<Object> future : futures) {
+				future.get(); //Get errors (if any)
 			}
+		} catch (InterruptedException ex) {
+			throw new RuntimeException(ex);
+		} catch (ExecutionException ex) {
+			ThreadWoker.throwExecutionException(ApiException.class, ex);
 		}
-		return values;
+	}
+
+	private interface PageResult<K> {
+		public void add(int page, List<K> data);
 	}
 
 	public interface EsiPagesHandler<K> {
 		public ApiResponse<List<K>> get(Integer page) throws ApiException;
 	}
 
+	public interface EsiPageConsumer<K> {
+		public void consume(List<K> page);
+	}
+
+	public interface EsiPagesIDsHandler<K> extends EsiPagesHandler<K> {
+		public Long getID(K response);
+	}
+
 	public class EsiPageUpdater<T> implements Callable<List<T>>, Updater<ApiResponse<List<T>>, ApiException> {
 
 		private final EsiPagesHandler<T> handler;
 		private final int page;
 		private final String status;
 		private final int maxRetries;
+		private final boolean limited;
 		private ApiResponse<List<T>> response;
 
 		public EsiPageUpdater(EsiPagesHandler<T> handler, int page, String status, int maxRetries) {
+			this(handler, page, status, maxRetries, false);
+		}
+
+		/**
+		 * @param handler
+		 * @param page
+		 * @param status
+		 * @param maxRetries
+		 * @param limited true to wait for the adaptive page limiter (pages updated in parallel)
+		 */
+		public EsiPageUpdater(EsiPagesHandler<T> handler, int page, String status, int maxRetries, boolean limited) {
 			this.handler = handler;
 			this.page = page;
 			this.status = status;
 			this.maxRetries = maxRetries;
+			this.limited = limited;
 		}
 
 		@Override
 		public ApiResponse<List<T>> update() throws ApiException {
-			response = handler.get(page);
-			return response;
+			if (!limited) {
+				response = handler.get(page);
+				return response;
+			}
+			PAGES_LIMITER.acquire();
+			long start = System.currentTimeMillis();
+			boolean overloaded = false;
+			try {
+				response = handler.get(page);
+				return response;
+			} catch (ApiException ex) {
+				overloaded = EsiConcurrencyLimiter.isOverloaded(ex.getCode());
+				throw ex;
+			} finally {
+				PAGES_LIMITER.release(overloaded, System.currentTimeMillis() - start);
+			}
 		}
 
 		@Override
@@ -609,6 +775,91 @@ public abstract class AbstractEsiGetter extends AbstractGetter<EsiOwner> {
 		}
 	}
 
+	/**
+	 * Update all corporation wallet divisions (1-7) in parallel.
+	 * The result is only returned when all divisions are done, so it can be set in one go.
+	 * @param <K>
+	 * @param handler
+	 * @return division to data
+	 * @throws ApiException 
+	 */
+	protected final <K> Map<Integer, K> updateDivisions(final DivisionHandler<K> handler) throws ApiException {
+		List<Callable<K>> updaters = new ArrayList<>();
+		for (int i = 1; i <= WALLET_DIVISIONS; i++) {
+			final int division = i;
+			updaters.add(new Callable<K>() {
+				@Override
+				public K call() throws Exception {
+					return handler.get(division);
+				}
+			});
+		}
+		Map<Integer, K> values = new TreeMap<>();
+		try {
+			List<Future<K>> futures = startSubThreads(updaters);
+			int division = 1;
+			for (Future<K> future : futures) {
+				values.put(division, future.get());
+				division++;
+			}
+		} catch (InterruptedException ex) {
+			throw new RuntimeException(ex);
+		} catch (ExecutionException ex) {
+			ThreadWoker.throwExecutionException(ApiException.class, ex);
+		}
+		return values;
+	}
+
+	public interface DivisionHandler<K> {
+		public K get(int division) throws ApiException;
+	}
+
+	/**
+	 * Share one request between all owners making the same request at the same time.
+	 * Only for endpoints that return the same data for all owners (public or corporation endpoints).
+	 * Errors are not shared: if the request in flight fails, the request is made again with this owner
+	 * @param <K>
+	 * @param key endpoint and parameters
+	 * @param handler the request
+	 * @return the response (shared)
+	 * @throws ApiException the error (only for this owner)
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <K> ApiResponse<K> coalesce(String key, final EsiHandler<K> handler) throws ApiException {
+		FutureTask<ApiResponse<?>> task = new FutureTask<>(new Callable<ApiResponse<?>>() {
+			@Override
+			public ApiResponse<?> call() throws Exception {
+				return handler.get();
+			}
+		});
+		FutureTask<ApiResponse<?>> inFlight = IN_FLIGHT.putIfAbsent(key, task);
+		if (inFlight == null) { //Make the request
+			try {
+				task.run();
+			} finally {
+				IN_FLIGHT.remove(key, task);
+			}
+			try {
+				return (ApiResponse<K>) task.get();
+			} catch (InterruptedException ex) {
+				throw new RuntimeException(ex);
+			} catch (ExecutionException ex) {
+				ThreadWoker.throwExecutionException(ApiException.class, ex);
+				return null; //Never reached
+			}
+		}
+		//Wait for the request in flight
+		LOG.info("Sharing request in flight: " + key);
+		try {
+			return (ApiResponse<K>) inFlight.get();
+		} catch (InterruptedException ex) {
+			throw new RuntimeException(ex);
+		} catch (ExecutionException ex) {
+			//The error may be caused by the other owner (invalid token, missing roles, etc.)
+			return handler.get();
+		}
+	}
+
 	protected <K> K update(int maxRetries, EsiHandler<K> handler) throws ApiException {
 		EsiUpdater<K> esiUpdater = new EsiUpdater<>(maxRetries, handler);
 		return esiUpdater.go();
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent ESI response cache.
+ * OkHttp stores the responses on disk and sends If-None-Match (ETag) when the cached response have expired.
+ * ESI responds with 304 Not Modified when nothing have changed and the cached response is used.
+ */
+public class EsiCache implements Interceptor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiCache.class);
+
+	private static final long CACHE_SIZE = 100L * 1024L * 1024L; //100MB
+	private static final Pattern ID_PATTERN = Pattern.compile("/\\d+(?=/|$)");
+	private static final ConcurrentHashMap<String, CacheStats> STATS = new ConcurrentHashMap<>();
+	private static Cache cache;
+
+	/**
+	 * The cache can only be created once per directory (OkHttp lock the journal file)
+	 * @return the shared cache or null if it could not be created
+	 */
+	public static synchronized Cache getCache() {
+		if (cache == null) {
+			try {
+				cache = new Cache(getDirectory(), CACHE_SIZE);
+			} catch (RuntimeException ex) {
+				LOG.warn("Failed to create ESI cache: " + ex.getMessage());
+			}
+		}
+		return cache;
+	}
+
+	private static File getDirectory() {
+		if (Settings.isTestMode()) { //Tests must not touch the user data dir
+			return new File(System.getProperty("java.io.tmpdir"), "jeveassets-esi-cache");
+		}
+		return new File(FileUtil.getPathEsiCache());
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		long start = System.currentTimeMillis();
+		Response response;
+		try {
+			response = chain.proceed(request);
+		} finally {
+			EsiMetrics.exchange(System.currentTimeMillis() - start); //Latency
+		}
+		EsiMetrics.response(response); //Response size and 304 Not Modified
+		if (!"GET".equals(request.method())) {
+			return response; //Only GET is cached
+		}
+		CacheStats stats = getStats(getEndpoint(request));
+		if (response.cacheResponse() != null) { //Response from cache
+			if (response.networkResponse() != null) { //304 Not Modified
+				stats.notModified.incrementAndGet();
+			}
+			stats.hits.incrementAndGet();
+		} else {
+			stats.misses.incrementAndGet();
+		}
+		return response;
+	}
+
+	/**
+	 * Remove IDs from the path, so all owners share the same endpoint.
+	 * /v5/characters/12345/assets/ becomes /v5/characters/{id}/assets/
+	 * @param request
+	 * @return endpoint path
+	 */
+	static String getEndpoint(Request request) {
+		return ID_PATTERN.matcher(request.url().encodedPath()).replaceAll("/{id}");
+	}
+
+	private static CacheStats getStats(String endpoint) {
+		CacheStats stats = STATS.get(endpoint);
+		if (stats == null) {
+			stats = new CacheStats(endpoint);
+			CacheStats existing = STATS.putIfAbsent(endpoint, stats);
+			if (existing != null) {
+				stats = existing;
+			}
+		}
+		return stats;
+	}
+
+	public static List<CacheStats> getCacheStats() {
+		List<CacheStats> list = new ArrayList<>(STATS.values());
+		Collections.sort(list);
+		return list;
+	}
+
+	public static void logCacheStats() {
+		for (CacheStats stats : getCacheStats()) {
+			LOG.info(stats.toString());
+		}
+	}
+
+	public static class CacheStats implements Comparable<CacheStats> {
+		private final String endpoint;
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+		private final AtomicLong notModified = new AtomicLong();
+
+		public CacheStats(String endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		public long getHits() {
+			return hits.get();
+		}
+
+		public long getMisses() {
+			return misses.get();
+		}
+
+		public long getNotModified() {
+			return notModified.get();
+		}
+
+		@Override
+		public int compareTo(CacheStats o) {
+			return endpoint.compareTo(o.endpoint);
+		}
+
+		@Override
+		public String toString() {
+			return "ESI Cache: " + endpoint + " hits: " + getHits() + " (304: " + getNotModified() + ") misses: " + getMisses();
+		}
+	}
+}
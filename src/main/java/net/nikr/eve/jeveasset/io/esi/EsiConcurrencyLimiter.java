@@ -0,0 +1,118 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.time.Clock;
+
+/**
+ * Adaptive limit of requests in flight (AIMD).
+ * Starts at the max limit (same as the fixed number of page threads used before).
+ * The limit is increased by one per limit successful requests (additive increase)
+ * and halved when ESI is overloaded (multiplicative decrease).
+ */
+public class EsiConcurrencyLimiter {
+
+	public static final int MIN_LIMIT = 1;
+	public static final int MAX_LIMIT = 50;
+	private static final double INITIAL_LIMIT = MAX_LIMIT;
+	private static final long DECREASE_INTERVAL = 1000; //1 second
+	private static final double LATENCY_WEIGHT = 0.1;
+
+	private final Clock clock;
+	private double limit = INITIAL_LIMIT;
+	private int inFlight = 0;
+	private long lastDecrease = 0;
+	private double latency = 0;
+
+	public EsiConcurrencyLimiter() {
+		this(Clock.systemUTC());
+	}
+
+	EsiConcurrencyLimiter(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Wait until the number of requests in flight is below the limit.
+	 * Every permit must be released by release()
+	 */
+	public synchronized void acquire() {
+		while (inFlight >= getLimit()) {
+			try {
+				wait();
+			} catch (InterruptedException ex) {
+				break; //No problem (cancel is handled by the caller)
+			}
+		}
+		inFlight++;
+	}
+
+	/**
+	 * Release permit
+	 * @param overloaded true if ESI is overloaded (timeout, 5xx, 420 or 429)
+	 * @param millis request latency in milliseconds
+	 */
+	public synchronized void release(boolean overloaded, long millis) {
+		inFlight--;
+		if (overloaded) {
+			long now = clock.millis();
+			if (now - lastDecrease > DECREASE_INTERVAL) { //Only decrease once for requests failing at the same time
+				lastDecrease = now;
+				limit = Math.max(MIN_LIMIT, limit / 2);
+			}
+		} else {
+			limit = Math.min(MAX_LIMIT, limit + (1 / limit));
+			if (latency == 0) {
+				latency = millis;
+			} else {
+				latency = (latency * (1 - LATENCY_WEIGHT)) + (millis * LATENCY_WEIGHT);
+			}
+		}
+		notifyAll();
+	}
+
+	public static boolean isOverloaded(int code) {
+		return code == 0 //Timeout/IO error
+				|| code == 420 //Error limited
+				|| code == 429 //Too many requests
+				|| code >= 500;
+	}
+
+	/**
+	 * Current limit of requests in flight
+	 * @return limit
+	 */
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Average latency of successful requests
+	 * @return latency in milliseconds
+	 */
+	public synchronized long getLatency() {
+		return Math.round(latency);
+	}
+}
@@ -32,8 +32,11 @@ import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.my.MyContract;
 import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
 import net.nikr.eve.jeveasset.data.api.raw.RawContract.ContractStatus;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.data.settings.ContractItemsCache;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
 import net.troja.eve.esi.ApiException;
 import net.troja.eve.esi.ApiResponse;
 import net.troja.eve.esi.model.CharacterContractsItemsResponse;
@@ -47,6 +50,9 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 	private final static AtomicInteger SIZE = new AtomicInteger(0);
 	private final static AtomicInteger PROGRESS = new AtomicInteger(0);
 	private final static int BATCH_SIZE = 20;
+	private final static long BATCH_DELAY = 10000; //10 seconds between each batch (per corporation)
+	private final static long RATE_LIMIT_CHECK = 1000; //1 second
+	private final static EsiRateLimit CORPORATION_RATE_LIMIT = new EsiRateLimit();
 
 	public EsiContractItemsGetter(UpdateTask updateTask, EsiOwner owner, List<EsiOwner> owners) {
 		super(updateTask, owner, false, Settings.getNow(), TaskType.CONTRACT_ITEMS);
@@ -62,33 +68,51 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		createContracts(owners);
+		ContractItemsCache cache = ContractItemsCache.get();
+		Map<MyContract, List<RawContractItem>> contractItems = new HashMap<>();
 		if (owner.isCorporation()) {
+			//Corporation contract items are rate limited: BATCH_SIZE requests at the time, BATCH_DELAY between batches and paused when ESI reports the rate limit as exceeded
 			List<List<MyContract>> updates = splitList(contracts.get(owner.getOwnerID()), BATCH_SIZE);
-			Map<MyContract, List<CorporationContractsItemsResponse>> responseList = new HashMap<>();
 			boolean first = true;
 			for (List<MyContract> list : updates) {
 				if (first) {
 					first = false;
 				} else {
-					try {
-						Thread.sleep(10000);
-					} catch (InterruptedException ex) {
-						throw new RuntimeException(ex);
-					}
+					pause(BATCH_DELAY);
 				}
 				Map<MyContract, List<CorporationContractsItemsResponse>> responses = updateList(list, DEFAULT_RETRIES, new ListHandler<MyContract, List<CorporationContractsItemsResponse>>() {
 					@Override
-					public ApiResponse<List<CorporationContractsItemsResponse>> get(MyContract t) throws ApiException {
-						return getContractsApiAuth().getCorporationsCorporationIdContractsContractIdItemsWithHttpInfo(t.getContractID(), (int) owner.getOwnerID(), DATASOURCE, null, null);
+					public ApiResponse<List<CorporationContractsItemsResponse>> get(final MyContract t) throws ApiException {
+						while (true) {
+							checkCancelled();
+							if (!CORPORATION_RATE_LIMIT.await(RATE_LIMIT_CHECK)) {
+								continue;
+							}
+							try {
+								ApiResponse<List<CorporationContractsItemsResponse>> response = getContractsApiAuth().getCorporationsCorporationIdContractsContractIdItemsWithHttpInfo(t.getContractID(), (int) owner.getOwnerID(), DATASOURCE, null, null);
+								CORPORATION_RATE_LIMIT.success();
+								return response;
+							} catch (ApiException ex) {
+								if (!EsiRateLimit.isRateLimited(ex)) {
+									throw ex;
+								}
+								handleHeaders(ex);
+								Integer retryAfter = getHeaderInteger(ex.getResponseHeaders(), "retry-after");
+								if (retryAfter != null) {
+									CORPORATION_RATE_LIMIT.limited(retryAfter * 1000L);
+								} else {
+									CORPORATION_RATE_LIMIT.limited(EsiRateLimit.getRemainingTime(ex));
+								}
+							}
+						}
 					}
 				});
-				responseList.putAll(responses);
+				for (Map.Entry<MyContract, List<CorporationContractsItemsResponse>> entry : responses.entrySet()) {
+					contractItems.put(entry.getKey(), EsiConverter.toRawContractItemsCorporation(entry.getValue()));
+				}
 				PROGRESS.getAndAdd(list.size());
 				setProgress(SIZE.get(), PROGRESS.get(), 0, 100);
 			}
-			for (Map.Entry<MyContract, List<CorporationContractsItemsResponse>> entry : responseList.entrySet()) {
-				owner.setContracts(EsiConverter.toContractItemsCorporation(entry.getKey(), entry.getValue(), owner));
-			}
 		} else {
 			Map<MyContract, List<CharacterContractsItemsResponse>> responses = updateList(contracts.get(owner.getOwnerID()), DEFAULT_RETRIES, new ListHandler<MyContract, List<CharacterContractsItemsResponse>>() {
 				@Override
@@ -100,22 +124,55 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 				}
 			});
 			for (Map.Entry<MyContract, List<CharacterContractsItemsResponse>> entry : responses.entrySet()) {
-				owner.setContracts(EsiConverter.toContractItems(entry.getKey(), entry.getValue(), owner));
+				contractItems.put(entry.getKey(), EsiConverter.toRawContractItems(entry.getValue()));
 			}
 		}
+		for (Map.Entry<MyContract, List<RawContractItem>> entry : contractItems.entrySet()) {
+			cache.put(entry.getKey().getContractID(), entry.getValue());
+		}
+		if (!contractItems.isEmpty()) {
+			owner.setContracts(EsiConverter.convertRawContractItems(contractItems, owner));
+		}
+		cache.save();
+	}
+
+	private void pause(long time) {
+		long end = System.currentTimeMillis() + time;
+		long wait = time;
+		while (wait > 0) {
+			checkCancelled();
+			try {
+				Thread.sleep(Math.min(wait, RATE_LIMIT_CHECK));
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new TaskCancelledException();
+			}
+			wait = end - System.currentTimeMillis();
+		}
 	}
 
 	private static synchronized void createContracts(List<EsiOwner> owners) {
 		if (contracts == null) {
 			contracts = new HashMap<>();
+			ContractItemsCache cache = ContractItemsCache.get();
 			Set<MyContract> uniqueContacts = new HashSet<>();
 			Map<Long, EsiOwner> uniqueOwners = new HashMap<>();
+			Set<Integer> openContracts = new HashSet<>();
+			for (EsiOwner esiOwner : owners) {
+				for (MyContract contract : esiOwner.getContracts().keySet()) {
+					if (contract.getStatus() == ContractStatus.OUTSTANDING || contract.getStatus() == ContractStatus.IN_PROGRESS) {
+						openContracts.add(contract.getContractID());
+					}
+				}
+			}
+			cache.retain(openContracts); //Remove contracts that are no longer returned or are closed (the items are saved in the profile)
 			for (EsiOwner esiOwner : owners) {
 				if (!esiOwner.isShowOwner()) {
 					continue;
 				}
 				uniqueOwners.put(esiOwner.getOwnerID(), esiOwner);
 				contracts.put(esiOwner.getOwnerID(), new ArrayList<>());
+				Map<MyContract, List<RawContractItem>> cached = new HashMap<>();
 				for (Map.Entry<MyContract, List<MyContractItem>> entry : esiOwner.getContracts().entrySet()) {
 					MyContract contract = entry.getKey();
 					if (contract.isIgnoreContract()) {
@@ -124,11 +181,19 @@ public class EsiContractItemsGetter extends AbstractEsiGetter {
 					if (entry.getValue() != null && !entry.getValue().isEmpty()) {
 						continue; //Ignore contracts that have been already updated
 					}
+					List<RawContractItem> contractItems = cache.get(contract.getContractID());
+					if (contractItems != null) {
+						cached.put(contract, contractItems); //Already fetched (by this or another owner)
+						continue;
+					}
 					if (esiOwner.isCorporation() && contract.getStatus() == ContractStatus.DELETED) {
 						continue; //Ignore deleted corporation contracts
 					}
 					uniqueContacts.add(contract);
 				}
+				if (!cached.isEmpty()) {
+					esiOwner.setContracts(EsiConverter.convertRawContractItems(cached, esiOwner));
+				}
 			}
 			for (MyContract contract : uniqueContacts) {
 				if (uniqueOwners.containsKey(contract.getIssuerID())) {
@@ -194,19 +194,27 @@ public class EsiConverter extends DataConverter {
 	}
 
 	public static Map<MyContract, List<MyContractItem>> toContractItems(MyContract contract, List<CharacterContractsItemsResponse> responses, OwnerType owner) {
+		return convertRawContractItems(contract, toRawContractItems(responses), owner);
+	}
+
+	public static Map<MyContract, List<MyContractItem>> toContractItemsCorporation(MyContract contract, List<CorporationContractsItemsResponse> responses, OwnerType owner) {
+		return convertRawContractItems(contract, toRawContractItemsCorporation(responses), owner);
+	}
+
+	public static List<RawContractItem> toRawContractItems(List<CharacterContractsItemsResponse> responses) {
 		List<RawContractItem> rawContractItems = new ArrayList<>();
 		for (CharacterContractsItemsResponse response : responses) {
 			rawContractItems.add(new RawContractItem(response));
 		}
-		return convertRawContractItems(contract, rawContractItems, owner);
+		return rawContractItems;
 	}
 
-	public static Map<MyContract, List<MyContractItem>> toContractItemsCorporation(MyContract contract, List<CorporationContractsItemsResponse> responses, OwnerType owner) {
+	public static List<RawContractItem> toRawContractItemsCorporation(List<CorporationContractsItemsResponse> responses) {
 		List<RawContractItem> rawContractItems = new ArrayList<>();
 		for (CorporationContractsItemsResponse response : responses) {
 			rawContractItems.add(new RawContractItem(response));
 		}
-		return convertRawContractItems(contract, rawContractItems, owner);
+		return rawContractItems;
 	}
 
 	public static Set<MyMarketOrder> toMarketOrders(List<CharacterOrdersResponse> responses, List<CharacterOrdersHistoryResponse> responsesHistory, OwnerType owner, boolean saveHistory) {
@@ -263,9 +271,18 @@ public class EsiConverter extends DataConverter {
 		return divisions;
 	}
 
-	public static Map<Integer, Set<RawPublicMarketOrder>> toPublicMarketOrders(List<MarketOrdersResponse> responses) {
-		Map<Integer, Set<RawPublicMarketOrder>> marketOrders = new HashMap<>();
+	/**
+	 * Add the orders with the given typeIDs to marketOrders
+	 * @param marketOrders typeID to orders (will be updated)
+	 * @param responses
+	 * @param typeIDs typeIDs to keep
+	 * @return marketOrders
+	 */
+	public static Map<Integer, Set<RawPublicMarketOrder>> toPublicMarketOrders(Map<Integer, Set<RawPublicMarketOrder>> marketOrders, List<MarketOrdersResponse> responses, Set<Integer> typeIDs) {
 		for (MarketOrdersResponse response : responses) {
+			if (!typeIDs.contains(response.getTypeId())) {
+				continue;
+			}
 			RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response);
 			Set<RawPublicMarketOrder> set = marketOrders.get(marketOrder.getTypeId());
 			if (set == null) {
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import net.nikr.eve.jeveasset.gui.shared.Formater;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared ESI error budget.
+ * Fed by the x-esi-error-limit-remain and x-esi-error-limit-reset headers.
+ * Each request need a permit, the number of requests in flight is limited by the errors left in the time frame.
+ * Threads waiting for a permit do not hold the lock (Object.wait) and wake up with jitter when the time frame is reset.
+ */
+public class EsiErrorLimit {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiErrorLimit.class);
+
+	/**
+	 * ESI error limit per time frame
+	 */
+	public static final int ERROR_LIMIT = 100;
+	/**
+	 * Errors to keep in reserve (never reach zero)
+	 */
+	private static final int ERROR_RESERVE = 10;
+	private static final long NEW_TIME_FRAME_MARGIN = 5000; //5 seconds
+	private static final long RESET_DELAY = 1000; //1 second
+	private static final long RESET_JITTER = 5000; //5 seconds
+	private static final long RETRY_DELAY = 1000; //1 second
+	private static final long RETRY_JITTER = 1000; //1 second
+
+	/**
+	 * Errors left in in this error limit time frame (null if unknown/not limited)
+	 */
+	private Integer errorsRemain = null;
+	/**
+	 * Time when the error limit will be reset
+	 */
+	private long resetTime = 0;
+	/**
+	 * Permits handed out and not yet released
+	 */
+	private int inFlight = 0;
+
+	/**
+	 * Wait until there is room in the error budget.
+	 * Every permit must be released by release()
+	 * @throws TaskCancelledException if interrupted while waiting (no permit is handed out)
+	 */
+	public void acquire() {
+		boolean logged = false;
+		synchronized (this) {
+			while (true) {
+				long now = System.currentTimeMillis();
+				if (errorsRemain != null && now >= resetTime) { //Time frame reset
+					errorsRemain = null;
+				}
+				if (errorsRemain == null || errorsRemain - inFlight > ERROR_RESERVE) {
+					inFlight++;
+					return;
+				}
+				long wait;
+				if (errorsRemain > ERROR_RESERVE) { //Wait for requests in flight to complete or time frame reset
+					wait = resetTime - now + RESET_DELAY;
+				} else { //Error limit reached: wait for time frame reset (with jitter, so not all threads retry at the same time)
+					wait = resetTime - now + RESET_DELAY + ThreadLocalRandom.current().nextLong(RESET_JITTER);
+				}
+				if (!logged) {
+					logged = true;
+					LOG.warn("Error limit reached waiting: " + Formater.milliseconds(wait, false, false));
+				}
+				try {
+					wait(Math.max(wait, 1)); //Release the lock while waiting (0 = forever)
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new TaskCancelledException();
+				}
+			}
+		}
+	}
+
+	public synchronized void release() {
+		inFlight--;
+		notifyAll();
+	}
+
+	/**
+	 * Update the error budget from the ESI headers
+	 * @param errorsRemain x-esi-error-limit-remain (can be null)
+	 * @param errorReset x-esi-error-limit-reset in seconds (can be null)
+	 */
+	public synchronized void update(Integer errorsRemain, Integer errorReset) {
+		if (errorReset != null) {
+			long time = System.currentTimeMillis() + (errorReset * 1000L);
+			if (time > resetTime + NEW_TIME_FRAME_MARGIN) { //New time frame
+				this.errorsRemain = null;
+			}
+			resetTime = time;
+		}
+		if (errorsRemain != null) {
+			if (this.errorsRemain != null) {
+				this.errorsRemain = Math.min(this.errorsRemain, errorsRemain);
+			} else {
+				this.errorsRemain = errorsRemain;
+			}
+			if (this.errorsRemain < ERROR_LIMIT) { //At least one error
+				LOG.warn("Error limit: " + this.errorsRemain);
+			}
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Sleep before retrying a failed request (with jitter)
+	 * @throws TaskCancelledException if interrupted while sleeping
+	 */
+	public void retryDelay() {
+		try {
+			Thread.sleep(RETRY_DELAY + ThreadLocalRandom.current().nextLong(RETRY_JITTER));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new TaskCancelledException();
+		}
+	}
+
+	/**
+	 * Errors left in the current time frame
+	 * @return errors left (ERROR_LIMIT if no errors in this time frame)
+	 */
+	public synchronized int getErrorsRemain() {
+		if (errorsRemain == null || System.currentTimeMillis() >= resetTime) {
+			return ERROR_LIMIT;
+		}
+		return errorsRemain;
+	}
+
+	public synchronized Date getResetDate() {
+		return new Date(resetTime);
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+}
@@ -21,8 +21,12 @@
 package net.nikr.eve.jeveasset.io.esi;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import net.troja.eve.esi.ApiException;
 import net.troja.eve.esi.ApiResponse;
@@ -42,24 +46,49 @@ public class EsiJournalGetter extends AbstractEsiGetter {
 
 	@Override
 	protected void update() throws ApiException {
+		final Set<Long> existing = new HashSet<>();
+		if (saveHistory) {
+			for (MyJournal journal : owner.getJournal()) {
+				existing.add(journal.getRefID());
+			}
+		}
 		if (owner.isCorporation()) {
-			for (int i = 1; i < 8; i++) { //Division 1-7
-				final int division = i;
-				List<CorporationWalletJournalResponse> journals = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CorporationWalletJournalResponse>() {
-					@Override
-					public ApiResponse<List<CorporationWalletJournalResponse>> get(Integer page) throws ApiException {
-						return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionJournalWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, null, page, null);
-					}
-				});
-				int fixedDivision = division + 999;
-				owner.setJournal(EsiConverter.toJournalsCorporation(journals, owner, fixedDivision, saveHistory));
+			Map<Integer, List<CorporationWalletJournalResponse>> responses = updateDivisions(new DivisionHandler<List<CorporationWalletJournalResponse>>() {
+				@Override
+				public List<CorporationWalletJournalResponse> get(final int division) throws ApiException {
+					return updatePages(existing, DEFAULT_RETRIES, new EsiPagesIDsHandler<CorporationWalletJournalResponse>() {
+						@Override
+						public ApiResponse<List<CorporationWalletJournalResponse>> get(Integer page) throws ApiException {
+							return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionJournalWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, null, page, null);
+						}
+
+						@Override
+						public Long getID(CorporationWalletJournalResponse response) {
+							return response.getId();
+						}
+					});
+				}
+			});
+			Set<MyJournal> journals = new HashSet<>();
+			for (Map.Entry<Integer, List<CorporationWalletJournalResponse>> entry : responses.entrySet()) {
+				int fixedDivision = entry.getKey() + 999;
+				journals.addAll(EsiConverter.toJournalsCorporation(entry.getValue(), owner, fixedDivision, false));
+			}
+			if (saveHistory) {
+				journals.addAll(owner.getJournal());
 			}
+			owner.setJournal(journals); //All divisions
 		} else {
-			List<CharacterWalletJournalResponse> journals = updatePages(DEFAULT_RETRIES, new EsiPagesHandler<CharacterWalletJournalResponse>() {
+			List<CharacterWalletJournalResponse> journals = updatePages(existing, DEFAULT_RETRIES, new EsiPagesIDsHandler<CharacterWalletJournalResponse>() {
 				@Override
 				public ApiResponse<List<CharacterWalletJournalResponse>> get(Integer page) throws ApiException {
 					return getWalletApiAuth().getCharactersCharacterIdWalletJournalWithHttpInfo((int) owner.getOwnerID(), DATASOURCE, null, page, null);
 				}
+
+				@Override
+				public Long getID(CharacterWalletJournalResponse response) {
+					return response.getId();
+				}
 			});
 			owner.setJournal(EsiConverter.toJournals(journals, owner, 1000, saveHistory));
 		}
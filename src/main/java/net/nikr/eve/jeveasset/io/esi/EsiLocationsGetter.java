@@ -49,8 +49,13 @@ public class EsiLocationsGetter extends AbstractEsiGetter {
 		if (owner.isCorporation()) {
 			Map<List<Long>, List<CorporationAssetsNamesResponse>> responses = updateList(splitList(iDs.keySet(), LOCATIONS_BATCH_SIZE), DEFAULT_RETRIES, new ListHandler<List<Long>, List<CorporationAssetsNamesResponse>>() {
 				@Override
-				public ApiResponse<List<CorporationAssetsNamesResponse>> get(List<Long> t) throws ApiException {
-					return getAssetsApiAuth().postCorporationsCorporationIdAssetsNamesWithHttpInfo((int) owner.getOwnerID(), t, DATASOURCE, null);
+				public ApiResponse<List<CorporationAssetsNamesResponse>> get(final List<Long> t) throws ApiException {
+					return coalesce("corporations/" + owner.getOwnerID() + "/assets/names/" + t, new EsiHandler<List<CorporationAssetsNamesResponse>>() {
+						@Override
+						public ApiResponse<List<CorporationAssetsNamesResponse>> get() throws ApiException {
+							return getAssetsApiAuth().postCorporationsCorporationIdAssetsNamesWithHttpInfo((int) owner.getOwnerID(), t, DATASOURCE, null);
+						}
+					});
 				}
 			});
 
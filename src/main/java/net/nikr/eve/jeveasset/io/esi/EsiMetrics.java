@@ -0,0 +1,373 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import net.nikr.eve.jeveasset.io.esi.EsiCache.CacheStats;
+import net.nikr.eve.jeveasset.io.local.EsiMetricsWriter;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * ESI request metrics grouped by task and owner.
+ * Latency is counted in a fixed histogram, so the memory used does not grow with the number of requests.
+ */
+public class EsiMetrics {
+
+	/**
+	 * Histogram bucket upper bounds in milliseconds (last bucket is everything above)
+	 */
+	private static final long[] BUCKETS = {50, 100, 200, 300, 500, 750, 1000, 1500, 2000, 3000, 5000, 10000, 20000, Long.MAX_VALUE};
+	private static final ConcurrentHashMap<String, RequestMetrics> METRICS = new ConcurrentHashMap<>();
+	private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+	private static final ThreadLocal<Long> EXCHANGE_TIME = new ThreadLocal<>();
+
+	private EsiMetrics() { }
+
+	public static RequestMetrics get(String taskName, String ownerName) {
+		String key = taskName + " - " + ownerName;
+		RequestMetrics metrics = METRICS.get(key);
+		if (metrics == null) {
+			metrics = new RequestMetrics(taskName, ownerName);
+			RequestMetrics existing = METRICS.putIfAbsent(key, metrics);
+			if (existing != null) {
+				metrics = existing;
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Set the metrics for the requests made by this thread (used by the http interceptor)
+	 * @param metrics metrics or null to clear
+	 */
+	static void setCurrent(RequestMetrics metrics) {
+		EXCHANGE_TIME.remove();
+		if (metrics == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(metrics);
+		}
+	}
+
+	/**
+	 * Add the time of a http exchange made by this thread (used by the http interceptor).
+	 * Only the http exchanges are counted, not the time waiting for the local limiters
+	 * @param millis
+	 */
+	static void exchange(long millis) {
+		if (CURRENT.get() == null) {
+			return;
+		}
+		Long time = EXCHANGE_TIME.get();
+		EXCHANGE_TIME.set(time != null ? time + millis : millis);
+	}
+
+	/**
+	 * Time of the http exchanges made by this thread since setCurrent()
+	 * @return time in milliseconds
+	 */
+	static long getExchangeTime() {
+		Long time = EXCHANGE_TIME.get();
+		return time != null ? time : 0;
+	}
+
+	/**
+	 * Count transferred size and 304 Not Modified for the request made by this thread
+	 * @param response
+	 */
+	static void response(Response response) {
+		RequestMetrics metrics = CURRENT.get();
+		if (metrics == null) {
+			return;
+		}
+		Response networkResponse = response.networkResponse();
+		if (networkResponse == null) {
+			return; //From cache
+		}
+		if (response.cacheResponse() != null) {
+			metrics.notModified();
+			return;
+		}
+		String contentLength = networkResponse.header("Content-Length"); //Transferred size (before gzip is removed)
+		if (contentLength != null) {
+			try {
+				metrics.bytes(Long.parseLong(contentLength));
+			} catch (NumberFormatException ex) {
+				//No problem
+			}
+		} else {
+			ResponseBody body = response.body();
+			if (body != null && body.contentLength() > 0) {
+				metrics.bytes(body.contentLength());
+			}
+		}
+	}
+
+	public static List<RequestMetrics> getMetrics() {
+		List<RequestMetrics> list = new ArrayList<>(METRICS.values());
+		Collections.sort(list);
+		return list;
+	}
+
+	public static void clear() {
+		METRICS.clear();
+	}
+
+	/**
+	 * Machine readable dump (saved as json)
+	 * @return dump
+	 */
+	public static Map<String, Object> getDump() {
+		Map<String, Object> dump = new LinkedHashMap<>();
+		dump.put("date", new Date());
+		dump.put("buckets", RequestMetrics.getBuckets());
+		List<Map<String, Object>> requests = new ArrayList<>();
+		for (RequestMetrics metrics : getMetrics()) {
+			Map<String, Object> request = new LinkedHashMap<>();
+			synchronized (metrics) {
+				request.put("task", metrics.taskName);
+				request.put("owner", metrics.ownerName);
+				request.put("requests", metrics.requests);
+				request.put("retries", metrics.retries);
+				request.put("notModified", metrics.notModified);
+				request.put("errors", metrics.errors);
+				request.put("errorCodes", metrics.getErrorCodes());
+				request.put("bytes", metrics.bytes);
+				request.put("average", metrics.getAverage());
+				request.put("p50", metrics.getPercentile(50));
+				request.put("p95", metrics.getPercentile(95));
+				request.put("p99", metrics.getPercentile(99));
+				request.put("max", metrics.max);
+				request.put("histogram", metrics.getHistogram());
+			}
+			requests.add(request);
+		}
+		dump.put("requests", requests);
+		dump.put("pagesLimit", AbstractEsiGetter.getPagesLimit());
+		dump.put("pagesLatency", AbstractEsiGetter.getPagesLatency());
+		dump.put("errorsRemain", AbstractEsiGetter.getErrorLimit());
+		List<Map<String, Object>> cache = new ArrayList<>();
+		for (CacheStats stats : EsiCache.getCacheStats()) {
+			Map<String, Object> endpoint = new LinkedHashMap<>();
+			endpoint.put("endpoint", stats.getEndpoint());
+			endpoint.put("hits", stats.getHits());
+			endpoint.put("notModified", stats.getNotModified());
+			endpoint.put("misses", stats.getMisses());
+			cache.add(endpoint);
+		}
+		dump.put("cache", cache);
+		return dump;
+	}
+
+	public static void save() {
+		EsiMetricsWriter.save(getDump());
+	}
+
+	/**
+	 * Human readable report (metrics, limits and cache).
+	 * Tab separated, so it can be pasted into a spreadsheet
+	 * @return report
+	 */
+	public static String getReport() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Task\tOwner\tRequests\tRetries\t304\tErrors\tp50 ms\tp95 ms\tp99 ms\tMax ms\tBytes\tError codes\r\n");
+		for (RequestMetrics metrics : getMetrics()) {
+			synchronized (metrics) {
+				builder.append(metrics.taskName).append("\t");
+				builder.append(metrics.ownerName).append("\t");
+				builder.append(metrics.requests).append("\t");
+				builder.append(metrics.retries).append("\t");
+				builder.append(metrics.notModified).append("\t");
+				builder.append(metrics.errors).append("\t");
+				builder.append(metrics.getPercentile(50)).append("\t");
+				builder.append(metrics.getPercentile(95)).append("\t");
+				builder.append(metrics.getPercentile(99)).append("\t");
+				builder.append(metrics.max).append("\t");
+				builder.append(metrics.bytes).append("\t");
+				builder.append(metrics.errorCodes).append("\r\n");
+			}
+		}
+		builder.append("\r\n");
+		builder.append("Page requests limit: ").append(AbstractEsiGetter.getPagesLimit());
+		builder.append(" (in flight: ").append(AbstractEsiGetter.getPagesInFlight());
+		builder.append(", average latency: ").append(AbstractEsiGetter.getPagesLatency()).append(" ms)\r\n");
+		builder.append("Errors left: ").append(AbstractEsiGetter.getErrorLimit()).append(" of ").append(EsiErrorLimit.ERROR_LIMIT).append("\r\n");
+		builder.append("\r\n");
+		for (CacheStats stats : EsiCache.getCacheStats()) {
+			builder.append(stats.toString()).append("\r\n");
+		}
+		return builder.toString();
+	}
+
+	public static class RequestMetrics implements Comparable<RequestMetrics> {
+		private final String taskName;
+		private final String ownerName;
+		private final long[] histogram = new long[BUCKETS.length];
+		private final Map<Integer, Long> errorCodes = new TreeMap<>();
+		private long requests = 0;
+		private long errors = 0;
+		private long retries = 0;
+		private long notModified = 0;
+		private long bytes = 0;
+		private long total = 0;
+		private long max = 0;
+
+		private RequestMetrics(String taskName, String ownerName) {
+			this.taskName = taskName;
+			this.ownerName = ownerName;
+		}
+
+		public synchronized void success(long millis) {
+			request(millis);
+		}
+
+		/**
+		 * @param code http status code (0 = timeout/IO error)
+		 * @param millis
+		 */
+		public synchronized void error(int code, long millis) {
+			request(millis);
+			errors++;
+			Long count = errorCodes.get(code);
+			if (count == null) {
+				errorCodes.put(code, 1L);
+			} else {
+				errorCodes.put(code, count + 1);
+			}
+		}
+
+		public synchronized void retry() {
+			retries++;
+		}
+
+		private synchronized void notModified() {
+			notModified++;
+		}
+
+		private synchronized void bytes(long length) {
+			bytes = bytes + length;
+		}
+
+		private void request(long millis) {
+			requests++;
+			total = total + millis;
+			max = Math.max(max, millis);
+			for (int i = 0; i < BUCKETS.length; i++) {
+				if (millis <= BUCKETS[i]) {
+					histogram[i]++;
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Latency percentile (histogram bucket upper bound, or max if in the last bucket)
+		 * @param percentile 0-100
+		 * @return latency in milliseconds
+		 */
+		public synchronized long getPercentile(int percentile) {
+			if (requests == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(requests * percentile / 100.0);
+			long count = 0;
+			for (int i = 0; i < BUCKETS.length; i++) {
+				count = count + histogram[i];
+				if (count >= rank) {
+					return Math.min(BUCKETS[i], max);
+				}
+			}
+			return max;
+		}
+
+		public String getTaskName() {
+			return taskName;
+		}
+
+		public String getOwnerName() {
+			return ownerName;
+		}
+
+		public synchronized long getRequests() {
+			return requests;
+		}
+
+		public synchronized long getErrors() {
+			return errors;
+		}
+
+		public synchronized Map<Integer, Long> getErrorCodes() {
+			return new TreeMap<>(errorCodes);
+		}
+
+		public synchronized long getRetries() {
+			return retries;
+		}
+
+		public synchronized long getNotModified() {
+			return notModified;
+		}
+
+		public synchronized long getBytes() {
+			return bytes;
+		}
+
+		public synchronized long getAverage() {
+			if (requests == 0) {
+				return 0;
+			}
+			return total / requests;
+		}
+
+		public synchronized long getMax() {
+			return max;
+		}
+
+		/**
+		 * Histogram bucket counts (same order as getBuckets())
+		 * @return counts
+		 */
+		public synchronized long[] getHistogram() {
+			return histogram.clone();
+		}
+
+		public static long[] getBuckets() {
+			return BUCKETS.clone();
+		}
+
+		@Override
+		public int compareTo(RequestMetrics o) {
+			int value = taskName.compareTo(o.taskName);
+			if (value != 0) {
+				return value;
+			}
+			return ownerName.compareTo(o.ownerName);
+		}
+	}
+}
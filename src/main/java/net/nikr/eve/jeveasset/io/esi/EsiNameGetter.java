@@ -20,6 +20,7 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -44,7 +45,13 @@ import net.troja.eve.esi.model.UniverseNamesResponse;
 public class EsiNameGetter extends AbstractEsiGetter {
 
 	private static final long ONE_DAY = 1000 * 60 * 60 * 24;
+	private static final long INVALID_RETRY = ONE_DAY * 30;
+	/**
+	 * Errors to leave for other updates when splitting rejected batches (each rejected batch cost one error)
+	 */
+	private static final int SPLIT_ERROR_RESERVE = 50;
 	private final List<OwnerType> ownerTypes;
+	private int count = 30;
 
 	public EsiNameGetter(UpdateTask updateTask, List<OwnerType> ownerTypes) {
 		super(updateTask, null, false, Settings.getNow(), TaskType.OWNER_ID_TO_NAME);
@@ -54,7 +61,29 @@ public class EsiNameGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		Set<Integer> ids = getOwnerIDs(ownerTypes);
-		Map<List<Integer>, List<UniverseNamesResponse>> responses = updateList(splitList(ids, UNIVERSE_BATCH_SIZE), NO_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
+		Set<Integer> invalid = new HashSet<>();
+		update(splitList(ids, UNIVERSE_BATCH_SIZE), invalid, false);
+		//Do not retry IDs that can not be resolved
+		Date date = new Date(System.currentTimeMillis() + INVALID_RETRY);
+		for (Integer id : invalid) {
+			Settings.get().getOwnersInvalid().put((long) id, date);
+		}
+		if (!invalid.isEmpty()) {
+			logInfo(null, invalid.size() + " invalid IDs");
+		}
+	}
+
+	/**
+	 * Resolve IDs to names.
+	 * Batches rejected because of invalid IDs are split in half until the invalid IDs are isolated.
+	 * Splitting stops when the ESI error budget is low, the remaining IDs are retried on the next update.
+	 * @param batches IDs to resolve
+	 * @param invalid IDs that can not be resolved (will be updated)
+	 * @param retry true if the batches have been rejected before
+	 * @throws ApiException 
+	 */
+	private void update(List<List<Integer>> batches, Set<Integer> invalid, boolean retry) throws ApiException {
+		Map<List<Integer>, List<UniverseNamesResponse>> responses = updateList(batches, NO_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
 			@Override
 			public ApiResponse<List<UniverseNamesResponse>> get(List<Integer> t) throws ApiException {
 				try {
@@ -62,47 +91,50 @@ public class EsiNameGetter extends AbstractEsiGetter {
 				} catch (ApiException ex) {
 					if (ex.getCode() == 404 && ex.getResponseBody().toLowerCase().contains("ensure all ids are valid before resolving")) {
 						handleHeaders(ex);
-						return null; //Ignore this error we will use another endpoint instead
+						return null; //Ignore this error: the batch will be split
 					} else {
 						throw ex;
 					}
 				}
 			}
 		});
-
-		Set<Integer> retries = new HashSet<>(ids);
-		for (Map.Entry<List<Integer>, List<UniverseNamesResponse>> entry : responses.entrySet()) {
-			for (UniverseNamesResponse lookup : entry.getValue()) {
-				Settings.get().getOwners().put((long)lookup.getId(), lookup.getName());
-			}
-			retries.removeAll(entry.getKey());
-		}
-		Map<List<Integer>, List<UniverseNamesResponse>> retryResponses = updateList(splitList(retries, 1), NO_RETRIES, new ListHandler<List<Integer>, List<UniverseNamesResponse>>() {
-			@Override
-			public ApiResponse<List<UniverseNamesResponse>> get(List<Integer> t) throws ApiException {
-				try {
-					return getUniverseApiOpen().postUniverseNamesWithHttpInfo(t, DATASOURCE);
-				} catch (ApiException ex) {
-					if (ex.getCode() == 404 && ex.getResponseBody().toLowerCase().contains("ensure all ids are valid before resolving")) {
-						handleHeaders(ex);
-						return null; //Ignore this error we will use another endpoint instead
-					} else {
-						throw ex;
+		List<List<Integer>> rejected = new ArrayList<>();
+		for (List<Integer> batch : batches) {
+			List<UniverseNamesResponse> response = responses.get(batch);
+			if (response != null) {
+				for (UniverseNamesResponse lookup : response) {
+					Settings.get().getOwners().put((long)lookup.getId(), lookup.getName());
+					Settings.get().getOwnersInvalid().remove((long)lookup.getId());
+					if (retry) {
+						Date date = new Date(System.currentTimeMillis() + (ONE_DAY * count));
+						count--;
+						if (count < 1) {
+							count = 30;
+						}
+						Settings.get().getOwnersNextUpdate().put((long)lookup.getId(), date);
 					}
 				}
+			} else if (batch.size() == 1) { //Invalid ID found
+				invalid.addAll(batch);
+			} else { //Split in half
+				int half = batch.size() / 2;
+				rejected.add(new ArrayList<>(batch.subList(0, half)));
+				rejected.add(new ArrayList<>(batch.subList(half, batch.size())));
 			}
-		});
-		int count = 30;
-		for (Map.Entry<List<Integer>, List<UniverseNamesResponse>> entry : retryResponses.entrySet()) {
-			for (UniverseNamesResponse lookup : entry.getValue()) {
-				Settings.get().getOwners().put((long)lookup.getId(), lookup.getName());
-				Date date = new Date(System.currentTimeMillis() + (ONE_DAY * count));
-				count--;
-				if (count < 1) {
-					count = 30;
-				}
-				Settings.get().getOwnersNextUpdate().put((long)lookup.getId(), date);
+		}
+		if (rejected.isEmpty()) {
+			return;
+		}
+		int budget = getErrorLimit() - SPLIT_ERROR_RESERVE;
+		if (rejected.size() > budget) { //Not enough errors left to split all rejected batches
+			int skipped = 0;
+			while (!rejected.isEmpty() && rejected.size() > budget) {
+				skipped += rejected.remove(rejected.size() - 1).size();
 			}
+			logInfo(null, "Error limit low: " + skipped + " IDs skipped until next update");
+		}
+		if (!rejected.isEmpty()) {
+			update(rejected, invalid, true);
 		}
 	}
 
@@ -147,6 +179,11 @@ public class EsiNameGetter extends AbstractEsiGetter {
 		if (nextUpdate != null && !Updatable.isUpdatable(nextUpdate)) {
 			return; 
 		}
+		//Invalid IDs
+		Date invalidUpdate = Settings.get().getOwnersInvalid().get(number.longValue());
+		if (invalidUpdate != null && !Updatable.isUpdatable(invalidUpdate)) {
+			return;
+		}
 		int l = number.intValue();
 		if (l >= 100) {
 			list.add(l);
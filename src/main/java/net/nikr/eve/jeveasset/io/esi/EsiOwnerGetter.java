@@ -70,7 +70,12 @@ public class EsiOwnerGetter extends AbstractEsiGetter implements AccountAdder{
 		CharacterResponse character = update(DEFAULT_RETRIES, new EsiHandler<CharacterResponse>() {
 			@Override
 			public ApiResponse<CharacterResponse> get() throws ApiException {
-				return getCharacterApiOpen().getCharactersCharacterIdWithHttpInfo(characterID, DATASOURCE, null);
+				return coalesce("characters/" + characterID, new EsiHandler<CharacterResponse>() {
+					@Override
+					public ApiResponse<CharacterResponse> get() throws ApiException {
+						return getCharacterApiOpen().getCharactersCharacterIdWithHttpInfo(characterID, DATASOURCE, null);
+					}
+				});
 			}
 		});
 		Integer corporationID = character.getCorporationId();
@@ -78,7 +83,12 @@ public class EsiOwnerGetter extends AbstractEsiGetter implements AccountAdder{
 		CorporationResponse corporation = update(DEFAULT_RETRIES, new EsiHandler<CorporationResponse>() {
 			@Override
 			public ApiResponse<CorporationResponse> get() throws ApiException {
-				return getCorporationApiOpen().getCorporationsCorporationIdWithHttpInfo(corporationID, DATASOURCE, null);
+				return coalesce("corporations/" + corporationID, new EsiHandler<CorporationResponse>() {
+					@Override
+					public ApiResponse<CorporationResponse> get() throws ApiException {
+						return getCorporationApiOpen().getCorporationsCorporationIdWithHttpInfo(corporationID, DATASOURCE, null);
+					}
+				});
 			}
 		});
 		boolean isCorporation = EsiScopes.CORPORATION_ROLES.isInScope(payload.getScopes());
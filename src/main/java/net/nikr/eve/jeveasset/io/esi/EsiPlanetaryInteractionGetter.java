@@ -62,7 +62,12 @@ public class EsiPlanetaryInteractionGetter extends AbstractEsiGetter {
 			PlanetResponse planet = update(DEFAULT_RETRIES, new EsiHandler<PlanetResponse>() {
 				@Override
 				public ApiResponse<PlanetResponse> get() throws ApiException {
-					return getUniverseApiOpen().getUniversePlanetsPlanetIdWithHttpInfo(response.getPlanetId(), DATASOURCE, null);
+					return coalesce("universe/planets/" + response.getPlanetId(), new EsiHandler<PlanetResponse>() {
+						@Override
+						public ApiResponse<PlanetResponse> get() throws ApiException {
+							return getUniverseApiOpen().getUniversePlanetsPlanetIdWithHttpInfo(response.getPlanetId(), DATASOURCE, null);
+						}
+					});
 				}
 			});
 			Citadel citadel = ApiIdConverter.getCitadel(planet);
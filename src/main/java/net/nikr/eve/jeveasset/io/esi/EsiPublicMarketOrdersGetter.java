@@ -20,7 +20,9 @@
  */
 package net.nikr.eve.jeveasset.io.esi;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,9 +31,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import net.nikr.eve.jeveasset.data.api.raw.RawPublicMarketOrder;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.data.settings.Citadel;
+import net.nikr.eve.jeveasset.data.settings.MarketOrderSnapshots;
+import net.nikr.eve.jeveasset.data.settings.MarketOrderSnapshots.RegionSnapshot;
 import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.data.settings.StructureMarketAccess;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
-import net.nikr.eve.jeveasset.gui.shared.Formater;
 import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser;
 import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserInput;
 import net.nikr.eve.jeveasset.gui.tabs.orders.OutbidProcesser.OutbidProcesserOutput;
@@ -72,38 +76,46 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 	@Override
 	protected void update() throws ApiException {
 		AtomicInteger count = new AtomicInteger(0);
-		//Update public market orders
-		List<MarketOrdersResponse> responses = updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, MarketOrdersResponse>() {
+		final Map<Integer, Set<RawPublicMarketOrder>> orders = new HashMap<>();
+		final MarketOrderSnapshots snapshots = MarketOrderSnapshots.get();
+		//Update public market orders (pages are processed as they arrive, only orders with the typeIDs of our orders are kept)
+		updatePagedList(input.getRegionIDs(), new PagedListHandler<Integer, Object>() {
 			@Override
-			protected List<MarketOrdersResponse> get(Integer k) throws ApiException {
+			protected List<Object> get(Integer k) throws ApiException {
 				try {
-					return updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketOrdersResponse>() {
-						@Override
-						public ApiResponse<List<MarketOrdersResponse>> get(Integer page) throws ApiException {
-							ApiResponse<List<MarketOrdersResponse>> response = getMarketApiOpen().getMarketsRegionIdOrdersWithHttpInfo("all", k, DATASOURCE, null, page, null);
-							if (lastUpdate == null) {
-								String header = getHeader(response.getHeaders(), "last-modified");
-								if (header != null) {
-									lastUpdate = Formater.parseExpireDate(header);
-								}
+					RegionOrders regionOrders = new RegionOrders(k);
+					RegionSnapshot snapshot = snapshots.get(k, input.getTypeIDs().keySet());
+					if (snapshot != null && !snapshot.isCurrent()) {
+						//Check if the region have been modified (page 1 is kept by the http cache, so it's not downloaded twice)
+						update(DEFAULT_RETRIES, new EsiHandler<List<MarketOrdersResponse>>() {
+							@Override
+							public ApiResponse<List<MarketOrdersResponse>> get() throws ApiException {
+								return regionOrders.get(1);
 							}
-							return response;
+						});
+						if (snapshot.isModified(regionOrders.getLastModified())) {
+							snapshot = null;
+						} else {
+							snapshot = snapshot.copy(regionOrders.getExpires());
+							snapshots.put(k, snapshot);
 						}
-					});
+					}
+					if (snapshot == null) {
+						updatePages(DEFAULT_RETRIES, regionOrders, regionOrders);
+						snapshot = new RegionSnapshot(regionOrders.getLastModified(), regionOrders.getExpires(), input.getTypeIDs().keySet(), regionOrders.getOrders(), regionOrders.getStructures());
+						snapshots.put(k, snapshot);
+					} else {
+						logInfo(null, "Using saved orders for region " + k);
+					}
+					addSnapshot(snapshot, orders);
+					return null;
 				} finally {
 					setProgressAll(input.getRegionIDs().size(), count.incrementAndGet(), 0, 40);
 				}
 			}
 		});
-		Map<Integer, Set<RawPublicMarketOrder>> orders = EsiConverter.toPublicMarketOrders(responses);
-		for (MarketOrdersResponse ordersResponse : responses) {
-			//Find leaking market structures
-			if (ordersResponse.getLocationId() > 100000000) {
-				input.getStructureIDs().add(ordersResponse.getLocationId());
-			}
-			//Map known locationID <=> systemID
-			input.getLocationToSystem().put(ordersResponse.getLocationId(), RawConverter.toLong(ordersResponse.getSystemId()));
-		}
+		snapshots.retain(input.getRegionIDs(), input.getTypeIDs().keySet()); //Remove regions and orders no longer used
+		snapshots.save();
 		//Get public structures
 		input.getStructureIDs().addAll(update(DEFAULT_RETRIES, new EsiHandler<List<Long>>() {
 			@Override
@@ -115,37 +127,60 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 		count.set(0);
 		MarketApi marketApi = input.getMarketApi();
 		if (marketApi != null) {
-			List<MarketStructuresResponse> structuresResponses = updatePagedList(input.getStructureIDs(), new PagedListHandler<Long, MarketStructuresResponse>() {
+			//Skip structures known to deny market access
+			final StructureMarketAccess structureMarketAccess = StructureMarketAccess.get();
+			final Set<Long> structureIDs = new HashSet<>();
+			for (Long structureID : input.getStructureIDs()) {
+				if (!structureMarketAccess.isDenied(structureID)) {
+					structureIDs.add(structureID);
+				}
+			}
+			if (structureIDs.size() < input.getStructureIDs().size()) {
+				logInfo(null, "Skipping " + (input.getStructureIDs().size() - structureIDs.size()) + " of " + input.getStructureIDs().size() + " structures (market access denied)");
+			}
+			updatePagedList(structureIDs, new PagedListHandler<Long, Object>() {
 				@Override
-				protected List<MarketStructuresResponse> get(Long k) throws ApiException {
+				protected List<Object> get(Long k) throws ApiException {
 					try {
-						return updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketStructuresResponse>() {
+						updatePages(DEFAULT_RETRIES, new EsiPagesHandler<MarketStructuresResponse>() {
 							@Override
 							public ApiResponse<List<MarketStructuresResponse>> get(Integer page) throws ApiException {
 								return marketApi.getMarketsStructuresStructureIdWithHttpInfo(k, DATASOURCE, null, page, null);
 							}
+						}, new EsiPageConsumer<MarketStructuresResponse>() {
+							@Override
+							public void consume(List<MarketStructuresResponse> page) {
+								synchronized (orders) {
+									for (MarketStructuresResponse response : page) {
+										if (!input.getTypeIDs().containsKey(response.getTypeId())) {
+											continue;
+										}
+										RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response, getSystemID(input, response.getLocationId()));
+										Set<RawPublicMarketOrder> set = orders.get(marketOrder.getTypeId());
+										if (set == null) {
+											set = new HashSet<>();
+											orders.put(marketOrder.getTypeId(), set);
+										}
+										set.add(marketOrder);
+									}
+								}
+							}
 						});
+						structureMarketAccess.allowed(k);
+						return null;
 					} catch (ApiException ex) {
-						if (ex.getCode() == 403 && ex.getResponseBody().toLowerCase().contains("market access denied")) {
-							System.out.println(ex.getResponseBody() + "|" + ex.getMessage());
+						if (ex.getCode() == 403 && ex.getResponseBody() != null && ex.getResponseBody().toLowerCase().contains("market access denied")) {
+							structureMarketAccess.denied(k);
 							return null;
 						} else {
 							throw ex;
 						}
 					} finally {
-						setProgressAll(input.getStructureIDs().size(), count.incrementAndGet(), 40, 80);
+						setProgressAll(structureIDs.size(), count.incrementAndGet(), 40, 80);
 					}
 				}
 			});
-			for (MarketStructuresResponse response : structuresResponses) {
-				RawPublicMarketOrder marketOrder = new RawPublicMarketOrder(response, getSystemID(input, response.getLocationId()));
-				Set<RawPublicMarketOrder> set =  orders.get(marketOrder.getTypeId());
-				if (set == null) {
-					set = new HashSet<>();
-					orders.put(marketOrder.getTypeId(), set);
-				}
-				set.add(marketOrder);
-			}
+			structureMarketAccess.save();
 		} else {
 			addError("NO ENOUGH ACCESS PRIVILEGES", "No character with market orders structure scope found\r\n(Add scope: [Options] > [Acounts...] > [Edit])");
 		}
@@ -159,6 +194,32 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 		}
 	}
 
+	private void addSnapshot(RegionSnapshot snapshot, Map<Integer, Set<RawPublicMarketOrder>> orders) {
+		synchronized (orders) {
+			for (Map.Entry<Long, Long> entry : snapshot.getStructures().entrySet()) {
+				//Find leaking market structures
+				input.getStructureIDs().add(entry.getKey());
+				//Map known locationID <=> systemID
+				input.getLocationToSystem().put(entry.getKey(), entry.getValue());
+			}
+			for (RawPublicMarketOrder marketOrder : snapshot.getOrders()) {
+				Set<RawPublicMarketOrder> set = orders.get(marketOrder.getTypeId());
+				if (set == null) {
+					set = new HashSet<>();
+					orders.put(marketOrder.getTypeId(), set);
+				}
+				set.add(marketOrder);
+			}
+			setLastUpdate(snapshot.getLastModified());
+		}
+	}
+
+	private synchronized void setLastUpdate(Date date) {
+		if (lastUpdate == null) {
+			lastUpdate = date;
+		}
+	}
+
 	private void setProgressAll(final float progressEnd, final float progressNow, final int minimum, final int maximum) {
 		if (updateTask != null) {
 			updateTask.setTaskProgress(progressEnd, progressNow, minimum, maximum);
@@ -219,4 +280,60 @@ public class EsiPublicMarketOrdersGetter extends AbstractEsiGetter {
 		return null;
 	}
 
+	private class RegionOrders implements EsiPagesHandler<MarketOrdersResponse>, EsiPageConsumer<MarketOrdersResponse> {
+
+		private final Integer regionID;
+		private final Map<Integer, Set<RawPublicMarketOrder>> orders = new HashMap<>();
+		private final Map<Long, Long> structures = new HashMap<>();
+		private Date lastModified;
+		private Date expires;
+
+		public RegionOrders(Integer regionID) {
+			this.regionID = regionID;
+		}
+
+		@Override
+		public ApiResponse<List<MarketOrdersResponse>> get(Integer page) throws ApiException {
+			ApiResponse<List<MarketOrdersResponse>> response = getMarketApiOpen().getMarketsRegionIdOrdersWithHttpInfo("all", regionID, DATASOURCE, null, page, null);
+			if (page == 1) {
+				synchronized (this) {
+					lastModified = getHeaderDate(response.getHeaders(), "last-modified");
+					expires = getHeaderDate(response.getHeaders(), "expires");
+				}
+			}
+			return response;
+		}
+
+		@Override
+		public synchronized void consume(List<MarketOrdersResponse> page) {
+			for (MarketOrdersResponse ordersResponse : page) {
+				//Structures (leaking market structures and locationID <=> systemID)
+				if (ordersResponse.getLocationId() > 100000000) {
+					structures.put(ordersResponse.getLocationId(), RawConverter.toLong(ordersResponse.getSystemId()));
+				}
+			}
+			EsiConverter.toPublicMarketOrders(orders, page, input.getTypeIDs().keySet());
+		}
+
+		public synchronized Date getLastModified() {
+			return lastModified;
+		}
+
+		public synchronized Date getExpires() {
+			return expires;
+		}
+
+		public synchronized List<RawPublicMarketOrder> getOrders() {
+			List<RawPublicMarketOrder> list = new ArrayList<>();
+			for (Set<RawPublicMarketOrder> set : orders.values()) {
+				list.addAll(set);
+			}
+			return list;
+		}
+
+		public synchronized Map<Long, Long> getStructures() {
+			return structures;
+		}
+	}
+
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.nikr.eve.jeveasset.gui.shared.Formater;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import net.troja.eve.esi.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Endpoint rate limit.
+ * Requests are not delayed until ESI reports that the rate limit is exceeded.
+ * Then all requests are paused for the time given by the retry-after header (or the remainingTime of ConStopSpamming),
+ * or, if there is neither, for a delay that is doubled for each rate limited response in a row.
+ */
+public class EsiRateLimit {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiRateLimit.class);
+
+	private static final long MIN_DELAY = 10000; //10 seconds
+	private static final long MAX_DELAY = 120000; //2 minutes
+	private static final long TICKS_PER_MILLISECOND = 10000; //remainingTime is in 100 nanosecond ticks
+	private static final Pattern REMAINING_TIME = Pattern.compile("remainingTime'?\"?\\s*:\\s*(\\d+)");
+
+	private long pausedUntil = 0;
+	private long delay = MIN_DELAY;
+
+	/**
+	 * Wait until the rate limit pause is over
+	 * @param maxWait max time to wait in milliseconds (so the caller can check if it's been cancelled)
+	 * @return true if the request can be made
+	 */
+	public synchronized boolean await(long maxWait) {
+		long wait = pausedUntil - System.currentTimeMillis();
+		if (wait <= 0) {
+			return true;
+		}
+		try {
+			wait(Math.min(wait, maxWait)); //Release the lock while waiting
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new TaskCancelledException();
+		}
+		return pausedUntil <= System.currentTimeMillis();
+	}
+
+	public synchronized void success() {
+		delay = MIN_DELAY;
+	}
+
+	/**
+	 * Pause all requests
+	 * @param retryAfter time to wait in milliseconds (can be null)
+	 */
+	public synchronized void limited(Long retryAfter) {
+		long now = System.currentTimeMillis();
+		long wait;
+		if (retryAfter != null) {
+			wait = Math.min(MAX_DELAY, retryAfter);
+		} else {
+			wait = delay;
+			delay = Math.min(MAX_DELAY, delay * 2);
+		}
+		if (now + wait > pausedUntil) { //Only log once for requests limited at the same time
+			pausedUntil = now + wait;
+			LOG.warn("Rate limit exceeded waiting: " + Formater.milliseconds(wait, false, false));
+		}
+	}
+
+	public static boolean isRateLimited(ApiException ex) {
+		if (ex.getCode() == 429) { //Too many requests
+			return true;
+		}
+		String body = ex.getResponseBody();
+		if (ex.getCode() == 520 && body != null && body.contains("ConStopSpamming")) { //Corporation contract items
+			return true;
+		}
+		return ex.getCode() >= 500 && body != null && body.toLowerCase().contains("rate limit"); //Rate limit reported as a CCP error
+	}
+
+	/**
+	 * Time to wait from the ConStopSpamming error.
+	 * {"error":"ConStopSpamming, details: {'remainingTime': 12020190}"}
+	 * @param ex
+	 * @return time to wait in milliseconds or null if not found
+	 */
+	public static Long getRemainingTime(ApiException ex) {
+		String body = ex.getResponseBody();
+		if (body == null) {
+			return null;
+		}
+		Matcher matcher = REMAINING_TIME.matcher(body);
+		if (!matcher.find()) {
+			return null;
+		}
+		try {
+			return Long.valueOf(matcher.group(1)) / TICKS_PER_MILLISECOND + 1;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -23,6 +23,7 @@ package net.nikr.eve.jeveasset.io.esi;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
@@ -45,29 +46,38 @@ public class EsiTransactionsGetter extends AbstractEsiGetter {
 
 	@Override
 	protected void update() throws ApiException {
-		Set<Long> existing = new HashSet<>();
+		final Set<Long> existing = new HashSet<>();
 		if (saveHistory) {
 			for (MyTransaction transaction : owner.getTransactions()) {
 				existing.add(transaction.getTransactionID());
 			}
 		}
 		if (owner.isCorporation()) {
-			for (int i = 1; i < 8; i++) { //Division 1-7
-				final int division = i;
-				List<CorporationWalletTransactionsResponse> responses = updateIDs(existing, DEFAULT_RETRIES, new IDsHandler<CorporationWalletTransactionsResponse>() {
-					@Override
-					public ApiResponse<List<CorporationWalletTransactionsResponse>> get(Long fromID) throws ApiException {
-						return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionTransactionsWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, fromID, null, null);
-					}
+			Map<Integer, List<CorporationWalletTransactionsResponse>> responses = updateDivisions(new DivisionHandler<List<CorporationWalletTransactionsResponse>>() {
+				@Override
+				public List<CorporationWalletTransactionsResponse> get(final int division) throws ApiException {
+					return updateIDs(existing, DEFAULT_RETRIES, new IDsHandler<CorporationWalletTransactionsResponse>() {
+						@Override
+						public ApiResponse<List<CorporationWalletTransactionsResponse>> get(Long fromID) throws ApiException {
+							return getWalletApiAuth().getCorporationsCorporationIdWalletsDivisionTransactionsWithHttpInfo((int) owner.getOwnerID(), division, DATASOURCE, fromID, null, null);
+						}
 
-					@Override
-					public Long getID(CorporationWalletTransactionsResponse response) {
-						return response.getTransactionId();
-					}
-				});
-				int fixedDivision = division + 999;
-				owner.setTransactions(EsiConverter.toTransactionCorporation(responses, owner, fixedDivision, saveHistory));
+						@Override
+						public Long getID(CorporationWalletTransactionsResponse response) {
+							return response.getTransactionId();
+						}
+					});
+				}
+			});
+			Set<MyTransaction> transactions = new HashSet<>();
+			for (Map.Entry<Integer, List<CorporationWalletTransactionsResponse>> entry : responses.entrySet()) {
+				int fixedDivision = entry.getKey() + 999;
+				transactions.addAll(EsiConverter.toTransactionCorporation(entry.getValue(), owner, fixedDivision, false));
+			}
+			if (saveHistory) {
+				transactions.addAll(owner.getTransactions());
 			}
+			owner.setTransactions(transactions); //All divisions
 		} else {
 			List<CharacterWalletTransactionsResponse> responses = updateIDs(existing, DEFAULT_RETRIES, new IDsHandler<CharacterWalletTransactionsResponse>() {
 				@Override
@@ -26,6 +26,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import net.nikr.eve.jeveasset.Program;
@@ -67,6 +69,19 @@ public abstract class AbstractBackup extends AttributeGetters {
 		renameFile(getNewFile(filename), targetFile);
 	}
 
+	/**
+	 * Copy target to bac. For files that are updated in place (databases)
+	 * @param filename
+	 * @throws IOException
+	 */
+	protected void copyBackupFile(final String filename) throws IOException {
+		File newFile = getNewFile(filename);
+		//target to new (bac is safe)
+		Files.copy(new File(filename).toPath(), newFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		//new to bac (target is safe)
+		renameFile(newFile, getBackupFile(filename));
+	}
+
 	protected File getNewFile(final String filename) {
 		return new File(filename.substring(0, filename.lastIndexOf(".")) + ".new");
 	}
@@ -114,11 +129,24 @@ public abstract class AbstractBackup extends AttributeGetters {
 		}
 	}
 
+	/**
+	 * Lock file for writing
+	 * @param filename
+	 */
 	protected void lock(final String filename) {
 		File xmlFile = new File(filename);
 		FileLock.lock(xmlFile);
 	}
 
+	/**
+	 * Lock file for reading (other readers are not locked out)
+	 * @param filename
+	 */
+	protected void lockShared(final String filename) {
+		File xmlFile = new File(filename);
+		FileLock.lockShared(xmlFile);
+	}
+
 	protected void unlock(final String filename) {
 		File xmlFile = new File(filename);
 		FileLock.unlock(xmlFile);
@@ -48,8 +48,7 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 			return doNotExistValue();
 		}
 		try {
-			Element element = getDocumentElement(filename, xmlType);
-			T t = parse(element);
+			T t = parseFile(filename, xmlType);
 			LOG.info(name+ " loaded");
 			return t;
 		} catch (IOException ex) {
@@ -75,11 +74,25 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 		}
 	}
 
+	/**
+	 * Parse the file as a DOM.
+	 * Overridden by AbstractXmlStreamReader to parse the file one element at a time
+	 * @param filename
+	 * @param xmlType
+	 * @return
+	 * @throws XmlException
+	 * @throws IOException
+	 */
+	protected T parseFile(final String filename, final XmlType xmlType) throws XmlException, IOException {
+		Element element = getDocumentElement(filename, xmlType);
+		return parse(element);
+	}
+
 	protected abstract T parse(Element element) throws XmlException;
 	protected abstract T failValue();
 	protected abstract T doNotExistValue();
 
-	private void staticDataFix() {
+	private static synchronized void staticDataFix() { //Readers can run in parallel: only show one fix dialog at a time
 		Updater updater = new Updater();
 		updater.fixData();
 	}
@@ -88,7 +101,7 @@ public abstract class AbstractXmlReader<T> extends AbstractBackup {
 		FileInputStream is = null;
 		try {
 			if (xmlType == XmlType.DYNAMIC || xmlType == XmlType.DYNAMIC_BACKUP) {
-				lock(filename);
+				lockShared(filename);
 			}
 			File file = new File(filename);
 			is = new FileInputStream(file);
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+
+public abstract class AbstractXmlStreamReader<T> extends AbstractXmlReader<T> {
+
+	private Document document = null;
+	private boolean stream = true;
+
+	/**
+	 * @param name
+	 * @param filename
+	 * @param xmlType
+	 * @param stream true to parse the file with parse(XMLStreamReader), false to parse it as a DOM with parse(Element)
+	 * @return
+	 */
+	protected T read(final String name, final String filename, final XmlType xmlType, final boolean stream) {
+		this.stream = stream;
+		return read(name, filename, xmlType);
+	}
+
+	@Override
+	protected T parseFile(final String filename, final XmlType xmlType) throws XmlException, IOException {
+		if (stream) {
+			return parseStream(filename, xmlType);
+		} else {
+			return super.parseFile(filename, xmlType);
+		}
+	}
+
+	/**
+	 * Parse the file one element at a time.
+	 * @param reader positioned at the start of the document
+	 * @return
+	 * @throws XmlException
+	 * @throws XMLStreamException
+	 */
+	protected abstract T parse(XMLStreamReader reader) throws XmlException, XMLStreamException;
+
+	private T parseStream(final String filename, final XmlType xmlType) throws XmlException, IOException {
+		FileInputStream is = null;
+		XMLStreamReader reader = null;
+		try {
+			if (xmlType == XmlType.DYNAMIC || xmlType == XmlType.DYNAMIC_BACKUP) {
+				lockShared(filename);
+			}
+			File file = new File(filename);
+			is = new FileInputStream(file);
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			reader = factory.createXMLStreamReader(is);
+			document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			T t = parse(reader);
+			if (xmlType == XmlType.DYNAMIC_BACKUP) {
+				backup(filename);
+			}
+			return t;
+		} catch (XMLStreamException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} catch (ParserConfigurationException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} finally {
+			document = null;
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException ex) {
+					//No problem
+				}
+			}
+			if (is != null) {
+				is.close();
+			}
+			if (xmlType == XmlType.DYNAMIC || xmlType == XmlType.DYNAMIC_BACKUP) {
+				unlock(filename); //Last thing to do
+			}
+		}
+	}
+
+	/**
+	 * Move to the start of the next child element with the given name.
+	 * Other child elements are skipped
+	 * @param reader
+	 * @param name
+	 * @return true if found, false if the end of the parent element was reached
+	 * @throws XMLStreamException
+	 */
+	protected boolean nextElement(final XMLStreamReader reader, final String name) throws XMLStreamException {
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			if (reader.getLocalName().equals(name)) {
+				return true;
+			}
+			skipElement(reader);
+		}
+		return false;
+	}
+
+	/**
+	 * Skip the current element (including all child elements)
+	 * @param reader positioned at the start of the element. Left at the end of the element
+	 * @throws XMLStreamException
+	 */
+	protected void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Create a detached element with the attributes of the current element.
+	 * The reader is not moved, so the child elements can be read one at a time afterwards
+	 * @param reader positioned at the start of the element
+	 * @return element without child elements
+	 */
+	protected Element readAttributes(final XMLStreamReader reader) {
+		Element element = document.createElement(reader.getLocalName());
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	/**
+	 * Create a detached element with the attributes and child elements of the current element.
+	 * Used for the small parts of the file, so they can be parsed the same way as the DOM
+	 * @param reader positioned at the start of the element. Left at the end of the element
+	 * @return element with child elements
+	 * @throws XMLStreamException
+	 */
+	protected Element readElement(final XMLStreamReader reader) throws XMLStreamException {
+		Element element = readAttributes(reader);
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			element.appendChild(readElement(reader));
+		}
+		return element;
+	}
+}
@@ -22,16 +22,22 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.awt.Color;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -46,6 +52,8 @@ import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 
 public abstract class AbstractXmlWriter extends AbstractBackup {
@@ -77,6 +85,116 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 		writeXmlFile(doc, filename, "UTF-16", createBackup, false);
 	}
 
+	/**
+	 * Write xml one element at a time.
+	 * Streamed directly to the file or, if stream is false, build as a DOM first
+	 * @param rootname Name of the root element
+	 * @param elements Elements to write
+	 * @param filename
+	 * @param createBackup
+	 * @param stream true to stream the elements to file, false to build and write a DOM
+	 * @throws XmlException
+	 */
+	protected void writeXmlFile(final String rootname, final XmlElements elements, final String filename, final boolean createBackup, final boolean stream) throws XmlException {
+		if (stream) {
+			writeXmlStream(rootname, elements, filename, createBackup);
+		} else {
+			Document xmldoc = getXmlDocument(rootname);
+			elements.write(new DomElementWriter(xmldoc));
+			writeXmlFile(xmldoc, filename, createBackup);
+		}
+	}
+
+	/**
+	 * Write xml from pre-formatted child elements.
+	 * @param rootname Name of the root element
+	 * @param attributes Root element attributes
+	 * @param fragments Child elements created by toXmlFragment(Element)
+	 * @param filename
+	 * @param createBackup
+	 * @throws XmlException
+	 */
+	protected void writeXmlFile(final String rootname, final Map<String, String> attributes, final Collection<String> fragments, final String filename, final boolean createBackup) throws XmlException {
+		writeXmlStream(rootname, new XmlElements() {
+			@Override
+			public void write(XmlElementWriter writer) throws XmlException {
+				for (Map.Entry<String, String> entry : attributes.entrySet()) {
+					writer.setAttribute(entry.getKey(), entry.getValue());
+				}
+				for (String fragment : fragments) {
+					((StreamElementWriter) writer).writeFragment(fragment);
+				}
+			}
+		}, filename, createBackup);
+	}
+
+	/**
+	 * Format a child element of the root element.
+	 * Same format as when the element is written as part of the document
+	 * @param element Child element of the root element
+	 * @return the formatted element
+	 * @throws XmlException
+	 */
+	protected String toXmlFragment(final Element element) throws XmlException {
+		StringWriter writer = new StringWriter();
+		StreamElementWriter elementWriter = new StreamElementWriter(writer, 1);
+		writeElement(elementWriter, element);
+		return writer.toString();
+	}
+
+	private void writeElement(final XmlElementWriter writer, final Element element) throws XmlException {
+		writer.startElement(element.getTagName());
+		NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Node attribute = attributes.item(i);
+			writer.setAttribute(attribute.getNodeName(), attribute.getNodeValue());
+		}
+		for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element) {
+				writeElement(writer, (Element) node);
+			}
+		}
+		writer.endElement();
+	}
+
+	private void writeXmlStream(final String rootname, final XmlElements elements, final String filename, final boolean createBackup) throws XmlException {
+		Writer writer = null;
+		File file;
+		if (createBackup) {
+			file = getNewFile(filename); //Save to .new file
+		} else {
+			file = new File(filename);
+		}
+		try {
+			lock(filename);
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-16"));
+			StreamElementWriter elementWriter = new StreamElementWriter(writer);
+			elementWriter.startDocument("UTF-16");
+			elementWriter.startElement(rootname);
+			elements.write(elementWriter);
+			elementWriter.endElement();
+			elementWriter.endDocument();
+			writer.close();
+			writer = null;
+			//Saving done - create backup and rename new file to target
+			//Only when everything was written, as the file is written while the elements are created
+			if (createBackup) {
+				backupFile(filename); //Rename .xml => .bac (.new is safe) and .new => .xml (.bac is safe). That way we always have at least one safe file
+			}
+		} catch (IOException ex) {
+			throw new XmlException(ex.getMessage(), ex);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			unlock(filename); //Last thing to do
+		}
+	}
+
 	private void writeXmlFile(final Document doc, final String filename, final String encoding, boolean createBackup, boolean fitting) throws XmlException {
 		DOMSource source = new DOMSource(doc);
 		FileOutputStream outputStream = null;
@@ -149,7 +267,7 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 		node.setAttribute(qualifiedName, value);
 	}
 
-	private String valueOf(final Object object) {
+	private static String valueOf(final Object object) {
 		if (object == null) {
 			throw new RuntimeException("Can't save null");
 		} else if (object instanceof Collection) {
@@ -171,4 +289,190 @@ public abstract class AbstractXmlWriter extends AbstractBackup {
 			return String.valueOf(object);
 		}
 	}
+
+	protected interface XmlElements {
+		public void write(XmlElementWriter writer) throws XmlException;
+	}
+
+	/**
+	 * Write xml elements in document order.
+	 * Attributes must be set before the child elements are started
+	 */
+	protected abstract static class XmlElementWriter {
+
+		public abstract void startElement(final String name) throws XmlException;
+
+		public abstract void setAttribute(final String name, final String value) throws XmlException;
+
+		public abstract void endElement() throws XmlException;
+
+		public void setAttribute(final String name, final Object value) throws XmlException {
+			setAttribute(name, valueOf(value));
+		}
+
+		public void setAttributeOptional(final String name, final Object value) throws XmlException {
+			if (value != null) {
+				setAttribute(name, valueOf(value));
+			}
+		}
+	}
+
+	private static class DomElementWriter extends XmlElementWriter {
+
+		private final Document xmldoc;
+		private final Deque<Element> elements = new ArrayDeque<>();
+
+		public DomElementWriter(final Document xmldoc) {
+			this.xmldoc = xmldoc;
+			elements.push(xmldoc.getDocumentElement());
+		}
+
+		@Override
+		public void startElement(final String name) {
+			Element node = xmldoc.createElement(name);
+			elements.peek().appendChild(node);
+			elements.push(node);
+		}
+
+		@Override
+		public void setAttribute(final String name, final String value) {
+			elements.peek().setAttribute(name, value);
+		}
+
+		@Override
+		public void endElement() {
+			elements.pop();
+		}
+	}
+
+	/**
+	 * Write the elements directly to file.
+	 * Same format as the DOM transformer: 4 spaces indent and control characters escaped in attributes
+	 */
+	private static class StreamElementWriter extends XmlElementWriter {
+
+		private static final String INDENT = "    ";
+
+		private final Writer writer;
+		private final int depth; //Indent of the first element
+		private final Deque<String> elements = new ArrayDeque<>();
+		private boolean open = false; //Start tag not closed yet
+
+		public StreamElementWriter(final Writer writer) {
+			this(writer, 0);
+		}
+
+		public StreamElementWriter(final Writer writer, final int depth) {
+			this.writer = writer;
+			this.depth = depth;
+		}
+
+		public void startDocument(final String encoding) throws XmlException {
+			write("<?xml version=\"1.0\" encoding=\"" + encoding + "\" standalone=\"no\"?>");
+		}
+
+		public void endDocument() throws XmlException {
+			write(System.lineSeparator());
+		}
+
+		@Override
+		public void startElement(final String name) throws XmlException {
+			if (open) {
+				write(">");
+			}
+			newLine();
+			write("<");
+			write(name);
+			elements.push(name);
+			open = true;
+		}
+
+		@Override
+		public void setAttribute(final String name, final String value) throws XmlException {
+			if (!open) {
+				throw new IllegalStateException("Attribute " + name + " set after child elements");
+			}
+			write(" ");
+			write(name);
+			write("=\"");
+			escape(value == null ? "" : value);
+			write("\"");
+		}
+
+		/**
+		 * Write a child element of the current element.
+		 * @param fragment Element formatted by toXmlFragment(Element)
+		 * @throws XmlException
+		 */
+		public void writeFragment(final String fragment) throws XmlException {
+			if (open) {
+				write(">");
+				open = false;
+			}
+			write(fragment);
+		}
+
+		@Override
+		public void endElement() throws XmlException {
+			String name = elements.pop();
+			if (open) { //No child elements
+				write("/>");
+				open = false;
+			} else {
+				newLine();
+				write("</");
+				write(name);
+				write(">");
+			}
+		}
+
+		private void newLine() throws XmlException {
+			int indent = elements.size() + depth;
+			if (indent == 0) {
+				write(System.lineSeparator());
+				return;
+			}
+			StringBuilder builder = new StringBuilder(System.lineSeparator());
+			for (int i = 0; i < indent; i++) {
+				builder.append(INDENT);
+			}
+			write(builder.toString());
+		}
+
+		private void escape(final String value) throws XmlException {
+			StringBuilder builder = new StringBuilder(value.length());
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+					case '&':
+						builder.append("&amp;");
+						break;
+					case '<':
+						builder.append("&lt;");
+						break;
+					case '>':
+						builder.append("&gt;");
+						break;
+					case '"':
+						builder.append("&quot;");
+						break;
+					default:
+						if (c < 0x20) { //Tab, new line and other control characters
+							builder.append("&#").append((int) c).append(";");
+						} else {
+							builder.append(c);
+						}
+				}
+			}
+			write(builder.toString());
+		}
+
+		private void write(final String s) throws XmlException {
+			try {
+				writer.write(s);
+			} catch (IOException ex) {
+				throw new XmlException(ex.getMessage(), ex);
+			}
+		}
+	}
 }
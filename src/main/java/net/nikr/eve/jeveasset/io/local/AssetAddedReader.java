@@ -57,7 +57,7 @@ public class AssetAddedReader extends AbstractBackup {
 		backup(filename);
 		FileReader fileReader = null;
 		try {
-			lock(filename);
+			lockShared(filename);
 			fileReader = new FileReader(file);
 			Gson gson = new GsonBuilder().registerTypeAdapter(Date.class, new DateDeserializer()).create();
 			Map<Long, Date> assetAddedData = gson.fromJson(fileReader, new TypeToken<HashMap<Long, Date>>() {}.getType());
@@ -23,10 +23,14 @@ package net.nikr.eve.jeveasset.io.local;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
+import eve.nikr.net.client.model.Prices;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
 import net.nikr.eve.jeveasset.data.settings.ContractPriceManager.ContractPriceData;
+import net.nikr.eve.jeveasset.data.settings.ContractPriceManager.ContractPriceItem;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,21 +60,21 @@ public class ContractPriceReader extends AbstractBackup {
 		Gson gson = new GsonBuilder().setDateFormat("yyyy-MM-dd HH:mm:ss.SSS").create();
 		FileReader fileReader = null;
 		try {
-			lock(filename);
+			lockShared(filename);
 			fileReader = new FileReader(file);
-			ContractPriceData contractPriceData =  gson.fromJson(fileReader, ContractPriceData.class);
+			ContractPriceFile contractPriceFile =  gson.fromJson(fileReader, ContractPriceFile.class);
 			LOG.info("Contract prices loaded");
-			if (contractPriceData != null) {
-				return contractPriceData;
+			if (contractPriceFile != null) {
+				return new ContractPriceData(contractPriceFile.date, contractPriceFile.prices, contractPriceFile.failed);
 			} else {
 				return new ContractPriceData();
 			}
 		} catch (IOException | JsonParseException ex) {
 			LOG.warn(ex.getMessage(), ex);
 			if (restoreNewFile(filename)) { //If possible restore from .new (Should be the newest)
-				read(filename, backup);
+				return read(filename, backup);
 			} else if (restoreBackupFile(filename)) { //If possible restore from .bac (Should be the oldest, but, still worth trying)
-				read(filename, backup);
+				return read(filename, backup);
 			} else { //Nothing left to try - throw error
 				restoreFailed(filename); //Backup error file
 				LOG.error(ex.getMessage(), ex);
@@ -87,4 +91,13 @@ public class ContractPriceReader extends AbstractBackup {
 		}
 		return new ContractPriceData();
 	}
+
+	/**
+	 * Same fields as ContractPriceData, but in maps that allow null values (saved by older versions)
+	 */
+	private static class ContractPriceFile {
+		private Date date;
+		private HashMap<ContractPriceItem, Prices> prices;
+		private HashMap<ContractPriceItem, Date> failed;
+	}
 }
@@ -22,8 +22,11 @@ package net.nikr.eve.jeveasset.io.local;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.JEditorPane;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -33,13 +36,18 @@ import net.nikr.eve.jeveasset.io.shared.DesktopUtil;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Lock files while they are read or written.
+ * Readers share the lock, writers get the lock alone.
+ * Uses an OS lock on a .LOCK file next to the file, so other programs are locked out too.
+ * The OS release the lock if the program crash, so a .LOCK file left behind does not lock the file.
+ */
 public class FileLock {
 
 	private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(FileLock.class);
-	private static final Object SYNC_LOCK = new Object();
-	private static final int MAX_TRIES = 12; //1 minute
-	private static final int DELAY = 5000;
-	private static final List<File> LOCKS = new ArrayList<File>();
+	private static final long TIMEOUT = 60000; //1 minute
+	private static final long RETRY_DELAY = 100; //Locked by another program
+	private static final Map<File, Lock> LOCKS = new HashMap<>();
 	private static boolean SAFE = false;
 
 	private static void saferShutdown() {
@@ -52,27 +60,28 @@ public class FileLock {
 	}
 
 	private static void unlockLocked() {
-		LOG.info("Unlocking " + LOCKS.size() + " files");
-		while (!LOCKS.isEmpty()) {
-			unlock(LOCKS.get(0));
+		synchronized (LOCKS) {
+			LOG.info("Unlocking " + LOCKS.size() + " files");
+			for (Lock lock : LOCKS.values()) {
+				lock.release();
+			}
+			LOCKS.clear();
+			LOCKS.notifyAll();
 		}
 	}
 
-	private static void add(File file) {
+	private static void add(File lockFile, Lock lock) {
 		if (!SAFE) {
 			SAFE = true;
 			saferShutdown();
 
 		}
-		LOCKS.add(file);
-	}
-
-	private static void remove(File file) {
-		LOCKS.remove(file);
+		LOCKS.put(lockFile, lock);
 	}
 
 	public static void unlockAll() {
 		LOG.info("Unlocking all files");
+		unlockLocked();
 		File folder;
 		folder = new File(FileUtil.getPathProfilesDirectory());
 		unlockFiles(folder.listFiles());
@@ -93,59 +102,132 @@ public class FileLock {
 		}
 	}
 
+	/**
+	 * Lock file for writing (exclusive)
+	 * @param file
+	 */
 	public static void lock(File file) {
-		lock(file, 0, DELAY);
+		lock(file, false);
 	}
 
-	private static void lock(File file, int tries, int delay) {
-		try {
-			tryLockFile(file);
-		} catch (Exception ex) {
-			tries++;
-			if (tries > MAX_TRIES) {
-				JOptionPane.showMessageDialog(null, getMessage(file), General.get().fileLockTitle(), JOptionPane.ERROR_MESSAGE);
-				System.exit(0);
-			} else {
-				waitForUnlock(file, tries, delay);
-				lock(file, tries, delay);
+	/**
+	 * Lock file for reading (shared with other readers)
+	 * @param file
+	 */
+	public static void lockShared(File file) {
+		lock(file, true);
+	}
+
+	private static void lock(File file, boolean shared) {
+		File lockFile = convertFile(file);
+		long end = System.currentTimeMillis() + TIMEOUT;
+		boolean waiting = false;
+		synchronized (LOCKS) {
+			while (true) {
+				Lock lock = LOCKS.get(lockFile);
+				if (lock == null) { //Not locked by this program
+					lock = tryLockFile(lockFile, shared);
+					if (lock != null) {
+						add(lockFile, lock);
+						return;
+					}
+				} else if (shared && lock.shared) {
+					lock.count++;
+					return;
+				}
+				long delay = end - System.currentTimeMillis();
+				if (delay <= 0) {
+					break; //Timeout
+				}
+				if (!waiting) {
+					waiting = true;
+					LOG.info("Waiting for lock: " + file.getName());
+				}
+				try {
+					if (lock == null) { //Locked by another program: try again later
+						LOCKS.wait(Math.min(delay, RETRY_DELAY));
+					} else { //Locked by this program: wait for unlock
+						LOCKS.wait(delay);
+					}
+				} catch (InterruptedException ex) {
+					//No problem
+				}
 			}
 		}
+		JOptionPane.showMessageDialog(null, getMessage(file), General.get().fileLockTitle(), JOptionPane.ERROR_MESSAGE);
+		System.exit(0);
 	}
 
-	private static synchronized void tryLockFile(File file) throws Exception {
-		if (isLocked(file)) {
-			throw new IOException();
-		}
-		boolean ok = convertFile(file).createNewFile();
-		if (!ok) {
-			throw new IOException();
+	/**
+	 * @param lockFile
+	 * @param shared
+	 * @return the lock or null if locked by another program
+	 */
+	private static Lock tryLockFile(File lockFile, boolean shared) {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			java.nio.channels.FileLock fileLock = channel.tryLock(0, Long.MAX_VALUE, shared);
+			if (fileLock != null) {
+				return new Lock(channel, fileLock, shared);
+			}
+		} catch (OverlappingFileLockException ex) {
+			//Locked by this program (outside of FileLock)
+		} catch (IOException ex) {
+			//Can not lock the file (read only, not supported, etc.): only lock in this program
+			LOG.warn("Failed to lock " + lockFile.getName() + ": " + ex.getMessage());
+			close(channel);
+			return new Lock(null, null, shared);
 		}
-		add(file);
+		close(channel);
+		return null;
 	}
 
-	public static synchronized void unlock(File file) {
-		convertFile(file).delete();
-		remove(file);
-		synchronized (SYNC_LOCK) {
-			SYNC_LOCK.notify();
+	public static void unlock(File file) {
+		File lockFile = convertFile(file);
+		synchronized (LOCKS) {
+			Lock lock = LOCKS.get(lockFile);
+			if (lock == null) {
+				return;
+			}
+			lock.count--;
+			if (lock.count <= 0) {
+				LOCKS.remove(lockFile);
+				lock.release();
+			}
+			LOCKS.notifyAll();
 		}
 	}
 
 	protected static boolean isLocked(File file) {
-		return convertFile(file).exists();
+		File lockFile = convertFile(file);
+		synchronized (LOCKS) {
+			if (LOCKS.containsKey(lockFile)) {
+				return true;
+			}
+		}
+		if (!lockFile.exists()) {
+			return false;
+		}
+		Lock lock = tryLockFile(lockFile, false);
+		if (lock == null) {
+			return true;
+		}
+		lock.release();
+		return false;
 	}
 
 	private static File convertFile(File file) {
 		return new File(file.getAbsolutePath() + ".LOCK");
 	}
 
-	private static void waitForUnlock(File file, int tries, int delay) {
-		LOG.info("Waiting for lock: " + file.getName() + " (" + tries + " of " + MAX_TRIES + ")");
-		try {
-			synchronized (SYNC_LOCK) {
-				SYNC_LOCK.wait(delay);
+	private static void close(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ex) {
+				//No problem
 			}
-		} catch (InterruptedException ex) {
 		}
 	}
 
@@ -162,4 +244,28 @@ public class FileLock {
 		jEditorPane.addHyperlinkListener(DesktopUtil.getHyperlinkListener(null));
 		return jEditorPane;
 	}
+
+	private static class Lock {
+		private final FileChannel channel;
+		private final java.nio.channels.FileLock fileLock;
+		private final boolean shared;
+		private int count = 1;
+
+		public Lock(FileChannel channel, java.nio.channels.FileLock fileLock, boolean shared) {
+			this.channel = channel;
+			this.fileLock = fileLock;
+			this.shared = shared;
+		}
+
+		private void release() {
+			if (fileLock != null) {
+				try {
+					fileLock.release();
+				} catch (IOException ex) {
+					//No problem
+				}
+			}
+			close(channel);
+		}
+	}
 }
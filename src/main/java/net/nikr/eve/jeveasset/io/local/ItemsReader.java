@@ -40,10 +40,14 @@ public final class ItemsReader extends AbstractXmlReader<Boolean> {
 		this.items = items;
 	}
 
-	public static void load(Map<Integer, Item> items) {
+	public static boolean loadUpdates(Map<Integer, Item> items) {
 		ItemsReader reader = new ItemsReader(items);
-		reader.read("Items Updates", FileUtil.getPathItemsUpdates(), AbstractXmlReader.XmlType.DYNAMIC_BACKUP);
-		reader.read("Items", FileUtil.getPathItems(), AbstractXmlReader.XmlType.STATIC);
+		return reader.read("Items Updates", FileUtil.getPathItemsUpdates(), AbstractXmlReader.XmlType.DYNAMIC_BACKUP);
+	}
+
+	public static boolean load(Map<Integer, Item> items) {
+		ItemsReader reader = new ItemsReader(items);
+		return reader.read("Items", FileUtil.getPathItems(), AbstractXmlReader.XmlType.STATIC);
 	}
 
 	@Override
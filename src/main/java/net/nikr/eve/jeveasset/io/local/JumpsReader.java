@@ -22,8 +22,9 @@
 package net.nikr.eve.jeveasset.io.local;
 
 import java.util.List;
+import java.util.Map;
 import net.nikr.eve.jeveasset.data.sde.Jump;
-import net.nikr.eve.jeveasset.data.sde.StaticData;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
 import net.nikr.eve.jeveasset.io.shared.FileUtil;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -33,14 +34,16 @@ import org.w3c.dom.NodeList;
 public final class JumpsReader extends AbstractXmlReader<Boolean> {
 
 	private final List<Jump> jumps;
+	private final Map<Long, MyLocation> locations;
 
-	public JumpsReader(List<Jump> jumps) {
+	public JumpsReader(List<Jump> jumps, Map<Long, MyLocation> locations) {
 		this.jumps = jumps;
+		this.locations = locations;
 	}
 
-	public static void load(List<Jump> jumps) {
-		JumpsReader reader = new JumpsReader(jumps);
-		reader.read("Jumps", FileUtil.getPathJumps(), AbstractXmlReader.XmlType.STATIC);
+	public static boolean load(List<Jump> jumps, Map<Long, MyLocation> locations) {
+		JumpsReader reader = new JumpsReader(jumps, locations);
+		return reader.read("Jumps", FileUtil.getPathJumps(), AbstractXmlReader.XmlType.STATIC);
 	}
 
 	@Override
@@ -71,7 +74,7 @@ public final class JumpsReader extends AbstractXmlReader<Boolean> {
 	private Jump parseEdge(final Node node) throws XmlException {
 		long from = getLong(node, "from");
 		long to = getLong(node, "to");
-		Jump j = new Jump(StaticData.get().getLocation(from), StaticData.get().getLocation(to));
+		Jump j = new Jump(locations.get(from), locations.get(to));
 		return j;
 	}
 }
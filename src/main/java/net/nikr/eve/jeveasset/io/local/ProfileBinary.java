@@ -0,0 +1,336 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary profile format.
+ * A copy of the xml profile that can be loaded without parsing text.
+ * Header: magic, version, length and last modified of the xml profile it was saved from.
+ * Followed by blocks: type, length and data. Unknown blocks are skipped.
+ * Strings are saved once per block and referenced by index after that.
+ */
+final class ProfileBinary {
+
+	static final int MAGIC = 0x4A455042; //JEPB
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 24;
+
+	//Blocks
+	static final int END = 0;
+	static final int STOCKPILES = 1;
+	static final int ACCOUNT = 2;
+	static final int ACCOUNT_OWNER = 3;
+	static final int EVEKIT_OWNER = 4;
+	static final int ESI_OWNER = 5;
+	//Owner data blocks (for the last owner)
+	static final int ASSETS = 10;
+	static final int ACTIVE_SHIP = 11;
+	static final int CONTRACTS = 12;
+	static final int BALANCES = 13;
+	static final int MARKET_ORDERS = 14;
+	static final int JOURNAL = 15;
+	static final int TRANSACTIONS = 16;
+	static final int INDUSTRY_JOBS = 17;
+	static final int BLUEPRINTS = 18;
+	static final int ASSET_DIVISIONS = 19;
+	static final int WALLET_DIVISIONS = 20;
+	static final int SKILLS = 21;
+
+	private ProfileBinary() { }
+
+	/**
+	 * Read until the buffer is full.
+	 * Files are read into the heap (not mapped): a mapped file can not be replaced on windows until the mapping is garbage collected
+	 * @param channel
+	 * @param buffer
+	 * @return false if the end of the file was reached first
+	 * @throws IOException
+	 */
+	static boolean readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static class BlockWriter {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		/**
+		 * Write the block to file and reset the writer for the next block
+		 * @param file
+		 * @param type block type
+		 * @throws IOException
+		 */
+		void writeTo(final DataOutputStream file, final int type) throws IOException {
+			out.flush();
+			file.writeInt(type);
+			file.writeInt(bytes.size());
+			bytes.writeTo(file);
+			bytes.reset();
+			strings.clear();
+		}
+
+		/**
+		 * Get the written data and reset the writer for the next record
+		 * @return
+		 * @throws IOException
+		 */
+		byte[] toByteArray() throws IOException {
+			out.flush();
+			byte[] data = bytes.toByteArray();
+			bytes.reset();
+			strings.clear();
+			return data;
+		}
+
+		void writeInt(final int value) throws IOException {
+			out.writeInt(value);
+		}
+
+		void writeIntOptional(final Integer value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeInt(value);
+			}
+		}
+
+		void writeLong(final long value) throws IOException {
+			out.writeLong(value);
+		}
+
+		void writeLongOptional(final Long value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeLong(value);
+			}
+		}
+
+		void writeDouble(final double value) throws IOException {
+			out.writeDouble(value);
+		}
+
+		void writeDoubleOptional(final Double value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeDouble(value);
+			}
+		}
+
+		void writeFloat(final float value) throws IOException {
+			out.writeFloat(value);
+		}
+
+		void writeFloatOptional(final Float value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeFloat(value);
+			}
+		}
+
+		void writeBoolean(final boolean value) throws IOException {
+			out.writeBoolean(value);
+		}
+
+		void writeDate(final Date value) throws IOException {
+			out.writeLong(value.getTime());
+		}
+
+		void writeDateOptional(final Date value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeLong(value.getTime());
+			}
+		}
+
+		void writeEnum(final Enum<?> value) throws IOException {
+			if (value == null) {
+				writeString(null);
+			} else {
+				writeString(value.name());
+			}
+		}
+
+		/**
+		 * 0 = null, above 0 = index of a string already saved in this block, below 0 = new string (-length - 1) followed by the chars
+		 * @param value
+		 * @throws IOException
+		 */
+		void writeString(final String value) throws IOException {
+			if (value == null) {
+				out.writeInt(0);
+				return;
+			}
+			Integer index = strings.get(value);
+			if (index != null) {
+				out.writeInt(index);
+				return;
+			}
+			strings.put(value, strings.size() + 1);
+			out.writeInt(-value.length() - 1);
+			out.writeChars(value);
+		}
+	}
+
+	static class BlockReader {
+		private final ByteBuffer buffer;
+		private final int end;
+		private final List<String> strings = new ArrayList<>();
+		private int position;
+
+		/**
+		 * Read values using absolute positions, so the buffer can be shared by all blocks
+		 * @param buffer
+		 * @param start block data start
+		 * @param end block data end
+		 */
+		BlockReader(final ByteBuffer buffer, final int start, final int end) {
+			this.buffer = buffer;
+			this.position = start;
+			this.end = end;
+		}
+
+		/**
+		 * @throws IOException if the data read does not match the block length
+		 */
+		void done() throws IOException {
+			if (position != end) {
+				throw new IOException("Block length do not match: " + position + " != " + end);
+			}
+		}
+
+		int getInt() {
+			int value = buffer.getInt(position);
+			position += 4;
+			return value;
+		}
+
+		Integer getIntOptional() {
+			if (getBoolean()) {
+				return getInt();
+			} else {
+				return null;
+			}
+		}
+
+		long getLong() {
+			long value = buffer.getLong(position);
+			position += 8;
+			return value;
+		}
+
+		Long getLongOptional() {
+			if (getBoolean()) {
+				return getLong();
+			} else {
+				return null;
+			}
+		}
+
+		double getDouble() {
+			double value = buffer.getDouble(position);
+			position += 8;
+			return value;
+		}
+
+		Double getDoubleOptional() {
+			if (getBoolean()) {
+				return getDouble();
+			} else {
+				return null;
+			}
+		}
+
+		float getFloat() {
+			float value = buffer.getFloat(position);
+			position += 4;
+			return value;
+		}
+
+		Float getFloatOptional() {
+			if (getBoolean()) {
+				return getFloat();
+			} else {
+				return null;
+			}
+		}
+
+		boolean getBoolean() {
+			byte value = buffer.get(position);
+			position++;
+			return value != 0;
+		}
+
+		Date getDate() {
+			return new Date(getLong());
+		}
+
+		Date getDateOptional() {
+			if (getBoolean()) {
+				return getDate();
+			} else {
+				return null;
+			}
+		}
+
+		<T extends Enum<T>> T getEnum(final Class<T> type) {
+			String value = getString();
+			if (value == null) {
+				return null;
+			} else {
+				return Enum.valueOf(type, value);
+			}
+		}
+
+		String getString() {
+			int index = getInt();
+			if (index == 0) {
+				return null;
+			}
+			if (index > 0) {
+				return strings.get(index - 1);
+			}
+			char[] chars = new char[-index - 1];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = buffer.getChar(position);
+				position += 2;
+			}
+			String value = new String(chars);
+			strings.add(value);
+			return value;
+		}
+	}
+}
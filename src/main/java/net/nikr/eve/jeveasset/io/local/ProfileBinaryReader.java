@@ -0,0 +1,597 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
+import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount.KeyType;
+import net.nikr.eve.jeveasset.data.api.accounts.EveApiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.EveKitOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyAccountBalance;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyShip;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawAccountBalance;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
+import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract.ContractAvailability;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract.ContractStatus;
+import net.nikr.eve.jeveasset.data.api.raw.RawContract.ContractType;
+import net.nikr.eve.jeveasset.data.api.raw.RawContractItem;
+import net.nikr.eve.jeveasset.data.api.raw.RawIndustryJob;
+import net.nikr.eve.jeveasset.data.api.raw.RawIndustryJob.IndustryJobStatus;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal.ContextType;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournalRefType;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderRange;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderState;
+import net.nikr.eve.jeveasset.data.api.raw.RawSkill;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.io.esi.EsiCallbackURL;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockReader;
+import net.nikr.eve.jeveasset.io.shared.DataConverter;
+import net.nikr.eve.jeveasset.io.shared.RawConverter;
+import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public final class ProfileBinaryReader {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileBinaryReader.class);
+
+	private final ProfileManager profileManager;
+	private EveApiAccount account = null;
+	private OwnerType owner = null;
+
+	private ProfileBinaryReader(final ProfileManager profileManager) {
+		this.profileManager = profileManager;
+	}
+
+	/**
+	 * Load the binary profile.
+	 * The binary profile is only loaded if the xml profile have not changed since the binary profile was saved
+	 * @param profileManager
+	 * @param filename binary profile
+	 * @param xmlFile xml profile
+	 * @return true if loaded, false if the xml profile should be loaded instead
+	 */
+	public static boolean load(final ProfileManager profileManager, final String filename, final File xmlFile) {
+		File file = new File(filename);
+		if (!file.exists()) {
+			return false;
+		}
+		ProfileBinaryReader reader = new ProfileBinaryReader(profileManager);
+		FileLock.lockShared(file);
+		try {
+			return reader.read(file, xmlFile);
+		} catch (IOException | RuntimeException ex) {
+			LOG.warn("Binary profile not loaded: " + ex.getMessage(), ex);
+			profileManager.clear();
+			return false;
+		} finally {
+			FileLock.unlock(file);
+		}
+	}
+
+	private boolean read(final File file, final File xmlFile) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < ProfileBinary.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				return false;
+			}
+			//Check the header before reading the rest
+			ByteBuffer header = ByteBuffer.allocate(ProfileBinary.HEADER_SIZE);
+			if (!ProfileBinary.readFully(channel, header)) {
+				return false;
+			}
+			if (header.getInt(0) != ProfileBinary.MAGIC || header.getInt(4) != ProfileBinary.VERSION) {
+				LOG.info("Binary profile ignored: unknown format");
+				return false;
+			}
+			if (header.getLong(8) != xmlFile.length() || header.getLong(16) != xmlFile.lastModified()) {
+				LOG.info("Binary profile ignored: xml profile changed");
+				return false;
+			}
+			buffer = ByteBuffer.allocate((int) channel.size());
+			header.flip();
+			buffer.put(header);
+			if (!ProfileBinary.readFully(channel, buffer)) {
+				return false;
+			}
+		}
+		profileManager.clear();
+		int position = ProfileBinary.HEADER_SIZE;
+		while (position < buffer.limit()) {
+			int type = buffer.getInt(position);
+			int length = buffer.getInt(position + 4);
+			int start = position + 8;
+			position = start + length;
+			if (length < 0 || position > buffer.limit()) {
+				throw new IOException("Block outside of file");
+			}
+			if (type == ProfileBinary.END) {
+				LOG.info("Binary profile loaded");
+				return true;
+			}
+			BlockReader block = new BlockReader(buffer, start, position);
+			if (readBlock(block, type)) {
+				block.done();
+			}
+		}
+		throw new IOException("End of file before end block");
+	}
+
+	/**
+	 * @param block
+	 * @param type
+	 * @return true if the block was read, false if unknown and skipped
+	 */
+	private boolean readBlock(final BlockReader block, final int type) throws IOException {
+		switch (type) {
+			case ProfileBinary.STOCKPILES:
+				readStockpiles(block);
+				return true;
+			case ProfileBinary.ACCOUNT:
+				account = readAccount(block);
+				profileManager.getAccounts().add(account);
+				return true;
+			case ProfileBinary.ACCOUNT_OWNER:
+				if (account == null) {
+					throw new IOException("Account owner before account");
+				}
+				EveApiOwner eveApiOwner = new EveApiOwner(account, block.getBoolean());
+				readOwnerType(block, eveApiOwner);
+				account.getOwners().add(eveApiOwner);
+				owner = eveApiOwner;
+				return true;
+			case ProfileBinary.EVEKIT_OWNER:
+				EveKitOwner eveKitOwner = readEveKitOwner(block);
+				readOwnerType(block, eveKitOwner);
+				profileManager.getEveKitOwners().add(eveKitOwner);
+				owner = eveKitOwner;
+				return true;
+			case ProfileBinary.ESI_OWNER:
+				EsiOwner esiOwner = readEsiOwner(block);
+				readOwnerType(block, esiOwner);
+				profileManager.getEsiOwners().add(esiOwner);
+				owner = esiOwner;
+				return true;
+		}
+		if (type < ProfileBinary.ASSETS) {
+			return false; //Unknown
+		}
+		if (owner == null) {
+			throw new IOException("Owner data before owner");
+		}
+		switch (type) {
+			case ProfileBinary.ASSETS:
+				readAssets(block, owner.getAssets(), null, block.getInt());
+				return true;
+			case ProfileBinary.ACTIVE_SHIP:
+				owner.setActiveShip(new MyShip(block.getLong(), block.getInt(), block.getLong()));
+				return true;
+			case ProfileBinary.CONTRACTS:
+				readContracts(block);
+				return true;
+			case ProfileBinary.BALANCES:
+				readAccountBalances(block);
+				return true;
+			case ProfileBinary.MARKET_ORDERS:
+				readMarketOrders(block);
+				return true;
+			case ProfileBinary.JOURNAL:
+				readJournals(block);
+				return true;
+			case ProfileBinary.TRANSACTIONS:
+				readTransactions(block);
+				return true;
+			case ProfileBinary.INDUSTRY_JOBS:
+				readIndustryJobs(block);
+				return true;
+			case ProfileBinary.BLUEPRINTS:
+				readBlueprints(block);
+				return true;
+			case ProfileBinary.ASSET_DIVISIONS:
+				owner.setAssetDivisions(readDivisions(block));
+				return true;
+			case ProfileBinary.WALLET_DIVISIONS:
+				owner.setWalletDivisions(readDivisions(block));
+				return true;
+			case ProfileBinary.SKILLS:
+				readSkills(block);
+				return true;
+			default:
+				return false; //Unknown
+		}
+	}
+
+	private void readStockpiles(final BlockReader block) {
+		Set<Long> stockpileIDs = new HashSet<>();
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			stockpileIDs.add(block.getLong());
+		}
+		profileManager.getActiveProfile().setStockpileIDs(stockpileIDs);
+	}
+
+	private EveApiAccount readAccount(final BlockReader block) {
+		int keyID = block.getInt();
+		String vCode = block.getString();
+		String name = block.getString();
+		Date nextUpdate = block.getDate();
+		long accessMask = block.getLong();
+		KeyType type = block.getEnum(KeyType.class);
+		Date expires = block.getDateOptional();
+		boolean invalid = block.getBoolean();
+		return new EveApiAccount(keyID, vCode, name, nextUpdate, accessMask, type, expires, invalid);
+	}
+
+	private EveKitOwner readEveKitOwner(final BlockReader block) {
+		int accessKey = block.getInt();
+		String accessCred = block.getString();
+		Date expire = block.getDateOptional();
+		long accessMask = block.getLong();
+		boolean corporation = block.getBoolean();
+		Date limit = block.getDateOptional();
+		String accountName = block.getString();
+		boolean migrated = block.getBoolean();
+		EveKitOwner eveKitOwner = new EveKitOwner(accessKey, accessCred, expire, accessMask, corporation, limit, accountName, migrated);
+		//ContID
+		eveKitOwner.setJournalCID(block.getLongOptional());
+		eveKitOwner.setTransactionsCID(block.getLongOptional());
+		eveKitOwner.setContractsCID(block.getLongOptional());
+		eveKitOwner.setIndustryJobsCID(block.getLongOptional());
+		eveKitOwner.setMarketOrdersCID(block.getLongOptional());
+		eveKitOwner.setAccountNextUpdate(block.getDateOptional());
+		return eveKitOwner;
+	}
+
+	private EsiOwner readEsiOwner(final BlockReader block) {
+		EsiOwner esiOwner = new EsiOwner();
+		esiOwner.setAccountName(block.getString());
+		String refreshToken = block.getString();
+		esiOwner.setScopes(block.getString());
+		esiOwner.setStructuresNextUpdate(block.getDate());
+		esiOwner.setAccountNextUpdate(block.getDate());
+		EsiCallbackURL callbackURL = block.getEnum(EsiCallbackURL.class);
+		Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			roles.add(block.getEnum(RolesEnum.class));
+		}
+		esiOwner.setRoles(roles);
+		esiOwner.setAuth(callbackURL, refreshToken, null);
+		return esiOwner;
+	}
+
+	private void readOwnerType(final BlockReader block, final OwnerType ownerType) {
+		ownerType.setOwnerID(block.getLong());
+		ownerType.setOwnerName(block.getString());
+		ownerType.setCorporationName(block.getString());
+		ownerType.setShowOwner(block.getBoolean());
+		ownerType.setInvalid(block.getBoolean());
+		ownerType.setAssetLastUpdate(block.getDateOptional());
+		ownerType.setAssetNextUpdate(block.getDate());
+		ownerType.setBalanceLastUpdate(block.getDateOptional());
+		ownerType.setBalanceNextUpdate(block.getDate());
+		ownerType.setMarketOrdersNextUpdate(block.getDate());
+		ownerType.setJournalNextUpdate(block.getDate());
+		ownerType.setTransactionsNextUpdate(block.getDate());
+		ownerType.setIndustryJobsNextUpdate(block.getDate());
+		ownerType.setContractsNextUpdate(block.getDate());
+		ownerType.setLocationsNextUpdate(block.getDate());
+		ownerType.setBlueprintsNextUpdate(block.getDate());
+		ownerType.setBookmarksNextUpdate(block.getDate());
+		ownerType.setSkillsNextUpdate(block.getDate());
+	}
+
+	/**
+	 * @param block
+	 * @param assets root assets (null to skip the assets)
+	 * @param parentAsset parent asset or null for root assets
+	 * @param size number of assets to read
+	 */
+	private void readAssets(final BlockReader block, final List<MyAsset> assets, final MyAsset parentAsset, final int size) {
+		for (int i = 0; i < size; i++) {
+			RawAsset rawAsset = RawAsset.create();
+			rawAsset.setItemID(block.getLong());
+			rawAsset.setTypeID(block.getInt());
+			rawAsset.setLocationID(block.getLong());
+			rawAsset.setQuantity(block.getIntOptional());
+			rawAsset.setSingleton(block.getBoolean());
+			Integer flagID = block.getIntOptional();
+			String locationFlagString = block.getString();
+			rawAsset.setItemFlag(RawConverter.toFlag(flagID != null ? flagID : 0, locationFlagString));
+			rawAsset.setLocationFlagString(locationFlagString);
+			int children = block.getInt();
+			if (assets == null) { //Skip
+				readAssets(block, null, null, children);
+				continue;
+			}
+			List<MyAsset> parents = new ArrayList<>();
+			if (parentAsset != null) { //Child
+				parents.addAll(parentAsset.getParents());
+				parents.add(parentAsset);
+			}
+			MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
+			if (asset == null) { //Skip children (same as the xml profile)
+				readAssets(block, null, null, children);
+				continue;
+			}
+			if (parentAsset == null) { //Root
+				assets.add(asset);
+			} else { //Child
+				parentAsset.addAsset(asset);
+			}
+			readAssets(block, assets, asset, children);
+		}
+	}
+
+	private void readContracts(final BlockReader block) {
+		Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			RawContract rawContract = RawContract.create();
+			rawContract.setAcceptorID(block.getInt());
+			rawContract.setAssigneeID(block.getInt());
+			rawContract.setAvailability(block.getEnum(ContractAvailability.class));
+			rawContract.setAvailabilityString(block.getString());
+			rawContract.setBuyout(block.getDoubleOptional());
+			rawContract.setCollateral(block.getDoubleOptional());
+			rawContract.setContractID(block.getInt());
+			rawContract.setDateAccepted(block.getDateOptional());
+			rawContract.setDateCompleted(block.getDateOptional());
+			rawContract.setDateExpired(block.getDate());
+			rawContract.setDateIssued(block.getDate());
+			rawContract.setEndLocationID(block.getLongOptional());
+			rawContract.setIssuerCorporationID(block.getInt());
+			rawContract.setIssuerID(block.getInt());
+			rawContract.setDaysToComplete(block.getIntOptional());
+			rawContract.setPrice(block.getDoubleOptional());
+			rawContract.setReward(block.getDoubleOptional());
+			rawContract.setStartLocationID(block.getLongOptional());
+			rawContract.setStatus(block.getEnum(ContractStatus.class));
+			rawContract.setStatusString(block.getString());
+			rawContract.setTitle(block.getString());
+			rawContract.setType(block.getEnum(ContractType.class));
+			rawContract.setTypeString(block.getString());
+			rawContract.setVolume(block.getDoubleOptional());
+			rawContract.setForCorporation(block.getBoolean());
+			MyContract contract = DataConverter.toMyContract(rawContract);
+			int itemsSize = block.getInt();
+			List<MyContractItem> contractItems = new ArrayList<>(itemsSize);
+			for (int j = 0; j < itemsSize; j++) {
+				RawContractItem rawContractItem = RawContractItem.create();
+				rawContractItem.setIncluded(block.getBoolean());
+				rawContractItem.setQuantity(block.getInt());
+				rawContractItem.setRecordID(block.getLong());
+				rawContractItem.setSingleton(block.getBoolean());
+				rawContractItem.setTypeID(block.getInt());
+				rawContractItem.setRawQuantity(block.getIntOptional());
+				contractItems.add(DataConverter.toMyContractItem(rawContractItem, contract));
+			}
+			contracts.put(contract, contractItems);
+		}
+		owner.setContracts(contracts);
+	}
+
+	private void readAccountBalances(final BlockReader block) {
+		int size = block.getInt();
+		List<MyAccountBalance> accountBalances = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			RawAccountBalance rawAccountBalance = RawAccountBalance.create();
+			rawAccountBalance.setAccountKey(block.getInt());
+			rawAccountBalance.setBalance(block.getDouble());
+			accountBalances.add(DataConverter.toMyAccountBalance(rawAccountBalance, owner));
+		}
+		owner.setAccountBalances(accountBalances);
+	}
+
+	private void readMarketOrders(final BlockReader block) {
+		int size = block.getInt();
+		Set<MyMarketOrder> marketOrders = new HashSet<>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			marketOrders.add(readMarketOrder(block, owner));
+		}
+		owner.setMarketOrders(marketOrders);
+	}
+
+	static MyMarketOrder readMarketOrder(final BlockReader block, final OwnerType owner) {
+		RawMarketOrder rawMarketOrder = RawMarketOrder.create();
+		rawMarketOrder.setOrderID(block.getLong());
+		rawMarketOrder.setLocationID(block.getLong());
+		rawMarketOrder.setRegionID(block.getIntOptional());
+		rawMarketOrder.setVolumeTotal(block.getInt());
+		rawMarketOrder.setVolumeRemain(block.getInt());
+		rawMarketOrder.setMinVolume(block.getInt());
+		rawMarketOrder.setState(block.getEnum(MarketOrderState.class));
+		rawMarketOrder.setStateString(block.getString());
+		rawMarketOrder.setTypeID(block.getInt());
+		rawMarketOrder.setRange(block.getEnum(MarketOrderRange.class));
+		rawMarketOrder.setRangeString(block.getString());
+		rawMarketOrder.setWalletDivision(block.getInt());
+		rawMarketOrder.setDuration(block.getInt());
+		rawMarketOrder.setEscrow(block.getDouble());
+		rawMarketOrder.setPrice(block.getDouble());
+		rawMarketOrder.setBuyOrder(block.getBoolean());
+		rawMarketOrder.setIssued(block.getDate());
+		rawMarketOrder.setIssuedBy(block.getIntOptional());
+		rawMarketOrder.setCorp(block.getBoolean());
+		return DataConverter.toMyMarketOrder(rawMarketOrder, owner);
+	}
+
+	private void readJournals(final BlockReader block) {
+		int size = block.getInt();
+		Set<MyJournal> journals = new HashSet<>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			journals.add(readJournal(block, owner));
+		}
+		owner.setJournal(journals);
+	}
+
+	static MyJournal readJournal(final BlockReader block, final OwnerType owner) {
+		RawJournal rawJournal = RawJournal.create();
+		rawJournal.setAmount(block.getDoubleOptional());
+		rawJournal.setBalance(block.getDoubleOptional());
+		rawJournal.setContextId(block.getLongOptional());
+		rawJournal.setContextType(block.getEnum(ContextType.class));
+		rawJournal.setContextTypeString(block.getString());
+		rawJournal.setDate(block.getDate());
+		rawJournal.setDescription(block.getString());
+		rawJournal.setFirstPartyID(block.getIntOptional());
+		rawJournal.setSecondPartyID(block.getIntOptional());
+		rawJournal.setReason(block.getString());
+		rawJournal.setRefID(block.getLong());
+		rawJournal.setRefType(block.getEnum(RawJournalRefType.class));
+		rawJournal.setRefTypeString(block.getString());
+		rawJournal.setTax(block.getDoubleOptional());
+		rawJournal.setTaxReceiverId(block.getIntOptional());
+		rawJournal.setAccountKey(block.getInt());
+		return DataConverter.toMyJournal(rawJournal, owner);
+	}
+
+	private void readTransactions(final BlockReader block) {
+		int size = block.getInt();
+		Set<MyTransaction> transactions = new HashSet<>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			transactions.add(readTransaction(block, owner));
+		}
+		owner.setTransactions(transactions);
+	}
+
+	static MyTransaction readTransaction(final BlockReader block, final OwnerType owner) {
+		RawTransaction rawTransaction = RawTransaction.create();
+		rawTransaction.setDate(block.getDate());
+		rawTransaction.setTransactionID(block.getLong());
+		rawTransaction.setQuantity(block.getInt());
+		rawTransaction.setTypeID(block.getInt());
+		rawTransaction.setUnitPrice(block.getDouble());
+		rawTransaction.setClientID(block.getInt());
+		rawTransaction.setLocationID(block.getLong());
+		rawTransaction.setBuy(block.getBoolean());
+		rawTransaction.setPersonal(block.getBoolean());
+		rawTransaction.setJournalRefID(block.getLongOptional());
+		rawTransaction.setAccountKey(block.getInt());
+		return DataConverter.toMyTransaction(rawTransaction, owner);
+	}
+
+	private void readIndustryJobs(final BlockReader block) {
+		int size = block.getInt();
+		List<MyIndustryJob> industryJobs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			RawIndustryJob rawIndustryJob = RawIndustryJob.create();
+			rawIndustryJob.setJobID(block.getInt());
+			rawIndustryJob.setInstallerID(block.getInt());
+			rawIndustryJob.setFacilityID(block.getLong());
+			rawIndustryJob.setStationID(block.getLong());
+			rawIndustryJob.setActivityID(block.getInt());
+			rawIndustryJob.setBlueprintID(block.getLong());
+			rawIndustryJob.setBlueprintTypeID(block.getInt());
+			rawIndustryJob.setBlueprintLocationID(block.getLong());
+			rawIndustryJob.setOutputLocationID(block.getLong());
+			rawIndustryJob.setRuns(block.getInt());
+			rawIndustryJob.setCost(block.getDoubleOptional());
+			rawIndustryJob.setLicensedRuns(block.getIntOptional());
+			rawIndustryJob.setProbability(block.getFloatOptional());
+			rawIndustryJob.setProductTypeID(block.getIntOptional());
+			rawIndustryJob.setStatus(block.getEnum(IndustryJobStatus.class));
+			rawIndustryJob.setStatusString(block.getString());
+			rawIndustryJob.setDuration(block.getInt());
+			rawIndustryJob.setStartDate(block.getDate());
+			rawIndustryJob.setEndDate(block.getDate());
+			rawIndustryJob.setPauseDate(block.getDateOptional());
+			rawIndustryJob.setCompletedDate(block.getDateOptional());
+			rawIndustryJob.setCompletedCharacterID(block.getIntOptional());
+			rawIndustryJob.setSuccessfulRuns(block.getIntOptional());
+			industryJobs.add(DataConverter.toMyIndustryJob(rawIndustryJob, owner));
+		}
+		owner.setIndustryJobs(industryJobs);
+	}
+
+	private void readBlueprints(final BlockReader block) {
+		Map<Long, RawBlueprint> blueprints = new HashMap<>();
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			RawBlueprint blueprint = RawBlueprint.create();
+			blueprint.setItemID(block.getLong());
+			blueprint.setLocationID(block.getLong());
+			blueprint.setTypeID(block.getInt());
+			int flagID = block.getInt();
+			String locationFlagString = block.getString();
+			blueprint.setItemFlag(RawConverter.toFlag(flagID, locationFlagString));
+			blueprint.setLocationFlagString(locationFlagString);
+			blueprint.setQuantity(block.getInt());
+			blueprint.setTimeEfficiency(block.getInt());
+			blueprint.setMaterialEfficiency(block.getInt());
+			blueprint.setRuns(block.getInt());
+			blueprints.put(blueprint.getItemID(), blueprint);
+		}
+		owner.setBlueprints(blueprints);
+	}
+
+	private Map<Integer, String> readDivisions(final BlockReader block) {
+		Map<Integer, String> divisions = new HashMap<>();
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			divisions.put(block.getInt(), block.getString());
+		}
+		return divisions;
+	}
+
+	private void readSkills(final BlockReader block) {
+		owner.setTotalSkillPoints(block.getLongOptional());
+		owner.setUnallocatedSkillPoints(block.getIntOptional());
+		int size = block.getInt();
+		List<RawSkill> skills = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			RawSkill skill = RawSkill.create();
+			skill.setTypeID(block.getInt());
+			skill.setSkillpoints(block.getLong());
+			skill.setActiveSkillLevel(block.getInt());
+			skill.setTrainedSkillLevel(block.getInt());
+			skills.add(skill);
+		}
+		owner.setSkills(skills);
+	}
+}
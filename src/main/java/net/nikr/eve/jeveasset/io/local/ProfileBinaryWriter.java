@@ -0,0 +1,436 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
+import net.nikr.eve.jeveasset.data.api.accounts.EveApiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.EveKitOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyAccountBalance;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyContract;
+import net.nikr.eve.jeveasset.data.api.my.MyContractItem;
+import net.nikr.eve.jeveasset.data.api.my.MyIndustryJob;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyShip;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
+import net.nikr.eve.jeveasset.data.api.raw.RawSkill;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockWriter;
+import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public final class ProfileBinaryWriter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileBinaryWriter.class);
+
+	private final BlockWriter block = new BlockWriter();
+
+	private ProfileBinaryWriter() { }
+
+	/**
+	 * Save the binary profile.
+	 * Must be saved after the xml profile, as the binary profile is only used while the xml profile is unchanged
+	 * @param profileManager
+	 * @param filename binary profile
+	 * @param xmlFile xml profile
+	 * @return true if saved
+	 */
+	public static boolean save(final ProfileManager profileManager, final String filename, final File xmlFile) {
+		ProfileBinaryWriter writer = new ProfileBinaryWriter();
+		return writer.write(profileManager, filename, xmlFile);
+	}
+
+	private boolean write(final ProfileManager profileManager, final String filename, final File xmlFile) {
+		if (!xmlFile.exists()) {
+			return false;
+		}
+		File file = new File(filename);
+		File newFile = new File(filename + ".new");
+		FileLock.lock(file);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newFile), 64 * 1024))) {
+				out.writeInt(ProfileBinary.MAGIC);
+				out.writeInt(ProfileBinary.VERSION);
+				out.writeLong(xmlFile.length());
+				out.writeLong(xmlFile.lastModified());
+				writeStockpiles(out, profileManager.getActiveProfile().getStockpileIDs());
+				writeAccounts(out, profileManager.getAccounts());
+				writeEveKitOwners(out, profileManager.getEveKitOwners());
+				writeEsiOwners(out, profileManager.getEsiOwners());
+				block.writeTo(out, ProfileBinary.END);
+			}
+			//Replace the old file when the new file is complete
+			Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			LOG.error("Binary profile not saved " + ex.getMessage(), ex);
+			newFile.delete();
+			return false;
+		} finally {
+			FileLock.unlock(file);
+		}
+		LOG.info("Binary profile saved");
+		return true;
+	}
+
+	private void writeStockpiles(final DataOutputStream out, final Set<Long> stockpileIDs) throws IOException {
+		block.writeInt(stockpileIDs.size());
+		for (Long id : stockpileIDs) {
+			block.writeLong(id);
+		}
+		block.writeTo(out, ProfileBinary.STOCKPILES);
+	}
+
+	private void writeAccounts(final DataOutputStream out, final List<EveApiAccount> accounts) throws IOException {
+		for (EveApiAccount account : accounts) {
+			block.writeInt(account.getKeyID());
+			block.writeString(account.getVCode());
+			block.writeString(account.getName());
+			block.writeDate(account.getAccountNextUpdate());
+			block.writeLong(account.getAccessMask());
+			block.writeEnum(account.getType());
+			block.writeDateOptional(account.getExpires());
+			block.writeBoolean(account.isInvalid());
+			block.writeTo(out, ProfileBinary.ACCOUNT);
+			for (EveApiOwner owner : account.getOwners()) {
+				block.writeBoolean(owner.isMigrated());
+				writeOwnerType(out, owner, ProfileBinary.ACCOUNT_OWNER);
+			}
+		}
+	}
+
+	private void writeEveKitOwners(final DataOutputStream out, final List<EveKitOwner> eveKitOwners) throws IOException {
+		for (EveKitOwner owner : eveKitOwners) {
+			block.writeInt(owner.getAccessKey());
+			block.writeString(owner.getAccessCred());
+			block.writeDateOptional(owner.getExpire());
+			block.writeLong(owner.getAccessMask());
+			block.writeBoolean(owner.isCorporation());
+			block.writeDateOptional(owner.getLimit());
+			block.writeString(owner.getAccountName());
+			block.writeBoolean(owner.isMigrated());
+			//ContID
+			block.writeLongOptional(owner.getJournalCID());
+			block.writeLongOptional(owner.getTransactionsCID());
+			block.writeLongOptional(owner.getContractsCID());
+			block.writeLongOptional(owner.getIndustryJobsCID());
+			block.writeLongOptional(owner.getMarketOrdersCID());
+			block.writeDateOptional(owner.getAccountNextUpdate());
+			writeOwnerType(out, owner, ProfileBinary.EVEKIT_OWNER);
+		}
+	}
+
+	private void writeEsiOwners(final DataOutputStream out, final List<EsiOwner> esiOwners) throws IOException {
+		for (EsiOwner owner : esiOwners) {
+			block.writeString(owner.getAccountName());
+			block.writeString(owner.getRefreshToken());
+			block.writeString(String.join(" ", owner.getScopes()));
+			block.writeDate(owner.getStructuresNextUpdate());
+			block.writeDate(owner.getAccountNextUpdate());
+			block.writeEnum(owner.getCallbackURL());
+			block.writeInt(owner.getRoles().size());
+			for (RolesEnum role : owner.getRoles()) {
+				block.writeEnum(role);
+			}
+			writeOwnerType(out, owner, ProfileBinary.ESI_OWNER);
+		}
+	}
+
+	/**
+	 * Write the owner block and the owner data blocks
+	 * @param out
+	 * @param owner
+	 * @param type owner block type (the owner specific values have already been written to the block)
+	 * @throws IOException
+	 */
+	private void writeOwnerType(final DataOutputStream out, final OwnerType owner, final int type) throws IOException {
+		block.writeLong(owner.getOwnerID());
+		block.writeString(owner.getOwnerName());
+		block.writeString(owner.getCorporationName());
+		block.writeBoolean(owner.isShowOwner());
+		block.writeBoolean(owner.isInvalid());
+		block.writeDateOptional(owner.getAssetLastUpdate());
+		block.writeDate(owner.getAssetNextUpdate());
+		block.writeDateOptional(owner.getBalanceLastUpdate());
+		block.writeDate(owner.getBalanceNextUpdate());
+		block.writeDate(owner.getMarketOrdersNextUpdate());
+		block.writeDate(owner.getJournalNextUpdate());
+		block.writeDate(owner.getTransactionsNextUpdate());
+		block.writeDate(owner.getIndustryJobsNextUpdate());
+		block.writeDate(owner.getContractsNextUpdate());
+		block.writeDate(owner.getLocationsNextUpdate());
+		block.writeDate(owner.getBlueprintsNextUpdate());
+		block.writeDate(owner.getBookmarksNextUpdate());
+		block.writeDate(owner.getSkillsNextUpdate());
+		block.writeTo(out, type);
+
+		writeAssets(owner.getAssets());
+		block.writeTo(out, ProfileBinary.ASSETS);
+		if (owner.getActiveShip() != null) {
+			writeActiveShip(owner.getActiveShip());
+			block.writeTo(out, ProfileBinary.ACTIVE_SHIP);
+		}
+		writeContracts(owner.getContracts());
+		block.writeTo(out, ProfileBinary.CONTRACTS);
+		writeAccountBalances(owner.getAccountBalances());
+		block.writeTo(out, ProfileBinary.BALANCES);
+		writeMarketOrders(ProfileHistory.getProfileMarketOrders(owner));
+		block.writeTo(out, ProfileBinary.MARKET_ORDERS);
+		writeJournals(ProfileHistory.getProfileJournal(owner));
+		block.writeTo(out, ProfileBinary.JOURNAL);
+		writeTransactions(ProfileHistory.getProfileTransactions(owner));
+		block.writeTo(out, ProfileBinary.TRANSACTIONS);
+		writeIndustryJobs(owner.getIndustryJobs());
+		block.writeTo(out, ProfileBinary.INDUSTRY_JOBS);
+		writeBlueprints(owner.getBlueprints());
+		block.writeTo(out, ProfileBinary.BLUEPRINTS);
+		writeDivisions(owner.getAssetDivisions());
+		block.writeTo(out, ProfileBinary.ASSET_DIVISIONS);
+		writeDivisions(owner.getWalletDivisions());
+		block.writeTo(out, ProfileBinary.WALLET_DIVISIONS);
+		writeSkills(owner.getSkills(), owner.getTotalSkillPoints(), owner.getUnallocatedSkillPoints());
+		block.writeTo(out, ProfileBinary.SKILLS);
+	}
+
+	private void writeAssets(final List<MyAsset> assets) throws IOException {
+		block.writeInt(assets.size());
+		for (MyAsset asset : assets) {
+			block.writeLong(asset.getItemID());
+			block.writeInt(asset.getItem().getTypeID());
+			block.writeLong(asset.getLocationID());
+			block.writeIntOptional(asset.getQuantity());
+			block.writeBoolean(asset.isSingleton());
+			block.writeIntOptional(asset.getFlagID());
+			block.writeString(asset.getLocationFlagString());
+			writeAssets(asset.getAssets());
+		}
+	}
+
+	private void writeActiveShip(final MyShip activeShip) throws IOException {
+		block.writeLong(activeShip.getItemID());
+		block.writeInt(activeShip.getTypeID());
+		block.writeLong(activeShip.getLocationID());
+	}
+
+	private void writeContracts(final Map<MyContract, List<MyContractItem>> contractItems) throws IOException {
+		block.writeInt(contractItems.size());
+		for (Map.Entry<MyContract, List<MyContractItem>> entry : contractItems.entrySet()) {
+			MyContract contract = entry.getKey();
+			block.writeInt((int) contract.getAcceptorID());
+			block.writeInt((int) contract.getAssigneeID());
+			block.writeEnum(contract.getAvailability());
+			block.writeString(contract.getAvailabilityString());
+			block.writeDoubleOptional(contract.getBuyout());
+			block.writeDoubleOptional(contract.getCollateral());
+			block.writeInt(contract.getContractID());
+			block.writeDateOptional(contract.getDateAccepted());
+			block.writeDateOptional(contract.getDateCompleted());
+			block.writeDate(contract.getDateExpired());
+			block.writeDate(contract.getDateIssued());
+			block.writeLongOptional(contract.getEndLocationID());
+			block.writeInt((int) contract.getIssuerCorpID());
+			block.writeInt((int) contract.getIssuerID());
+			block.writeIntOptional(contract.getDaysToComplete());
+			block.writeDoubleOptional(contract.getPrice());
+			block.writeDoubleOptional(contract.getReward());
+			block.writeLongOptional(contract.getStartLocationID());
+			block.writeEnum(contract.getStatus());
+			block.writeString(contract.getStatusString());
+			block.writeString(contract.getTitle());
+			block.writeEnum(contract.getType());
+			block.writeString(contract.getTypeString());
+			block.writeDoubleOptional(contract.getVolume());
+			block.writeBoolean(contract.isForCorp());
+			block.writeInt(entry.getValue().size());
+			for (MyContractItem contractItem : entry.getValue()) {
+				block.writeBoolean(contractItem.isIncluded());
+				block.writeInt(contractItem.getQuantity());
+				block.writeLong(contractItem.getRecordID());
+				block.writeBoolean(contractItem.isSingleton());
+				block.writeInt(contractItem.getTypeID());
+				block.writeIntOptional(contractItem.getRawQuantity());
+			}
+		}
+	}
+
+	private void writeAccountBalances(final List<MyAccountBalance> accountBalances) throws IOException {
+		block.writeInt(accountBalances.size());
+		for (MyAccountBalance accountBalance : accountBalances) {
+			block.writeInt(accountBalance.getAccountKey());
+			block.writeDouble(accountBalance.getBalance());
+		}
+	}
+
+	private void writeMarketOrders(final Set<MyMarketOrder> marketOrders) throws IOException {
+		block.writeInt(marketOrders.size());
+		for (MyMarketOrder marketOrder : marketOrders) {
+			writeMarketOrder(block, marketOrder);
+		}
+	}
+
+	static void writeMarketOrder(final BlockWriter block, final MyMarketOrder marketOrder) throws IOException {
+		block.writeLong(marketOrder.getOrderID());
+		block.writeLong(marketOrder.getLocationID());
+		block.writeIntOptional(marketOrder.getRegionID());
+		block.writeInt(marketOrder.getVolumeTotal());
+		block.writeInt(marketOrder.getVolumeRemain());
+		block.writeInt(marketOrder.getMinVolume());
+		block.writeEnum(marketOrder.getState());
+		block.writeString(marketOrder.getStateString());
+		block.writeInt(marketOrder.getTypeID());
+		block.writeEnum(marketOrder.getRange());
+		block.writeString(marketOrder.getRangeString());
+		block.writeInt(marketOrder.getWalletDivision());
+		block.writeInt(marketOrder.getDuration());
+		block.writeDouble(marketOrder.getEscrow());
+		block.writeDouble(marketOrder.getPrice());
+		block.writeBoolean(marketOrder.isBuyOrder());
+		block.writeDate(marketOrder.getIssued());
+		block.writeIntOptional(marketOrder.getIssuedBy());
+		block.writeBoolean(marketOrder.isCorp());
+	}
+
+	private void writeJournals(final Set<MyJournal> journals) throws IOException {
+		block.writeInt(journals.size());
+		for (MyJournal journal : journals) {
+			writeJournal(block, journal);
+		}
+	}
+
+	static void writeJournal(final BlockWriter block, final MyJournal journal) throws IOException {
+		block.writeDoubleOptional(journal.getAmount());
+		block.writeDoubleOptional(journal.getBalance());
+		block.writeLongOptional(journal.getContextId());
+		block.writeEnum(journal.getContextType());
+		block.writeString(journal.getContextTypeString());
+		block.writeDate(journal.getDate());
+		block.writeString(journal.getDescription());
+		block.writeIntOptional(journal.getFirstPartyID());
+		block.writeIntOptional(journal.getSecondPartyID());
+		block.writeString(journal.getReason());
+		block.writeLong(journal.getRefID());
+		block.writeEnum(journal.getRefType());
+		block.writeString(journal.getRefTypeString());
+		block.writeDoubleOptional(journal.getTaxAmount());
+		block.writeIntOptional(journal.getTaxReceiverId());
+		block.writeInt(journal.getAccountKey());
+	}
+
+	private void writeTransactions(final Set<MyTransaction> transactions) throws IOException {
+		block.writeInt(transactions.size());
+		for (MyTransaction transaction : transactions) {
+			writeTransaction(block, transaction);
+		}
+	}
+
+	static void writeTransaction(final BlockWriter block, final MyTransaction transaction) throws IOException {
+		block.writeDate(transaction.getDate());
+		block.writeLong(transaction.getTransactionID());
+		block.writeInt(transaction.getQuantity());
+		block.writeInt(transaction.getTypeID());
+		block.writeDouble(transaction.getPrice());
+		block.writeInt((int) transaction.getClientID());
+		block.writeLong(transaction.getLocationID());
+		block.writeBoolean(transaction.isBuy());
+		block.writeBoolean(transaction.isPersonal());
+		block.writeLongOptional(transaction.getJournalRefID());
+		block.writeInt(transaction.getAccountKey());
+	}
+
+	private void writeIndustryJobs(final List<MyIndustryJob> industryJobs) throws IOException {
+		block.writeInt(industryJobs.size());
+		for (MyIndustryJob industryJob : industryJobs) {
+			block.writeInt(industryJob.getJobID());
+			block.writeInt((int) industryJob.getInstallerID());
+			block.writeLong(industryJob.getFacilityID());
+			block.writeLong(industryJob.getStationID());
+			block.writeInt(industryJob.getActivityID());
+			block.writeLong(industryJob.getBlueprintID());
+			block.writeInt(industryJob.getBlueprintTypeID());
+			block.writeLong(industryJob.getBlueprintLocationID());
+			block.writeLong(industryJob.getOutputLocationID());
+			block.writeInt(industryJob.getRuns());
+			block.writeDoubleOptional(industryJob.getCost());
+			block.writeIntOptional(industryJob.getLicensedRuns());
+			block.writeFloatOptional(industryJob.getProbability());
+			block.writeIntOptional(industryJob.getProductTypeID());
+			block.writeEnum(industryJob.getStatus());
+			block.writeString(industryJob.getStatusString());
+			block.writeInt(industryJob.getDuration());
+			block.writeDate(industryJob.getStartDate());
+			block.writeDate(industryJob.getEndDate());
+			block.writeDateOptional(industryJob.getPauseDate());
+			block.writeDateOptional(industryJob.getCompletedDate());
+			block.writeIntOptional(industryJob.getCompletedCharacterID());
+			block.writeIntOptional(industryJob.getSuccessfulRuns());
+		}
+	}
+
+	private void writeBlueprints(final Map<Long, RawBlueprint> blueprints) throws IOException {
+		block.writeInt(blueprints.size());
+		for (RawBlueprint blueprint : blueprints.values()) {
+			block.writeLong(blueprint.getItemID());
+			block.writeLong(blueprint.getLocationID());
+			block.writeInt(blueprint.getTypeID());
+			block.writeInt(blueprint.getFlagID());
+			block.writeString(blueprint.getLocationFlagString());
+			block.writeInt(blueprint.getQuantity());
+			block.writeInt(blueprint.getTimeEfficiency());
+			block.writeInt(blueprint.getMaterialEfficiency());
+			block.writeInt(blueprint.getRuns());
+		}
+	}
+
+	private void writeDivisions(final Map<Integer, String> divisions) throws IOException {
+		block.writeInt(divisions.size());
+		for (Map.Entry<Integer, String> entry : divisions.entrySet()) {
+			block.writeInt(entry.getKey());
+			block.writeString(entry.getValue());
+		}
+	}
+
+	private void writeSkills(final List<RawSkill> skills, final Long totalSkillPoints, final Integer unallocatedSkillPoints) throws IOException {
+		block.writeLongOptional(totalSkillPoints);
+		block.writeIntOptional(unallocatedSkillPoints);
+		block.writeInt(skills.size());
+		for (RawSkill skill : skills) {
+			block.writeInt(skill.getTypeID());
+			block.writeLong(skill.getSkillpoints());
+			block.writeInt(skill.getActiveSkillLevel());
+			block.writeInt(skill.getTrainedSkillLevel());
+		}
+	}
+}
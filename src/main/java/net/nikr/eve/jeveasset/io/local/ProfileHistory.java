@@ -0,0 +1,487 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderState;
+import net.nikr.eve.jeveasset.data.settings.Settings;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockReader;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockWriter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only history of journal, transactions and closed market orders.
+ * One database per profile. Rows are inserted once and are not saved in the profile after that.
+ * Rows are saved in the binary profile record format, with the format version in each row (rows in an unknown format are ignored).
+ * The database schema version is saved in user_version (databases with a newer schema are not used).
+ * The database is locked while used, copied to .bac after every save, and restored from .bac if it's corrupted.
+ */
+public final class ProfileHistory extends AbstractBackup {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileHistory.class);
+
+	private static final int SQLITE_CORRUPT = 11;
+	private static final int SQLITE_NOTADB = 26;
+	private static final int SCHEMA_VERSION = 1;
+	private static final Set<MarketOrderState> CLOSED = EnumSet.of(MarketOrderState.CANCELLED, MarketOrderState.CHARACTER_DELETED, MarketOrderState.CLOSED, MarketOrderState.EXPIRED);
+
+	private static final HistoryHandler<MyJournal> JOURNAL = new HistoryHandler<MyJournal>("journal") {
+		@Override
+		public long getID(MyJournal journal) {
+			return journal.getRefID();
+		}
+
+		@Override
+		public Date getDate(MyJournal journal) {
+			return journal.getDate();
+		}
+
+		@Override
+		public boolean isHistory(MyJournal journal) {
+			return true;
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return Settings.get().isJournalHistory();
+		}
+
+		@Override
+		public void write(BlockWriter block, MyJournal journal) throws IOException {
+			ProfileBinaryWriter.writeJournal(block, journal);
+		}
+
+		@Override
+		public MyJournal read(BlockReader block, OwnerType owner) {
+			return ProfileBinaryReader.readJournal(block, owner);
+		}
+	};
+
+	private static final HistoryHandler<MyTransaction> TRANSACTIONS = new HistoryHandler<MyTransaction>("transactions") {
+		@Override
+		public long getID(MyTransaction transaction) {
+			return transaction.getTransactionID();
+		}
+
+		@Override
+		public Date getDate(MyTransaction transaction) {
+			return transaction.getDate();
+		}
+
+		@Override
+		public boolean isHistory(MyTransaction transaction) {
+			return true;
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return Settings.get().isTransactionHistory();
+		}
+
+		@Override
+		public void write(BlockWriter block, MyTransaction transaction) throws IOException {
+			ProfileBinaryWriter.writeTransaction(block, transaction);
+		}
+
+		@Override
+		public MyTransaction read(BlockReader block, OwnerType owner) {
+			return ProfileBinaryReader.readTransaction(block, owner);
+		}
+	};
+
+	private static final HistoryHandler<MyMarketOrder> MARKET_ORDERS = new HistoryHandler<MyMarketOrder>("marketorders") {
+		@Override
+		public long getID(MyMarketOrder marketOrder) {
+			return marketOrder.getOrderID();
+		}
+
+		@Override
+		public Date getDate(MyMarketOrder marketOrder) {
+			return marketOrder.getIssued();
+		}
+
+		@Override
+		public boolean isHistory(MyMarketOrder marketOrder) {
+			return CLOSED.contains(marketOrder.getState()); //Open orders can still change
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return Settings.get().isMarketOrderHistory();
+		}
+
+		@Override
+		public void write(BlockWriter block, MyMarketOrder marketOrder) throws IOException {
+			ProfileBinaryWriter.writeMarketOrder(block, marketOrder);
+		}
+
+		@Override
+		public MyMarketOrder read(BlockReader block, OwnerType owner) {
+			return ProfileBinaryReader.readMarketOrder(block, owner);
+		}
+	};
+
+	private ProfileHistory() { }
+
+	/**
+	 * Add the history rows to the owners.
+	 * Must be called after the profile is loaded
+	 * @param owners
+	 * @param filename profile history database
+	 */
+	public static void load(final List<OwnerType> owners, final String filename) {
+		importShared(filename);
+		load(owners, filename, true);
+	}
+
+	static synchronized void load(final List<OwnerType> owners, final String filename, final boolean backup) {
+		ProfileHistory history = new ProfileHistory();
+		history.lock(filename); //Exclusive: the tables may be created
+		try {
+			history.read(owners, filename, backup);
+		} finally {
+			history.unlock(filename);
+		}
+	}
+
+	private void read(final List<OwnerType> owners, final String filename, final boolean backup) {
+		if (backup && new File(filename).exists()) {
+			backup(filename);
+		}
+		clear(); //Only the rows in this database
+		try (Connection connection = DriverManager.getConnection(getConnectionUrl(filename))) {
+			createTables(connection);
+			int count = 0;
+			for (OwnerType owner : owners) {
+				if (JOURNAL.isEnabled()) {
+					Set<MyJournal> journals = new HashSet<>(owner.getJournal());
+					count += select(connection, JOURNAL, owner, journals);
+					owner.setJournal(journals);
+				}
+				if (TRANSACTIONS.isEnabled()) {
+					Set<MyTransaction> transactions = new HashSet<>(owner.getTransactions());
+					count += select(connection, TRANSACTIONS, owner, transactions);
+					owner.setTransactions(transactions);
+				}
+				if (MARKET_ORDERS.isEnabled()) {
+					Set<MyMarketOrder> marketOrders = new HashSet<>(owner.getMarketOrders());
+					count += select(connection, MARKET_ORDERS, owner, marketOrders);
+					owner.setMarketOrders(marketOrders);
+				}
+			}
+			LOG.info("History loaded: " + count + " rows");
+		} catch (SQLException ex) {
+			if ((ex.getErrorCode() == SQLITE_CORRUPT || ex.getErrorCode() == SQLITE_NOTADB) && restoreBackupFile(filename)) {
+				LOG.warn("History restored from backup: " + ex.getMessage(), ex);
+				read(owners, filename, false);
+				return;
+			}
+			LOG.error(ex.getMessage(), ex);
+		} catch (IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Insert the history rows not already in the history.
+	 * Must be called before the profile is saved
+	 * @param owners
+	 * @param filename profile history database
+	 */
+	public static void save(final List<OwnerType> owners, final String filename) {
+		save(owners, filename, true);
+	}
+
+	static synchronized void save(final List<OwnerType> owners, final String filename, final boolean backup) {
+		ProfileHistory history = new ProfileHistory();
+		history.lock(filename);
+		try {
+			history.write(owners, filename, backup);
+		} finally {
+			history.unlock(filename);
+		}
+	}
+
+	private void write(final List<OwnerType> owners, final String filename, final boolean backup) {
+		List<Inserted> inserted = new ArrayList<>();
+		try (Connection connection = DriverManager.getConnection(getConnectionUrl(filename))) {
+			createTables(connection);
+			connection.setAutoCommit(false);
+			BlockWriter block = new BlockWriter();
+			for (OwnerType owner : owners) {
+				if (JOURNAL.isEnabled()) {
+					inserted.add(insert(connection, block, JOURNAL, owner, owner.getJournal()));
+				}
+				if (TRANSACTIONS.isEnabled()) {
+					inserted.add(insert(connection, block, TRANSACTIONS, owner, owner.getTransactions()));
+				}
+				if (MARKET_ORDERS.isEnabled()) {
+					inserted.add(insert(connection, block, MARKET_ORDERS, owner, owner.getMarketOrders()));
+				}
+			}
+			connection.commit();
+			connection.setAutoCommit(true);
+		} catch (SQLException | IOException ex) {
+			LOG.error(ex.getMessage(), ex);
+			return; //Not saved: Keep the rows in the profile
+		}
+		//Only skip the rows in the profile when they are committed to the history
+		int count = 0;
+		for (Inserted rows : inserted) {
+			rows.archived.addAll(rows.ids);
+			count += rows.ids.size();
+		}
+		LOG.info("History saved: " + count + " new rows");
+		if (backup && count > 0) {
+			try {
+				copyBackupFile(filename);
+			} catch (IOException ex) {
+				LOG.error("History backup failed: " + ex.getMessage(), ex);
+			}
+		}
+	}
+
+	/**
+	 * Forget the archived rows (all rows are saved in the profile until the history is loaded again)
+	 */
+	static synchronized void clear() {
+		for (HistoryHandler<?> handler : new HistoryHandler<?>[] {JOURNAL, TRANSACTIONS, MARKET_ORDERS}) {
+			handler.archived.clear();
+		}
+	}
+
+	private static String getConnectionUrl(final String filename) {
+		return "jdbc:sqlite:" + filename;
+	}
+
+	/**
+	 * Copy the shared history database (used before the history was saved per profile)
+	 * @param filename profile history database
+	 */
+	private static void importShared(final String filename) {
+		File file = new File(filename);
+		File shared = new File(FileUtil.getPathHistoryDatabase());
+		if (file.exists() || !shared.exists()) {
+			return;
+		}
+		FileLock.lockShared(shared);
+		try {
+			Files.copy(shared.toPath(), file.toPath()); //Rows of owners not in the profile are never loaded
+			LOG.info("Shared history imported");
+		} catch (IOException ex) {
+			LOG.error("Shared history import failed: " + ex.getMessage(), ex);
+		} finally {
+			FileLock.unlock(shared);
+		}
+	}
+
+	/**
+	 * @param owner
+	 * @return the journal rows that should be saved in the profile
+	 */
+	public static Set<MyJournal> getProfileJournal(final OwnerType owner) {
+		return getProfile(JOURNAL, owner, owner.getJournal());
+	}
+
+	/**
+	 * @param owner
+	 * @return the transactions that should be saved in the profile
+	 */
+	public static Set<MyTransaction> getProfileTransactions(final OwnerType owner) {
+		return getProfile(TRANSACTIONS, owner, owner.getTransactions());
+	}
+
+	/**
+	 * @param owner
+	 * @return the market orders that should be saved in the profile
+	 */
+	public static Set<MyMarketOrder> getProfileMarketOrders(final OwnerType owner) {
+		return getProfile(MARKET_ORDERS, owner, owner.getMarketOrders());
+	}
+
+	private static synchronized <T> Set<T> getProfile(final HistoryHandler<T> handler, final OwnerType owner, final Set<T> values) {
+		Set<Long> archived = handler.archived.get(owner.getOwnerID());
+		if (archived == null || archived.isEmpty() || !handler.isEnabled()) {
+			return values;
+		}
+		Set<T> profile = new HashSet<>();
+		for (T value : values) {
+			if (!archived.contains(handler.getID(value))) {
+				profile.add(value);
+			}
+		}
+		return profile;
+	}
+
+	private static <T> int select(final Connection connection, final HistoryHandler<T> handler, final OwnerType owner, final Set<T> values) throws SQLException, IOException {
+		Set<Long> archived = handler.getArchived(owner.getOwnerID());
+		String sql = "SELECT id, version, data FROM " + handler.table + " WHERE ownerid = ?";
+		int count = 0;
+		int unknown = 0;
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, owner.getOwnerID());
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					if (rs.getInt("version") != ProfileBinary.VERSION) {
+						unknown++; //Not archived: replaced if still in the profile
+						continue;
+					}
+					byte[] data = rs.getBytes("data");
+					BlockReader block = new BlockReader(ByteBuffer.wrap(data), 0, data.length);
+					values.add(handler.read(block, owner)); //Rows from the profile are newer and not replaced
+					block.done();
+					archived.add(rs.getLong("id"));
+					count++;
+				}
+			}
+		}
+		if (unknown > 0) {
+			LOG.warn(handler.table + ": " + unknown + " rows in unknown format ignored");
+		}
+		return count;
+	}
+
+	private static <T> Inserted insert(final Connection connection, final BlockWriter block, final HistoryHandler<T> handler, final OwnerType owner, final Set<T> values) throws SQLException, IOException {
+		Inserted inserted = new Inserted(handler.getArchived(owner.getOwnerID()));
+		String sql = "INSERT OR REPLACE INTO " + handler.table + "(ownerid,id,date,version,data) VALUES(?,?,?,?,?)";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (T value : values) {
+				long id = handler.getID(value);
+				if (inserted.archived.contains(id) || !handler.isHistory(value)) {
+					continue;
+				}
+				handler.write(block, value);
+				statement.setLong(1, owner.getOwnerID());
+				statement.setLong(2, id);
+				statement.setLong(3, handler.getDate(value).getTime());
+				statement.setInt(4, ProfileBinary.VERSION);
+				statement.setBytes(5, block.toByteArray());
+				statement.addBatch();
+				inserted.ids.add(id);
+				if (inserted.ids.size() % 1000 == 0) {
+					statement.executeBatch(); // Execute every 1000 items.
+				}
+			}
+			if (inserted.ids.size() % 1000 != 0) {
+				statement.executeBatch();
+			}
+		}
+		return inserted;
+	}
+
+	private static void createTables(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			int schemaVersion;
+			try (ResultSet rs = statement.executeQuery("PRAGMA user_version;")) {
+				schemaVersion = rs.next() ? rs.getInt(1) : 0;
+			}
+			if (schemaVersion == SCHEMA_VERSION) {
+				return;
+			}
+			if (schemaVersion > SCHEMA_VERSION) { //Saved by a newer version: keep all rows in the profile
+				throw new SQLException("History schema version " + schemaVersion + " not supported");
+			}
+			for (HistoryHandler<?> handler : new HistoryHandler<?>[] {JOURNAL, TRANSACTIONS, MARKET_ORDERS}) {
+				statement.execute("CREATE TABLE IF NOT EXISTS " + handler.table + " (\n"
+						+ "	ownerid integer NOT NULL,\n"
+						+ "	id integer NOT NULL,\n"
+						+ "	date integer NOT NULL,\n"
+						+ "	version integer NOT NULL,\n"
+						+ "	data blob NOT NULL,\n"
+						+ "	PRIMARY KEY (ownerid, id)\n"
+						+ ");");
+				statement.execute("CREATE INDEX IF NOT EXISTS " + handler.table + "_date ON " + handler.table + " (ownerid, date);");
+				if (!hasColumn(statement, handler.table, "version")) { //Saved before the format version was added (format version 1)
+					statement.execute("ALTER TABLE " + handler.table + " ADD COLUMN version integer NOT NULL DEFAULT 1;");
+				}
+			}
+			statement.execute("PRAGMA user_version = " + SCHEMA_VERSION + ";");
+		}
+	}
+
+	private static boolean hasColumn(final Statement statement, final String table, final String column) throws SQLException {
+		try (ResultSet rs = statement.executeQuery("PRAGMA table_info(" + table + ");")) {
+			while (rs.next()) {
+				if (column.equals(rs.getString("name"))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static class Inserted {
+		private final Set<Long> archived;
+		private final List<Long> ids = new ArrayList<>();
+
+		public Inserted(Set<Long> archived) {
+			this.archived = archived;
+		}
+	}
+
+	private static abstract class HistoryHandler<T> {
+		private final String table;
+		private final Map<Long, Set<Long>> archived = new HashMap<>(); //OwnerID, IDs in the history
+
+		public HistoryHandler(String table) {
+			this.table = table;
+		}
+
+		private Set<Long> getArchived(long ownerID) {
+			Set<Long> ids = archived.get(ownerID);
+			if (ids == null) {
+				ids = new HashSet<>();
+				archived.put(ownerID, ids);
+			}
+			return ids;
+		}
+
+		public abstract long getID(T value);
+		public abstract Date getDate(T value);
+		public abstract boolean isHistory(T value);
+		public abstract boolean isEnabled();
+		public abstract void write(BlockWriter block, T value) throws IOException;
+		public abstract T read(BlockReader block, OwnerType owner);
+	}
+}
@@ -28,6 +28,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount;
 import net.nikr.eve.jeveasset.data.api.accounts.EveApiAccount.KeyType;
@@ -71,15 +74,25 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 
-public final class ProfileReader extends AbstractXmlReader<Boolean> {
+public final class ProfileReader extends AbstractXmlStreamReader<Boolean> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ProfileReader.class);
 
 	private final ProfileManager profileManager;
 
 	public static boolean load(ProfileManager profileManager, final String filename) {
+		return load(profileManager, filename, true);
+	}
+
+	/**
+	 * @param profileManager
+	 * @param filename
+	 * @param stream true to parse the profile one element at a time, false to parse it as a DOM
+	 * @return true if loaded
+	 */
+	static boolean load(ProfileManager profileManager, final String filename, final boolean stream) {
 		ProfileReader reader = new ProfileReader(profileManager);
-		Boolean ok = reader.read(filename, filename, XmlType.DYNAMIC_BACKUP);
+		Boolean ok = reader.read(filename, filename, XmlType.DYNAMIC_BACKUP, stream);
 		if (!ok) {
 			profileManager.clear();
 		}
@@ -97,6 +110,13 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		return true;
 	}
 
+	@Override
+	protected Boolean parse(XMLStreamReader reader) throws XmlException, XMLStreamException {
+		profileManager.clear(); //Clear before load (may happen more than once)
+		parseProfile(reader, profileManager);
+		return true;
+	}
+
 	@Override
 	protected Boolean failValue() {
 		return false;
@@ -137,6 +157,31 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		}
 	}
 
+	private void parseProfile(final XMLStreamReader reader, ProfileManager profileManager) throws XmlException, XMLStreamException {
+		reader.nextTag();
+		if (!reader.getLocalName().equals("assets")) {
+			throw new XmlException("Wrong root element name.");
+		}
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			switch (reader.getLocalName()) {
+				case "stockpiles": //Stockpiles
+					parseStockpiles(readElement(reader), profileManager.getActiveProfile());
+					break;
+				case "accounts": //Eve XML Api
+					parseAccounts(reader, profileManager.getAccounts());
+					break;
+				case "evekitowners": //EveKit
+					parseEveKitOwners(reader, profileManager.getEveKitOwners());
+					break;
+				case "esiowners": //Esi
+					parseEsiOwners(reader, profileManager.getEsiOwners());
+					break;
+				default:
+					skipElement(reader);
+			}
+		}
+	}
+
 	private void parseStockpiles(final Element element, final Profile profile) throws XmlException {
 		NodeList stockpilesNodes = element.getElementsByTagName("stockpile");
 		Set<Long> stockpileIDs = new HashSet<>();
@@ -152,74 +197,101 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		NodeList ownerNodes = element.getElementsByTagName("esiowner");
 		for (int i = 0; i < ownerNodes.getLength(); i++) {
 			Element currentNode = (Element) ownerNodes.item(i);
-			String accountName = getString(currentNode, "accountname");
-			String refreshToken = getString(currentNode, "refreshtoken");
-			String scopes = getString(currentNode, "scopes");
-			Date structuresNextUpdate = getDate(currentNode, "structuresnextupdate");
-			Date accountNextUpdate = getDate(currentNode, "accountnextupdate");
-			EsiCallbackURL callbackURL;
-			try {
-				callbackURL = EsiCallbackURL.valueOf(getString(currentNode, "callbackurl"));
-			} catch (IllegalArgumentException ex) {
-				throw new XmlException(ex);
-			}
-			Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
-			if (haveAttribute(currentNode, "characterroles")) {
-				for (String role : getString(currentNode, "characterroles").split(",")) {
-					try {
-						roles.add(RolesEnum.valueOf(role));
-					} catch (IllegalArgumentException ex) {
-						
-					}
-				}
-			}
-			EsiOwner owner = new EsiOwner();
-			owner.setRoles(roles);
-			owner.setAccountName(accountName);
-			owner.setScopes(scopes);
-			owner.setStructuresNextUpdate(structuresNextUpdate);
-			owner.setAccountNextUpdate(accountNextUpdate);
-			owner.setAuth(callbackURL, refreshToken, null);
-
+			EsiOwner owner = parseEsiOwner(currentNode);
 			parseOwnerType(currentNode, owner);
 			esiOwners.add(owner);
 		}
 	}
 
+	private void parseEsiOwners(final XMLStreamReader reader, final List<EsiOwner> esiOwners) throws XmlException, XMLStreamException {
+		while (nextElement(reader, "esiowner")) {
+			Element currentNode = readAttributes(reader);
+			EsiOwner owner = parseEsiOwner(currentNode);
+			parseOwnerType(reader, currentNode, owner);
+			esiOwners.add(owner);
+		}
+	}
+
+	private EsiOwner parseEsiOwner(final Element currentNode) throws XmlException {
+		String accountName = getString(currentNode, "accountname");
+		String refreshToken = getString(currentNode, "refreshtoken");
+		String scopes = getString(currentNode, "scopes");
+		Date structuresNextUpdate = getDate(currentNode, "structuresnextupdate");
+		Date accountNextUpdate = getDate(currentNode, "accountnextupdate");
+		EsiCallbackURL callbackURL;
+		try {
+			callbackURL = EsiCallbackURL.valueOf(getString(currentNode, "callbackurl"));
+		} catch (IllegalArgumentException ex) {
+			throw new XmlException(ex);
+		}
+		Set<RolesEnum> roles = EnumSet.noneOf(RolesEnum.class);
+		if (haveAttribute(currentNode, "characterroles")) {
+			for (String role : getString(currentNode, "characterroles").split(",")) {
+				try {
+					roles.add(RolesEnum.valueOf(role));
+				} catch (IllegalArgumentException ex) {
+					
+				}
+			}
+		}
+		EsiOwner owner = new EsiOwner();
+		owner.setRoles(roles);
+		owner.setAccountName(accountName);
+		owner.setScopes(scopes);
+		owner.setStructuresNextUpdate(structuresNextUpdate);
+		owner.setAccountNextUpdate(accountNextUpdate);
+		owner.setAuth(callbackURL, refreshToken, null);
+		return owner;
+	}
+
 	private void parseEveKitOwners(final Element element, final List<EveKitOwner> eveKitOwners) throws XmlException {
 		NodeList ownerNodes = element.getElementsByTagName("evekitowner");
 		for (int i = 0; i < ownerNodes.getLength(); i++) {
 			Element currentNode = (Element) ownerNodes.item(i);
-			int accessKey = getInt(currentNode, "accesskey");
-			String accessCred = getString(currentNode, "accesscred");
-			Date expire = getDateOptional(currentNode, "expire");
-			long accessmask = getLong(currentNode, "accessmask");
-			boolean corporation = getBoolean(currentNode, "corporation");
-			Date limit = getDateOptional(currentNode, "limit");
-			String accountName = getString(currentNode, "accountname");
-			//ContID
-			Long journalCID = getLongOptional(currentNode, "journalcid");
-			Long transactionsCID = getLongOptional(currentNode, "transactionscid");
-			Long contractsCID = getLongOptional(currentNode, "contractscid");
-			Long industryJobsCID = getLongOptional(currentNode, "industryjobscid");
-			Long marketOrdersCID = getLongOptional(currentNode, "marketorderscid");
-			Date accountNextUpdate = getDateOptional(currentNode, "accountnextupdate");
-			boolean migrated = false;
-			if (haveAttribute(currentNode, "migrated")) {
-				migrated = getBoolean(currentNode, "migrated");
-			}
-			EveKitOwner owner = new EveKitOwner(accessKey, accessCred, expire, accessmask, corporation, limit, accountName, migrated);
-			owner.setJournalCID(journalCID);
-			owner.setTransactionsCID(transactionsCID);
-			owner.setContractsCID(contractsCID);
-			owner.setIndustryJobsCID(industryJobsCID);
-			owner.setMarketOrdersCID(marketOrdersCID);
-			owner.setAccountNextUpdate(accountNextUpdate);
+			EveKitOwner owner = parseEveKitOwner(currentNode);
 			parseOwnerType(currentNode, owner);
 			eveKitOwners.add(owner);
 		}
 	}
 
+	private void parseEveKitOwners(final XMLStreamReader reader, final List<EveKitOwner> eveKitOwners) throws XmlException, XMLStreamException {
+		while (nextElement(reader, "evekitowner")) {
+			Element currentNode = readAttributes(reader);
+			EveKitOwner owner = parseEveKitOwner(currentNode);
+			parseOwnerType(reader, currentNode, owner);
+			eveKitOwners.add(owner);
+		}
+	}
+
+	private EveKitOwner parseEveKitOwner(final Element currentNode) throws XmlException {
+		int accessKey = getInt(currentNode, "accesskey");
+		String accessCred = getString(currentNode, "accesscred");
+		Date expire = getDateOptional(currentNode, "expire");
+		long accessmask = getLong(currentNode, "accessmask");
+		boolean corporation = getBoolean(currentNode, "corporation");
+		Date limit = getDateOptional(currentNode, "limit");
+		String accountName = getString(currentNode, "accountname");
+		//ContID
+		Long journalCID = getLongOptional(currentNode, "journalcid");
+		Long transactionsCID = getLongOptional(currentNode, "transactionscid");
+		Long contractsCID = getLongOptional(currentNode, "contractscid");
+		Long industryJobsCID = getLongOptional(currentNode, "industryjobscid");
+		Long marketOrdersCID = getLongOptional(currentNode, "marketorderscid");
+		Date accountNextUpdate = getDateOptional(currentNode, "accountnextupdate");
+		boolean migrated = false;
+		if (haveAttribute(currentNode, "migrated")) {
+			migrated = getBoolean(currentNode, "migrated");
+		}
+		EveKitOwner owner = new EveKitOwner(accessKey, accessCred, expire, accessmask, corporation, limit, accountName, migrated);
+		owner.setJournalCID(journalCID);
+		owner.setTransactionsCID(transactionsCID);
+		owner.setContractsCID(contractsCID);
+		owner.setIndustryJobsCID(industryJobsCID);
+		owner.setMarketOrdersCID(marketOrdersCID);
+		owner.setAccountNextUpdate(accountNextUpdate);
+		return owner;
+	}
+
 	private void parseAccounts(final Element element, final List<EveApiAccount> accounts) throws XmlException {
 		NodeList accountNodes = element.getElementsByTagName("account");
 		for (int i = 0; i < accountNodes.getLength(); i++) {
@@ -230,6 +302,14 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		}
 	}
 
+	private void parseAccounts(final XMLStreamReader reader, final List<EveApiAccount> accounts) throws XmlException, XMLStreamException {
+		while (nextElement(reader, "account")) {
+			EveApiAccount account = parseAccount(readAttributes(reader));
+			parseOwners(reader, account);
+			accounts.add(account);
+		}
+	}
+
 	private EveApiAccount parseAccount(final Node node) throws XmlException {
 		int keyID;
 		if (haveAttribute(node, "keyid")) {
@@ -274,17 +354,142 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		NodeList ownerNodes = element.getElementsByTagName("human");
 		for (int i = 0; i < ownerNodes.getLength(); i++) {
 			Element currentNode = (Element) ownerNodes.item(i);
-			boolean migrated = false;
-			if (haveAttribute(currentNode, "migrated")) {
-				migrated = getBoolean(currentNode, "migrated");
-			}
-			EveApiOwner owner = new EveApiOwner(account, migrated);
+			EveApiOwner owner = parseOwner(currentNode, account);
 			parseOwnerType(currentNode, owner);
 			account.getOwners().add(owner);
 		}
 	}
 
+	private void parseOwners(final XMLStreamReader reader, final EveApiAccount account) throws XmlException, XMLStreamException {
+		while (nextElement(reader, "human")) {
+			Element currentNode = readAttributes(reader);
+			EveApiOwner owner = parseOwner(currentNode, account);
+			parseOwnerType(reader, currentNode, owner);
+			account.getOwners().add(owner);
+		}
+	}
+
+	private EveApiOwner parseOwner(final Element currentNode, final EveApiAccount account) throws XmlException {
+		boolean migrated = false;
+		if (haveAttribute(currentNode, "migrated")) {
+			migrated = getBoolean(currentNode, "migrated");
+		}
+		return new EveApiOwner(account, migrated);
+	}
+
 	private void parseOwnerType(final Element node, OwnerType owner) throws XmlException {
+		parseOwnerTypeAttributes(node, owner);
+		NodeList assetNodes = node.getElementsByTagName("assets");
+		if (assetNodes.getLength() == 1) {
+			parseAssets(assetNodes.item(0), owner, owner.getAssets(), null);
+		}
+		parseActiveShip(node, owner);
+		parseContracts(node, owner);
+		parseBalances(node, owner);
+		parseMarketOrders(node, owner);
+		parseJournals(node, owner);
+		parseTransactions(node, owner);
+		parseIndustryJobs(node, owner);
+		parseBlueprints(node, owner);
+		parseAssetDivisions(node, owner);
+		parseWalletDivisions(node, owner);
+		parseSkills(node, owner);
+	}
+
+	/**
+	 * Parse the owner data one element at a time.
+	 * Only one row (journal, transaction, etc.) is read into memory at a time
+	 * @param reader positioned at the start of the owner element. Left at the end of the owner element
+	 * @param node owner element attributes
+	 * @param owner
+	 * @throws XmlException
+	 * @throws XMLStreamException
+	 */
+	private void parseOwnerType(final XMLStreamReader reader, final Element node, OwnerType owner) throws XmlException, XMLStreamException {
+		parseOwnerTypeAttributes(node, owner);
+		Map<MyContract, List<MyContractItem>> contracts = new HashMap<>();
+		List<MyAccountBalance> accountBalances = new ArrayList<>();
+		Set<MyMarketOrder> marketOrders = new HashSet<>();
+		Set<MyJournal> journals = new HashSet<>();
+		Set<MyTransaction> transactions = new HashSet<>();
+		List<MyIndustryJob> industryJobs = new ArrayList<>();
+		Map<Long, RawBlueprint> blueprints = new HashMap<>();
+		Map<Integer, String> assetDivisions = new HashMap<>();
+		Map<Integer, String> walletDivisions = new HashMap<>();
+		while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			switch (reader.getLocalName()) {
+				case "assets":
+					while (nextElement(reader, "asset")) {
+						parseAsset(readElement(reader), owner, owner.getAssets(), null);
+					}
+					break;
+				case "activeship":
+					parseActiveShipNode(readElement(reader), owner);
+					break;
+				case "contracts":
+					while (nextElement(reader, "contract")) {
+						parseContract(readElement(reader), contracts);
+					}
+					break;
+				case "balances":
+					while (nextElement(reader, "balance")) {
+						parseBalance(readElement(reader), owner, accountBalances);
+					}
+					break;
+				case "markerorders":
+					while (nextElement(reader, "markerorder")) {
+						parseMarketOrder(readElement(reader), owner, marketOrders);
+					}
+					break;
+				case "journals":
+					while (nextElement(reader, "journal")) {
+						parseJournal(readElement(reader), owner, journals);
+					}
+					break;
+				case "wallettransactions":
+					while (nextElement(reader, "wallettransaction")) {
+						parseTransaction(readElement(reader), owner, transactions);
+					}
+					break;
+				case "industryjobs":
+					while (nextElement(reader, "industryjob")) {
+						parseIndustryJob(readElement(reader), owner, industryJobs);
+					}
+					break;
+				case "blueprints":
+					while (nextElement(reader, "blueprint")) {
+						parseBlueprint(readElement(reader), blueprints);
+					}
+					break;
+				case "assetdivisions":
+					while (nextElement(reader, "assetdivision")) {
+						parseDivision(readElement(reader), assetDivisions);
+					}
+					break;
+				case "walletdivisions":
+					while (nextElement(reader, "walletdivision")) {
+						parseDivision(readElement(reader), walletDivisions);
+					}
+					break;
+				case "skills":
+					parseSkillsNode(readElement(reader), owner);
+					break;
+				default:
+					skipElement(reader);
+			}
+		}
+		owner.setContracts(contracts);
+		owner.setAccountBalances(accountBalances);
+		owner.setMarketOrders(marketOrders);
+		owner.setJournal(journals);
+		owner.setTransactions(transactions);
+		owner.setIndustryJobs(industryJobs);
+		owner.setBlueprints(blueprints);
+		owner.setAssetDivisions(assetDivisions);
+		owner.setWalletDivisions(walletDivisions);
+	}
+
+	private void parseOwnerTypeAttributes(final Element node, OwnerType owner) throws XmlException {
 		String ownerName = getString(node, "name");
 		String corporationName = getStringOptional(node, "corp");
 		long ownerID = getLong(node, "id");
@@ -327,37 +532,25 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		owner.setBlueprintsNextUpdate(blueprintsNextUpdate);
 		owner.setBookmarksNextUpdate(bookmarksNextUpdate);
 		owner.setSkillsNextUpdate(skillsNextUpdate);
-
-		NodeList assetNodes = node.getElementsByTagName("assets");
-		if (assetNodes.getLength() == 1) {
-			parseAssets(assetNodes.item(0), owner, owner.getAssets(), null);
-		}
-		parseActiveShip(node, owner);
-		parseContracts(node, owner);
-		parseBalances(node, owner);
-		parseMarketOrders(node, owner);
-		parseJournals(node, owner);
-		parseTransactions(node, owner);
-		parseIndustryJobs(node, owner);
-		parseBlueprints(node, owner);
-		parseAssetDivisions(node, owner);
-		parseWalletDivisions(node, owner);
-		parseSkills(node, owner);
 	}
 
 	private void parseActiveShip(final Element element, final OwnerType owner) throws XmlException {
 		NodeList activeShipNodes = element.getElementsByTagName("activeship");
 		if(activeShipNodes.getLength() == 1) {
 			Element activeShipNode = (Element) activeShipNodes.item(0);
-			long itemId = getLong(activeShipNode, "itemid");
-			int typeId = getInt(activeShipNode, "typeid");
-			long locationId = getLong(activeShipNode, "locationid");
-
-			MyShip activeShip = new MyShip(itemId, typeId, locationId);
-			owner.setActiveShip(activeShip);
+			parseActiveShipNode(activeShipNode, owner);
 		}
 	}
 
+	private void parseActiveShipNode(final Element activeShipNode, final OwnerType owner) throws XmlException {
+		long itemId = getLong(activeShipNode, "itemid");
+		int typeId = getInt(activeShipNode, "typeid");
+		long locationId = getLong(activeShipNode, "locationid");
+
+		MyShip activeShip = new MyShip(itemId, typeId, locationId);
+		owner.setActiveShip(activeShip);
+	}
+
 	private void parseContracts(final Element element, final OwnerType owner) throws XmlException {
 		NodeList contractsNodes = element.getElementsByTagName("contracts");
 		Map<MyContract, List<MyContractItem>> contracts = new HashMap<MyContract, List<MyContractItem>>();
@@ -366,23 +559,27 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList contractNodes = contractsNode.getElementsByTagName("contract");
 			for (int b = 0; b < contractNodes.getLength(); b++) {
 				Element contractNode = (Element) contractNodes.item(b);
-				RawContract rawContract = parseContract(contractNode);
-				MyContract contract = DataConverter.toMyContract(rawContract);
-				NodeList itemNodes = contractNode.getElementsByTagName("contractitem");
-				List<MyContractItem> contractItems = new ArrayList<MyContractItem>();
-				for (int c = 0; c < itemNodes.getLength(); c++) {
-					Element currentNode = (Element) itemNodes.item(c);
-					RawContractItem rawContractItem = parseContractItem(currentNode);
-					MyContractItem contractItem = DataConverter.toMyContractItem(rawContractItem, contract);
-					contractItems.add(contractItem);
-				}
-
-				contracts.put(contract, contractItems);
+				parseContract(contractNode, contracts);
 			}
 		}
 		owner.setContracts(contracts);
 	}
 
+	private void parseContract(final Element contractNode, final Map<MyContract, List<MyContractItem>> contracts) throws XmlException {
+		RawContract rawContract = parseContract(contractNode);
+		MyContract contract = DataConverter.toMyContract(rawContract);
+		NodeList itemNodes = contractNode.getElementsByTagName("contractitem");
+		List<MyContractItem> contractItems = new ArrayList<MyContractItem>();
+		for (int c = 0; c < itemNodes.getLength(); c++) {
+			Element currentNode = (Element) itemNodes.item(c);
+			RawContractItem rawContractItem = parseContractItem(currentNode);
+			MyContractItem contractItem = DataConverter.toMyContractItem(rawContractItem, contract);
+			contractItems.add(contractItem);
+		}
+
+		contracts.put(contract, contractItems);
+	}
+
 	private RawContract parseContract(final Element element) throws XmlException {
 		RawContract contract = RawContract.create();
 		Integer acceptorID = getInt(element, "acceptorid");
@@ -466,14 +663,18 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList balanceNodes = currentBalancesNode.getElementsByTagName("balance");
 			for (int b = 0; b < balanceNodes.getLength(); b++) {
 				Element currentNode = (Element) balanceNodes.item(b);
-				RawAccountBalance rawAccountBalance = parseBalance(currentNode);
-				MyAccountBalance accountBalance = DataConverter.toMyAccountBalance(rawAccountBalance, owner);
-				accountBalances.add(accountBalance);
+				parseBalance(currentNode, owner, accountBalances);
 			}
 		}
 		owner.setAccountBalances(accountBalances);
 	}
 
+	private void parseBalance(final Element currentNode, final OwnerType owner, final List<MyAccountBalance> accountBalances) throws XmlException {
+		RawAccountBalance rawAccountBalance = parseBalance(currentNode);
+		MyAccountBalance accountBalance = DataConverter.toMyAccountBalance(rawAccountBalance, owner);
+		accountBalances.add(accountBalance);
+	}
+
 	private RawAccountBalance parseBalance(final Element element) throws XmlException {
 		RawAccountBalance accountBalance = RawAccountBalance.create();
 		int accountKey = getInt(element, "accountkey");
@@ -491,14 +692,18 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList marketOrderNodes = currentMarketOrdersNode.getElementsByTagName("markerorder");
 			for (int b = 0; b < marketOrderNodes.getLength(); b++) {
 				Element currentNode = (Element) marketOrderNodes.item(b);
-				RawMarketOrder rawMarketOrder = parseMarketOrder(currentNode, owner);
-				MyMarketOrder marketOrder = DataConverter.toMyMarketOrder(rawMarketOrder, owner);
-				marketOrders.add(marketOrder);
+				parseMarketOrder(currentNode, owner, marketOrders);
 			}
 		}
 		owner.setMarketOrders(marketOrders);
 	}
 
+	private void parseMarketOrder(final Element currentNode, final OwnerType owner, final Set<MyMarketOrder> marketOrders) throws XmlException {
+		RawMarketOrder rawMarketOrder = parseMarketOrder(currentNode, owner);
+		MyMarketOrder marketOrder = DataConverter.toMyMarketOrder(rawMarketOrder, owner);
+		marketOrders.add(marketOrder);
+	}
+
 	private RawMarketOrder parseMarketOrder(final Element element, final OwnerType owner) throws XmlException {
 		RawMarketOrder apiMarketOrder = RawMarketOrder.create();
 		long orderID = getLong(element, "orderid");
@@ -577,14 +782,18 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList journalNodes = currentAalletJournalsNode.getElementsByTagName("journal");
 			for (int b = 0; b < journalNodes.getLength(); b++) {
 				Element currentNode = (Element) journalNodes.item(b);
-				RawJournal rawJournal = parseJournal(currentNode);
-				MyJournal journal = DataConverter.toMyJournal(rawJournal, owner);
-				journals.add(journal);
+				parseJournal(currentNode, owner, journals);
 			}
 		}
 		owner.setJournal(journals);
 	}
 
+	private void parseJournal(final Element currentNode, final OwnerType owner, final Set<MyJournal> journals) throws XmlException {
+		RawJournal rawJournal = parseJournal(currentNode);
+		MyJournal journal = DataConverter.toMyJournal(rawJournal, owner);
+		journals.add(journal);
+	}
+
 	private RawJournal parseJournal(final Element element) throws XmlException {
 		//Base
 		RawJournal rawJournal = RawJournal.create();
@@ -646,14 +855,18 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList transactionNodes = currentTransactionsNode.getElementsByTagName("wallettransaction");
 			for (int b = 0; b < transactionNodes.getLength(); b++) {
 				Element currentNode = (Element) transactionNodes.item(b);
-				RawTransaction rawTransaction = parseTransaction(currentNode);
-				MyTransaction transaction = DataConverter.toMyTransaction(rawTransaction, owner);
-				transactions.add(transaction);
+				parseTransaction(currentNode, owner, transactions);
 			}
 		}
 		owner.setTransactions(transactions);
 	}
 
+	private void parseTransaction(final Element currentNode, final OwnerType owner, final Set<MyTransaction> transactions) throws XmlException {
+		RawTransaction rawTransaction = parseTransaction(currentNode);
+		MyTransaction transaction = DataConverter.toMyTransaction(rawTransaction, owner);
+		transactions.add(transaction);
+	}
+
 	private RawTransaction parseTransaction(final Element element) throws XmlException {
 		RawTransaction rawTransaction = RawTransaction.create();
 		Date date = getDate(element, "transactiondatetime");
@@ -701,16 +914,20 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList industryJobNodes = currentIndustryJobsNode.getElementsByTagName("industryjob");
 			for (int b = 0; b < industryJobNodes.getLength(); b++) {
 				Element currentNode = (Element) industryJobNodes.item(b);
-				if (haveAttribute(currentNode, "blueprintid")) {
-					RawIndustryJob rawIndustryJob = parseIndustryJob(currentNode);
-					MyIndustryJob industryJob = DataConverter.toMyIndustryJob(rawIndustryJob, owner);
-					industryJobs.add(industryJob);
-				}
+				parseIndustryJob(currentNode, owner, industryJobs);
 			}
 		}
 		owner.setIndustryJobs(industryJobs);
 	}
 
+	private void parseIndustryJob(final Element currentNode, final OwnerType owner, final List<MyIndustryJob> industryJobs) throws XmlException {
+		if (haveAttribute(currentNode, "blueprintid")) {
+			RawIndustryJob rawIndustryJob = parseIndustryJob(currentNode);
+			MyIndustryJob industryJob = DataConverter.toMyIndustryJob(rawIndustryJob, owner);
+			industryJobs.add(industryJob);
+		}
+	}
+
 	private RawIndustryJob parseIndustryJob(final Element element) throws XmlException {
 		RawIndustryJob rawIndustryJob = RawIndustryJob.create();
 		Integer jobID = getInt(element, "jobid");
@@ -769,26 +986,30 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 		for (int i = 0; i < assetsNodes.getLength(); i++) {
 			Node currentNode = assetsNodes.item(i);
 			if (currentNode.getNodeName().equals("asset")) {
-				RawAsset rawAsset = parseAsset(currentNode, parentAsset);
-				List<MyAsset> parents = new ArrayList<MyAsset>();
-				if (parentAsset != null) { //Child
-					parents.addAll(parentAsset.getParents());
-					parents.add(parentAsset);
-				}
-				MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
-				if (asset == null) {
-					continue;
-				}
-				if (parentAsset == null) { //Root
-					assets.add(asset);
-				} else { //Child
-					parentAsset.addAsset(asset);
-				}
-				parseAssets(currentNode, owner, assets, asset);
+				parseAsset(currentNode, owner, assets, parentAsset);
 			}
 		}
 	}
 
+	private void parseAsset(final Node currentNode, final OwnerType owner, final List<MyAsset> assets, final MyAsset parentAsset) throws XmlException {
+		RawAsset rawAsset = parseAsset(currentNode, parentAsset);
+		List<MyAsset> parents = new ArrayList<MyAsset>();
+		if (parentAsset != null) { //Child
+			parents.addAll(parentAsset.getParents());
+			parents.add(parentAsset);
+		}
+		MyAsset asset = DataConverter.toMyAsset(rawAsset, owner, parents);
+		if (asset == null) {
+			return;
+		}
+		if (parentAsset == null) { //Root
+			assets.add(asset);
+		} else { //Child
+			parentAsset.addAsset(asset);
+		}
+		parseAssets(currentNode, owner, assets, asset);
+	}
+
 	private RawAsset parseAsset(final Node node, final MyAsset parentAsset) throws XmlException {
 		RawAsset rawAsset = RawAsset.create();
 		int count = getInt(node, "count");
@@ -837,13 +1058,17 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList blueprintNodes = currentBlueprintsNode.getElementsByTagName("blueprint");
 			for (int b = 0; b < blueprintNodes.getLength(); b++) {
 				Element currentNode = (Element) blueprintNodes.item(b);
-				RawBlueprint blueprint = parseBlueprint(currentNode);
-				blueprints.put(blueprint.getItemID(), blueprint);
+				parseBlueprint(currentNode, blueprints);
 			}
 		}
 		owners.setBlueprints(blueprints);
 	}
 
+	private void parseBlueprint(final Node currentNode, final Map<Long, RawBlueprint> blueprints) throws XmlException {
+		RawBlueprint blueprint = parseBlueprint(currentNode);
+		blueprints.put(blueprint.getItemID(), blueprint);
+	}
+
 	private RawBlueprint parseBlueprint(final Node node) throws XmlException {
 		RawBlueprint blueprint = RawBlueprint.create();
 		long itemID = getLong(node, "itemid");
@@ -875,9 +1100,7 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList divisionNodes = currentDivisionsNode.getElementsByTagName("assetdivision");
 			for (int b = 0; b < divisionNodes.getLength(); b++) {
 				Element currentNode = (Element) divisionNodes.item(b);
-				int id = getInt(currentNode, "id");
-				String name = getStringOptional(currentNode, "name");
-				divisions.put(id, name);
+				parseDivision(currentNode, divisions);
 			}
 		}
 		owners.setAssetDivisions(divisions);
@@ -891,40 +1114,48 @@ public final class ProfileReader extends AbstractXmlReader<Boolean> {
 			NodeList divisionNodes = currentDivisionsNode.getElementsByTagName("walletdivision");
 			for (int b = 0; b < divisionNodes.getLength(); b++) {
 				Element currentNode = (Element) divisionNodes.item(b);
-				int id = getInt(currentNode, "id");
-				String name = getStringOptional(currentNode, "name");
-				divisions.put(id, name);
+				parseDivision(currentNode, divisions);
 			}
 		}
 		owners.setWalletDivisions(divisions);
 	}
 
+	private void parseDivision(final Element currentNode, final Map<Integer, String> divisions) throws XmlException {
+		int id = getInt(currentNode, "id");
+		String name = getStringOptional(currentNode, "name");
+		divisions.put(id, name);
+	}
+
 	private void parseSkills(final Element element, final OwnerType owners) throws XmlException {
 		NodeList skillsNodes = element.getElementsByTagName("skills");
 		for (int a = 0; a < skillsNodes.getLength(); a++) {
 			Element currentSkillsNode = (Element) skillsNodes.item(a);
-			Integer unallocatedSkillPoints =  getIntOptional(currentSkillsNode, "unallocated");
-			Long totalSkillPoints =  getLongOptional(currentSkillsNode, "total");
-			List<RawSkill> skills = new ArrayList<>();
-			NodeList skillNodes = currentSkillsNode.getElementsByTagName("skill");
-			for (int b = 0; b < skillNodes.getLength(); b++) {
-				Element currentNode = (Element) skillNodes.item(b);
-				
-				int typeID =  getInt(currentNode, "id");
-				long skillpoints = getLong(currentNode, "sp");
-				int activeSkillLevel = getInt(currentNode, "active");
-				int trainedSkillLevel = getInt(currentNode, "trained");
-				
-				RawSkill skill = RawSkill.create();
-				skill.setTypeID(typeID);
-				skill.setSkillpoints(skillpoints);
-				skill.setActiveSkillLevel(activeSkillLevel);
-				skill.setTrainedSkillLevel(trainedSkillLevel);
-				skills.add(skill);
-			}
-			owners.setSkills(skills);
-			owners.setTotalSkillPoints(totalSkillPoints);
-			owners.setUnallocatedSkillPoints(unallocatedSkillPoints);
+			parseSkillsNode(currentSkillsNode, owners);
+		}
+	}
+
+	private void parseSkillsNode(final Element currentSkillsNode, final OwnerType owners) throws XmlException {
+		Integer unallocatedSkillPoints =  getIntOptional(currentSkillsNode, "unallocated");
+		Long totalSkillPoints =  getLongOptional(currentSkillsNode, "total");
+		List<RawSkill> skills = new ArrayList<>();
+		NodeList skillNodes = currentSkillsNode.getElementsByTagName("skill");
+		for (int b = 0; b < skillNodes.getLength(); b++) {
+			Element currentNode = (Element) skillNodes.item(b);
+			
+			int typeID =  getInt(currentNode, "id");
+			long skillpoints = getLong(currentNode, "sp");
+			int activeSkillLevel = getInt(currentNode, "active");
+			int trainedSkillLevel = getInt(currentNode, "trained");
+			
+			RawSkill skill = RawSkill.create();
+			skill.setTypeID(typeID);
+			skill.setSkillpoints(skillpoints);
+			skill.setActiveSkillLevel(activeSkillLevel);
+			skill.setTrainedSkillLevel(trainedSkillLevel);
+			skills.add(skill);
 		}
+		owners.setSkills(skills);
+		owners.setTotalSkillPoints(totalSkillPoints);
+		owners.setUnallocatedSkillPoints(unallocatedSkillPoints);
 	}
 }
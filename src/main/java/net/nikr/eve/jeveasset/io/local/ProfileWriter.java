@@ -39,7 +39,6 @@ import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
 import net.nikr.eve.jeveasset.data.api.my.MyShip;
 import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.api.raw.RawBlueprint;
-import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.Change;
 import net.nikr.eve.jeveasset.data.api.raw.RawSkill;
 import net.nikr.eve.jeveasset.data.profile.Profile;
 import net.nikr.eve.jeveasset.data.profile.ProfileManager;
@@ -47,8 +46,6 @@ import net.nikr.eve.jeveasset.io.shared.RawConverter;
 import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 
 public final class ProfileWriter extends AbstractXmlWriter {
@@ -58,24 +55,31 @@ public final class ProfileWriter extends AbstractXmlWriter {
 	private ProfileWriter() { }
 
 	public static boolean save(final ProfileManager profileManager, final String filename) {
+		return save(profileManager, filename, true);
+	}
+
+	/**
+	 * @param profileManager
+	 * @param filename
+	 * @param stream true to stream the profile to file, false to build a DOM first
+	 * @return true if saved
+	 */
+	static boolean save(final ProfileManager profileManager, final String filename, final boolean stream) {
 		ProfileWriter writer = new ProfileWriter();
-		return writer.write(profileManager, filename);
+		return writer.write(profileManager, filename, stream);
 	}
 
-	private boolean write(final ProfileManager profileManager, final String filename) {
-		Document xmldoc;
+	private boolean write(final ProfileManager profileManager, final String filename, final boolean stream) {
 		try {
-			xmldoc = getXmlDocument("assets");
-		} catch (XmlException ex) {
-			LOG.error("Profile not saved " + ex.getMessage(), ex);
-			return false;
-		}
-		writeStockpiles(xmldoc, profileManager.getActiveProfile());
-		writeAccounts(xmldoc, profileManager.getAccounts());
-		writeEveKitOwners(xmldoc, profileManager.getEveKitOwners());
-		writeEsiOwners(xmldoc, profileManager.getEsiOwners());
-		try {
-			writeXmlFile(xmldoc, filename, true);
+			writeXmlFile("assets", new XmlElements() {
+				@Override
+				public void write(XmlElementWriter writer) throws XmlException {
+					writeStockpiles(writer, profileManager.getActiveProfile());
+					writeAccounts(writer, profileManager.getAccounts());
+					writeEveKitOwners(writer, profileManager.getEveKitOwners());
+					writeEsiOwners(writer, profileManager.getEsiOwners());
+				}
+			}, filename, true, stream);
 		} catch (XmlException ex) {
 			LOG.error("Profile not saved " + ex.getMessage(), ex);
 			return false;
@@ -84,129 +88,128 @@ public final class ProfileWriter extends AbstractXmlWriter {
 		return true;
 	}
 
-	private void writeStockpiles(final Document xmldoc, final Profile profile) {
-		Element parentNode = xmldoc.createElement("stockpiles");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeStockpiles(final XmlElementWriter writer, final Profile profile) throws XmlException {
+		writer.startElement("stockpiles");
 		for (Long id : profile.getStockpileIDs()) {
-			Element node = xmldoc.createElement("stockpile");
-			setAttribute(node, "id", id);
-			parentNode.appendChild(node);
+			writer.startElement("stockpile");
+			writer.setAttribute("id", id);
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeEsiOwners(final Document xmldoc, final List<EsiOwner> esiOwners) {
-		Element parentNode = xmldoc.createElement("esiowners");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeEsiOwners(final XmlElementWriter writer, final List<EsiOwner> esiOwners) throws XmlException {
+		writer.startElement("esiowners");
 		for (EsiOwner owner : esiOwners) {
-			Element node = xmldoc.createElement("esiowner");
-			setAttribute(node, "accountname", owner.getAccountName());
-			setAttribute(node, "refreshtoken", owner.getRefreshToken());
-			setAttribute(node, "scopes", String.join(" ", owner.getScopes()));
-			setAttribute(node, "structuresnextupdate", owner.getStructuresNextUpdate());
-			setAttribute(node, "accountnextupdate", owner.getAccountNextUpdate());
-			setAttribute(node, "callbackurl", owner.getCallbackURL());
+			writer.startElement("esiowner");
+			writer.setAttribute("accountname", owner.getAccountName());
+			writer.setAttribute("refreshtoken", owner.getRefreshToken());
+			writer.setAttribute("scopes", String.join(" ", owner.getScopes()));
+			writer.setAttribute("structuresnextupdate", owner.getStructuresNextUpdate());
+			writer.setAttribute("accountnextupdate", owner.getAccountNextUpdate());
+			writer.setAttribute("callbackurl", owner.getCallbackURL());
 			Set<String> roles = new HashSet<>();
 			for (RolesEnum role : owner.getRoles()) {
 				roles.add(role.name());
 			}
-			setAttribute(node, "characterroles", String.join(",", roles));
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			writer.setAttribute("characterroles", String.join(",", roles));
+			writeTypeOwner(writer, owner);
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeEveKitOwners(final Document xmldoc, final List<EveKitOwner> eveKitOwners) {
-		Element parentNode = xmldoc.createElement("evekitowners");
-		xmldoc.getDocumentElement().appendChild(parentNode);
+	private void writeEveKitOwners(final XmlElementWriter writer, final List<EveKitOwner> eveKitOwners) throws XmlException {
+		writer.startElement("evekitowners");
 		for (EveKitOwner owner : eveKitOwners) {
-			Element node = xmldoc.createElement("evekitowner");
-			setAttribute(node, "accesskey", owner.getAccessKey());
-			setAttribute(node, "accesscred", owner.getAccessCred());
-			setAttributeOptional(node, "expire", owner.getExpire());
-			setAttribute(node, "accessmask", owner.getAccessMask());
-			setAttribute(node, "corporation", owner.isCorporation());
-			setAttributeOptional(node, "limit", owner.getLimit());
-			setAttribute(node, "accountname", owner.getAccountName());
-			setAttribute(node, "migrated", owner.isMigrated());
+			writer.startElement("evekitowner");
+			writer.setAttribute("accesskey", owner.getAccessKey());
+			writer.setAttribute("accesscred", owner.getAccessCred());
+			writer.setAttributeOptional("expire", owner.getExpire());
+			writer.setAttribute("accessmask", owner.getAccessMask());
+			writer.setAttribute("corporation", owner.isCorporation());
+			writer.setAttributeOptional("limit", owner.getLimit());
+			writer.setAttribute("accountname", owner.getAccountName());
+			writer.setAttribute("migrated", owner.isMigrated());
 			//ContID
-			setAttributeOptional(node, "journalcid", owner.getJournalCID());
-			setAttributeOptional(node, "transactionscid", owner.getTransactionsCID());
-			setAttributeOptional(node, "contractscid", owner.getContractsCID());
-			setAttributeOptional(node, "industryjobscid", owner.getIndustryJobsCID());
-			setAttributeOptional(node, "marketorderscid", owner.getMarketOrdersCID());
-			setAttributeOptional(node, "accountnextupdate", owner.getAccountNextUpdate());
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			writer.setAttributeOptional("journalcid", owner.getJournalCID());
+			writer.setAttributeOptional("transactionscid", owner.getTransactionsCID());
+			writer.setAttributeOptional("contractscid", owner.getContractsCID());
+			writer.setAttributeOptional("industryjobscid", owner.getIndustryJobsCID());
+			writer.setAttributeOptional("marketorderscid", owner.getMarketOrdersCID());
+			writer.setAttributeOptional("accountnextupdate", owner.getAccountNextUpdate());
+			writeTypeOwner(writer, owner);
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeAccounts(final Document xmldoc, final List<EveApiAccount> accounts) {
-		Element parentNode = xmldoc.createElement("accounts");
-		xmldoc.getDocumentElement().appendChild(parentNode);
-
+	private void writeAccounts(final XmlElementWriter writer, final List<EveApiAccount> accounts) throws XmlException {
+		writer.startElement("accounts");
 		for (EveApiAccount account : accounts) {
-			Element node = xmldoc.createElement("account");
-			setAttribute(node, "keyid", account.getKeyID());
-			setAttribute(node, "vcode", account.getVCode());
-			setAttribute(node, "name", account.getName());
-			setAttribute(node, "charactersnextupdate", account.getAccountNextUpdate());
-			setAttribute(node, "accessmask", account.getAccessMask());
-			setAttributeOptional(node, "type", account.getType());
-			setAttribute(node, "expires", account.getExpires() == null ? "0" : account.getExpires());
-			setAttribute(node, "invalid", account.isInvalid());
-			parentNode.appendChild(node);
-			writeOwners(xmldoc, node, account.getOwners());
+			writer.startElement("account");
+			writer.setAttribute("keyid", account.getKeyID());
+			writer.setAttribute("vcode", account.getVCode());
+			writer.setAttribute("name", account.getName());
+			writer.setAttribute("charactersnextupdate", account.getAccountNextUpdate());
+			writer.setAttribute("accessmask", account.getAccessMask());
+			writer.setAttributeOptional("type", account.getType());
+			writer.setAttribute("expires", account.getExpires() == null ? "0" : account.getExpires());
+			writer.setAttribute("invalid", account.isInvalid());
+			writeOwners(writer, account.getOwners());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeOwners(final Document xmldoc, final Element parentNode, final List<EveApiOwner> owners) {
+	private void writeOwners(final XmlElementWriter writer, final List<EveApiOwner> owners) throws XmlException {
 		for (EveApiOwner owner : owners) {
-			Element node = xmldoc.createElement("human");
-			setAttribute(node, "migrated", owner.isMigrated());
-			writeTypeOwner(xmldoc, node, owner);
-			parentNode.appendChild(node);
+			writer.startElement("human");
+			writer.setAttribute("migrated", owner.isMigrated());
+			writeTypeOwner(writer, owner);
+			writer.endElement();
 		}
 	}
 
-	private void writeTypeOwner(final Document xmldoc, final Element node, final OwnerType owner) {
-		setAttribute(node, "id", owner.getOwnerID());
-		setAttribute(node, "name", owner.getOwnerName());
-		setAttributeOptional(node, "corp", owner.getCorporationName());
-		setAttribute(node, "show", owner.isShowOwner());
-		setAttribute(node, "invalid", owner.isInvalid());
-		setAttributeOptional(node, "assetslastupdate", owner.getAssetLastUpdate());
-		setAttribute(node, "assetsnextupdate", owner.getAssetNextUpdate());
-		setAttributeOptional(node, "balancelastupdate", owner.getBalanceLastUpdate());
-		setAttribute(node, "balancenextupdate", owner.getBalanceNextUpdate());
-		setAttribute(node, "marketordersnextupdate", owner.getMarketOrdersNextUpdate());
-		setAttribute(node, "journalnextupdate", owner.getJournalNextUpdate());
-		setAttribute(node, "wallettransactionsnextupdate", owner.getTransactionsNextUpdate());
-		setAttribute(node, "industryjobsnextupdate", owner.getIndustryJobsNextUpdate());
-		setAttribute(node, "contractsnextupdate", owner.getContractsNextUpdate());
-		setAttribute(node, "locationsnextupdate", owner.getLocationsNextUpdate());
-		setAttribute(node, "blueprintsnextupdate", owner.getBlueprintsNextUpdate());
-		setAttribute(node, "bookmarksnextupdate", owner.getBookmarksNextUpdate());
-		setAttribute(node, "skillsnextupdate", owner.getSkillsNextUpdate());
+	private void writeTypeOwner(final XmlElementWriter writer, final OwnerType owner) throws XmlException {
+		writer.setAttribute("id", owner.getOwnerID());
+		writer.setAttribute("name", owner.getOwnerName());
+		writer.setAttributeOptional("corp", owner.getCorporationName());
+		writer.setAttribute("show", owner.isShowOwner());
+		writer.setAttribute("invalid", owner.isInvalid());
+		writer.setAttributeOptional("assetslastupdate", owner.getAssetLastUpdate());
+		writer.setAttribute("assetsnextupdate", owner.getAssetNextUpdate());
+		writer.setAttributeOptional("balancelastupdate", owner.getBalanceLastUpdate());
+		writer.setAttribute("balancenextupdate", owner.getBalanceNextUpdate());
+		writer.setAttribute("marketordersnextupdate", owner.getMarketOrdersNextUpdate());
+		writer.setAttribute("journalnextupdate", owner.getJournalNextUpdate());
+		writer.setAttribute("wallettransactionsnextupdate", owner.getTransactionsNextUpdate());
+		writer.setAttribute("industryjobsnextupdate", owner.getIndustryJobsNextUpdate());
+		writer.setAttribute("contractsnextupdate", owner.getContractsNextUpdate());
+		writer.setAttribute("locationsnextupdate", owner.getLocationsNextUpdate());
+		writer.setAttribute("blueprintsnextupdate", owner.getBlueprintsNextUpdate());
+		writer.setAttribute("bookmarksnextupdate", owner.getBookmarksNextUpdate());
+		writer.setAttribute("skillsnextupdate", owner.getSkillsNextUpdate());
 
-		Element childNode = xmldoc.createElement("assets");
-		node.appendChild(childNode);
-		writeAssets(xmldoc, childNode, owner.getAssets());
-		writeActiveShip(xmldoc, node, owner.getActiveShip());
-		writeContractItems(xmldoc, node, owner.getContracts());
-		writeAccountBalances(xmldoc, node, owner.getAccountBalances(), owner.isCorporation());
-		writeMarketOrders(xmldoc, node, owner.getMarketOrders(), owner.isCorporation());
-		writeJournals(xmldoc, node, owner.getJournal(), owner.isCorporation());
-		writeTransactions(xmldoc, node, owner.getTransactions(), owner.isCorporation());
-		writeIndustryJobs(xmldoc, node, owner.getIndustryJobs(), owner.isCorporation());
-		writeBlueprints(xmldoc, node, owner.getBlueprints(), owner.isCorporation());
-		writeAssetDivisions(xmldoc, node, owner.getAssetDivisions());
-		writeWalletDivisions(xmldoc, node, owner.getWalletDivisions());
-		writeSkills(xmldoc, node, owner.getSkills(), owner.getTotalSkillPoints(), owner.getUnallocatedSkillPoints());
+		writer.startElement("assets");
+		writeAssets(writer, owner.getAssets());
+		writer.endElement();
+		writeActiveShip(writer, owner.getActiveShip());
+		writeContractItems(writer, owner.getContracts());
+		writeAccountBalances(writer, owner.getAccountBalances(), owner.isCorporation());
+		writeMarketOrders(writer, ProfileHistory.getProfileMarketOrders(owner), owner.isCorporation());
+		writeJournals(writer, ProfileHistory.getProfileJournal(owner), owner.isCorporation());
+		writeTransactions(writer, ProfileHistory.getProfileTransactions(owner), owner.isCorporation());
+		writeIndustryJobs(writer, owner.getIndustryJobs(), owner.isCorporation());
+		writeBlueprints(writer, owner.getBlueprints(), owner.isCorporation());
+		writeAssetDivisions(writer, owner.getAssetDivisions());
+		writeWalletDivisions(writer, owner.getWalletDivisions());
+		writeSkills(writer, owner.getSkills(), owner.getTotalSkillPoints(), owner.getUnallocatedSkillPoints());
 	}
 
-	private void writeAssets(final Document xmldoc, final Element parentNode, final List<MyAsset> assets) {
+	private void writeAssets(final XmlElementWriter writer, final List<MyAsset> assets) throws XmlException {
 		for (MyAsset asset : assets) {
-			Element node = xmldoc.createElement("asset");
+			writer.startElement("asset");
 			Integer quantity = asset.getQuantity();
 			int count;
 			Integer rawQuantity;
@@ -217,277 +220,279 @@ public final class ProfileWriter extends AbstractXmlWriter {
 				count = quantity;
 				rawQuantity = null;
 			}
-			setAttribute(node, "count", count);
-			setAttribute(node, "flagid", asset.getFlagID());
-			setAttributeOptional(node, "flagstring", asset.getLocationFlagString());
-			setAttribute(node, "id", asset.getItemID());
-			setAttribute(node, "typeid", asset.getItem().getTypeID());
-			setAttribute(node, "locationid", asset.getLocationID());
-			setAttribute(node, "singleton", asset.isSingleton());
-			setAttributeOptional(node, "rawquantity", rawQuantity);
-			parentNode.appendChild(node);
-			writeAssets(xmldoc, node, asset.getAssets());
+			writer.setAttribute("count", count);
+			writer.setAttribute("flagid", asset.getFlagID());
+			writer.setAttributeOptional("flagstring", asset.getLocationFlagString());
+			writer.setAttribute("id", asset.getItemID());
+			writer.setAttribute("typeid", asset.getItem().getTypeID());
+			writer.setAttribute("locationid", asset.getLocationID());
+			writer.setAttribute("singleton", asset.isSingleton());
+			writer.setAttributeOptional("rawquantity", rawQuantity);
+			writeAssets(writer, asset.getAssets());
+			writer.endElement();
 		}
 	}
 
-	private void writeActiveShip(Document xmldoc, Element parentNode, MyShip activeShip) {
+	private void writeActiveShip(final XmlElementWriter writer, MyShip activeShip) throws XmlException {
 		if (activeShip != null) {
-			Element node = xmldoc.createElement("activeship");
-			setAttribute(node, "itemid", activeShip.getItemID());
-			setAttribute(node, "typeid", activeShip.getTypeID());
-			setAttribute(node, "locationid", activeShip.getLocationID());
-			parentNode.appendChild(node);
+			writer.startElement("activeship");
+			writer.setAttribute("itemid", activeShip.getItemID());
+			writer.setAttribute("typeid", activeShip.getTypeID());
+			writer.setAttribute("locationid", activeShip.getLocationID());
+			writer.endElement();
 		}
 	}
 
-	private void writeContractItems(Document xmldoc, Element parentNode, Map<MyContract, List<MyContractItem>> contractItems) {
-		Element contractsNode = xmldoc.createElement("contracts");
-		parentNode.appendChild(contractsNode);
+	private void writeContractItems(final XmlElementWriter writer, Map<MyContract, List<MyContractItem>> contractItems) throws XmlException {
+		writer.startElement("contracts");
 		for (Map.Entry<MyContract, List<MyContractItem>> entry : contractItems.entrySet()) {
 			MyContract contract = entry.getKey();
-			Element contractNode = xmldoc.createElement("contract");
-			setAttribute(contractNode, "acceptorid", contract.getAcceptorID());
-			setAttribute(contractNode, "assigneeid", contract.getAssigneeID());
-			setAttributeOptional(contractNode, "availability", contract.getAvailability());
-			setAttributeOptional(contractNode, "availabilitystring", contract.getAvailabilityString());
-			setAttributeOptional(contractNode, "buyout", contract.getBuyout());
-			setAttributeOptional(contractNode, "collateral", contract.getCollateral());
-			setAttribute(contractNode, "contractid", contract.getContractID());
-			setAttributeOptional(contractNode, "dateaccepted", contract.getDateAccepted());
-			setAttributeOptional(contractNode, "datecompleted", contract.getDateCompleted());
-			setAttribute(contractNode, "dateexpired", contract.getDateExpired());
-			setAttribute(contractNode, "dateissued", contract.getDateIssued());
-			setAttributeOptional(contractNode, "endstationid", contract.getEndLocationID());
-			setAttribute(contractNode, "issuercorpid", contract.getIssuerCorpID());
-			setAttribute(contractNode, "issuerid", contract.getIssuerID());
-			setAttributeOptional(contractNode, "numdays", contract.getDaysToComplete());
-			setAttributeOptional(contractNode, "price", contract.getPrice());
-			setAttributeOptional(contractNode, "reward", contract.getReward());
-			setAttributeOptional(contractNode, "startstationid", contract.getStartLocationID());
-			setAttributeOptional(contractNode, "status", contract.getStatus());
-			setAttributeOptional(contractNode, "statusstring", contract.getStatusString());
-			setAttributeOptional(contractNode, "title", contract.getTitle());
-			setAttributeOptional(contractNode, "typestring", contract.getTypeString());
-			setAttributeOptional(contractNode, "type", contract.getType());
-			setAttributeOptional(contractNode, "volume", contract.getVolume());
-			setAttribute(contractNode, "forcorp", contract.isForCorp());
-			contractsNode.appendChild(contractNode);
+			writer.startElement("contract");
+			writer.setAttribute("acceptorid", contract.getAcceptorID());
+			writer.setAttribute("assigneeid", contract.getAssigneeID());
+			writer.setAttributeOptional("availability", contract.getAvailability());
+			writer.setAttributeOptional("availabilitystring", contract.getAvailabilityString());
+			writer.setAttributeOptional("buyout", contract.getBuyout());
+			writer.setAttributeOptional("collateral", contract.getCollateral());
+			writer.setAttribute("contractid", contract.getContractID());
+			writer.setAttributeOptional("dateaccepted", contract.getDateAccepted());
+			writer.setAttributeOptional("datecompleted", contract.getDateCompleted());
+			writer.setAttribute("dateexpired", contract.getDateExpired());
+			writer.setAttribute("dateissued", contract.getDateIssued());
+			writer.setAttributeOptional("endstationid", contract.getEndLocationID());
+			writer.setAttribute("issuercorpid", contract.getIssuerCorpID());
+			writer.setAttribute("issuerid", contract.getIssuerID());
+			writer.setAttributeOptional("numdays", contract.getDaysToComplete());
+			writer.setAttributeOptional("price", contract.getPrice());
+			writer.setAttributeOptional("reward", contract.getReward());
+			writer.setAttributeOptional("startstationid", contract.getStartLocationID());
+			writer.setAttributeOptional("status", contract.getStatus());
+			writer.setAttributeOptional("statusstring", contract.getStatusString());
+			writer.setAttributeOptional("title", contract.getTitle());
+			writer.setAttributeOptional("typestring", contract.getTypeString());
+			writer.setAttributeOptional("type", contract.getType());
+			writer.setAttributeOptional("volume", contract.getVolume());
+			writer.setAttribute("forcorp", contract.isForCorp());
 			for (MyContractItem contractItem : entry.getValue()) {
-				Element itemNode = xmldoc.createElement("contractitem");
-				setAttribute(itemNode, "included", contractItem.isIncluded());
-				setAttribute(itemNode, "quantity", contractItem.getQuantity());
-				setAttribute(itemNode, "recordid", contractItem.getRecordID());
-				setAttribute(itemNode, "singleton", contractItem.isSingleton());
-				setAttribute(itemNode, "typeid", contractItem.getTypeID());
-				setAttributeOptional(itemNode, "rawquantity", contractItem.getRawQuantity());
-				contractNode.appendChild(itemNode);
+				writer.startElement("contractitem");
+				writer.setAttribute("included", contractItem.isIncluded());
+				writer.setAttribute("quantity", contractItem.getQuantity());
+				writer.setAttribute("recordid", contractItem.getRecordID());
+				writer.setAttribute("singleton", contractItem.isSingleton());
+				writer.setAttribute("typeid", contractItem.getTypeID());
+				writer.setAttributeOptional("rawquantity", contractItem.getRawQuantity());
+				writer.endElement();
 			}
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeAccountBalances(final Document xmldoc, final Element parentNode, final List<MyAccountBalance> accountBalances, final boolean bCorp) {
-		Element node = xmldoc.createElement("balances");
-		if (!accountBalances.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeAccountBalances(final XmlElementWriter writer, final List<MyAccountBalance> accountBalances, final boolean bCorp) throws XmlException {
+		if (accountBalances.isEmpty()) {
+			return;
 		}
+		writer.startElement("balances");
+		writer.setAttribute("corp", bCorp);
 		for (MyAccountBalance accountBalance : accountBalances) {
-			Element childNode = xmldoc.createElement("balance");
-			setAttribute(childNode, "accountkey", accountBalance.getAccountKey());
-			setAttribute(childNode, "balance", accountBalance.getBalance());
-			node.appendChild(childNode);
+			writer.startElement("balance");
+			writer.setAttribute("accountkey", accountBalance.getAccountKey());
+			writer.setAttribute("balance", accountBalance.getBalance());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeMarketOrders(final Document xmldoc, final Element parentNode, final Set<MyMarketOrder> marketOrders, final boolean bCorp) {
-		Element node = xmldoc.createElement("markerorders");
-		if (!marketOrders.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeMarketOrders(final XmlElementWriter writer, final Set<MyMarketOrder> marketOrders, final boolean bCorp) throws XmlException {
+		if (marketOrders.isEmpty()) {
+			return;
 		}
+		writer.startElement("markerorders");
+		writer.setAttribute("corp", bCorp);
 		for (MyMarketOrder marketOrder : marketOrders) {
-			Element childNode = xmldoc.createElement("markerorder");
-			setAttribute(childNode, "orderid", marketOrder.getOrderID());
-			setAttribute(childNode, "stationid", marketOrder.getLocationID());
-			setAttribute(childNode, "volentered", marketOrder.getVolumeTotal());
-			setAttribute(childNode, "volremaining", marketOrder.getVolumeRemain());
-			setAttribute(childNode, "minvolume", marketOrder.getMinVolume());
-			setAttributeOptional(childNode, "orderstateenum", marketOrder.getState());
-			setAttributeOptional(childNode, "orderstatestring", marketOrder.getStateString());
-			setAttribute(childNode, "typeid", marketOrder.getTypeID());
-			setAttributeOptional(childNode, "rangeenum", marketOrder.getRange());
-			setAttributeOptional(childNode, "rangestring", marketOrder.getRangeString());
-			setAttribute(childNode, "accountkey", marketOrder.getWalletDivision());
-			setAttribute(childNode, "duration", marketOrder.getDuration());
-			setAttribute(childNode, "escrow", marketOrder.getEscrow());
-			setAttribute(childNode, "price", marketOrder.getPrice());
-			setAttribute(childNode, "bid", RawConverter.fromMarketOrderIsBuyOrder(marketOrder.isBuyOrder()));
-			setAttribute(childNode, "issued", marketOrder.getIssued());
-			setAttributeOptional(childNode, "issuedby", marketOrder.getIssuedBy());
-			setAttribute(childNode, "corp", marketOrder.isCorp());
-			node.appendChild(childNode);
-			for (Change change : marketOrder.getChanges()) {
-				Element changeNode = xmldoc.createElement("change");
-				setAttribute(changeNode, "date", change.getDate());
-				setAttributeOptional(changeNode, "price", change.getPrice());
-				setAttributeOptional(changeNode, "volremaining", change.getVolumeRemaining());
-			}
+			writer.startElement("markerorder");
+			writer.setAttribute("orderid", marketOrder.getOrderID());
+			writer.setAttribute("stationid", marketOrder.getLocationID());
+			writer.setAttribute("volentered", marketOrder.getVolumeTotal());
+			writer.setAttribute("volremaining", marketOrder.getVolumeRemain());
+			writer.setAttribute("minvolume", marketOrder.getMinVolume());
+			writer.setAttributeOptional("orderstateenum", marketOrder.getState());
+			writer.setAttributeOptional("orderstatestring", marketOrder.getStateString());
+			writer.setAttribute("typeid", marketOrder.getTypeID());
+			writer.setAttributeOptional("rangeenum", marketOrder.getRange());
+			writer.setAttributeOptional("rangestring", marketOrder.getRangeString());
+			writer.setAttribute("accountkey", marketOrder.getWalletDivision());
+			writer.setAttribute("duration", marketOrder.getDuration());
+			writer.setAttribute("escrow", marketOrder.getEscrow());
+			writer.setAttribute("price", marketOrder.getPrice());
+			writer.setAttribute("bid", RawConverter.fromMarketOrderIsBuyOrder(marketOrder.isBuyOrder()));
+			writer.setAttribute("issued", marketOrder.getIssued());
+			writer.setAttributeOptional("issuedby", marketOrder.getIssuedBy());
+			writer.setAttribute("corp", marketOrder.isCorp());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeJournals(final Document xmldoc, final Element parentNode, final Set<MyJournal> journals, final boolean bCorp) {
-		Element node = xmldoc.createElement("journals");
-		if (!journals.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeJournals(final XmlElementWriter writer, final Set<MyJournal> journals, final boolean bCorp) throws XmlException {
+		if (journals.isEmpty()) {
+			return;
 		}
+		writer.startElement("journals");
+		writer.setAttribute("corp", bCorp);
 		for (MyJournal journal : journals) {
-			Element childNode = xmldoc.createElement("journal");
+			writer.startElement("journal");
 			//Base
-			setAttributeOptional(childNode, "amount", journal.getAmount());
-			setAttributeOptional(childNode, "balance", journal.getBalance());
-			setAttributeOptional(childNode, "contextid", journal.getContextId());
-			setAttributeOptional(childNode, "contexttype", journal.getContextType());
-			setAttributeOptional(childNode, "contexttypestring", journal.getContextTypeString());
-			setAttribute(childNode, "date", journal.getDate());
-			setAttribute(childNode, "description", journal.getDescription());
-			setAttributeOptional(childNode, "ownerid1", journal.getFirstPartyID());
-			setAttributeOptional(childNode, "ownerid2", journal.getSecondPartyID());
-			setAttributeOptional(childNode, "reason", journal.getReason());
-			setAttribute(childNode, "refid", journal.getRefID());
+			writer.setAttributeOptional("amount", journal.getAmount());
+			writer.setAttributeOptional("balance", journal.getBalance());
+			writer.setAttributeOptional("contextid", journal.getContextId());
+			writer.setAttributeOptional("contexttype", journal.getContextType());
+			writer.setAttributeOptional("contexttypestring", journal.getContextTypeString());
+			writer.setAttribute("date", journal.getDate());
+			writer.setAttribute("description", journal.getDescription());
+			writer.setAttributeOptional("ownerid1", journal.getFirstPartyID());
+			writer.setAttributeOptional("ownerid2", journal.getSecondPartyID());
+			writer.setAttributeOptional("reason", journal.getReason());
+			writer.setAttribute("refid", journal.getRefID());
 			if (journal.getRefType() != null) {
-				setAttribute(childNode, "reftypeid", journal.getRefType().getID());
+				writer.setAttribute("reftypeid", journal.getRefType().getID());
 			}
-			setAttribute(childNode, "reftypestring", journal.getRefTypeString());
-			setAttributeOptional(childNode, "taxamount", journal.getTaxAmount());
-			setAttributeOptional(childNode, "taxreceiverid", journal.getTaxReceiverId());
+			writer.setAttribute("reftypestring", journal.getRefTypeString());
+			writer.setAttributeOptional("taxamount", journal.getTaxAmount());
+			writer.setAttributeOptional("taxreceiverid", journal.getTaxReceiverId());
 			//Extra
-			setAttribute(childNode, "accountkey", journal.getAccountKey());
-			node.appendChild(childNode);
+			writer.setAttribute("accountkey", journal.getAccountKey());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeTransactions(final Document xmldoc, final Element parentNode, final Set<MyTransaction> transactions, final boolean bCorp) {
-		Element node = xmldoc.createElement("wallettransactions");
-		if (!transactions.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeTransactions(final XmlElementWriter writer, final Set<MyTransaction> transactions, final boolean bCorp) throws XmlException {
+		if (transactions.isEmpty()) {
+			return;
 		}
+		writer.startElement("wallettransactions");
+		writer.setAttribute("corp", bCorp);
 		for (MyTransaction transaction : transactions) {
-			Element childNode = xmldoc.createElement("wallettransaction");
-			setAttribute(childNode, "transactiondatetime", transaction.getDate());
-			setAttribute(childNode, "transactionid", transaction.getTransactionID());
-			setAttribute(childNode, "quantity", transaction.getQuantity());
-			setAttribute(childNode, "typeid", transaction.getTypeID());
-			setAttribute(childNode, "price", transaction.getPrice());
-			setAttribute(childNode, "clientid", transaction.getClientID());
-			setAttribute(childNode, "clientname", transaction.getClientName());
-			setAttribute(childNode, "stationid", transaction.getLocationID());
-			setAttribute(childNode, "transactiontype", RawConverter.fromTransactionIsBuy(transaction.isBuy()));
-			setAttribute(childNode, "transactionfor", RawConverter.fromTransactionIsPersonal(transaction.isPersonal()));
+			writer.startElement("wallettransaction");
+			writer.setAttribute("transactiondatetime", transaction.getDate());
+			writer.setAttribute("transactionid", transaction.getTransactionID());
+			writer.setAttribute("quantity", transaction.getQuantity());
+			writer.setAttribute("typeid", transaction.getTypeID());
+			writer.setAttribute("price", transaction.getPrice());
+			writer.setAttribute("clientid", transaction.getClientID());
+			writer.setAttribute("clientname", transaction.getClientName());
+			writer.setAttribute("stationid", transaction.getLocationID());
+			writer.setAttribute("transactiontype", RawConverter.fromTransactionIsBuy(transaction.isBuy()));
+			writer.setAttribute("transactionfor", RawConverter.fromTransactionIsPersonal(transaction.isPersonal()));
 			//New
-			setAttribute(childNode, "journaltransactionid", transaction.getTransactionID());
-			setAttribute(childNode, "clienttypeid", transaction.getClientID());
+			writer.setAttribute("journaltransactionid", transaction.getTransactionID());
+			writer.setAttribute("clienttypeid", transaction.getClientID());
 			//Extra
-			setAttribute(childNode, "accountkey", transaction.getAccountKey());
-			node.appendChild(childNode);
+			writer.setAttribute("accountkey", transaction.getAccountKey());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeIndustryJobs(final Document xmldoc, final Element parentNode, final List<MyIndustryJob> industryJobs, final boolean bCorp) {
-		Element node = xmldoc.createElement("industryjobs");
-		if (!industryJobs.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeIndustryJobs(final XmlElementWriter writer, final List<MyIndustryJob> industryJobs, final boolean bCorp) throws XmlException {
+		if (industryJobs.isEmpty()) {
+			return;
 		}
+		writer.startElement("industryjobs");
+		writer.setAttribute("corp", bCorp);
 		for (MyIndustryJob industryJob : industryJobs) {
-			Element childNode = xmldoc.createElement("industryjob");
-			setAttribute(childNode, "jobid", industryJob.getJobID());
-			setAttribute(childNode, "installerid", industryJob.getInstallerID());
-			setAttribute(childNode, "facilityid", industryJob.getFacilityID());
-			setAttribute(childNode, "stationid", industryJob.getStationID());
-			setAttribute(childNode, "activityid", industryJob.getActivityID());
-			setAttribute(childNode, "blueprintid", industryJob.getBlueprintID());
-			setAttribute(childNode, "blueprinttypeid", industryJob.getBlueprintTypeID());
-			setAttribute(childNode, "blueprintlocationid", industryJob.getBlueprintLocationID());
-			setAttribute(childNode, "outputlocationid", industryJob.getOutputLocationID());
-			setAttribute(childNode, "runs", industryJob.getRuns());
-			setAttributeOptional(childNode, "cost", industryJob.getCost());
-			setAttributeOptional(childNode, "licensedruns", industryJob.getLicensedRuns());
-			setAttributeOptional(childNode, "probability", industryJob.getProbability());
-			setAttributeOptional(childNode, "producttypeid", industryJob.getProductTypeID());
-			setAttributeOptional(childNode, "statusenum", industryJob.getStatus());
-			setAttributeOptional(childNode, "statusstring", industryJob.getStatusString());
-			setAttribute(childNode, "timeinseconds", industryJob.getDuration());
-			setAttribute(childNode, "startdate", industryJob.getStartDate());
-			setAttribute(childNode, "enddate", industryJob.getEndDate());
-			setAttributeOptional(childNode, "pausedate", industryJob.getPauseDate());
-			setAttributeOptional(childNode, "completeddate", industryJob.getCompletedDate());
-			setAttributeOptional(childNode, "completedcharacterid", industryJob.getCompletedCharacterID());
-			setAttributeOptional(childNode, "successfulruns", industryJob.getSuccessfulRuns());
-			node.appendChild(childNode);
+			writer.startElement("industryjob");
+			writer.setAttribute("jobid", industryJob.getJobID());
+			writer.setAttribute("installerid", industryJob.getInstallerID());
+			writer.setAttribute("facilityid", industryJob.getFacilityID());
+			writer.setAttribute("stationid", industryJob.getStationID());
+			writer.setAttribute("activityid", industryJob.getActivityID());
+			writer.setAttribute("blueprintid", industryJob.getBlueprintID());
+			writer.setAttribute("blueprinttypeid", industryJob.getBlueprintTypeID());
+			writer.setAttribute("blueprintlocationid", industryJob.getBlueprintLocationID());
+			writer.setAttribute("outputlocationid", industryJob.getOutputLocationID());
+			writer.setAttribute("runs", industryJob.getRuns());
+			writer.setAttributeOptional("cost", industryJob.getCost());
+			writer.setAttributeOptional("licensedruns", industryJob.getLicensedRuns());
+			writer.setAttributeOptional("probability", industryJob.getProbability());
+			writer.setAttributeOptional("producttypeid", industryJob.getProductTypeID());
+			writer.setAttributeOptional("statusenum", industryJob.getStatus());
+			writer.setAttributeOptional("statusstring", industryJob.getStatusString());
+			writer.setAttribute("timeinseconds", industryJob.getDuration());
+			writer.setAttribute("startdate", industryJob.getStartDate());
+			writer.setAttribute("enddate", industryJob.getEndDate());
+			writer.setAttributeOptional("pausedate", industryJob.getPauseDate());
+			writer.setAttributeOptional("completeddate", industryJob.getCompletedDate());
+			writer.setAttributeOptional("completedcharacterid", industryJob.getCompletedCharacterID());
+			writer.setAttributeOptional("successfulruns", industryJob.getSuccessfulRuns());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeBlueprints(final Document xmldoc, final Element parentNode, final Map<Long, RawBlueprint> blueprints, final boolean bCorp) {
-		Element node = xmldoc.createElement("blueprints");
-		if (!blueprints.isEmpty()) {
-			setAttribute(node, "corp", bCorp);
-			parentNode.appendChild(node);
+	private void writeBlueprints(final XmlElementWriter writer, final Map<Long, RawBlueprint> blueprints, final boolean bCorp) throws XmlException {
+		if (blueprints.isEmpty()) {
+			return;
 		}
+		writer.startElement("blueprints");
+		writer.setAttribute("corp", bCorp);
 		for (RawBlueprint blueprint : blueprints.values()) {
-			Element childNode = xmldoc.createElement("blueprint");
-			setAttribute(childNode, "itemid", blueprint.getItemID());
-			setAttribute(childNode, "locationid", blueprint.getLocationID());
-			setAttribute(childNode, "typeid", blueprint.getTypeID());
-			setAttribute(childNode, "flagid", blueprint.getFlagID());
-			setAttributeOptional(childNode, "flagstring", blueprint.getLocationFlagString());
-			setAttribute(childNode, "quantity", blueprint.getQuantity());
-			setAttribute(childNode, "timeefficiency", blueprint.getTimeEfficiency());
-			setAttribute(childNode, "materialefficiency", blueprint.getMaterialEfficiency());
-			setAttribute(childNode, "runs", blueprint.getRuns());
-			node.appendChild(childNode);
+			writer.startElement("blueprint");
+			writer.setAttribute("itemid", blueprint.getItemID());
+			writer.setAttribute("locationid", blueprint.getLocationID());
+			writer.setAttribute("typeid", blueprint.getTypeID());
+			writer.setAttribute("flagid", blueprint.getFlagID());
+			writer.setAttributeOptional("flagstring", blueprint.getLocationFlagString());
+			writer.setAttribute("quantity", blueprint.getQuantity());
+			writer.setAttribute("timeefficiency", blueprint.getTimeEfficiency());
+			writer.setAttribute("materialefficiency", blueprint.getMaterialEfficiency());
+			writer.setAttribute("runs", blueprint.getRuns());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeAssetDivisions(final Document xmldoc, final Element parentNode, final Map<Integer, String> divisions) {
-		Element node = xmldoc.createElement("assetdivisions");
-		if (!divisions.isEmpty()) {
-			parentNode.appendChild(node);
+	private void writeAssetDivisions(final XmlElementWriter writer, final Map<Integer, String> divisions) throws XmlException {
+		if (divisions.isEmpty()) {
+			return;
 		}
+		writer.startElement("assetdivisions");
 		for (Map.Entry<Integer, String> entry : divisions.entrySet()) {
-			Element childNode = xmldoc.createElement("assetdivision");
-			setAttribute(childNode, "id", entry.getKey());
-			setAttribute(childNode, "name", entry.getValue());
-			node.appendChild(childNode);
+			writer.startElement("assetdivision");
+			writer.setAttribute("id", entry.getKey());
+			writer.setAttribute("name", entry.getValue());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeWalletDivisions(final Document xmldoc, final Element parentNode, final Map<Integer, String> divisions) {
-		Element node = xmldoc.createElement("walletdivisions");
-		if (!divisions.isEmpty()) {
-			parentNode.appendChild(node);
+	private void writeWalletDivisions(final XmlElementWriter writer, final Map<Integer, String> divisions) throws XmlException {
+		if (divisions.isEmpty()) {
+			return;
 		}
+		writer.startElement("walletdivisions");
 		for (Map.Entry<Integer, String> entry : divisions.entrySet()) {
-			Element childNode = xmldoc.createElement("walletdivision");
-			setAttribute(childNode, "id", entry.getKey());
-			setAttributeOptional(childNode, "name", entry.getValue());
-			node.appendChild(childNode);
+			writer.startElement("walletdivision");
+			writer.setAttribute("id", entry.getKey());
+			writer.setAttributeOptional("name", entry.getValue());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 
-	private void writeSkills(final Document xmldoc, final Element parentNode, final List<RawSkill> skills, Long totalSkillPoints, Integer unallocatedSkillPoints) {
-		Element node = xmldoc.createElement("skills");
-		parentNode.appendChild(node);
-		setAttributeOptional(node, "total", totalSkillPoints);
-		setAttributeOptional(node, "unallocated", unallocatedSkillPoints);
+	private void writeSkills(final XmlElementWriter writer, final List<RawSkill> skills, Long totalSkillPoints, Integer unallocatedSkillPoints) throws XmlException {
+		writer.startElement("skills");
+		writer.setAttributeOptional("total", totalSkillPoints);
+		writer.setAttributeOptional("unallocated", unallocatedSkillPoints);
 		for (RawSkill skill : skills) {
-			Element childNode = xmldoc.createElement("skill");
-			setAttribute(childNode, "id", skill.getTypeID());
-			setAttribute(childNode, "sp", skill.getSkillpoints());
-			setAttribute(childNode, "active", skill.getActiveSkillLevel());
-			setAttribute(childNode, "trained", skill.getTrainedSkillLevel());
-			node.appendChild(childNode);
+			writer.startElement("skill");
+			writer.setAttribute("id", skill.getTypeID());
+			writer.setAttribute("sp", skill.getSkillpoints());
+			writer.setAttribute("active", skill.getActiveSkillLevel());
+			writer.setAttribute("trained", skill.getTrainedSkillLevel());
+			writer.endElement();
 		}
+		writer.endElement();
 	}
 }
@@ -538,6 +538,13 @@ public final class SettingsReader extends AbstractXmlReader<Boolean> {
 			settings.getOwners().put(ownerID, ownerName);
 			settings.getOwnersNextUpdate().put(ownerID, date);
 		}
+		NodeList invalidNodeList = element.getElementsByTagName("invalidowner");
+		for (int i = 0; i < invalidNodeList.getLength(); i++) {
+			Element invalidNode = (Element) invalidNodeList.item(i);
+			long ownerID = getLong(invalidNode, "id");
+			Date date = getDate(invalidNode, "date");
+			settings.getOwnersInvalid().put(ownerID, date);
+		}
 	}
 
 	private Map<String, List<Value>> parseTrackerData(final Element element) throws XmlException {
@@ -1246,12 +1253,16 @@ public final class SettingsReader extends AbstractXmlReader<Boolean> {
 				//In case a price source is removed: Use the default
 			}
 		}
+		int cacheTimer = PriceDataSettings.DEFAULT_CACHE_TIMER;
+		if (haveAttribute(element, "cachetimer")) {
+			cacheTimer = getInt(element, "cachetimer");
+		}
 		//Validate
 		if (!priceSource.isValid(locationType, locationID)) {
 			locationType = priceSource.getDefaultLocationType();
 			locationID = priceSource.getDefaultLocationID();
 		}	
-		settings.setPriceDataSettings(new PriceDataSettings(locationType, locationID, priceSource, priceType, priceReprocessedType));
+		settings.setPriceDataSettings(new PriceDataSettings(locationType, locationID, priceSource, priceType, priceReprocessedType, cacheTimer));
 	}
 
 	private void parseContractPriceSettings(final Element element, final Settings settings) throws XmlException {
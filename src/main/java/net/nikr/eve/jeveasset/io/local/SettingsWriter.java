@@ -23,7 +23,9 @@ package net.nikr.eve.jeveasset.io.local;
 
 import java.io.File;
 import java.net.Proxy;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +43,7 @@ import net.nikr.eve.jeveasset.data.settings.RouteResult;
 import net.nikr.eve.jeveasset.data.settings.RoutingSettings;
 import net.nikr.eve.jeveasset.data.settings.Settings;
 import net.nikr.eve.jeveasset.data.settings.Settings.SettingFlag;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.data.settings.TrackerData;
 import net.nikr.eve.jeveasset.data.settings.UserItem;
 import net.nikr.eve.jeveasset.data.settings.tag.Tag;
@@ -66,20 +69,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 
 public class SettingsWriter extends AbstractXmlWriter {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SettingsWriter.class);
 
+	//Formatted sections from the last save (in file order)
+	private static final Map<SettingsSection, String> FRAGMENTS = new EnumMap<>(SettingsSection.class);
+	private static Settings fragmentsSettings = null;
+
 	private SettingsWriter() { }
 
 	public static boolean save(final Settings settings, final String filename) {
-		if (!new File(FileUtil.getPathTrackerData()).exists()) { //Make sure the tracker data is saved
+		return save(settings, filename, SettingsSection.all());
+	}
+
+	/**
+	 * Save settings.
+	 * Only the changed sections are serialized, the rest is reused from the last save
+	 * @param settings
+	 * @param filename
+	 * @param changed Sections changed since last save
+	 * @return true if saved
+	 */
+	public static boolean save(final Settings settings, final String filename, final Set<SettingsSection> changed) {
+		if (!new File(FileUtil.getPathTrackerDirectory()).exists()) { //Make sure the tracker data is saved
 			TrackerData.save("Saving Settings", true);
 		}
-		SettingsWriter writer = new SettingsWriter();
-		return writer.write(settings, filename);
+		synchronized (FRAGMENTS) {
+			SettingsWriter writer = new SettingsWriter();
+			return writer.write(settings, filename, changed);
+		}
 	}
 
 	public static boolean saveStockpiles(final List<Stockpile> stockpiles, final String filename) {
@@ -133,53 +155,31 @@ public class SettingsWriter extends AbstractXmlWriter {
 		return true;
 	}
 
-	private boolean write(final Settings settings, final String filename) {
-		Document xmldoc;
-		try {
-			xmldoc = getXmlDocument("settings");
-		} catch (XmlException ex) {
-			LOG.error("Settings not saved " + ex.getMessage(), ex);
-			return false;
+	private boolean write(final Settings settings, final String filename, final Set<SettingsSection> changed) {
+		if (fragmentsSettings != settings) { //Cache is only valid for the same settings
+			FRAGMENTS.clear();
+			fragmentsSettings = settings;
 		}
-		//Add version number
-		setAttribute(xmldoc.getDocumentElement(), "version", SettingsReader.SETTINGS_VERSION);
-
-		writeAssetSettings(xmldoc, settings);
-		writeStockpileGroups(xmldoc, settings);
-		writeStockpiles(xmldoc, settings.getStockpiles(), false);
-		writeOverviewGroups(xmldoc, settings.getOverviewGroups());
-		writeReprocessSettings(xmldoc, settings.getReprocessSettings());
-		writeWindow(xmldoc, settings);
-		writeProxy(xmldoc, settings.getProxyData());
-		writePriceDataSettings(xmldoc, settings.getPriceDataSettings());
-		writeContractPriceSettings(xmldoc, settings.getContractPriceSettings());
-		writeFlags(xmldoc, settings.getFlags());
-		writeUserPrices(xmldoc, settings.getUserPrices());
-		writeUserItemNames(xmldoc, settings.getUserItemNames());
-		writeEveNames(xmldoc, settings.getEveNames());
-		writeTableFilters(xmldoc, settings.getTableFilters());
-		writeCurrentTableFilters(xmldoc, settings.getCurrentTableFilters(), settings.getCurrentTableFiltersShown());
-		writeTableColumns(xmldoc, settings.getTableColumns());
-		writeTableColumnsWidth(xmldoc, settings.getTableColumnsWidth());
-		writeTablesResize(xmldoc, settings.getTableResize());
-		writeTablesViews(xmldoc, settings.getTableViews());
-		writeTablesJumps(xmldoc, settings.getTableJumps());
-		writeTablesFormula(xmldoc, settings.getTableFormulas());
-		writeExportSettings(xmldoc, settings.getExportSettings(), settings.getCopySettings());
-		writeTrackerNotes(xmldoc, settings.getTrackerSettings().getNotes());
-		writeTrackerFilters(xmldoc, settings.getTrackerSettings().getFilters(), settings.getTrackerSettings().isSelectNew(), settings.getTrackerSettings().getSkillPointFilters());
-		writeTrackerSettings(xmldoc, settings);
-		writeOwners(xmldoc, settings.getOwners(), settings.getOwnersNextUpdate());
-		writeTags(xmldoc, settings.getTags());
-		writeRoutingSettings(xmldoc, settings.getRoutingSettings());
-		writeMarketOrderOutbid(xmldoc, settings.getPublicMarketOrdersNextUpdate(), settings.getPublicMarketOrdersLastUpdate(), settings.getOutbidOrderRange(), settings.getMarketOrdersOutbid());
-		writeMarketOrdersSettings(xmldoc, settings.getMarketOrdersSettings());
-		writeShowTool(xmldoc, settings.getShowTools(), settings.isSaveToolsOnExit());
-		writeColorSettings(xmldoc, settings.getColorSettings());
-		writeFactionWarfareSystemOwners(xmldoc, settings);
 		try {
-			writeXmlFile(xmldoc, filename, true);
+			for (SettingsSection section : SettingsSection.values()) {
+				if (!changed.contains(section) && FRAGMENTS.containsKey(section)) {
+					continue; //Unchanged
+				}
+				Document xmldoc = getXmlDocument("settings");
+				writeSection(xmldoc, settings, section);
+				StringBuilder builder = new StringBuilder();
+				for (Node node = xmldoc.getDocumentElement().getFirstChild(); node != null; node = node.getNextSibling()) {
+					if (node instanceof Element) {
+						builder.append(toXmlFragment((Element) node));
+					}
+				}
+				FRAGMENTS.put(section, builder.toString());
+			}
+			//Add version number
+			Map<String, String> attributes = Collections.singletonMap("version", String.valueOf(SettingsReader.SETTINGS_VERSION));
+			writeXmlFile("settings", attributes, FRAGMENTS.values(), filename, true);
 		} catch (XmlException ex) {
+			FRAGMENTS.clear();
 			LOG.error("Settings not saved " + ex.getMessage(), ex);
 			return false;
 		}
@@ -187,6 +187,110 @@ public class SettingsWriter extends AbstractXmlWriter {
 		return true;
 	}
 
+	private void writeSection(final Document xmldoc, final Settings settings, final SettingsSection section) {
+		switch (section) {
+			case ASSET_SETTINGS:
+				writeAssetSettings(xmldoc, settings);
+				break;
+			case STOCKPILE_GROUPS:
+				writeStockpileGroups(xmldoc, settings);
+				break;
+			case STOCKPILES:
+				writeStockpiles(xmldoc, settings.getStockpiles(), false);
+				break;
+			case OVERVIEW_GROUPS:
+				writeOverviewGroups(xmldoc, settings.getOverviewGroups());
+				break;
+			case REPROCESS_SETTINGS:
+				writeReprocessSettings(xmldoc, settings.getReprocessSettings());
+				break;
+			case WINDOW:
+				writeWindow(xmldoc, settings);
+				break;
+			case PROXY:
+				writeProxy(xmldoc, settings.getProxyData());
+				break;
+			case PRICE_DATA_SETTINGS:
+				writePriceDataSettings(xmldoc, settings.getPriceDataSettings());
+				break;
+			case CONTRACT_PRICE_SETTINGS:
+				writeContractPriceSettings(xmldoc, settings.getContractPriceSettings());
+				break;
+			case FLAGS:
+				writeFlags(xmldoc, settings.getFlags());
+				break;
+			case USER_PRICES:
+				writeUserPrices(xmldoc, settings.getUserPrices());
+				break;
+			case USER_ITEM_NAMES:
+				writeUserItemNames(xmldoc, settings.getUserItemNames());
+				break;
+			case EVE_NAMES:
+				writeEveNames(xmldoc, settings.getEveNames());
+				break;
+			case TABLE_FILTERS:
+				writeTableFilters(xmldoc, settings.getTableFilters());
+				break;
+			case CURRENT_TABLE_FILTERS:
+				writeCurrentTableFilters(xmldoc, settings.getCurrentTableFilters(), settings.getCurrentTableFiltersShown());
+				break;
+			case TABLE_COLUMNS:
+				writeTableColumns(xmldoc, settings.getTableColumns());
+				break;
+			case TABLE_COLUMNS_WIDTH:
+				writeTableColumnsWidth(xmldoc, settings.getTableColumnsWidth());
+				break;
+			case TABLE_RESIZE:
+				writeTablesResize(xmldoc, settings.getTableResize());
+				break;
+			case TABLE_VIEWS:
+				writeTablesViews(xmldoc, settings.getTableViews());
+				break;
+			case TABLE_JUMPS:
+				writeTablesJumps(xmldoc, settings.getTableJumps());
+				break;
+			case TABLE_FORMULAS:
+				writeTablesFormula(xmldoc, settings.getTableFormulas());
+				break;
+			case EXPORT_SETTINGS:
+				writeExportSettings(xmldoc, settings.getExportSettings(), settings.getCopySettings());
+				break;
+			case TRACKER_NOTES:
+				writeTrackerNotes(xmldoc, settings.getTrackerSettings().getNotes());
+				break;
+			case TRACKER_FILTERS:
+				writeTrackerFilters(xmldoc, settings.getTrackerSettings().getFilters(), settings.getTrackerSettings().isSelectNew(), settings.getTrackerSettings().getSkillPointFilters());
+				break;
+			case TRACKER_SETTINGS:
+				writeTrackerSettings(xmldoc, settings);
+				break;
+			case OWNERS:
+				writeOwners(xmldoc, settings.getOwners(), settings.getOwnersNextUpdate(), settings.getOwnersInvalid());
+				break;
+			case TAGS:
+				writeTags(xmldoc, settings.getTags());
+				break;
+			case ROUTING_SETTINGS:
+				writeRoutingSettings(xmldoc, settings.getRoutingSettings());
+				break;
+			case MARKET_ORDER_OUTBID:
+				writeMarketOrderOutbid(xmldoc, settings.getPublicMarketOrdersNextUpdate(), settings.getPublicMarketOrdersLastUpdate(), settings.getOutbidOrderRange(), settings.getMarketOrdersOutbid());
+				break;
+			case MARKET_ORDERS_SETTINGS:
+				writeMarketOrdersSettings(xmldoc, settings.getMarketOrdersSettings());
+				break;
+			case SHOW_TOOLS:
+				writeShowTool(xmldoc, settings.getShowTools(), settings.isSaveToolsOnExit());
+				break;
+			case COLOR_SETTINGS:
+				writeColorSettings(xmldoc, settings.getColorSettings());
+				break;
+			case FACTION_WARFARE_SYSTEM_OWNERS:
+				writeFactionWarfareSystemOwners(xmldoc, settings);
+				break;
+		}
+	}
+
 	private void writeFactionWarfareSystemOwners(Document xmldoc, Settings settings) {
 		Element FactionWarfareSystemOwnersNode = xmldoc.createElementNS(null, "factionwarfaresystemowners");
 		xmldoc.getDocumentElement().appendChild(FactionWarfareSystemOwnersNode);
@@ -308,7 +412,7 @@ public class SettingsWriter extends AbstractXmlWriter {
 		}
 	}
 
-	private void writeOwners(final Document xmldoc, final Map<Long, String> owners, final Map<Long, Date> ownersNextUpdate) {
+	private void writeOwners(final Document xmldoc, final Map<Long, String> owners, final Map<Long, Date> ownersNextUpdate, final Map<Long, Date> ownersInvalid) {
 		Element trackerDataNode = xmldoc.createElementNS(null, "owners");
 		xmldoc.getDocumentElement().appendChild(trackerDataNode);
 		for (Map.Entry<Long, String> entry : owners.entrySet()) {
@@ -318,6 +422,17 @@ public class SettingsWriter extends AbstractXmlWriter {
 			setAttributeOptional(ownerNode, "date", ownersNextUpdate.get(entry.getKey()));
 			trackerDataNode.appendChild(ownerNode);
 		}
+		Date now = Settings.getNow();
+		for (Map.Entry<Long, Date> entry : ownersInvalid.entrySet()) {
+			if (owners.containsKey(entry.getKey()) //Valid again
+					|| !entry.getValue().after(now)) { //Expired (will be added again, if still invalid and still used)
+				continue;
+			}
+			Element invalidNode = xmldoc.createElementNS(null, "invalidowner");
+			setAttribute(invalidNode, "id", entry.getKey());
+			setAttribute(invalidNode, "date", entry.getValue());
+			trackerDataNode.appendChild(invalidNode);
+		}
 	}
 
 	private void writeTrackerFilters(final Document xmldoc, final Map<String, Boolean> trackerFilters, boolean selectNew, Map<String, TrackerSkillPointFilter> trackerSkillPointFilters) {
@@ -694,6 +809,7 @@ public class SettingsWriter extends AbstractXmlWriter {
 		setAttribute(parentNode, "pricesource", priceDataSettings.getSource());
 		setAttribute(parentNode, "locationid", priceDataSettings.getLocationID());
 		setAttribute(parentNode, "type", priceDataSettings.getLocationType());
+		setAttribute(parentNode, "cachetimer", priceDataSettings.getCacheTimer());
 		xmldoc.getDocumentElement().appendChild(parentNode);
 	}
 
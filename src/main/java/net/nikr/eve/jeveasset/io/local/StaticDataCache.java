@@ -0,0 +1,381 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import net.nikr.eve.jeveasset.data.sde.IndustryMaterial;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.sde.ItemFlag;
+import net.nikr.eve.jeveasset.data.sde.Jump;
+import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.sde.ReprocessedMaterial;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockReader;
+import net.nikr.eve.jeveasset.io.local.ProfileBinary.BlockWriter;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary copy of the static data (items, locations, jumps and flags).
+ * Header: magic, version and checksum of the xml files it was saved from.
+ * Followed by blocks in the same format as the binary profile.
+ * Only loaded while the checksum match the xml files.
+ */
+public final class StaticDataCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StaticDataCache.class);
+
+	private static final int MAGIC = 0x4A455344; //JESD
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	//Blocks
+	private static final int END = 0;
+	private static final int ITEMS = 1;
+	private static final int LOCATIONS = 2;
+	private static final int JUMPS = 3;
+	private static final int FLAGS = 4;
+
+	private StaticDataCache() { }
+
+	/**
+	 * Load the static data cache.
+	 * Locations must be loaded before jumps, so the locations map can be used to find the jump locations
+	 * @param items items.xml items (without items updates)
+	 * @param locations
+	 * @param jumps
+	 * @param flags
+	 * @return true if loaded, false if the xml files should be loaded instead
+	 */
+	public static boolean load(final Map<Integer, Item> items, final Map<Long, MyLocation> locations, final List<Jump> jumps, final Map<Integer, ItemFlag> flags) {
+		File file = new File(FileUtil.getPathStaticData());
+		if (!file.exists()) {
+			return false;
+		}
+		Long checksum = checksum();
+		if (checksum == null) {
+			return false;
+		}
+		FileLock.lockShared(file);
+		try {
+			return read(file, checksum, items, locations, jumps, flags);
+		} catch (IOException | RuntimeException ex) {
+			LOG.warn("Static data cache not loaded: " + ex.getMessage(), ex);
+			items.clear();
+			locations.clear();
+			jumps.clear();
+			flags.clear();
+			return false;
+		} finally {
+			FileLock.unlock(file);
+		}
+	}
+
+	/**
+	 * Save the static data cache.
+	 * Must only be saved when all the xml files was loaded
+	 * @param items items.xml items (without items updates)
+	 * @param locations
+	 * @param jumps
+	 * @param flags
+	 * @return true if saved
+	 */
+	public static boolean save(final Map<Integer, Item> items, final Map<Long, MyLocation> locations, final List<Jump> jumps, final Map<Integer, ItemFlag> flags) {
+		Long checksum = checksum();
+		if (checksum == null) {
+			return false;
+		}
+		File file = new File(FileUtil.getPathStaticData());
+		File newFile = new File(file.getAbsolutePath() + ".new");
+		BlockWriter block = new BlockWriter();
+		FileLock.lock(file);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newFile), 64 * 1024))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(checksum);
+				writeItems(block, items);
+				block.writeTo(out, ITEMS);
+				writeLocations(block, locations);
+				block.writeTo(out, LOCATIONS);
+				writeJumps(block, jumps);
+				block.writeTo(out, JUMPS);
+				writeFlags(block, flags);
+				block.writeTo(out, FLAGS);
+				block.writeTo(out, END);
+			}
+			//Replace the old file when the new file is complete
+			Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException ex) {
+			LOG.error("Static data cache not saved " + ex.getMessage(), ex);
+			newFile.delete();
+			return false;
+		} finally {
+			FileLock.unlock(file);
+		}
+		LOG.info("Static data cache saved");
+		return true;
+	}
+
+	/**
+	 * Checksum of the xml files
+	 * @return checksum or null if any of the files could not be read
+	 */
+	private static Long checksum() {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[64 * 1024];
+		for (String filename : new String[] {FileUtil.getPathItems(), FileUtil.getPathLocations(), FileUtil.getPathJumps(), FileUtil.getPathFlags()}) {
+			try (InputStream in = new FileInputStream(filename)) {
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					crc.update(buffer, 0, read);
+				}
+			} catch (IOException ex) {
+				LOG.warn("Static data checksum failed: " + ex.getMessage());
+				return null;
+			}
+		}
+		return crc.getValue();
+	}
+
+	private static boolean read(final File file, final long checksum, final Map<Integer, Item> items, final Map<Long, MyLocation> locations, final List<Jump> jumps, final Map<Integer, ItemFlag> flags) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				return false;
+			}
+			//Check the header before reading the rest
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if (!ProfileBinary.readFully(channel, header)) {
+				return false;
+			}
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				LOG.info("Static data cache ignored: unknown format");
+				return false;
+			}
+			if (header.getLong(8) != checksum) {
+				LOG.info("Static data cache ignored: static data changed");
+				return false;
+			}
+			buffer = ByteBuffer.allocate((int) channel.size());
+			header.flip();
+			buffer.put(header);
+			if (!ProfileBinary.readFully(channel, buffer)) {
+				return false;
+			}
+		}
+		int position = HEADER_SIZE;
+		while (position < buffer.limit()) {
+			int type = buffer.getInt(position);
+			int length = buffer.getInt(position + 4);
+			int start = position + 8;
+			position = start + length;
+			if (length < 0 || position > buffer.limit()) {
+				throw new IOException("Block outside of file");
+			}
+			if (type == END) {
+				LOG.info("Static data cache loaded");
+				return true;
+			}
+			BlockReader block = new BlockReader(buffer, start, position);
+			switch (type) {
+				case ITEMS:
+					readItems(block, items);
+					break;
+				case LOCATIONS:
+					readLocations(block, locations);
+					break;
+				case JUMPS:
+					readJumps(block, jumps, locations);
+					break;
+				case FLAGS:
+					readFlags(block, flags);
+					break;
+				default:
+					continue; //Unknown block
+			}
+			block.done();
+		}
+		throw new IOException("End of file before end block");
+	}
+
+	private static void writeItems(final BlockWriter block, final Map<Integer, Item> items) throws IOException {
+		block.writeInt(items.size());
+		for (Item item : items.values()) {
+			block.writeInt(item.getTypeID());
+			block.writeString(item.getVersion());
+			block.writeBoolean(item.isEmpty());
+			if (item.isEmpty()) {
+				continue;
+			}
+			block.writeString(item.getTypeName());
+			block.writeString(item.getGroup());
+			block.writeString(item.getCategory());
+			block.writeLong((long) item.getPriceBase());
+			block.writeFloat(item.getVolume());
+			block.writeFloat(item.getPackagedVolume());
+			block.writeFloat(item.getCapacity());
+			block.writeInt(item.getMeta());
+			block.writeString(item.getTech());
+			block.writeBoolean(item.isMarketGroup());
+			block.writeInt(item.getPortion());
+			block.writeInt(item.getProductTypeID());
+			block.writeInt(item.getProductQuantity());
+			block.writeInt(item.getBlueprintTypeID());
+			block.writeInt(item.getReprocessedMaterial().size());
+			for (ReprocessedMaterial material : item.getReprocessedMaterial()) {
+				block.writeInt(material.getTypeID());
+				block.writeInt(material.getQuantity());
+				block.writeInt(material.getPortionSize());
+			}
+			writeIndustryMaterials(block, item.getManufacturingMaterials());
+			writeIndustryMaterials(block, item.getReactionMaterials());
+		}
+	}
+
+	private static void writeIndustryMaterials(final BlockWriter block, final List<IndustryMaterial> materials) throws IOException {
+		block.writeInt(materials.size());
+		for (IndustryMaterial material : materials) {
+			block.writeInt(material.getTypeID());
+			block.writeInt(material.getQuantity());
+		}
+	}
+
+	private static void readItems(final BlockReader block, final Map<Integer, Item> items) {
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			int typeID = block.getInt();
+			String version = block.getString();
+			if (block.getBoolean()) { //Empty
+				items.put(typeID, new Item(typeID, version));
+				continue;
+			}
+			String name = block.getString();
+			String group = block.getString();
+			String category = block.getString();
+			long price = block.getLong();
+			float volume = block.getFloat();
+			float packagedVolume = block.getFloat();
+			float capacity = block.getFloat();
+			int meta = block.getInt();
+			String tech = block.getString();
+			boolean marketGroup = block.getBoolean();
+			int portion = block.getInt();
+			int product = block.getInt();
+			int productQuantity = block.getInt();
+			Item item = new Item(typeID, name, group, category, price, volume, packagedVolume, capacity, meta, tech, marketGroup, portion, product, productQuantity, version);
+			item.setBlueprintID(block.getInt());
+			int materials = block.getInt();
+			for (int j = 0; j < materials; j++) {
+				item.addReprocessedMaterial(new ReprocessedMaterial(block.getInt(), block.getInt(), block.getInt()));
+			}
+			int manufacturing = block.getInt();
+			for (int j = 0; j < manufacturing; j++) {
+				item.addManufacturingMaterial(new IndustryMaterial(block.getInt(), block.getInt()));
+			}
+			int reaction = block.getInt();
+			for (int j = 0; j < reaction; j++) {
+				item.addReactionMaterial(new IndustryMaterial(block.getInt(), block.getInt()));
+			}
+			items.put(typeID, item);
+		}
+	}
+
+	private static void writeLocations(final BlockWriter block, final Map<Long, MyLocation> locations) throws IOException {
+		block.writeInt(locations.size());
+		for (MyLocation location : locations.values()) {
+			block.writeLong(location.getStationID());
+			block.writeString(location.getStation());
+			block.writeLong(location.getSystemID());
+			block.writeString(location.getSystem());
+			block.writeLong(location.getConstellationID());
+			block.writeString(location.getConstellation());
+			block.writeLong(location.getRegionID());
+			block.writeString(location.getRegion());
+			block.writeString(location.getSecurity());
+		}
+	}
+
+	private static void readLocations(final BlockReader block, final Map<Long, MyLocation> locations) {
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			long stationID = block.getLong();
+			String station = block.getString();
+			long systemID = block.getLong();
+			String system = block.getString();
+			long constellationID = block.getLong();
+			String constellation = block.getString();
+			long regionID = block.getLong();
+			String region = block.getString();
+			String security = block.getString();
+			MyLocation location = MyLocation.create(stationID, station, systemID, system, constellationID, constellation, regionID, region, security, false, false);
+			locations.put(location.getLocationID(), location);
+		}
+	}
+
+	private static void writeJumps(final BlockWriter block, final List<Jump> jumps) throws IOException {
+		block.writeInt(jumps.size());
+		for (Jump jump : jumps) {
+			block.writeLong(jump.getFrom().getLocationID());
+			block.writeLong(jump.getTo().getLocationID());
+		}
+	}
+
+	private static void readJumps(final BlockReader block, final List<Jump> jumps, final Map<Long, MyLocation> locations) {
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			MyLocation from = locations.get(block.getLong());
+			MyLocation to = locations.get(block.getLong());
+			jumps.add(new Jump(from, to));
+		}
+	}
+
+	private static void writeFlags(final BlockWriter block, final Map<Integer, ItemFlag> flags) throws IOException {
+		block.writeInt(flags.size());
+		for (ItemFlag flag : flags.values()) {
+			block.writeInt(flag.getFlagID());
+			block.writeString(flag.getFlagName());
+			block.writeString(flag.getFlagText());
+		}
+	}
+
+	private static void readFlags(final BlockReader block, final Map<Integer, ItemFlag> flags) {
+		int size = block.getInt();
+		for (int i = 0; i < size; i++) {
+			ItemFlag flag = new ItemFlag(block.getInt(), block.getString(), block.getString());
+			flags.put(flag.getFlagID(), flag);
+		}
+	}
+}
@@ -68,7 +68,7 @@ public class TrackerDataReader extends AbstractBackup {
 		Gson gson = new GsonBuilder().registerTypeAdapter(Value.class, new ValueDeserializerJSon()).create();
 		FileReader fileReader = null;
 		try {
-			lock(filename);
+			lockShared(filename);
 			fileReader = new FileReader(file);
 			Map<String, List<Value>> trackerData =  gson.fromJson(fileReader, new TypeToken<HashMap<String, ArrayList<Value>>>() {}.getType());
 			LOG.info("Tracker data loaded");
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
+import net.nikr.eve.jeveasset.gui.tabs.values.Value;
+import net.nikr.eve.jeveasset.io.shared.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracker data saved in segments of one month (GMT) each.
+ * New values are appended to the end of the segment, changed segments are rewritten.
+ * Segment: magic, version, followed by records: length and data. An incomplete last record (crash while appending) is dropped.
+ */
+public class TrackerDataStore {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TrackerDataStore.class);
+
+	private static final int MAGIC = 0x4A455454; //JETT
+	private static final int VERSION = 1;
+	private static final String EXTENSION = ".dat";
+
+	private TrackerDataStore() { }
+
+	/**
+	 * Load all tracker data.
+	 * The first time the tracker data is imported from the old json file
+	 * @return tracker data or null if there is no tracker data
+	 */
+	public static Map<String, List<Value>> load() {
+		return load(new File(FileUtil.getPathTrackerDirectory()), FileUtil.getPathTrackerData(), true);
+	}
+
+	protected static Map<String, List<Value>> load(File directory, String jsonFilename, boolean backup) {
+		if (!directory.exists()) {
+			Map<String, List<Value>> trackerData = TrackerDataReader.load(jsonFilename, backup);
+			if (trackerData != null) {
+				importJson(directory, trackerData);
+			}
+			return trackerData;
+		}
+		return load(directory, null, null);
+	}
+
+	/**
+	 * Load the tracker data in a date range.
+	 * Only the segments in the range are read
+	 * @param directory
+	 * @param from first date or null for all before to
+	 * @param to last date or null for all after from
+	 * @return tracker data (can not be null)
+	 */
+	public static Map<String, List<Value>> load(File directory, Date from, Date to) {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		String fromSegment = from != null ? getSegment(from) : null;
+		String toSegment = to != null ? getSegment(to) : null;
+		FileLock.lock(directory); //Exclusive: incomplete segments are rewritten
+		try {
+			for (Map.Entry<String, File> entry : getSegmentFiles(directory).entrySet()) {
+				String segment = entry.getKey();
+				if ((fromSegment != null && segment.compareTo(fromSegment) < 0) || (toSegment != null && segment.compareTo(toSegment) > 0)) {
+					continue;
+				}
+				Map<String, List<Value>> segmentData = new HashMap<>();
+				try {
+					if (!readSegment(entry.getValue(), segmentData)) { //Incomplete: save what could be read
+						LOG.warn("Tracker data segment " + segment + " was incomplete");
+						writeSegment(entry.getValue(), segmentData);
+					}
+				} catch (IOException ex) {
+					LOG.error("Tracker data segment " + segment + " not loaded: " + ex.getMessage(), ex);
+					continue;
+				}
+				for (Map.Entry<String, List<Value>> ownerEntry : segmentData.entrySet()) {
+					for (Value value : ownerEntry.getValue()) {
+						if ((from != null && value.getDate().before(from)) || (to != null && value.getDate().after(to))) {
+							continue;
+						}
+						add(trackerData, ownerEntry.getKey(), value);
+					}
+				}
+			}
+		} finally {
+			FileLock.unlock(directory);
+		}
+		LOG.info("Tracker data loaded");
+		return trackerData;
+	}
+
+	/**
+	 * Save the changes to the tracker data
+	 * @param trackerData all tracker data
+	 * @param appends new values since last save
+	 * @param segments changed segments to rewrite (values in the changed segments are not appended)
+	 * @param all true to rewrite all segments
+	 * @return true if saved
+	 */
+	public static boolean save(Map<String, List<Value>> trackerData, Map<String, List<Value>> appends, Set<String> segments, boolean all) {
+		return save(new File(FileUtil.getPathTrackerDirectory()), trackerData, appends, segments, all);
+	}
+
+	protected static boolean save(File directory, Map<String, List<Value>> trackerData, Map<String, List<Value>> appends, Set<String> segments, boolean all) {
+		boolean created = false;
+		if (!directory.exists()) {
+			if (!directory.mkdirs()) {
+				LOG.error("Tracker data not saved: failed to create " + directory.getAbsolutePath());
+				return false;
+			}
+			created = true; //Json import failed or directory deleted: only a full save is complete
+		}
+		FileLock.lock(directory);
+		try {
+			if (all || created) {
+				writeAll(directory, trackerData);
+			} else {
+				if (!segments.isEmpty()) {
+					Map<String, Map<String, List<Value>>> segmentData = split(trackerData, segments);
+					for (String segment : segments) {
+						writeSegment(getSegmentFile(directory, segment), segmentData.get(segment));
+					}
+				}
+				for (Map.Entry<String, Map<String, List<Value>>> entry : split(appends, null).entrySet()) {
+					if (segments.contains(entry.getKey())) {
+						continue; //Already rewritten
+					}
+					appendSegment(getSegmentFile(directory, entry.getKey()), entry.getValue());
+				}
+			}
+			LOG.info("Tracker data saved");
+			return true;
+		} catch (IOException ex) {
+			LOG.error("Tracker data not saved: " + ex.getMessage(), ex);
+			return false;
+		} finally {
+			FileLock.unlock(directory);
+		}
+	}
+
+	public static String getSegment(Date date) {
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+		calendar.setTime(date);
+		return String.format("%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+	}
+
+	private static void importJson(File directory, Map<String, List<Value>> trackerData) {
+		//Saved to a temp directory first, so a failed import leaves no partial directory (the next save writes all the data)
+		File newDirectory = new File(directory.getAbsolutePath() + ".new");
+		try {
+			if (newDirectory.exists()) {
+				for (File file : getSegmentFiles(newDirectory).values()) {
+					Files.delete(file.toPath());
+				}
+			} else if (!newDirectory.mkdirs()) {
+				throw new IOException("Failed to create " + newDirectory.getAbsolutePath());
+			}
+			writeAll(newDirectory, trackerData);
+			Files.move(newDirectory.toPath(), directory.toPath());
+			LOG.info("Tracker data imported from json");
+		} catch (IOException ex) {
+			LOG.error("Tracker data not imported: " + ex.getMessage(), ex);
+			for (File file : getSegmentFiles(newDirectory).values()) {
+				file.delete();
+			}
+			newDirectory.delete();
+		}
+	}
+
+	private static void writeAll(File directory, Map<String, List<Value>> trackerData) throws IOException {
+		Map<String, Map<String, List<Value>>> segmentData = split(trackerData, null);
+		for (Map.Entry<String, Map<String, List<Value>>> entry : segmentData.entrySet()) {
+			writeSegment(getSegmentFile(directory, entry.getKey()), entry.getValue());
+		}
+		for (Map.Entry<String, File> entry : getSegmentFiles(directory).entrySet()) {
+			if (!segmentData.containsKey(entry.getKey())) {
+				Files.delete(entry.getValue().toPath()); //All values removed
+			}
+		}
+	}
+
+	/**
+	 * @param trackerData
+	 * @param segments segments to include or null for all
+	 * @return segment :: owner :: values
+	 */
+	private static Map<String, Map<String, List<Value>>> split(Map<String, List<Value>> trackerData, Set<String> segments) {
+		Map<String, Map<String, List<Value>>> segmentData = new HashMap<>();
+		if (segments != null) {
+			for (String segment : segments) {
+				segmentData.put(segment, new HashMap<String, List<Value>>());
+			}
+		}
+		for (Map.Entry<String, List<Value>> entry : trackerData.entrySet()) {
+			for (Value value : entry.getValue()) {
+				String segment = getSegment(value.getDate());
+				Map<String, List<Value>> data = segmentData.get(segment);
+				if (data == null) {
+					if (segments != null) {
+						continue;
+					}
+					data = new HashMap<>();
+					segmentData.put(segment, data);
+				}
+				add(data, entry.getKey(), value);
+			}
+		}
+		return segmentData;
+	}
+
+	private static void add(Map<String, List<Value>> trackerData, String owner, Value value) {
+		List<Value> values = trackerData.get(owner);
+		if (values == null) {
+			values = new ArrayList<>();
+			trackerData.put(owner, values);
+		}
+		values.add(value);
+	}
+
+	private static File getSegmentFile(File directory, String segment) {
+		return new File(directory, segment + EXTENSION);
+	}
+
+	/**
+	 * @param directory
+	 * @return segment :: file (sorted by date)
+	 */
+	private static Map<String, File> getSegmentFiles(File directory) {
+		Map<String, File> segments = new TreeMap<>();
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return segments;
+		}
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isFile() && name.endsWith(EXTENSION)) {
+				segments.put(name.substring(0, name.length() - EXTENSION.length()), file);
+			}
+		}
+		return segments;
+	}
+
+	private static void writeSegment(File file, Map<String, List<Value>> segmentData) throws IOException {
+		if (segmentData == null || segmentData.isEmpty()) {
+			Files.deleteIfExists(file.toPath()); //All values removed
+			return;
+		}
+		File newFile = new File(file.getAbsolutePath() + ".new");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeValues(out, segmentData);
+		}
+		//Replace the old file when the new file is complete
+		Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void appendSegment(File file, Map<String, List<Value>> segmentData) throws IOException {
+		boolean exist = file.exists();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+			if (!exist) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+			}
+			writeValues(out, segmentData);
+		}
+	}
+
+	private static void writeValues(DataOutputStream out, Map<String, List<Value>> segmentData) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream record = new DataOutputStream(bytes);
+		for (Map.Entry<String, List<Value>> entry : segmentData.entrySet()) {
+			for (Value value : entry.getValue()) {
+				bytes.reset();
+				writeValue(record, entry.getKey(), value);
+				record.flush();
+				out.writeInt(bytes.size());
+				bytes.writeTo(out);
+			}
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, String owner, Value value) throws IOException {
+		out.writeUTF(owner);
+		out.writeLong(value.getDate().getTime());
+		out.writeDouble(value.getAssetsTotal());
+		out.writeDouble(value.getEscrows());
+		out.writeDouble(value.getEscrowsToCover());
+		out.writeDouble(value.getSellOrders());
+		out.writeDouble(value.getBalanceTotal());
+		out.writeDouble(value.getManufacturing());
+		out.writeDouble(value.getContractCollateral());
+		out.writeDouble(value.getContractValue());
+		out.writeLong(value.getSkillPoints());
+		out.writeInt(value.getBalanceFilter().size());
+		for (Map.Entry<String, Double> entry : value.getBalanceFilter().entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeDouble(entry.getValue());
+		}
+		out.writeInt(value.getAssetsFilter().size());
+		for (Map.Entry<AssetValue, Double> entry : value.getAssetsFilter().entrySet()) {
+			AssetValue assetValue = entry.getKey();
+			out.writeUTF(assetValue.getLocation());
+			out.writeBoolean(assetValue.getFlag() != null);
+			if (assetValue.getFlag() != null) {
+				out.writeUTF(assetValue.getFlag());
+			}
+			out.writeBoolean(assetValue.getLocationID() != null);
+			if (assetValue.getLocationID() != null) {
+				out.writeLong(assetValue.getLocationID());
+			}
+			out.writeDouble(entry.getValue());
+		}
+	}
+
+	/**
+	 * @param file
+	 * @param segmentData
+	 * @return true if complete, false if the last record was incomplete
+	 * @throws IOException
+	 */
+	private static boolean readSegment(File file, Map<String, List<Value>> segmentData) throws IOException {
+		byte[] data = Files.readAllBytes(file.toPath());
+		if (data.length < 8) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unknown format");
+			}
+			int position = 8;
+			while (position < data.length) {
+				if (position + 4 > data.length) {
+					return false;
+				}
+				int length = in.readInt();
+				position = position + 4 + length;
+				if (length < 0 || position > data.length) {
+					return false;
+				}
+				readValue(in, segmentData);
+			}
+		}
+		return true;
+	}
+
+	private static void readValue(DataInputStream in, Map<String, List<Value>> segmentData) throws IOException {
+		String owner = in.readUTF();
+		Value value = new Value(new Date(in.readLong()));
+		double assetsTotal = in.readDouble();
+		value.setEscrows(in.readDouble());
+		value.setEscrowsToCover(in.readDouble());
+		value.setSellOrders(in.readDouble());
+		double balanceTotal = in.readDouble();
+		value.setManufacturing(in.readDouble());
+		value.setContractCollateral(in.readDouble());
+		value.setContractValue(in.readDouble());
+		value.setSkillPoints(in.readLong());
+		int balanceSize = in.readInt();
+		for (int i = 0; i < balanceSize; i++) {
+			value.addBalance(in.readUTF(), in.readDouble());
+		}
+		if (balanceSize == 0) {
+			value.setBalanceTotal(balanceTotal);
+		}
+		int assetsSize = in.readInt();
+		for (int i = 0; i < assetsSize; i++) {
+			String location = in.readUTF();
+			String flag = in.readBoolean() ? in.readUTF() : null;
+			Long locationID = in.readBoolean() ? in.readLong() : null;
+			value.addAssets(AssetValue.create(location, flag, locationID), in.readDouble());
+		}
+		if (assetsSize == 0) {
+			value.setAssetsTotal(assetsTotal);
+		}
+		add(segmentData, owner, value);
+	}
+}
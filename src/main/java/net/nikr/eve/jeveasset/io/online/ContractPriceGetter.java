@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
@@ -50,6 +51,8 @@ public class ContractPriceGetter extends AbstractGetter<EsiOwner> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ContractPriceGetter.class);
 	private static final int RETRIES = 3;
+	private static final int MAX_THREADS = 10; //Requests in flight
+	private static final int MIN_BATCH_SIZE = 10; //Items per thread
 
 	private static final PricesApi API = new PricesApi();
 
@@ -80,37 +83,39 @@ public class ContractPriceGetter extends AbstractGetter<EsiOwner> {
 	}
 
 	public void update(Set<Integer> exclude) {
-		List<Update> updates = new ArrayList<>();
 		final ContractPriceSettings contractPriceSettings = Settings.get().getContractPriceSettings();
 		final ContractPriceManager priceManager = ContractPriceManager.get();
+		List<ContractPriceItem> contractPriceItems = new ArrayList<>();
 		for (ContractPriceItem contractPriceType : profileData.getContractPricesTypes()) {
 			if (!priceManager.isFailed(contractPriceType) && (all || !priceManager.haveContractPrice(contractPriceType))) {
-				updates.add(new Update(contractPriceSettings, contractPriceType, all));
+				contractPriceItems.add(contractPriceType);
 			}
 		}
+		//Split into one batch per thread (limit the number of requests in flight)
+		int size = Math.max(MIN_BATCH_SIZE, (contractPriceItems.size() + MAX_THREADS - 1) / MAX_THREADS);
+		Progress progress = new Progress(contractPriceItems.size());
+		List<Update> updates = new ArrayList<>();
+		for (List<ContractPriceItem> batch : splitList(contractPriceItems, size)) {
+			updates.add(new Update(contractPriceSettings, batch, all, priceManager, progress));
+		}
 		try {
-			List<Future<ReturnData>> futures = startSubThreads(updates, true);
-			int done = 0;
-			int failed = 0;
-			for (Future<ReturnData> future : futures) {
-				if (future.isDone()) {
-					try {
-						ReturnData returnValue = future.get(); //Get data
-						if (returnValue != null) {
-							priceManager.addPrices(returnValue);
-							if (returnValue.isEmpty()) {
-								done++;
-							} else {
-								failed++;
-							}
-						}
-					} catch (ExecutionException ex) {
-						ThreadWoker.throwExecutionException(ApiException.class, ex);
-					}
+			List<Future<Void>> futures = startSubThreads(updates, false);
+			ExecutionException error = null;
+			for (Future<Void> future : futures) { //Every batch (the prices are added as they are returned)
+				try {
+					future.get();
+				} catch (ExecutionException ex) {
+					error = ex;
+				} catch (CancellationException ex) {
+					//Cancelled: handled below
 				}
 			}
 			priceManager.save();
-			LOG.info(done + " contract prices updated (" + failed + " empty/failed)");
+			LOG.info(progress.getDone() + " contract prices updated (" + progress.getFailed() + " empty/failed)");
+			checkCancelled();
+			if (error != null) {
+				ThreadWoker.throwExecutionException(ApiException.class, error);
+			}
 		} catch (ApiException ex) {
 			logWarn(ex.getResponseBody(), ex.getMessage());
 			addError(ex.getCode(), "Error Code: " + ex.getCode() + "\r\n" + ex.getResponseBody(), ex);
@@ -123,25 +128,72 @@ public class ContractPriceGetter extends AbstractGetter<EsiOwner> {
 		}
 	}
 
-	private static class Update implements Callable<ReturnData> {
+	private class Progress {
+		private final int total;
+		private int done = 0;
+		private int failed = 0;
+
+		public Progress(int total) {
+			this.total = total;
+		}
+
+		public synchronized void add(ReturnData returnData) {
+			if (returnData.isEmpty()) {
+				failed++;
+			} else {
+				done++;
+			}
+			setProgress(total, done + failed, 0, 100);
+		}
+
+		public synchronized int getDone() {
+			return done;
+		}
+
+		public synchronized int getFailed() {
+			return failed;
+		}
+	}
+
+	/**
+	 * Update a batch of contract price items (one request at the time)
+	 */
+	private class Update implements Callable<Void> {
 
 		private final ContractPriceSettings contractPriceSettings;
-		private final ContractPriceItem contractPriceType;
+		private final List<ContractPriceItem> contractPriceTypes;
 		private final boolean all;
-		private int retry = 0;
+		private final ContractPriceManager priceManager;
+		private final Progress progress;
 
-		public Update(ContractPriceSettings contractPriceSettings, ContractPriceItem contractPriceType, boolean all) {
+		public Update(ContractPriceSettings contractPriceSettings, List<ContractPriceItem> contractPriceTypes, boolean all, ContractPriceManager priceManager, Progress progress) {
 			this.contractPriceSettings = contractPriceSettings;
-			this.contractPriceType = contractPriceType;
+			this.contractPriceTypes = contractPriceTypes;
 			this.all = all;
+			this.priceManager = priceManager;
+			this.progress = progress;
 		}
 
 		@Override
-		public ReturnData call() throws Exception {
-			return update();
+		public Void call() throws Exception {
+			ApiException error = null;
+			for (ContractPriceItem contractPriceType : contractPriceTypes) {
+				checkCancelled();
+				try {
+					ReturnData returnData = update(contractPriceType, 0);
+					priceManager.addPrices(returnData);
+					progress.add(returnData);
+				} catch (ApiException ex) {
+					error = ex; //Continue with the rest of the batch
+				}
+			}
+			if (error != null) {
+				throw error;
+			}
+			return null;
 		}
 
-		private ReturnData update() throws ApiException {
+		private ReturnData update(ContractPriceItem contractPriceType, int retry) throws ApiException {
 			try {
 				ApiResponse<Prices> apiResponse = API.getPricesWithHttpInfo(contractPriceType.getTypeID(), contractPriceSettings.isIncludePrivate(), contractPriceType.isBpc(), contractPriceSettings.getSecurityValues(), contractPriceType.getMe(), contractPriceType.getTe());
 				if (apiResponse.getStatusCode() == 204) {
@@ -157,7 +209,7 @@ public class ContractPriceGetter extends AbstractGetter<EsiOwner> {
 					retry++;
 					if (retry < RETRIES) {
 						LOG.warn("Retrying " + contractPriceType.getTypeID() + ": " + retry + " of " +  RETRIES);
-						return update();
+						return update(contractPriceType, retry);
 					} else {
 						LOG.error("Failed to get " + contractPriceType.getTypeID() + ": " + ex.getCode() + " " + ex.getResponseBody(), ex);
 						throw ex;
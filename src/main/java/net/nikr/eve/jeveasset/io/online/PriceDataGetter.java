@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -61,8 +63,9 @@ public class PriceDataGetter implements PricingListener {
 
 	private static final Logger LOG = LoggerFactory.getLogger(PriceDataGetter.class);
 
-	private static final long PRICE_CACHE_TIMER = 1 * 60 * 60 * 1000L; // 1 hour (hours*min*sec*ms)
 	private static final int ATTEMPT_COUNT = 2;
+	private static final int BATCH_SIZE = 500; //TypeIDs per update
+	private static final int PARALLEL_BATCHES = 4; //Updates in progress at the same time
 	private static final int ZERO_PRICES_WARNING_LIMIT = 10;
 	private static final int FAILED_PERCENT_CANCEL_LIMIT = 5;
 	private static final int ZERO_PERCENT_CANCEL_LIMIT = 25;
@@ -198,30 +201,29 @@ public class PriceDataGetter implements PricingListener {
 
 		pricing.addPricingListener(this);
 
-		if (updateAll) { //Update all
-			pricing.updatePrices(typeIDs);
+		if (updateAll) { //Update expired
+			Set<Integer> expired = getExpired(pricing, typeIDs);
+			LOG.info("	Price data expired for " + expired.size() + " of " + typeIDs.size() + " item types");
+			List<List<Integer>> batches = splitList(expired, BATCH_SIZE);
+			for (int i = 0; i < batches.size(); i += PARALLEL_BATCHES) {
+				Set<Integer> updating = new HashSet<>();
+				for (List<Integer> batch : batches.subList(i, Math.min(batches.size(), i + PARALLEL_BATCHES))) {
+					updating.addAll(batch);
+					pricing.updatePrices(new HashSet<>(batch));
+				}
+				if (!waitFor(updating)) {
+					return cancel(pricing);
+				}
+				writeCache(pricing); //Save progress
+			}
 		} else { //Update new
 			for (int id : typeIDs) {
 				createPriceData(id, pricing);
 			}
 		}
 
-		while (!queue.isEmpty()) {
-			try {
-				synchronized (this) {
-					wait(1000);
-				}
-			} catch (InterruptedException ex) {
-				LOG.info("Failed to update price");
-				pricing.cancelAll();
-				if (updateTask != null) {
-					updateTask.addWarning("Price data", "Cancelled");
-					updateTask.setTaskProgress(100, 100, 0, 100);
-					updateTask = null;
-				}
-				clear(pricing);
-				return null;
-			}
+		if (!waitFor(queue)) {
+			return cancel(pricing);
 		}
 		boolean updated = (!okay.isEmpty() && (typeIDs.size() * FAILED_PERCENT_CANCEL_LIMIT / 100) > failed.size() && (typeIDs.size() * ZERO_PERCENT_CANCEL_LIMIT / 100) > zero.size());
 		if (updated && !failed.isEmpty()) {
@@ -266,11 +268,17 @@ public class PriceDataGetter implements PricingListener {
 			} else {
 				LOG.info("	Price data loaded");
 			}
-			try {
-				pricing.writeCache();
-				LOG.info("	Price data cached saved");
-			} catch (IOException ex) {
-				LOG.error("Failed to write price data cache", ex);
+			writeCache(pricing);
+			//Next update when the oldest price expires
+			long oldest = Long.MAX_VALUE;
+			for (int typeID : typeIDs) {
+				long lastUpdate = pricing.getNextUpdateTime(typeID);
+				if (lastUpdate >= 0 && lastUpdate < oldest) {
+					oldest = lastUpdate;
+				}
+			}
+			if (oldest != Long.MAX_VALUE) {
+				setUpdateNext(oldest);
 			}
 			//We only set the price data if everthing worked (AKA all updated)
 			try {
@@ -294,8 +302,87 @@ public class PriceDataGetter implements PricingListener {
 		}
 	}
 
+	/**
+	 * Get the types that have not been updated within the cache timer.
+	 * Price data is created from the cache for the rest
+	 * @param pricing
+	 * @param typeIDs
+	 * @return expired typeIDs
+	 */
+	private Set<Integer> getExpired(final Pricing pricing, final Set<Integer> typeIDs) {
+		long now = System.currentTimeMillis();
+		long cacheTimer = getPriceCacheTimer();
+		Set<Integer> expired = new HashSet<>();
+		for (int typeID : typeIDs) {
+			long updated = pricing.getNextUpdateTime(typeID); //Last update (-1 if never updated)
+			if (updated >= 0 && updated + cacheTimer > now) {
+				createPriceData(typeID, pricing);
+				if (okay.contains(typeID)) {
+					continue; //Still valid
+				}
+			}
+			expired.add(typeID);
+		}
+		return expired;
+	}
+
+	/**
+	 * Wait for the typeIDs to be updated
+	 * @param typeIDs
+	 * @return false if cancelled
+	 */
+	private boolean waitFor(final Set<Integer> typeIDs) {
+		Set<Integer> remaining = new HashSet<>(typeIDs);
+		remaining.retainAll(queue);
+		while (!remaining.isEmpty()) {
+			try {
+				synchronized (this) {
+					wait(1000);
+				}
+			} catch (InterruptedException ex) {
+				return false;
+			}
+			remaining.retainAll(queue);
+		}
+		return true;
+	}
+
+	private Map<Integer, PriceData> cancel(final Pricing pricing) {
+		LOG.info("Failed to update price");
+		pricing.cancelAll();
+		if (updateTask != null) {
+			updateTask.addWarning("Price data", "Cancelled");
+			updateTask.setTaskProgress(100, 100, 0, 100);
+			updateTask = null;
+		}
+		clear(pricing);
+		return null;
+	}
+
+	private void writeCache(final Pricing pricing) {
+		try {
+			pricing.writeCache();
+			LOG.info("	Price data cached saved");
+		} catch (IOException ex) {
+			LOG.error("Failed to write price data cache", ex);
+		}
+	}
+
+	private static <T> List<List<T>> splitList(final Collection<T> collection, final int size) {
+		List<T> list = new ArrayList<>(collection);
+		List<List<T>> parts = new ArrayList<>();
+		for (int i = 0; i < list.size(); i += size) {
+			parts.add(new ArrayList<>(list.subList(i, Math.min(list.size(), i + size))));
+		}
+		return parts;
+	}
+
+	private static long getPriceCacheTimer() {
+		return Settings.get().getPriceDataSettings().getCacheTimer() * 60 * 1000L; //Minutes to milliseconds
+	}
+
 	public synchronized Date getNextUpdate() {
-		return new Date(nextUpdate + PRICE_CACHE_TIMER);
+		return new Date(nextUpdate + getPriceCacheTimer());
 	}
 
 	private synchronized long getNextUpdateTime() {
@@ -383,7 +470,7 @@ public class PriceDataGetter implements PricingListener {
 
 		@Override
 		public long getPriceCacheTimer() {
-			return PRICE_CACHE_TIMER;
+			return PriceDataGetter.getPriceCacheTimer();
 		}
 
 		@Override
@@ -216,6 +216,26 @@ public abstract class DataConverter {
 		return contracts;
 	}
 
+	/**
+	 * Set the items of many contracts at once (only one copy of the owner contracts)
+	 * @param rawContractItems contract items by contract
+	 * @param owner
+	 * @return all owner contracts
+	 */
+	public static Map<MyContract, List<MyContractItem>> convertRawContractItems(Map<MyContract, List<RawContractItem>> rawContractItems, OwnerType owner) {
+		Map<MyContract, List<MyContractItem>> contracts = new HashMap<MyContract, List<MyContractItem>>(owner.getContracts()); //Copy list
+		for (Map.Entry<MyContract, List<RawContractItem>> entry : rawContractItems.entrySet()) {
+			MyContract contract = entry.getKey();
+			List<MyContractItem> contractItems = new ArrayList<MyContractItem>();
+			for (RawContractItem rawContract : entry.getValue()) {
+				contractItems.add(toMyContractItem(rawContract, contract));
+			}
+			contracts.remove(contract);
+			contracts.put(contract, contractItems);
+		}
+		return contracts;
+	}
+
 	public static MyContract toMyContract(RawContract rawContract) {
 		return new MyContract(rawContract);
 	}
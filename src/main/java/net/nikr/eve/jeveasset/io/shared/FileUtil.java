@@ -42,7 +42,10 @@ public class FileUtil {
 
 	private static final String PATH_ASSET_ADDED = "data" + File.separator + "added.json";
 	private static final String PATH_ASSET_ADDED_DATABASE = "data" + File.separator + "addedsql.db";
+	private static final String PATH_HISTORY_DATABASE = "data" + File.separator + "history.db";
+	private static final String PATH_STATIC_DATA = "data" + File.separator + "static.dat";
 	private static final String PATH_TRACKER_DATA = "data" + File.separator + "tracker.json";
+	private static final String PATH_TRACKER_DIRECTORY = "data" + File.separator + "tracker";
 	private static final String PATH_CONTRACT_PRICES = "data" + File.separator + "contract_prices.json";
 	private static final String PATH_SETTINGS = "data" + File.separator + "settings.xml";
 	private static final String PATH_ITEMS = "data" + File.separator + "items.xml";
@@ -54,6 +57,11 @@ public class FileUtil {
 	private static final String PATH_ASSETS = "data" + File.separator + "assets.xml";
 	private static final String PATH_CONQUERABLE_STATIONS = "data" + File.separator + "conquerable_stations.xml";
 	private static final String PATH_CITADEL = "data" + File.separator + "citadel.xml";
+	private static final String PATH_ESI_CACHE = "data" + File.separator + "esicache";
+	private static final String PATH_MARKET_ORDER_SNAPSHOTS = "data" + File.separator + "market_orders.json";
+	private static final String PATH_CONTRACT_ITEMS = "data" + File.separator + "contract_items.json";
+	private static final String PATH_ESI_METRICS = "data" + File.separator + "esi_metrics.json";
+	private static final String PATH_STRUCTURE_MARKET_ACCESS = "data" + File.separator + "structure_market_access.json";
 	private static final String PATH_README = "readme.txt";
 	private static final String PATH_LICENSE = "license.txt";
 	private static final String PATH_CREDITS = "credits.txt";
@@ -158,6 +166,7 @@ public class FileUtil {
 			Path trackerFrom = Paths.get(FileUtil.getPathTrackerData());
 			Path assetAddedFrom = Paths.get(FileUtil.getPathAssetAdded());
 			Path assetAddedDatabaseFrom = Paths.get(FileUtil.getPathAssetAddedDatabase());
+			Path historyDatabaseFrom = Paths.get(FileUtil.getPathHistoryDatabase());
 			Path citadelFrom = Paths.get(FileUtil.getPathCitadel());
 			Path priceFrom = Paths.get(FileUtil.getPathPriceData());
 			Path profilesFrom = Paths.get(FileUtil.getPathProfilesDirectory());
@@ -168,6 +177,7 @@ public class FileUtil {
 			Path trackerTo = Paths.get(FileUtil.getPathTrackerData());
 			Path assetAddedTo = Paths.get(FileUtil.getPathAssetAdded());
 			Path assetAddedDatabaseTo = Paths.get(FileUtil.getPathAssetAddedDatabase());
+			Path historyDatabaseTo = Paths.get(FileUtil.getPathHistoryDatabase());
 			Path citadelTo = Paths.get(FileUtil.getPathCitadel());
 			Path priceTo = Paths.get(FileUtil.getPathPriceData());
 			Path profilesTo = Paths.get(FileUtil.getPathProfilesDirectory());
@@ -209,6 +219,15 @@ public class FileUtil {
 					LOG.info("	FAILED");
 				}
 			}
+			if (Files.exists(historyDatabaseFrom) && !Files.exists(historyDatabaseTo)) {
+				LOG.info("Importing history");
+				try {
+					Files.copy(historyDatabaseFrom, historyDatabaseTo);
+					LOG.info("	OK");
+				} catch (IOException ex) {
+					LOG.info("	FAILED");
+				}
+			}
 			if (Files.exists(citadelFrom) && !Files.exists(citadelTo)) {
 				LOG.info("Importing citadels");
 				try {
@@ -284,6 +303,10 @@ public class FileUtil {
 		return FileUtil.getLocalFile(FileUtil.PATH_TRACKER_DATA, !Program.isPortable());
 	}
 
+	public static String getPathTrackerDirectory() {
+		return FileUtil.getLocalFile(FileUtil.PATH_TRACKER_DIRECTORY, !Program.isPortable());
+	}
+
 	public static String getPathContractPrices() {
 		return FileUtil.getLocalFile(FileUtil.PATH_CONTRACT_PRICES, !Program.isPortable());
 	}
@@ -296,6 +319,14 @@ public class FileUtil {
 		return FileUtil.getLocalFile(FileUtil.PATH_ASSET_ADDED_DATABASE, !Program.isPortable());
 	}
 
+	public static String getPathHistoryDatabase() {
+		return FileUtil.getLocalFile(FileUtil.PATH_HISTORY_DATABASE, !Program.isPortable());
+	}
+
+	public static String getPathStaticData() {
+		return FileUtil.getLocalFile(FileUtil.PATH_STATIC_DATA, !Program.isPortable());
+	}
+
 	public static String getPathConquerableStations() {
 		return FileUtil.getLocalFile(FileUtil.PATH_CONQUERABLE_STATIONS, !Program.isPortable());
 	}
@@ -304,6 +335,26 @@ public class FileUtil {
 		return FileUtil.getLocalFile(FileUtil.PATH_CITADEL, !Program.isPortable());
 	}
 
+	public static String getPathEsiCache() {
+		return FileUtil.getLocalFile(FileUtil.PATH_ESI_CACHE, !Program.isPortable());
+	}
+
+	public static String getPathMarketOrderSnapshots() {
+		return FileUtil.getLocalFile(FileUtil.PATH_MARKET_ORDER_SNAPSHOTS, !Program.isPortable());
+	}
+
+	public static String getPathContractItems() {
+		return FileUtil.getLocalFile(FileUtil.PATH_CONTRACT_ITEMS, !Program.isPortable());
+	}
+
+	public static String getPathEsiMetrics() {
+		return FileUtil.getLocalFile(FileUtil.PATH_ESI_METRICS, !Program.isPortable());
+	}
+
+	public static String getPathStructureMarketAccess() {
+		return FileUtil.getLocalFile(FileUtil.PATH_STRUCTURE_MARKET_ACCESS, !Program.isPortable());
+	}
+
 	public static String getPathJumps() {
 		return FileUtil.getLocalFile(FileUtil.PATH_JUMPS, false);
 	}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tasks and the tasks they depend on.
+ * A task is started by ThreadWoker as soon as all its dependencies are done.
+ * Dependencies must be added before the tasks depending on them, so the graph can never contain cycles.
+ */
+public class TaskGraph {
+
+	private final Map<Runnable, Node> nodes = new LinkedHashMap<>();
+
+	public <T extends Runnable> T add(T runnable, Runnable... dependencies) {
+		return add(runnable, Arrays.asList(dependencies));
+	}
+
+	public <T extends Runnable> T add(T runnable, Collection<? extends Runnable> dependencies) {
+		if (nodes.containsKey(runnable)) {
+			throw new IllegalArgumentException("Task already added");
+		}
+		List<Node> parents = new ArrayList<>();
+		for (Runnable dependency : dependencies) {
+			Node parent = nodes.get(dependency);
+			if (parent == null) {
+				throw new IllegalArgumentException("Dependencies must be added first");
+			}
+			if (!parents.contains(parent)) {
+				parents.add(parent);
+			}
+		}
+		Node node = new Node(runnable, parents.size());
+		for (Node parent : parents) {
+			parent.dependents.add(node);
+		}
+		nodes.put(runnable, node);
+		return runnable;
+	}
+
+	public int size() {
+		return nodes.size();
+	}
+
+	public boolean isEmpty() {
+		return nodes.isEmpty();
+	}
+
+	/**
+	 * Tasks without dependencies (can be started right away)
+	 * @return root nodes
+	 */
+	List<Node> getRoots() {
+		List<Node> roots = new ArrayList<>();
+		for (Node node : nodes.values()) {
+			if (node.dependencies == 0) {
+				roots.add(node);
+			}
+		}
+		return roots;
+	}
+
+	static class Node {
+		private final Runnable runnable;
+		private final int dependencies;
+		private final AtomicInteger pending;
+		private final List<Node> dependents = new ArrayList<>();
+
+		private Node(Runnable runnable, int dependencies) {
+			this.runnable = runnable;
+			this.dependencies = dependencies;
+			this.pending = new AtomicInteger(dependencies);
+		}
+
+		Runnable getRunnable() {
+			return runnable;
+		}
+
+		List<Node> getDependents() {
+			return Collections.unmodifiableList(dependents);
+		}
+
+		/**
+		 * Mark one dependency as done
+		 * @return true if all dependencies are done
+		 */
+		boolean release() {
+			return pending.decrementAndGet() == 0;
+		}
+	}
+}
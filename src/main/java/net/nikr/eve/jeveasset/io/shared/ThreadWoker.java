@@ -24,11 +24,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,9 +42,16 @@ import org.slf4j.LoggerFactory;
 
 public class ThreadWoker {
 
-	private static final int MAIN_THREADS = 100;
-	private static final int SUB_THREADS = 100;
-	private static final ExecutorService RETURN_THREAD_POOL = Executors.newFixedThreadPool(SUB_THREADS);
+	private static final int THREADS = 100;
+	private static final long CANCEL_CHECK_MILLIS = 1000;
+	/**
+	 * Shared work-stealing pool used by both main and sub threads.
+	 * Threads waiting for sub threads help run them and are managed blockers,
+	 * so the pool will add spare threads instead of deadlocking.
+	 */
+	private static final ForkJoinPool THREAD_POOL = new ForkJoinPool(THREADS, new WorkerThreadFactory(), null, true);
+	private static final AtomicInteger QUEUED = new AtomicInteger(0);
+	private static final AtomicInteger ACTIVE = new AtomicInteger(0);
 
 	private static final Logger LOG = LoggerFactory.getLogger(ThreadWoker.class);
 
@@ -55,34 +68,18 @@ public class ThreadWoker {
 	}
 
 	public static void start(UpdateTask updateTask, Collection<? extends Runnable> updaters, boolean updateProgress, int start, int end) {
-		ExecutorService threadPool = Executors.newFixedThreadPool(MAIN_THREADS);
+		LOG.info("Starting " + updaters.size() + " main threads");
+		List<Callable<Object>> callables = new ArrayList<>();
+		for (Runnable runnable : updaters) {
+			callables.add(Executors.callable(runnable));
+		}
 		try {
-			LOG.info("Starting " + updaters.size() + " main threads");
-			List<Future<?>> futures = new ArrayList<Future<?>>();
-			for (Runnable runnable : updaters) {
-				futures.add(threadPool.submit(runnable));
-			}
-			threadPool.shutdown();
-			while (!threadPool.awaitTermination(500, TimeUnit.MICROSECONDS)) {
-				if (updateTask != null) {
-					if (updateTask.isCancelled()) {
-						threadPool.shutdownNow();
-					} else if (updateProgress) {
-						int progress = 0;
-						for (Future<?> future : futures) {
-							if (future.isDone()) {
-								progress++;
-							}
-						}
-						updateTask.setTaskProgress(updaters.size(), progress, start, end);
-					}
-				}
-			}
+			List<Future<Object>> futures = submitAndWait(updateTask, callables, updateProgress, start, end);
 			//Get errors (if any)
 			for (Future<?> future : futures) {
 				future.get();
 			}
-		} catch (InterruptedException ex) {
+		} catch (InterruptedException | TaskCancelledException ex) {
 			//No problem
 		} catch (ExecutionException ex) {
 			throwExecutionException(ex);
@@ -98,37 +95,145 @@ public class ThreadWoker {
 	}
 
 	public static <K> List<Future<K>> startReturn(UpdateTask updateTask, Collection<? extends Callable<K>> updaters, boolean updateProgress, int start, int end) throws InterruptedException {
-		if (updateTask != null && updateTask.isCancelled()) {
+		LOG.info("Starting " + updaters.size() + " sub threads");
+		return submitAndWait(updateTask, updaters, updateProgress, start, end);
+	}
+
+	public static void start(UpdateTask updateTask, TaskGraph graph) {
+		start(updateTask, graph, true);
+	}
+
+	/**
+	 * Run the tasks in the graph.
+	 * Each task is submitted to the pool when all its dependencies are done,
+	 * so independent tasks never wait on each other.
+	 * @param updateTask
+	 * @param graph
+	 * @param updateProgress 
+	 */
+	public static void start(final UpdateTask updateTask, final TaskGraph graph, final boolean updateProgress) {
+		LOG.info("Starting " + graph.size() + " graph threads");
+		if (isCancelled(updateTask) || graph.isEmpty()) {
+			return;
+		}
+		GraphRun graphRun = new GraphRun(updateTask, graph.size(), updateProgress);
+		for (TaskGraph.Node node : graph.getRoots()) {
+			graphRun.submit(node);
+		}
+		try {
+			ForkJoinPool.managedBlock(new LatchBlocker(updateTask, graphRun.latch));
+		} catch (InterruptedException ex) {
+			cancel(graphRun.getFutures());
+			return;
+		}
+		if (graphRun.latch.getCount() > 0) { //Cancelled
+			cancel(graphRun.getFutures());
+			return;
+		}
+		//Get errors (if any)
+		try {
+			for (Future<?> future : graphRun.getFutures()) {
+				future.get();
+			}
+		} catch (InterruptedException ex) {
+			//No problem
+		} catch (ExecutionException ex) {
+			throwExecutionException(ex);
+		}
+	}
+
+	/**
+	 * Tasks waiting in the queue (not started yet)
+	 * @return number of queued tasks
+	 */
+	public static int getQueueDepth() {
+		return QUEUED.get();
+	}
+
+	/**
+	 * Tasks currently running (including tasks waiting for sub threads)
+	 * @return number of active tasks
+	 */
+	public static int getActiveTasks() {
+		return ACTIVE.get();
+	}
+
+	public static int getPoolSize() {
+		return THREAD_POOL.getPoolSize();
+	}
+
+	private static <K> List<Future<K>> submitAndWait(final UpdateTask updateTask, final Collection<? extends Callable<K>> updaters, final boolean updateProgress, final int start, final int end) throws InterruptedException {
+		if (isCancelled(updateTask)) {
 			throw new TaskCancelledException();
 		}
-		LOG.info("Starting " + updaters.size() + " sub threads");
-		List<Future<K>> futures = new ArrayList<Future<K>>();
+		final int total = updaters.size();
+		final CountDownLatch latch = new CountDownLatch(total);
+		final AtomicInteger done = new AtomicInteger(0);
+		List<Future<K>> futures = new ArrayList<>();
 		for (Callable<K> callable : updaters) {
-			futures.add(RETURN_THREAD_POOL.submit(callable));
-		}
-		int done = 0;
-		while (done < futures.size()) {
-			done = 0;
-			for (Future<?> future : futures) {
-				if (future.isDone()) {
-					done++;
+			futures.add(new WorkerTask<K>(callable) {
+				@Override
+				protected void done() {
+					if (updateTask != null && updateProgress && !updateTask.isCancelled()) {
+						synchronized (done) { //Keep progress in order
+							updateTask.setTaskProgress(total, done.incrementAndGet(), start, end);
+						}
+					}
+					latch.countDown();
 				}
+			});
+		}
+		if (isPoolThread()) { //Pool thread: fork then join
+			List<ForkJoinTask<?>> forkTasks = new ArrayList<>();
+			for (Future<K> future : futures) {
+				QUEUED.incrementAndGet();
+				forkTasks.add(ForkJoinTask.adapt((Runnable) future).fork());
 			}
-			if (updateTask != null) {
-				if (updateTask.isCancelled()) { //If task is cancelled
-					for (Future<?> future : futures) { //cancel all threads
-						future.cancel(true);
-					}
-					throw new TaskCancelledException(); //Stop parent Task
-				} else if (updateProgress) {
-					updateTask.setTaskProgress(updaters.size(), done, start, end);
+			//Run the tasks not stolen by other threads (newest first, as they are on top of the local queue)
+			for (int i = forkTasks.size() - 1; i >= 0; i--) {
+				if (isCancelled(updateTask)) {
+					break;
+				}
+				ForkJoinTask<?> forkTask = forkTasks.get(i);
+				if (forkTask.tryUnfork()) {
+					forkTask.invoke();
 				}
 			}
-			Thread.sleep(500);
+			//Stolen tasks are waited for below
+		} else {
+			for (Future<K> future : futures) {
+				QUEUED.incrementAndGet();
+				THREAD_POOL.execute((Runnable) future);
+			}
+		}
+		try {
+			ForkJoinPool.managedBlock(new LatchBlocker(updateTask, latch));
+		} catch (InterruptedException ex) {
+			cancel(futures);
+			throw ex;
+		}
+		if (latch.getCount() > 0) { //Cancelled
+			cancel(futures);
+			throw new TaskCancelledException(); //Stop parent Task
 		}
 		return futures;
 	}
 
+	private static void cancel(List<? extends Future<?>> futures) {
+		for (Future<?> future : futures) { //cancel all threads
+			future.cancel(true);
+		}
+	}
+
+	private static boolean isPoolThread() {
+		Thread thread = Thread.currentThread();
+		return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == THREAD_POOL;
+	}
+
+	private static boolean isCancelled(UpdateTask updateTask) {
+		return updateTask != null && updateTask.isCancelled();
+	}
+
 	public static class TaskCancelledException extends RuntimeException {
 		
 	}
@@ -149,4 +254,116 @@ public class ThreadWoker {
 			throw new RuntimeException(cause);
 		}
 	}
+
+	private static class WorkerTask<K> extends FutureTask<K> {
+
+		private final AtomicBoolean started = new AtomicBoolean(false);
+
+		public WorkerTask(Callable<K> callable) {
+			super(callable);
+		}
+
+		@Override
+		public void run() {
+			if (!started.compareAndSet(false, true)) {
+				return; //Already run by the pool or the waiting thread
+			}
+			QUEUED.decrementAndGet();
+			ACTIVE.incrementAndGet();
+			try {
+				super.run();
+			} finally {
+				ACTIVE.decrementAndGet();
+				if (isCancelled()) {
+					Thread.interrupted(); //Clear cancel interrupt before the thread is reused
+				}
+			}
+		}
+	}
+
+	private static class GraphRun {
+
+		private final UpdateTask updateTask;
+		private final int total;
+		private final boolean updateProgress;
+		private final CountDownLatch latch;
+		private final AtomicInteger done = new AtomicInteger(0);
+		private final List<Future<Object>> futures = new ArrayList<>();
+
+		public GraphRun(UpdateTask updateTask, int total, boolean updateProgress) {
+			this.updateTask = updateTask;
+			this.total = total;
+			this.updateProgress = updateProgress;
+			this.latch = new CountDownLatch(total);
+		}
+
+		private void submit(final TaskGraph.Node node) {
+			WorkerTask<Object> task = new WorkerTask<Object>(Executors.callable(node.getRunnable())) {
+				@Override
+				protected void done() {
+					if (updateTask != null && updateProgress && !updateTask.isCancelled()) {
+						synchronized (done) { //Keep progress in order
+							updateTask.setTaskProgress(total, done.incrementAndGet(), 0, 100);
+						}
+					}
+					if (!ThreadWoker.isCancelled(updateTask)) {
+						for (TaskGraph.Node dependent : node.getDependents()) {
+							if (dependent.release()) { //All dependencies done
+								submit(dependent);
+							}
+						}
+					}
+					latch.countDown();
+				}
+			};
+			synchronized (futures) {
+				futures.add(task);
+			}
+			QUEUED.incrementAndGet();
+			THREAD_POOL.execute(task);
+		}
+
+		private List<Future<Object>> getFutures() {
+			synchronized (futures) {
+				return new ArrayList<>(futures);
+			}
+		}
+	}
+
+	/**
+	 * Wait for all tasks to complete.
+	 * The timeout is only used to check if the update was cancelled.
+	 */
+	private static class LatchBlocker implements ForkJoinPool.ManagedBlocker {
+
+		private final UpdateTask updateTask;
+		private final CountDownLatch latch;
+
+		public LatchBlocker(UpdateTask updateTask, CountDownLatch latch) {
+			this.updateTask = updateTask;
+			this.latch = latch;
+		}
+
+		@Override
+		public boolean block() throws InterruptedException {
+			return latch.await(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS) || isCancelled(updateTask);
+		}
+
+		@Override
+		public boolean isReleasable() {
+			return latch.getCount() == 0 || isCancelled(updateTask);
+		}
+	}
+
+	private static class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("ThreadWoker-" + count.incrementAndGet());
+			return thread;
+		}
+	}
 }
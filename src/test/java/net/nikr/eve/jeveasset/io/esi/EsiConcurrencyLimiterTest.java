@@ -0,0 +1,121 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import net.nikr.eve.jeveasset.TestUtil;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class EsiConcurrencyLimiterTest extends TestUtil {
+
+	private final TestClock clock = new TestClock();
+
+	@Test
+	public void testStart() {
+		EsiConcurrencyLimiter limiter = new EsiConcurrencyLimiter(clock);
+		assertEquals(EsiConcurrencyLimiter.MAX_LIMIT, limiter.getLimit());
+		limiter.acquire();
+		limiter.release(false, 100);
+		assertEquals(EsiConcurrencyLimiter.MAX_LIMIT, limiter.getLimit());
+	}
+
+	@Test
+	public void testIncrease() {
+		EsiConcurrencyLimiter limiter = new EsiConcurrencyLimiter(clock);
+		limiter.acquire();
+		limiter.release(true, 100);
+		int start = limiter.getLimit();
+		for (int i = 0; i < start * 2; i++) {
+			limiter.acquire();
+			limiter.release(false, 100);
+		}
+		assertTrue(limiter.getLimit() > start);
+		assertEquals(0, limiter.getInFlight());
+		assertEquals(100, limiter.getLatency());
+	}
+
+	@Test
+	public void testDecrease() {
+		EsiConcurrencyLimiter limiter = new EsiConcurrencyLimiter(clock);
+		int start = limiter.getLimit();
+		limiter.acquire();
+		limiter.acquire();
+		limiter.release(true, 100);
+		assertEquals(start / 2, limiter.getLimit());
+		limiter.release(true, 100); //Same time: only decrease once
+		assertEquals(start / 2, limiter.getLimit());
+		assertEquals(0, limiter.getLatency()); //Failed requests are not included
+	}
+
+	@Test
+	public void testMinLimit() {
+		EsiConcurrencyLimiter limiter = new EsiConcurrencyLimiter(clock);
+		for (int i = 0; i < 6; i++) { //50 > 25 > 12.5 > 6.25 > 3.125 > 1.5625 > 1
+			limiter.acquire();
+			limiter.release(true, 0);
+			clock.add(1100);
+		}
+		assertEquals(EsiConcurrencyLimiter.MIN_LIMIT, limiter.getLimit());
+	}
+
+	@Test
+	public void testOverloaded() {
+		assertTrue(EsiConcurrencyLimiter.isOverloaded(0));
+		assertTrue(EsiConcurrencyLimiter.isOverloaded(420));
+		assertTrue(EsiConcurrencyLimiter.isOverloaded(502));
+		assertFalse(EsiConcurrencyLimiter.isOverloaded(403));
+		assertFalse(EsiConcurrencyLimiter.isOverloaded(404));
+	}
+
+	private static class TestClock extends Clock {
+
+		private long millis = 1000000;
+
+		public void add(long add) {
+			millis = millis + add;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.io.shared.ThreadWoker.TaskCancelledException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class EsiErrorLimitTest extends TestUtil {
+
+	@Test
+	public void testNoErrors() {
+		EsiErrorLimit errorLimit = new EsiErrorLimit();
+		assertEquals(EsiErrorLimit.ERROR_LIMIT, errorLimit.getErrorsRemain());
+		errorLimit.acquire();
+		errorLimit.acquire();
+		assertEquals(2, errorLimit.getInFlight());
+		errorLimit.release();
+		errorLimit.release();
+		assertEquals(0, errorLimit.getInFlight());
+	}
+
+	@Test
+	public void testSameTimeFrame() {
+		EsiErrorLimit errorLimit = new EsiErrorLimit();
+		errorLimit.update(90, 60);
+		errorLimit.update(95, 59); //Older response: keep the lowest value
+		assertEquals(90, errorLimit.getErrorsRemain());
+		errorLimit.update(80, 59);
+		assertEquals(80, errorLimit.getErrorsRemain());
+	}
+
+	@Test
+	public void testNewTimeFrame() {
+		EsiErrorLimit errorLimit = new EsiErrorLimit();
+		errorLimit.update(20, 1);
+		assertEquals(20, errorLimit.getErrorsRemain());
+		errorLimit.update(99, 60); //New time frame: reset
+		assertEquals(99, errorLimit.getErrorsRemain());
+	}
+
+	@Test(timeout = 10000)
+	public void testWaitForReset() {
+		EsiErrorLimit errorLimit = new EsiErrorLimit();
+		errorLimit.update(5, 1); //Error limit reached
+		long start = System.currentTimeMillis();
+		errorLimit.acquire(); //Wait for the time frame to reset
+		long waited = System.currentTimeMillis() - start;
+		errorLimit.release();
+		assertTrue("Waited " + waited + "ms", waited >= 1000);
+		assertEquals(EsiErrorLimit.ERROR_LIMIT, errorLimit.getErrorsRemain());
+	}
+
+	@Test(timeout = 10000)
+	public void testInterrupted() {
+		EsiErrorLimit errorLimit = new EsiErrorLimit();
+		errorLimit.update(5, 60); //Error limit reached
+		Thread.currentThread().interrupt();
+		try {
+			errorLimit.acquire();
+			fail("Expected TaskCancelledException");
+		} catch (TaskCancelledException ex) {
+			assertTrue(Thread.interrupted()); //Interrupt status restored (and cleared here)
+		}
+		assertEquals(0, errorLimit.getInFlight()); //No permit handed out
+	}
+}
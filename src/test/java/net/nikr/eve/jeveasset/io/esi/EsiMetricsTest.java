@@ -0,0 +1,77 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.io.esi.EsiMetrics.RequestMetrics;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class EsiMetricsTest extends TestUtil {
+
+	@Test
+	public void testPercentile() {
+		RequestMetrics metrics = EsiMetrics.get("testPercentile", "Owner");
+		for (int i = 0; i < 90; i++) {
+			metrics.success(40);
+		}
+		for (int i = 0; i < 9; i++) {
+			metrics.success(400);
+		}
+		metrics.success(2500);
+		assertEquals(100, metrics.getRequests());
+		assertEquals(50, metrics.getPercentile(50));
+		assertEquals(500, metrics.getPercentile(95));
+		assertEquals(500, metrics.getPercentile(99));
+		assertEquals(2500, metrics.getPercentile(100)); //Never more than max
+		assertEquals(2500, metrics.getMax());
+	}
+
+	@Test
+	public void testErrors() {
+		RequestMetrics metrics = EsiMetrics.get("testErrors", "Owner");
+		assertSame(metrics, EsiMetrics.get("testErrors", "Owner"));
+		metrics.error(502, 100);
+		metrics.retry();
+		metrics.error(502, 100);
+		metrics.error(0, 100);
+		assertEquals(3, metrics.getRequests());
+		assertEquals(3, metrics.getErrors());
+		assertEquals(1, metrics.getRetries());
+		assertEquals(Long.valueOf(2), metrics.getErrorCodes().get(502));
+		assertEquals(Long.valueOf(1), metrics.getErrorCodes().get(0));
+		assertEquals(100, metrics.getPercentile(50));
+	}
+
+	@Test
+	public void testExchangeTime() {
+		EsiMetrics.exchange(100); //No current metrics: ignored
+		assertEquals(0, EsiMetrics.getExchangeTime());
+		EsiMetrics.setCurrent(EsiMetrics.get("testExchangeTime", "Owner"));
+		assertEquals(0, EsiMetrics.getExchangeTime());
+		EsiMetrics.exchange(100);
+		EsiMetrics.exchange(50); //Redirect, token refresh, etc.
+		assertEquals(150, EsiMetrics.getExchangeTime());
+		EsiMetrics.setCurrent(null);
+		assertEquals(0, EsiMetrics.getExchangeTime());
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import net.nikr.eve.jeveasset.TestUtil;
+import net.troja.eve.esi.ApiException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class EsiRateLimitTest extends TestUtil {
+
+	private static final String CON_STOP_SPAMMING = "{\"error\":\"ConStopSpamming, details: {'remainingTime': 12020190}\"}";
+
+	@Test
+	public void testIsRateLimited() {
+		assertTrue(EsiRateLimit.isRateLimited(new ApiException(429, null, "{\"error\":\"Too many requests\"}")));
+		assertTrue(EsiRateLimit.isRateLimited(new ApiException(520, null, CON_STOP_SPAMMING)));
+		assertTrue(EsiRateLimit.isRateLimited(new ApiException(503, null, "{\"error\":\"Rate limit exceeded\"}")));
+		assertFalse(EsiRateLimit.isRateLimited(new ApiException(520, null, "{\"error\":\"Undefined 520 response\"}")));
+		assertFalse(EsiRateLimit.isRateLimited(new ApiException(404, null, "{\"error\":\"Contract not found!\"}")));
+	}
+
+	@Test
+	public void testRemainingTime() {
+		assertEquals(Long.valueOf(1203), EsiRateLimit.getRemainingTime(new ApiException(520, null, CON_STOP_SPAMMING)));
+		assertNull(EsiRateLimit.getRemainingTime(new ApiException(520, null, "{\"error\":\"ConStopSpamming\"}")));
+		assertNull(EsiRateLimit.getRemainingTime(new ApiException(520, null, null)));
+	}
+
+	@Test
+	public void testLimited() {
+		EsiRateLimit rateLimit = new EsiRateLimit();
+		assertTrue(rateLimit.await(0));
+		rateLimit.limited(60000L);
+		assertFalse(rateLimit.await(1));
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Send ESI and SSO requests to a local stand-in server (load testing).
+ * Only loopback addresses are allowed, so tokens are never sent to another host.
+ */
+public class EsiRedirect implements Interceptor {
+
+	private static final Set<String> HOSTS = new HashSet<>(Arrays.asList("esi.evetech.net", "login.eveonline.com"));
+
+	private final HttpUrl url;
+
+	private EsiRedirect(HttpUrl url) {
+		this.url = url;
+	}
+
+	/**
+	 * Redirect the shared ESI client
+	 * @param url local server url (null to use ESI)
+	 */
+	public static void setUrl(String url) {
+		if (url == null) {
+			AbstractEsiGetter.setTestInterceptor(null);
+			return;
+		}
+		HttpUrl httpUrl = HttpUrl.parse(url);
+		if (httpUrl == null || !isLoopback(httpUrl.host())) {
+			throw new IllegalArgumentException("Only loopback addresses are allowed: " + url);
+		}
+		AbstractEsiGetter.setTestInterceptor(new EsiRedirect(httpUrl));
+	}
+
+	private static boolean isLoopback(String host) {
+		try {
+			return InetAddress.getByName(host).isLoopbackAddress();
+		} catch (IOException ex) {
+			return false;
+		}
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		if (HOSTS.contains(request.url().host())) {
+			HttpUrl redirected = request.url().newBuilder()
+					.scheme(url.scheme())
+					.host(url.host())
+					.port(url.port())
+					.build();
+			request = request.newBuilder().url(redirected).build();
+		}
+		return chain.proceed(request);
+	}
+}
@@ -0,0 +1,759 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptions;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptionsGetter;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestUtil;
+import net.troja.eve.esi.ApiClient;
+import net.troja.eve.esi.JSON;
+import net.troja.eve.esi.model.CharacterAssetsResponse;
+import net.troja.eve.esi.model.CharacterContractsItemsResponse;
+import net.troja.eve.esi.model.CharacterContractsResponse;
+import net.troja.eve.esi.model.CharacterLocationResponse;
+import net.troja.eve.esi.model.CharacterOrdersHistoryResponse;
+import net.troja.eve.esi.model.CharacterOrdersResponse;
+import net.troja.eve.esi.model.CharacterResponse;
+import net.troja.eve.esi.model.CharacterShipResponse;
+import net.troja.eve.esi.model.CharacterRolesResponse;
+import net.troja.eve.esi.model.CharacterRolesResponse.RolesEnum;
+import net.troja.eve.esi.model.CharacterWalletJournalResponse;
+import net.troja.eve.esi.model.CorporationAssetsResponse;
+import net.troja.eve.esi.model.CorporationContractsItemsResponse;
+import net.troja.eve.esi.model.CorporationContractsResponse;
+import net.troja.eve.esi.model.CorporationOrdersHistoryResponse;
+import net.troja.eve.esi.model.CorporationOrdersResponse;
+import net.troja.eve.esi.model.CorporationResponse;
+import net.troja.eve.esi.model.CorporationWalletJournalResponse;
+import net.troja.eve.esi.model.MarketOrdersResponse;
+
+/**
+ * Local stand-in for ESI and SSO (load testing of the update pipeline without hitting ESI).
+ * Serves synthetic responses (made from the converter test values) or responses recorded from ESI.
+ * Page count, page size, latency and errors can be configured.
+ * Only the character and corporation endpoints used by assets, journal, market orders and contracts (and public market orders) are synthetic,
+ * everything else returns 404 unless it has been recorded.
+ */
+public class EsiStandIn {
+
+	public static final int FIRST_CHARACTER_ID = 90000000;
+	public static final int CORPORATION_ID = 98000000;
+	public static final int DIRECTOR_ID = FIRST_CHARACTER_ID - 1; //Character of the corporation owner
+	private static final String ESI_URL = "https://esi.evetech.net";
+	private static final String SSO_URL = "https://login.eveonline.com";
+	private static final String REFRESH_TOKEN = "stand-in-";
+	private static final Pattern ID_PATTERN = Pattern.compile("/\\d+(?=/|$)");
+	private static final DateTimeFormatter EXPIRES_FORMAT = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final List<Route> routes = new ArrayList<>();
+	private final JSON json = new ApiClient().getJSON();
+	private final ConverterTestOptions options = ConverterTestOptionsGetter.getConverterOptions().get(0);
+	private final Random random = new Random(0); //Same latency every run
+	private final Set<String> seen = ConcurrentHashMap.newKeySet();
+	private final AtomicLong unique = new AtomicLong();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private int pages = 1;
+	private int pageSize = 100;
+	private long latency = 0;
+	private long latencyJitter = 0;
+	private int errorEvery = 0;
+	private int errorCode = 504;
+	private File recordings = null;
+	private boolean record = false;
+
+	public EsiStandIn() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.createContext("/", new StandInHandler());
+		createRoutes();
+	}
+
+	public void start() {
+		server.start();
+		EsiRedirect.setUrl(getUrl());
+	}
+
+	public void stop() {
+		EsiRedirect.setUrl(null);
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	public String getUrl() {
+		return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+
+	/**
+	 * @param pages pages returned by paged endpoints
+	 */
+	public void setPages(int pages) {
+		this.pages = pages;
+	}
+
+	/**
+	 * @param pageSize rows per page (all list endpoints)
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @param latency delay of every response in milliseconds
+	 * @param latencyJitter random extra delay in milliseconds
+	 */
+	public void setLatency(long latency, long latencyJitter) {
+		this.latency = latency;
+		this.latencyJitter = latencyJitter;
+	}
+
+	/**
+	 * Every Nth unique request fails the first time (the retry of the request always succeeds)
+	 * @param errorEvery N (0 for no errors)
+	 * @param errorCode http status code of the failed requests
+	 */
+	public void setErrors(int errorEvery, int errorCode) {
+		this.errorEvery = errorEvery;
+		this.errorCode = errorCode;
+	}
+
+	/**
+	 * Serve recorded responses (before the synthetic ones)
+	 * @param recordings directory with recorded responses
+	 * @param record true to forward requests to ESI and record the responses
+	 */
+	public void setRecordings(File recordings, boolean record) {
+		this.recordings = recordings;
+		this.record = record;
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * Create a character owner using the stand-in (the owner must be the index'th owner)
+	 * @param index
+	 * @return
+	 */
+	public static EsiOwner createOwner(int index) {
+		int characterID = FIRST_CHARACTER_ID + index;
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerID(characterID);
+		owner.setOwnerName("Stand-in " + index);
+		owner.setAccountName("Stand-in " + index);
+		owner.setScopes(getScopes(false));
+		owner.setAuth(EsiCallbackURL.LOCALHOST, REFRESH_TOKEN + characterID, createAccessToken(characterID));
+		return owner;
+	}
+
+	/**
+	 * Create a corporation owner using the stand-in (director of the stand-in corporation)
+	 * @return
+	 */
+	public static EsiOwner createCorporationOwner() {
+		EsiOwner owner = new EsiOwner();
+		owner.setOwnerID(CORPORATION_ID);
+		owner.setOwnerName("Stand-in Corporation");
+		owner.setAccountName("Stand-in Corporation");
+		owner.setScopes(getScopes(true));
+		owner.setRoles(EnumSet.of(RolesEnum.DIRECTOR));
+		owner.setAuth(EsiCallbackURL.LOCALHOST, REFRESH_TOKEN + DIRECTOR_ID, createAccessToken(DIRECTOR_ID));
+		return owner;
+	}
+
+	private static Set<String> getScopes(boolean corporation) {
+		Set<String> scopes = new HashSet<>();
+		for (EsiScopes scope : EsiScopes.values()) {
+			if (scope.isCharacterScope() || (corporation && scope.isCorporationScope())) {
+				scopes.add(scope.getScope());
+			}
+		}
+		return scopes;
+	}
+
+	private static String createAccessToken(int characterID) {
+		StringBuilder scopes = new StringBuilder();
+		for (String scope : getScopes(characterID == DIRECTOR_ID)) {
+			if (scopes.length() > 0) {
+				scopes.append(",");
+			}
+			scopes.append("\"").append(scope).append("\"");
+		}
+		long exp = System.currentTimeMillis() / 1000 + 20 * 60;
+		String header = "{\"alg\":\"RS256\",\"kid\":\"JWT-Signature-Key\",\"typ\":\"JWT\"}";
+		String payload = "{\"scp\":[" + scopes + "],"
+				+ "\"jti\":\"stand-in\","
+				+ "\"kid\":\"JWT-Signature-Key\","
+				+ "\"sub\":\"CHARACTER:EVE:" + characterID + "\","
+				+ "\"azp\":\"" + EsiCallbackURL.LOCALHOST.getA() + "\","
+				+ "\"tenant\":\"tranquility\","
+				+ "\"tier\":\"live\","
+				+ "\"region\":\"world\","
+				+ "\"name\":\"Stand-in " + (characterID - FIRST_CHARACTER_ID) + "\","
+				+ "\"owner\":\"stand-in\","
+				+ "\"exp\":" + exp + ","
+				+ "\"iss\":\"login.eveonline.com\"}";
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString("stand-in".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void createRoutes() {
+	//SSO
+		routes.add(new Route("POST", "/v2/oauth/token", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				int characterID = FIRST_CHARACTER_ID;
+				int index = body.indexOf(REFRESH_TOKEN);
+				if (index >= 0) {
+					Matcher id = Pattern.compile("\\d+").matcher(body.substring(index));
+					if (id.find()) {
+						characterID = Integer.valueOf(id.group());
+					}
+				}
+				return "{\"access_token\":\"" + createAccessToken(characterID) + "\","
+						+ "\"expires_in\":1199,"
+						+ "\"token_type\":\"Bearer\","
+						+ "\"refresh_token\":\"" + REFRESH_TOKEN + characterID + "\"}";
+			}
+		});
+	//Owner
+		routes.add(new Route("GET", "/characters/(\\d+)/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CharacterResponse response = create(CharacterResponse.class);
+				setField(response, "corporationId", CORPORATION_ID);
+				setField(response, "name", "Stand-in " + (Integer.valueOf(matcher.group(1)) - FIRST_CHARACTER_ID));
+				return response;
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CorporationResponse response = create(CorporationResponse.class);
+				setField(response, "name", "Stand-in Corporation");
+				return response;
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/roles/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CharacterRolesResponse response = new CharacterRolesResponse();
+				setField(response, "roles", Collections.singletonList(RolesEnum.DIRECTOR));
+				return response;
+			}
+		});
+	//Assets
+		routes.add(new Route("GET", "/characters/(\\d+)/assets/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CharacterAssetsResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CharacterAssetsResponse response = create(CharacterAssetsResponse.class);
+					setField(response, "itemId", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("POST", "/characters/(\\d+)/assets/names/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/ship/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				return create(CharacterShipResponse.class);
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/location/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CharacterLocationResponse response = create(CharacterLocationResponse.class);
+				setField(response, "stationId", null);
+				setField(response, "structureId", null);
+				return response;
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/planets/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/assets/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CorporationAssetsResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CorporationAssetsResponse response = create(CorporationAssetsResponse.class);
+					setField(response, "itemId", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("POST", "/corporations/(\\d+)/assets/names/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/divisions/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "{\"hangar\":[],\"wallet\":[]}";
+			}
+		});
+	//Journal
+		routes.add(new Route("GET", "/characters/(\\d+)/wallet/journal/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CharacterWalletJournalResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CharacterWalletJournalResponse response = create(CharacterWalletJournalResponse.class);
+					setField(response, "id", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/wallets/(\\d+)/journal/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				int division = Integer.valueOf(matcher.group(2));
+				List<CorporationWalletJournalResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CorporationWalletJournalResponse response = create(CorporationWalletJournalResponse.class);
+					setField(response, "id", getID(matcher, page, i) * 10 + division); //Unique per division
+					list.add(response);
+				}
+				return list;
+			}
+		});
+	//Market Orders
+		routes.add(new Route("GET", "/characters/(\\d+)/orders/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CharacterOrdersResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CharacterOrdersResponse response = create(CharacterOrdersResponse.class);
+					setField(response, "orderId", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/orders/history/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CharacterOrdersHistoryResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CharacterOrdersHistoryResponse response = create(CharacterOrdersHistoryResponse.class);
+					setField(response, "orderId", getID(matcher, -page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/orders/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CorporationOrdersResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CorporationOrdersResponse response = create(CorporationOrdersResponse.class);
+					setField(response, "orderId", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/orders/history/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CorporationOrdersHistoryResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CorporationOrdersHistoryResponse response = create(CorporationOrdersHistoryResponse.class);
+					setField(response, "orderId", getID(matcher, -page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+	//Contracts
+		routes.add(new Route("GET", "/characters/(\\d+)/contracts/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CharacterContractsResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CharacterContractsResponse response = create(CharacterContractsResponse.class);
+					setField(response, "contractId", getID(matcher, page, i));
+					setField(response, "issuerId", Integer.valueOf(matcher.group(1)));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/characters/(\\d+)/contracts/(\\d+)/items/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CharacterContractsItemsResponse response = create(CharacterContractsItemsResponse.class);
+				setField(response, "recordId", Long.valueOf(matcher.group(2)));
+				return Collections.singletonList(response);
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/contracts/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<CorporationContractsResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					CorporationContractsResponse response = create(CorporationContractsResponse.class);
+					setField(response, "contractId", getID(matcher, page, i));
+					setField(response, "issuerId", DIRECTOR_ID);
+					setField(response, "issuerCorporationId", Integer.valueOf(matcher.group(1)));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/corporations/(\\d+)/contracts/(\\d+)/items/", false) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				CorporationContractsItemsResponse response = create(CorporationContractsItemsResponse.class);
+				setField(response, "recordId", Long.valueOf(matcher.group(2)));
+				return Collections.singletonList(response);
+			}
+		});
+	//Public Market Orders
+		routes.add(new Route("GET", "/markets/(\\d+)/orders/", true) {
+			@Override
+			protected Object get(Matcher matcher, int page, String body) {
+				List<MarketOrdersResponse> list = new ArrayList<>();
+				for (int i = 0; i < pageSize; i++) {
+					MarketOrdersResponse response = create(MarketOrdersResponse.class);
+					setField(response, "orderId", getID(matcher, page, i));
+					list.add(response);
+				}
+				return list;
+			}
+		});
+		routes.add(new Route("GET", "/universe/structures/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+	//IDs to names, faction warfare
+		routes.add(new Route("POST", "/universe/names/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+		routes.add(new Route("GET", "/fw/systems/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+		routes.add(new Route("GET", "/universe/factions/", false) {
+			@Override
+			protected String getJson(Matcher matcher, int page, String body) {
+				return "[]";
+			}
+		});
+	}
+
+	/**
+	 * Unique and the same every run: owner index, page and row
+	 */
+	private long getID(Matcher matcher, int page, int row) {
+		long owner = Long.valueOf(matcher.group(1)) % 10000;
+		return (owner * 100000) + ((page + 50) * 1000) + row + 1;
+	}
+
+	private <T> T create(Class<T> clazz) {
+		try {
+			T t = clazz.newInstance();
+			ConverterTestUtil.setValues(t, options);
+			return t;
+		} catch (InstantiationException | IllegalAccessException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static void setField(Object object, String name, Object value) {
+		try {
+			Field field = object.getClass().getDeclaredField(name);
+			field.setAccessible(true);
+			if (value instanceof Number && (field.getType() == Integer.class || field.getType() == int.class)) {
+				field.set(object, ((Number) value).intValue());
+			} else if (value instanceof Number && (field.getType() == Long.class || field.getType() == long.class)) {
+				field.set(object, ((Number) value).longValue());
+			} else {
+				field.set(object, value);
+			}
+		} catch (NoSuchFieldException | IllegalAccessException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private boolean isError(String method, String path, String query, String body) {
+		if (errorEvery <= 0) {
+			return false;
+		}
+		if (!seen.add(method + path + "?" + query + body)) {
+			return false; //Retry
+		}
+		return unique.incrementAndGet() % errorEvery == 0;
+	}
+
+	private void delay() {
+		long delay = latency;
+		if (latencyJitter > 0) {
+			synchronized (random) {
+				delay = delay + (long) (random.nextDouble() * latencyJitter);
+			}
+		}
+		if (delay > 0) {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException ex) {
+				//No problem
+			}
+		}
+	}
+
+	private File getRecording(String path, int page, String extension) {
+		String name = ID_PATTERN.matcher(path).replaceAll("/id").replaceAll("[^a-zA-Z0-9]+", "_");
+		return new File(recordings, name + "_" + page + extension);
+	}
+
+	private static int getPage(String query) {
+		if (query != null) {
+			for (String param : query.split("&")) {
+				if (param.startsWith("page=")) {
+					try {
+						return Integer.valueOf(param.substring(5));
+					} catch (NumberFormatException ex) {
+						return 1;
+					}
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static String read(InputStream inputStream) throws IOException {
+		if (inputStream == null) {
+			return "";
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = inputStream.read(buffer)) != -1) {
+			outputStream.write(buffer, 0, length);
+		}
+		return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private class StandInHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				requests.incrementAndGet();
+				String method = exchange.getRequestMethod();
+				String path = exchange.getRequestURI().getPath();
+				String query = exchange.getRequestURI().getRawQuery();
+				String body = read(exchange.getRequestBody());
+				int page = getPage(query);
+				if (record) {
+					forward(exchange, method, path, query, body, page);
+					return;
+				}
+				delay();
+				if (!path.startsWith("/v2/oauth") && isError(method, path, query, body)) {
+					errors.incrementAndGet();
+					send(exchange, errorCode, "{\"error\":\"Stand-in error\"}", null);
+					return;
+				}
+				if (recordings != null) {
+					File file = getRecording(path, page, ".json");
+					if (file.exists()) {
+						File pagesFile = getRecording(path, page, ".pages");
+						Integer recordedPages = null;
+						if (pagesFile.exists()) {
+							recordedPages = Integer.valueOf(new String(Files.readAllBytes(pagesFile.toPath()), StandardCharsets.UTF_8).trim());
+						}
+						send(exchange, 200, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), recordedPages);
+						return;
+					}
+				}
+				for (Route route : routes) {
+					Matcher matcher = route.matcher(method, path);
+					if (matcher != null) {
+						if (route.paged && page > pages) {
+							send(exchange, 200, "[]", pages);
+						} else {
+							send(exchange, 200, route.getJson(matcher, page, body), route.paged ? pages : null);
+						}
+						return;
+					}
+				}
+				send(exchange, 404, "{\"error\":\"Not found (stand-in)\"}", null);
+			} catch (RuntimeException ex) {
+				send(exchange, 500, "{\"error\":\"" + ex.getMessage() + "\"}", null);
+			}
+		}
+
+		private void send(HttpExchange exchange, int code, String json, Integer xPages) throws IOException {
+			byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+			exchange.getResponseHeaders().add("Cache-Control", "no-store"); //Every run must hit the stand-in
+			exchange.getResponseHeaders().add("Expires", EXPIRES_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(5)));
+			exchange.getResponseHeaders().add("X-Esi-Error-Limit-Remain", "100");
+			exchange.getResponseHeaders().add("X-Esi-Error-Limit-Reset", "60");
+			if (xPages != null) {
+				exchange.getResponseHeaders().add("X-Pages", String.valueOf(xPages));
+			}
+			exchange.sendResponseHeaders(code, bytes.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(bytes);
+			}
+		}
+
+		/**
+		 * Record mode: forward the request to ESI/SSO and save the response
+		 */
+		private void forward(HttpExchange exchange, String method, String path, String query, String body, int page) throws IOException {
+			String url = (path.startsWith("/v2/oauth") ? SSO_URL : ESI_URL) + path + (query != null ? "?" + query : "");
+			HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+			connection.setRequestMethod(method);
+			for (Map.Entry<String, List<String>> entry : exchange.getRequestHeaders().entrySet()) {
+				if (entry.getKey().equalsIgnoreCase("Host") || entry.getKey().equalsIgnoreCase("Accept-Encoding")) {
+					continue;
+				}
+				for (String value : entry.getValue()) {
+					connection.addRequestProperty(entry.getKey(), value);
+				}
+			}
+			if (!body.isEmpty()) {
+				connection.setDoOutput(true);
+				try (OutputStream outputStream = connection.getOutputStream()) {
+					outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			int code = connection.getResponseCode();
+			String json = read(code < 400 ? connection.getInputStream() : connection.getErrorStream());
+			String xPages = connection.getHeaderField("X-Pages");
+			if (code == 200 && !path.startsWith("/v2/oauth")) { //Never save tokens
+				recordings.mkdirs();
+				Files.write(getRecording(path, page, ".json").toPath(), json.getBytes(StandardCharsets.UTF_8));
+				if (xPages != null) {
+					Files.write(getRecording(path, page, ".pages").toPath(), xPages.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			send(exchange, code, json, xPages != null ? Integer.valueOf(xPages) : null);
+		}
+	}
+
+	private abstract class Route {
+		private final String method;
+		private final Pattern pattern;
+		private final boolean paged;
+
+		/**
+		 * @param method http method
+		 * @param path path without version (ID groups as regex)
+		 * @param paged true if the endpoint returns x-pages
+		 */
+		public Route(String method, String path, boolean paged) {
+			this.method = method;
+			this.pattern = Pattern.compile("^(?:/[^/]+)?" + path + "$"); //Any version: /v5/ /latest/ etc.
+			this.paged = paged;
+		}
+
+		public Matcher matcher(String method, String path) {
+			if (!this.method.equals(method)) {
+				return null;
+			}
+			Matcher matcher = pattern.matcher(path);
+			if (matcher.matches()) {
+				return matcher;
+			}
+			return null;
+		}
+
+		protected Object get(Matcher matcher, int page, String body) {
+			return null;
+		}
+
+		protected String getJson(Matcher matcher, int page, String body) {
+			return json.serialize(get(matcher, page, body));
+		}
+	}
+}
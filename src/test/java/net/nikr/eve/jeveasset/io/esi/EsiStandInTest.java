@@ -0,0 +1,143 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.esi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.gui.dialogs.update.UpdateDialog.AccountDataTask;
+import org.junit.After;
+import org.junit.AfterClass;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Full account update against the local ESI stand-in.
+ * Run with -Dstandin.owners=100 -Dstandin.pages=10 -Dstandin.latency=200 for a load test.
+ */
+public class EsiStandInTest extends TestUtil {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EsiStandInTest.class);
+
+	private static final int OWNERS = Integer.getInteger("standin.owners", 5);
+	private static final int PAGES = Integer.getInteger("standin.pages", 2);
+	private static final int LATENCY = Integer.getInteger("standin.latency", 0);
+
+	private static String userHome;
+	private static File tempHome;
+	private EsiStandIn standIn;
+
+	/**
+	 * Contract items, ESI metrics etc. are saved in the user data dir (user.home)
+	 */
+	@BeforeClass
+	public static void beforeClass() throws IOException {
+		userHome = System.getProperty("user.home");
+		tempHome = Files.createTempDirectory("jeveassets-standin").toFile();
+		System.setProperty("user.home", tempHome.getAbsolutePath());
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		System.setProperty("user.home", userHome);
+		delete(tempHome);
+	}
+
+	@Before
+	public void before() throws IOException {
+		standIn = new EsiStandIn();
+		standIn.setPages(PAGES);
+		standIn.setLatency(LATENCY, LATENCY / 2);
+		standIn.start();
+		EsiMetrics.clear();
+	}
+
+	@After
+	public void after() {
+		standIn.stop();
+	}
+
+	@Test
+	public void testUpdate() {
+		ProfileManager profileManager = new ProfileManager();
+		for (int i = 0; i < OWNERS; i++) {
+			profileManager.getEsiOwners().add(EsiStandIn.createOwner(i));
+		}
+		AccountDataTask task = new AccountDataTask(profileManager, true, false, false, false, true, false, true, true, false, false);
+		long start = System.currentTimeMillis();
+		task.update();
+		long time = System.currentTimeMillis() - start;
+		LOG.info(OWNERS + " owners updated in " + time + " ms (" + standIn.getRequests() + " requests, " + standIn.getErrors() + " errors)");
+		LOG.info("\r\n" + EsiMetrics.getReport());
+		for (EsiOwner esiOwner : profileManager.getEsiOwners()) {
+			assertFalse(esiOwner.getAssets().isEmpty());
+			assertFalse(esiOwner.getJournal().isEmpty());
+			assertFalse(esiOwner.getMarketOrders().isEmpty());
+			assertFalse(esiOwner.getContracts().isEmpty());
+		}
+	}
+
+	@Test
+	public void testUpdateCorporation() {
+		ProfileManager profileManager = new ProfileManager();
+		profileManager.getEsiOwners().add(EsiStandIn.createCorporationOwner());
+		profileManager.getEsiOwners().add(EsiStandIn.createOwner(0));
+		AccountDataTask task = new AccountDataTask(profileManager, true, false, false, false, true, false, true, true, false, false);
+		task.update();
+		EsiOwner corporation = profileManager.getEsiOwners().get(0);
+		assertTrue(corporation.isCorporation());
+		assertEquals(EsiStandIn.CORPORATION_ID, corporation.getOwnerID());
+		assertFalse(corporation.getAssets().isEmpty());
+		assertFalse(corporation.getJournal().isEmpty());
+		assertFalse(corporation.getMarketOrders().isEmpty());
+		assertFalse(corporation.getContracts().isEmpty());
+	}
+
+	@Test
+	public void testErrors() {
+		standIn.setErrors(10, 504);
+		ProfileManager profileManager = new ProfileManager();
+		profileManager.getEsiOwners().add(EsiStandIn.createOwner(0));
+		AccountDataTask task = new AccountDataTask(profileManager, true, false, false, false, false, false, true, false, false, false);
+		task.update();
+		assertTrue(standIn.getErrors() > 0);
+		EsiOwner esiOwner = profileManager.getEsiOwners().get(0);
+		assertFalse(esiOwner.getAssets().isEmpty()); //Recovered by retry
+		assertFalse(esiOwner.getJournal().isEmpty());
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -22,6 +22,8 @@ package net.nikr.eve.jeveasset.io.local;
 
 import eve.nikr.net.client.model.Prices;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.Date;
 import net.nikr.eve.jeveasset.TestUtil;
 import net.nikr.eve.jeveasset.data.settings.ContractPriceManager.ContractPriceData;
@@ -81,5 +83,47 @@ public class ContractPriceTest extends TestUtil{
 		File file = new File(FILENAME);
 		assertThat(file.delete(), equalTo(true));
 	}
+
+	@Test
+	public void testReadNullFailed() throws IOException {
+		ContractPriceItem nullItem = new ContractPriceItem(TYPE_ID, BPC, BPO, ME, TE, 100);
+		ContractPriceItem failedItem = new ContractPriceItem(TYPE_ID, BPC, BPO, ME, TE, 200);
+		//Saved by older versions: failed without expire date
+		try (FileWriter writer = new FileWriter(FILENAME)) {
+			writer.write("{\"date\":\"2021-01-01 00:00:00.000\",\"prices\":[],\"failed\":["
+					+ "[{\"typeID\":34,\"bpc\":true,\"bpo\":false,\"me\":7,\"te\":8,\"runs\":100},null],"
+					+ "[{\"typeID\":34,\"bpc\":true,\"bpo\":false,\"me\":7,\"te\":8,\"runs\":200},\"2999-01-01 00:00:00.000\"]"
+					+ "]}");
+		}
+		ContractPriceData in = ContractPriceReader.load(FILENAME, false);
+		assertThat(in.isFailed(nullItem), equalTo(false));
+		assertThat(in.isFailed(failedItem), equalTo(true));
+		File file = new File(FILENAME);
+		assertThat(file.delete(), equalTo(true));
+	}
+
+	@Test
+	public void testRestoreNewFile() throws IOException {
+		ContractPriceItem contractPriceType = new ContractPriceItem(TYPE_ID, BPC, BPO, ME, TE, 100);
+		Prices prices = new Prices();
+		prices.setTypeId(TYPE_ID);
+		prices.setTypeName(TYPE_NAME);
+		ContractPriceData out = new ContractPriceData();
+		out.add(new ReturnData(contractPriceType, DATE, prices, true));
+		//Valid .new file
+		ContractPriceWriter.save(FILENAME, out, false);
+		File file = new File(FILENAME);
+		File newFile = new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + ".new");
+		assertThat(file.renameTo(newFile), equalTo(true));
+		//Corrupt target file
+		try (FileWriter writer = new FileWriter(FILENAME)) {
+			writer.write("{corrupt");
+		}
+		ContractPriceData in = ContractPriceReader.load(FILENAME, false);
+		assertThat(in.getPrices(contractPriceType).getTypeName(), equalTo(TYPE_NAME));
+		assertThat(file.delete(), equalTo(true));
+		File errorFile = new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + ".error1");
+		assertThat(errorFile.delete(), equalTo(true));
+	}
 	
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.nikr.eve.jeveasset.Program;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.my.MyAsset;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawAsset;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.data.profile.ProfileManager;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.data.settings.AssetAddedData;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptions;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptionsGetter;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestUtil;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Profile load and save time and peak heap: streaming vs DOM vs binary.
+ * The benchmark is only run with -Dprofile.benchmark=true
+ * Run with -Dprofile.rows=500000 for a profile with years of journal and transaction history.
+ */
+public class ProfileBenchmarkTest extends TestUtil {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileBenchmarkTest.class);
+
+	private static final String FILENAME = "target" + File.separator + "profile_benchmark_test.xml";
+	private static final String BINARY_FILENAME = "target" + File.separator + "profile_benchmark_test.dat";
+	private static final int ROWS = Integer.getInteger("profile.rows", 10000);
+	private static final int RUNS = Integer.getInteger("profile.runs", 3);
+	private static final int SAME_ROWS = 100;
+
+	@Test
+	public void testBenchmark() {
+		assumeTrue(Boolean.getBoolean("profile.benchmark"));
+		AssetAddedData.load();
+		ProfileManager profileManager = createProfile(ROWS);
+		for (int run = 1; run <= RUNS; run++) {
+			Result domSave = save(profileManager, false);
+			Result streamSave = save(profileManager, true);
+			Result binarySave = saveBinary(profileManager);
+			ProfileManager domManager = new ProfileManager();
+			Result domLoad = load(domManager, false);
+			domManager = null; //Let it be garbage collected before the next load
+			ProfileManager streamManager = new ProfileManager();
+			Result streamLoad = load(streamManager, true);
+			assertEquals(1, streamManager.getEsiOwners().size());
+			EsiOwner owner = streamManager.getEsiOwners().get(0);
+			assertEquals(ROWS, owner.getJournal().size());
+			assertEquals(ROWS, owner.getTransactions().size());
+			streamManager = null;
+			ProfileManager binaryManager = new ProfileManager();
+			Result binaryLoad = loadBinary(binaryManager);
+			assertEquals(1, binaryManager.getEsiOwners().size());
+			assertEquals(ROWS, binaryManager.getEsiOwners().get(0).getJournal().size());
+			assertEquals(ROWS, binaryManager.getEsiOwners().get(0).getTransactions().size());
+			binaryManager = null;
+			LOG.info("Run " + run + " - " + ROWS + " rows - " + (new File(FILENAME).length() / 1024) + " KB");
+			LOG.info("	Save DOM:    " + domSave);
+			LOG.info("	Save stream: " + streamSave);
+			LOG.info("	Save binary: " + binarySave + " - " + (new File(BINARY_FILENAME).length() / 1024) + " KB");
+			LOG.info("	Load DOM:    " + domLoad);
+			LOG.info("	Load stream: " + streamLoad);
+			LOG.info("	Load binary: " + binaryLoad);
+		}
+		//Clean up
+		assertTrue(new File(FILENAME).delete());
+		assertTrue(new File(BINARY_FILENAME).delete());
+		new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + ".bac").delete();
+		File backupFile = new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + "_" + Program.PROGRAM_VERSION.replace(" ", "_") + "_backup.zip");
+		assertTrue(backupFile.delete());
+	}
+
+	@Test
+	public void testSameProfile() {
+		AssetAddedData.load();
+		ProfileManager profileManager = createProfile(SAME_ROWS);
+		assertTrue(ProfileWriter.save(profileManager, FILENAME, false));
+		ProfileManager domManager = new ProfileManager();
+		assertTrue(ProfileReader.load(domManager, FILENAME, false));
+		ProfileManager streamManager = new ProfileManager();
+		assertTrue(ProfileReader.load(streamManager, FILENAME, true));
+		EsiOwner domOwner = domManager.getEsiOwners().get(0);
+		EsiOwner streamOwner = streamManager.getEsiOwners().get(0);
+		assertEquals(domOwner.getAssets().size(), streamOwner.getAssets().size());
+		assertEquals(domOwner.getJournal(), streamOwner.getJournal());
+		assertEquals(domOwner.getTransactions(), streamOwner.getTransactions());
+		assertEquals(domOwner.getMarketOrders(), streamOwner.getMarketOrders());
+		assertEquals(domOwner.getContracts().size(), streamOwner.getContracts().size());
+		//Clean up
+		assertTrue(new File(FILENAME).delete());
+		new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + ".bac").delete();
+		File backupFile = new File(FILENAME.substring(0, FILENAME.lastIndexOf(".")) + "_" + Program.PROGRAM_VERSION.replace(" ", "_") + "_backup.zip");
+		assertTrue(backupFile.delete());
+	}
+
+	private ProfileManager createProfile(final int rows) {
+		ConverterTestOptions options = ConverterTestOptionsGetter.getConverterOptions().get(0);
+		EsiOwner owner = ConverterTestUtil.getEsiOwner(true, false, false, options);
+		Set<MyJournal> journals = new HashSet<>();
+		Set<MyTransaction> transactions = new HashSet<>();
+		Set<MyMarketOrder> marketOrders = new HashSet<>();
+		List<MyAsset> assets = new ArrayList<>();
+		for (long i = 1; i <= rows; i++) {
+			RawJournal rawJournal = ConverterTestUtil.getRawJournal(false, options);
+			rawJournal.setRefID(i);
+			journals.add(new MyJournal(rawJournal, owner));
+			RawTransaction rawTransaction = ConverterTestUtil.getRawTransaction(false, options);
+			rawTransaction.setTransactionID(i);
+			transactions.add(new MyTransaction(rawTransaction, new Item(options.getInteger()), owner));
+			if (i % 10 == 0) {
+				RawMarketOrder rawMarketOrder = ConverterTestUtil.getRawMarketOrder(false, options);
+				rawMarketOrder.setOrderID(i);
+				marketOrders.add(new MyMarketOrder(rawMarketOrder, new Item(options.getInteger()), owner));
+				RawAsset rawAsset = ConverterTestUtil.getRawAsset(false, options);
+				rawAsset.setItemID(i);
+				assets.add(new MyAsset(rawAsset, new Item(options.getInteger()), owner, new ArrayList<>()));
+			}
+		}
+		owner.setJournal(journals);
+		owner.setTransactions(transactions);
+		owner.setMarketOrders(marketOrders);
+		owner.setAssets(assets);
+		ProfileManager profileManager = new ProfileManager();
+		profileManager.getEsiOwners().add(owner);
+		return profileManager;
+	}
+
+	private Result save(ProfileManager profileManager, boolean stream) {
+		Result result = new Result();
+		result.start();
+		assertTrue(ProfileWriter.save(profileManager, FILENAME, stream));
+		result.end();
+		return result;
+	}
+
+	private Result saveBinary(ProfileManager profileManager) {
+		Result result = new Result();
+		result.start();
+		assertTrue(ProfileBinaryWriter.save(profileManager, BINARY_FILENAME, new File(FILENAME)));
+		result.end();
+		return result;
+	}
+
+	private Result loadBinary(ProfileManager profileManager) {
+		Result result = new Result();
+		result.start();
+		assertTrue(ProfileBinaryReader.load(profileManager, BINARY_FILENAME, new File(FILENAME)));
+		result.end();
+		return result;
+	}
+
+	private Result load(ProfileManager profileManager, boolean stream) {
+		Result result = new Result();
+		result.start();
+		assertTrue(ProfileReader.load(profileManager, FILENAME, stream));
+		result.end();
+		return result;
+	}
+
+	private static class Result {
+		private long used;
+		private long start;
+		private long time;
+		private long peak;
+
+		public void start() {
+			System.gc();
+			used = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					pool.resetPeakUsage();
+					used = used + pool.getUsage().getUsed();
+				}
+			}
+			start = System.nanoTime();
+		}
+
+		public void end() {
+			time = (System.nanoTime() - start) / 1000000;
+			peak = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					peak = peak + pool.getPeakUsage().getUsed();
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return time + " ms - peak heap +" + Math.max(0, peak - used) / (1024 * 1024) + " MB";
+		}
+	}
+}
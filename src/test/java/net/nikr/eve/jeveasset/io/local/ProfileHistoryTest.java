@@ -0,0 +1,251 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.nikr.eve.jeveasset.Program;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.api.accounts.EsiOwner;
+import net.nikr.eve.jeveasset.data.api.accounts.OwnerType;
+import net.nikr.eve.jeveasset.data.api.my.MyJournal;
+import net.nikr.eve.jeveasset.data.api.my.MyMarketOrder;
+import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
+import net.nikr.eve.jeveasset.data.api.raw.RawJournal;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder;
+import net.nikr.eve.jeveasset.data.api.raw.RawMarketOrder.MarketOrderState;
+import net.nikr.eve.jeveasset.data.api.raw.RawTransaction;
+import net.nikr.eve.jeveasset.data.sde.Item;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptions;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestOptionsGetter;
+import net.nikr.eve.jeveasset.io.shared.ConverterTestUtil;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class ProfileHistoryTest extends TestUtil {
+
+	private static final String NAME = "target" + File.separator + "profile_history_test";
+	private static final String FILENAME = NAME + ".db";
+	private static final long OWNER_ID = 1;
+	private static final long OTHER_OWNER_ID = 2;
+
+	private final ConverterTestOptions options = ConverterTestOptionsGetter.getConverterOptions().get(0);
+
+	@After
+	public void tearDown() {
+		ProfileHistory.clear();
+		new File(FILENAME).delete();
+		new File(FILENAME + ".LOCK").delete();
+		new File(NAME + ".bac").delete();
+		new File(NAME + ".new").delete();
+		new File(NAME + "_" + Program.PROGRAM_VERSION.replace(" ", "_") + "_backup.zip").delete();
+		int count = 1;
+		while (new File(NAME + ".error" + count).delete()) {
+			count++;
+		}
+	}
+
+	@Test
+	public void testArchiveAndReload() {
+		EsiOwner owner = createOwner(OWNER_ID, 1, 10);
+		ProfileHistory.save(list(owner), FILENAME, false);
+		//Archived rows are not saved in the profile
+		assertThat(ProfileHistory.getProfileJournal(owner).isEmpty(), equalTo(true));
+		assertThat(ProfileHistory.getProfileTransactions(owner).isEmpty(), equalTo(true));
+		assertThat(getOrderIDs(ProfileHistory.getProfileMarketOrders(owner)), equalTo(getOpenOrderIDs(1, 10))); //Open orders can still change
+		//Reload: rows from the history
+		EsiOwner loaded = createOwner(OWNER_ID, 0, -1);
+		ProfileHistory.load(list(loaded), FILENAME, false);
+		assertThat(getJournalIDs(loaded.getJournal()), equalTo(getIDs(1, 10)));
+		assertThat(getTransactionIDs(loaded.getTransactions()), equalTo(getIDs(1, 10)));
+		assertThat(getOrderIDs(loaded.getMarketOrders()), equalTo(getClosedOrderIDs(1, 10)));
+	}
+
+	@Test
+	public void testMergePerOwner() {
+		EsiOwner owner = createOwner(OWNER_ID, 1, 5);
+		EsiOwner other = createOwner(OTHER_OWNER_ID, 101, 103);
+		ProfileHistory.save(list(owner, other), FILENAME, false);
+		//Profile rows overlap the history
+		EsiOwner loaded = createOwner(OWNER_ID, 4, 8);
+		EsiOwner loadedOther = createOwner(OTHER_OWNER_ID, 0, -1);
+		ProfileHistory.load(list(loaded, loadedOther), FILENAME, false);
+		assertThat(getJournalIDs(loaded.getJournal()), equalTo(getIDs(1, 8)));
+		assertThat(getTransactionIDs(loaded.getTransactions()), equalTo(getIDs(1, 8)));
+		assertThat(getJournalIDs(loadedOther.getJournal()), equalTo(getIDs(101, 103)));
+		//Only the new rows are saved in the profile
+		assertThat(getJournalIDs(ProfileHistory.getProfileJournal(loaded)), equalTo(getIDs(6, 8)));
+		ProfileHistory.save(list(loaded, loadedOther), FILENAME, false);
+		assertThat(ProfileHistory.getProfileJournal(loaded).isEmpty(), equalTo(true));
+		//Reload
+		EsiOwner reloaded = createOwner(OWNER_ID, 0, -1);
+		EsiOwner reloadedOther = createOwner(OTHER_OWNER_ID, 0, -1);
+		ProfileHistory.load(list(reloaded, reloadedOther), FILENAME, false);
+		assertThat(getJournalIDs(reloaded.getJournal()), equalTo(getIDs(1, 8)));
+		assertThat(getJournalIDs(reloadedOther.getJournal()), equalTo(getIDs(101, 103)));
+	}
+
+	@Test
+	public void testRestoreBackup() throws IOException {
+		EsiOwner owner = createOwner(OWNER_ID, 1, 10);
+		ProfileHistory.save(list(owner), FILENAME, true);
+		assertThat(new File(NAME + ".bac").exists(), equalTo(true));
+		//Corrupt the database
+		try (FileOutputStream out = new FileOutputStream(FILENAME)) {
+			byte[] data = new byte[4096];
+			Arrays.fill(data, (byte) 'x');
+			out.write(data);
+		}
+		EsiOwner loaded = createOwner(OWNER_ID, 0, -1);
+		ProfileHistory.load(list(loaded), FILENAME, true);
+		assertThat(getJournalIDs(loaded.getJournal()), equalTo(getIDs(1, 10)));
+		assertThat(new File(NAME + ".error1").exists(), equalTo(true));
+	}
+
+	@Test
+	public void testUnknownFormat() throws SQLException {
+		EsiOwner owner = createOwner(OWNER_ID, 1, 10);
+		ProfileHistory.save(list(owner), FILENAME, false);
+		execute("UPDATE journal SET version = " + (ProfileBinary.VERSION + 1) + " WHERE id <= 5");
+		//Rows in an unknown format are ignored
+		EsiOwner loaded = createOwner(OWNER_ID, 0, -1);
+		ProfileHistory.load(list(loaded), FILENAME, false);
+		assertThat(getJournalIDs(loaded.getJournal()), equalTo(getIDs(6, 10)));
+		//Replaced when still in the profile
+		EsiOwner profile = createOwner(OWNER_ID, 1, 5);
+		ProfileHistory.save(list(profile), FILENAME, false);
+		EsiOwner reloaded = createOwner(OWNER_ID, 0, -1);
+		ProfileHistory.load(list(reloaded), FILENAME, false);
+		assertThat(getJournalIDs(reloaded.getJournal()), equalTo(getIDs(1, 10)));
+	}
+
+	@Test
+	public void testNewerSchema() throws SQLException {
+		EsiOwner owner = createOwner(OWNER_ID, 1, 10);
+		ProfileHistory.save(list(owner), FILENAME, false);
+		execute("PRAGMA user_version = 1000");
+		ProfileHistory.clear();
+		//Not loaded
+		EsiOwner loaded = createOwner(OWNER_ID, 0, -1);
+		ProfileHistory.load(list(loaded), FILENAME, false);
+		assertThat(loaded.getJournal().isEmpty(), equalTo(true));
+		//Not saved: all rows are kept in the profile
+		EsiOwner profile = createOwner(OWNER_ID, 1, 10);
+		ProfileHistory.save(list(profile), FILENAME, false);
+		assertThat(getJournalIDs(ProfileHistory.getProfileJournal(profile)), equalTo(getIDs(1, 10)));
+	}
+
+	private void execute(String sql) throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + FILENAME);
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	private EsiOwner createOwner(long ownerID, long from, long to) {
+		EsiOwner owner = ConverterTestUtil.getEsiOwner(options);
+		owner.setOwnerID(ownerID);
+		Set<MyJournal> journals = new HashSet<>();
+		Set<MyTransaction> transactions = new HashSet<>();
+		Set<MyMarketOrder> marketOrders = new HashSet<>();
+		for (long i = from; i <= to; i++) {
+			RawJournal rawJournal = ConverterTestUtil.getRawJournal(false, options);
+			rawJournal.setRefID(i);
+			journals.add(new MyJournal(rawJournal, owner));
+			RawTransaction rawTransaction = ConverterTestUtil.getRawTransaction(false, options);
+			rawTransaction.setTransactionID(i);
+			transactions.add(new MyTransaction(rawTransaction, new Item(options.getInteger()), owner));
+			RawMarketOrder rawMarketOrder = ConverterTestUtil.getRawMarketOrder(false, options);
+			rawMarketOrder.setOrderID(i);
+			rawMarketOrder.setState(i % 2 == 0 ? MarketOrderState.CLOSED : MarketOrderState.OPEN);
+			marketOrders.add(new MyMarketOrder(rawMarketOrder, new Item(options.getInteger()), owner));
+		}
+		owner.setJournal(journals);
+		owner.setTransactions(transactions);
+		owner.setMarketOrders(marketOrders);
+		return owner;
+	}
+
+	private List<OwnerType> list(OwnerType ... owners) {
+		return new ArrayList<>(Arrays.asList(owners));
+	}
+
+	private Set<Long> getIDs(long from, long to) {
+		Set<Long> ids = new HashSet<>();
+		for (long i = from; i <= to; i++) {
+			ids.add(i);
+		}
+		return ids;
+	}
+
+	private Set<Long> getOpenOrderIDs(long from, long to) {
+		Set<Long> ids = new HashSet<>();
+		for (long i = from; i <= to; i++) {
+			if (i % 2 != 0) {
+				ids.add(i);
+			}
+		}
+		return ids;
+	}
+
+	private Set<Long> getClosedOrderIDs(long from, long to) {
+		Set<Long> ids = getIDs(from, to);
+		ids.removeAll(getOpenOrderIDs(from, to));
+		return ids;
+	}
+
+	private Set<Long> getJournalIDs(Set<MyJournal> journals) {
+		Set<Long> ids = new HashSet<>();
+		for (MyJournal journal : journals) {
+			ids.add(journal.getRefID());
+		}
+		return ids;
+	}
+
+	private Set<Long> getTransactionIDs(Set<MyTransaction> transactions) {
+		Set<Long> ids = new HashSet<>();
+		for (MyTransaction transaction : transactions) {
+			ids.add(transaction.getTransactionID());
+		}
+		return ids;
+	}
+
+	private Set<Long> getOrderIDs(Set<MyMarketOrder> marketOrders) {
+		Set<Long> ids = new HashSet<>();
+		for (MyMarketOrder marketOrder : marketOrders) {
+			ids.add(marketOrder.getOrderID());
+		}
+		return ids;
+	}
+}
@@ -53,6 +53,12 @@ public class ProfileReadWriteTest extends TestUtil {
 	}
 
 	private void test(boolean setNull) {
+		test(setNull, true, true);
+		test(setNull, false, true); //Saved by the DOM writer
+		test(setNull, true, false); //Loaded by the DOM reader
+	}
+
+	private void test(boolean setNull, boolean saveStream, boolean loadStream) {
 		AssetAddedData.load();
 		for (ConverterTestOptions options : ConverterTestOptionsGetter.getConverterOptions()) {
 			ProfileManager saveManager = new ProfileManager();
@@ -66,11 +72,11 @@ public class ProfileReadWriteTest extends TestUtil {
 			saveManager.getEveKitOwners().add(ConverterTestUtil.getEveKitOwner(true, setNull, false, options));
 
 			//Write
-			ProfileWriter.save(saveManager, FILENAME);
+			ProfileWriter.save(saveManager, FILENAME, saveStream);
 
 			//Read
 			ProfileManager loadManager = new ProfileManager();
-			ProfileReader.load(loadManager, FILENAME);
+			ProfileReader.load(loadManager, FILENAME, loadStream);
 
 			//Update dynamic data
 			ProfileData profileData = new ProfileData(loadManager);
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.data.settings.StructureMarketAccess.StructureMarketAccessData;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class StructureMarketAccessTest extends TestUtil {
+
+	private static final String FILENAME = "target" + File.separator + "structure_market_access_test.json";
+	private static final String BACKUP_FILENAME = "target" + File.separator + "structure_market_access_test.bac";
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+	private static final long NOW = 1552492124589L;
+	private static final Long STRUCTURE_ID = 1000000000001L;
+	private static final Long OTHER_ID = 1000000000002L;
+
+	@After
+	public void tearDown() {
+		new File(FILENAME).delete();
+		new File(BACKUP_FILENAME).delete();
+		int count = 1;
+		while (new File("target" + File.separator + "structure_market_access_test.error" + count).delete()) {
+			count++;
+		}
+	}
+
+	@Test
+	public void testReadWrite() {
+		StructureMarketAccessData out = new StructureMarketAccessData();
+		out.denied(STRUCTURE_ID, NOW);
+		StructureMarketAccessWriter.save(FILENAME, out, false);
+		StructureMarketAccessData in = StructureMarketAccessReader.load(FILENAME, false);
+		assertThat(in.isDenied(STRUCTURE_ID, NOW), equalTo(true));
+		assertThat(in.isDenied(STRUCTURE_ID, NOW + DAY), equalTo(false)); //Expired
+		assertThat(in.isDenied(OTHER_ID, NOW), equalTo(false));
+		//Delay is saved: doubled when denied again
+		in.denied(STRUCTURE_ID, NOW + DAY);
+		assertThat(in.isDenied(STRUCTURE_ID, NOW + (2 * DAY)), equalTo(true));
+		assertThat(in.isDenied(STRUCTURE_ID, NOW + (3 * DAY)), equalTo(false));
+		//Allowed
+		assertThat(in.allowed(STRUCTURE_ID), equalTo(true));
+		assertThat(in.allowed(STRUCTURE_ID), equalTo(false));
+		StructureMarketAccessWriter.save(FILENAME, in, false);
+		assertThat(StructureMarketAccessReader.load(FILENAME, false).isDenied(STRUCTURE_ID, NOW), equalTo(false));
+	}
+
+	@Test
+	public void testRestoreBackup() throws IOException {
+		StructureMarketAccessData out = new StructureMarketAccessData();
+		out.denied(STRUCTURE_ID, NOW);
+		StructureMarketAccessWriter.save(BACKUP_FILENAME, out, false);
+		try (FileWriter writer = new FileWriter(FILENAME)) {
+			writer.write("{corrupt");
+		}
+		StructureMarketAccessData in = StructureMarketAccessReader.load(FILENAME, false);
+		assertThat(in.isDenied(STRUCTURE_ID, NOW), equalTo(true));
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2009-2021 Contributors (see credits.txt)
+ *
+ * This file is part of jEveAssets.
+ *
+ * jEveAssets is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * jEveAssets is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with jEveAssets; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ */
+package net.nikr.eve.jeveasset.io.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.nikr.eve.jeveasset.TestUtil;
+import net.nikr.eve.jeveasset.gui.tabs.values.AssetValue;
+import net.nikr.eve.jeveasset.gui.tabs.values.Value;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class TrackerDataStoreTest extends TestUtil {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	private final File directory = new File("target" + File.separator + "tracker_store_test");
+	private final File newDirectory = new File(directory.getAbsolutePath() + ".new");
+	private final String jsonFilename = "target" + File.separator + "tracker_store_test.json";
+	private final Date date = new Date(1552492124589L); //2019-03-13
+
+	@After
+	public void tearDown() {
+		delete(directory);
+		delete(newDirectory);
+		new File(jsonFilename).delete();
+		new File(jsonFilename + ".bac").delete();
+	}
+
+	@Test
+	public void testAppendAndRemove() {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		Map<String, List<Value>> appends = new HashMap<>();
+		Value first = createValue(date, 1);
+		add(trackerData, "owner", first);
+		add(appends, "owner", first);
+		save(trackerData, appends, Collections.<String>emptySet(), false);
+		Value second = createValue(new Date(date.getTime() + DAY), 2);
+		appends.clear();
+		add(trackerData, "owner", second);
+		add(appends, "owner", second);
+		save(trackerData, appends, Collections.<String>emptySet(), false);
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+		//Remove
+		trackerData.get("owner").remove(first);
+		save(trackerData, new HashMap<String, List<Value>>(), Collections.singleton(TrackerDataStore.getSegment(first.getDate())), false);
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+	}
+
+	@Test
+	public void testRange() {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		Value march = createValue(date, 1);
+		Value may = createValue(new Date(date.getTime() + 60 * DAY), 2);
+		add(trackerData, "owner", march);
+		add(trackerData, "owner", may);
+		save(trackerData, new HashMap<String, List<Value>>(), Collections.<String>emptySet(), true);
+		assertThat(directory.listFiles().length, equalTo(2));
+		Map<String, List<Value>> expected = new HashMap<>();
+		add(expected, "owner", may);
+		test(expected, TrackerDataStore.load(directory, new Date(date.getTime() + DAY), null));
+	}
+
+	@Test
+	public void testIncomplete() throws IOException {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		Value value = createValue(date, 1);
+		add(trackerData, "owner", value);
+		save(trackerData, new HashMap<String, List<Value>>(), Collections.<String>emptySet(), true);
+		//Incomplete append
+		File file = directory.listFiles()[0];
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.seek(randomAccessFile.length());
+			randomAccessFile.writeInt(100);
+			randomAccessFile.writeInt(1);
+		}
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+	}
+
+	@Test
+	public void testImport() {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		add(trackerData, "owner", createValue(date, 1));
+		add(trackerData, "owner", createValue(new Date(date.getTime() + 60 * DAY), 2));
+		TrackerDataWriter.save(jsonFilename, trackerData, false);
+		test(trackerData, TrackerDataStore.load(directory, jsonFilename, false));
+		assertThat(directory.isDirectory(), equalTo(true));
+		assertThat(newDirectory.exists(), equalTo(false));
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+	}
+
+	@Test
+	public void testImportFailed() throws IOException {
+		Map<String, List<Value>> trackerData = new HashMap<>();
+		add(trackerData, "owner", createValue(date, 1));
+		add(trackerData, "owner", createValue(new Date(date.getTime() + 60 * DAY), 2));
+		TrackerDataWriter.save(jsonFilename, trackerData, false);
+		//Import fails: the temp directory can not be written
+		directory.getParentFile().mkdirs();
+		assertThat(newDirectory.createNewFile(), equalTo(true));
+		test(trackerData, TrackerDataStore.load(directory, jsonFilename, false));
+		assertThat(directory.exists(), equalTo(false));
+		assertThat(newDirectory.exists(), equalTo(false));
+		//Only appends changed: all data must still be saved
+		Map<String, List<Value>> appends = new HashMap<>();
+		Value value = createValue(new Date(date.getTime() + 90 * DAY), 3);
+		add(trackerData, "owner", value);
+		add(appends, "owner", value);
+		save(trackerData, appends, Collections.<String>emptySet(), false);
+		test(trackerData, TrackerDataStore.load(directory, null, null));
+		test(trackerData, TrackerDataStore.load(directory, jsonFilename, false));
+	}
+
+	private void delete(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	private void save(Map<String, List<Value>> trackerData, Map<String, List<Value>> appends, Set<String> segments, boolean all) {
+		assertThat(TrackerDataStore.save(directory, trackerData, appends, segments, all), equalTo(true));
+	}
+
+	private Value createValue(Date date, int i) {
+		Value value = new Value(date);
+		value.setContractCollateral(i);
+		value.setContractValue(i);
+		value.setEscrows(i);
+		value.setEscrowsToCover(i);
+		value.setManufacturing(i);
+		value.setSellOrders(i);
+		value.addAssets(AssetValue.create("location", "flag", 1000L), (double) i);
+		value.addBalance("balance-id", i);
+		value.setSkillPoints(i);
+		return value;
+	}
+
+	private void add(Map<String, List<Value>> trackerData, String owner, Value value) {
+		List<Value> values = trackerData.get(owner);
+		if (values == null) {
+			values = new ArrayList<>();
+			trackerData.put(owner, values);
+		}
+		values.add(value);
+	}
+
+	private void test(Map<String, List<Value>> out, Map<String, List<Value>> in) {
+		assertThat(in, equalTo(out));
+		for (Map.Entry<String, List<Value>> entry : in.entrySet()) {
+			List<Value> outValues = out.get(entry.getKey());
+			for (int i = 0; i < entry.getValue().size(); i++) {
+				Value inValue = entry.getValue().get(i);
+				Value outValue = outValues.get(i);
+				assertThat(inValue.getAssetsFilter(), equalTo(outValue.getAssetsFilter()));
+				assertThat(inValue.getBalanceFilter(), equalTo(outValue.getBalanceFilter()));
+				assertThat(inValue.getTotal(), equalTo(outValue.getTotal()));
+				assertThat(inValue.getSkillPoints(), equalTo(outValue.getSkillPoints()));
+			}
+		}
+	}
+}
@@ -38,6 +38,7 @@ import net.nikr.eve.jeveasset.data.api.my.MyTransaction;
 import net.nikr.eve.jeveasset.data.profile.ProfileData;
 import net.nikr.eve.jeveasset.data.profile.ProfileManager;
 import net.nikr.eve.jeveasset.data.sde.MyLocation;
+import net.nikr.eve.jeveasset.data.settings.SettingsSection;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserLocationSettingsPanel;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserNameSettingsPanel;
 import net.nikr.eve.jeveasset.gui.dialogs.settings.UserPriceSettingsPanel;
@@ -151,6 +152,11 @@ public abstract class FakeProgram extends Program {
 		throw new UnsupportedOperationException("Not implemented");
 	}
 
+	@Override
+	public void updateCompleted() {
+		throw new UnsupportedOperationException("Not implemented");
+	}
+
 	@Override
 	public void createTrackerDataPoint() {
 		throw new UnsupportedOperationException("Not implemented");
@@ -211,6 +217,11 @@ public abstract class FakeProgram extends Program {
 		throw new UnsupportedOperationException("Not implemented");
 	}
 
+	@Override
+	public void saveSettings(String msg, SettingsSection... sections) {
+		throw new UnsupportedOperationException("Not implemented");
+	}
+
 	@Override
 	public void saveExit() {
 		throw new UnsupportedOperationException("Not implemented");